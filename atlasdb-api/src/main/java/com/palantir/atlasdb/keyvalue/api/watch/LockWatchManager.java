@@ -16,6 +16,7 @@
 
 package com.palantir.atlasdb.keyvalue.api.watch;
 
+import com.palantir.atlasdb.transaction.api.TransactionLockWatchingCacheView;
 import com.palantir.common.annotation.Idempotent;
 import com.palantir.lock.watch.CommitUpdate;
 import com.palantir.lock.watch.LockWatchReferences;
@@ -31,6 +32,12 @@ public abstract class LockWatchManager {
     @Idempotent
     public abstract void registerWatches(Set<LockWatchReferences.LockWatchReference> lockWatchReferences);
 
+    /**
+     * Returns a view of the lock watch value cache for the transaction with the given start timestamp. This is used
+     * internally by transactions, and must only be called while the transaction is still open.
+     */
+    public abstract TransactionLockWatchingCacheView getTransactionCacheView(long startTs);
+
     // These methods are hidden on purpose as they should not be generally available, only for brave souls!
 
     abstract boolean isEnabled();
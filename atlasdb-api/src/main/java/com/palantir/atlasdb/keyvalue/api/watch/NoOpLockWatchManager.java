@@ -16,6 +16,8 @@
 
 package com.palantir.atlasdb.keyvalue.api.watch;
 
+import com.palantir.atlasdb.transaction.api.NoOpTransactionLockWatchingCacheView;
+import com.palantir.atlasdb.transaction.api.TransactionLockWatchingCacheView;
 import com.palantir.lock.watch.CommitUpdate;
 import com.palantir.lock.watch.LockWatchReferences;
 import com.palantir.lock.watch.LockWatchVersion;
@@ -32,6 +34,11 @@ public final class NoOpLockWatchManager extends LockWatchManager {
         // Ignored
     }
 
+    @Override
+    public TransactionLockWatchingCacheView getTransactionCacheView(long startTs) {
+        return NoOpTransactionLockWatchingCacheView.INSTANCE;
+    }
+
     @Override
     boolean isEnabled() {
         return NoOpLockWatchEventCache.INSTANCE.isEnabled();
@@ -36,6 +36,15 @@ public interface GetRangesQuery<RESPONSE_TYPE> {
      */
     Optional<Integer> concurrencyLevel();
 
+    /**
+     * If specified, the first page of each range is read before the range is processed, in batches of this many
+     * ranges, using {@link com.palantir.atlasdb.keyvalue.api.KeyValueService#getFirstBatchForRanges}. Up to
+     * {@link #concurrencyLevel()} batches are read concurrently, and results are still returned in the order of
+     * {@link #rangeRequests()}. This is useful for queries over many small ranges, which would otherwise each pay
+     * for a separate round trip.
+     */
+    Optional<Integer> firstPagePrefetchBatchSize();
+
     /**
      * An operator invoked on each range request, to possibly improve the performance of range requests based on schema
      * knowledge. The output of this operator is only used for internal queries: the user-provided visitable processor
@@ -18,7 +18,7 @@ package com.palantir.atlasdb.transaction.api;
 
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
-import com.palantir.lock.watch.LockWatchStateUpdate;
+import com.palantir.lock.watch.LockWatchVersion;
 import java.util.Map;
 import java.util.Set;
 
@@ -44,20 +44,20 @@ public interface LockWatchingCache {
 
     /**
      * A transaction can attempt to cache entries read during the transaction using this method. The implementation of
-     * the {@link LockWatchStateUpdate} must correctly arbitrate which of the passed entries are safe to cache.
+     * the {@link LockWatchingCache} must correctly arbitrate which of the passed entries are safe to cache.
      *
      * @param tableRef table to cache entries for
-     * @param writes entries read by the transaction
-     * @param lockWatchState lock watch state at the start of the transaction that read the entries
+     * @param reads entries read by the transaction
+     * @param version lock watch version at the start of the transaction that read the entries
      */
-    void maybeCacheEntriesRead(TableReference tableRef, Map<Cell, byte[]> writes, LockWatchStateUpdate lockWatchState);
+    void maybeCacheEntriesRead(TableReference tableRef, Map<Cell, byte[]> reads, LockWatchVersion version);
 
     /**
-     * Creates a view of the cache for a transaction, based on the start timestamp and the lock watch state.
+     * Creates a view of the cache for a transaction, based on the lock watch version the transaction started at. If
+     * the lock watch state of the transaction is not known, the returned view never serves nor caches any values.
      *
      * @param startTimestamp of the transaction
-     * @param lockWatchState returned from the {@link com.palantir.lock.v2.StartTransactionWithWatchesResponse}
      * @return view of the cache
      */
-    TransactionLockWatchingCacheView getView(long startTimestamp, LockWatchStateUpdate lockWatchState);
+    TransactionLockWatchingCacheView getView(long startTimestamp);
 }
@@ -19,7 +19,7 @@ package com.palantir.atlasdb.transaction.api;
 import com.google.common.collect.ImmutableMap;
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
-import com.palantir.lock.watch.LockWatchStateUpdate;
+import com.palantir.lock.watch.LockWatchVersion;
 import java.util.Map;
 import java.util.Set;
 
@@ -41,12 +41,12 @@ public final class NoOpLockWatchingCache implements LockWatchingCache {
     }
 
     @Override
-    public void maybeCacheEntriesRead(TableReference tableRef, Map<Cell, byte[]> writes, LockWatchStateUpdate lwState) {
+    public void maybeCacheEntriesRead(TableReference tableRef, Map<Cell, byte[]> reads, LockWatchVersion version) {
         // noop
     }
 
     @Override
-    public TransactionLockWatchingCacheView getView(long startTimestamp, LockWatchStateUpdate lockWatchState) {
+    public TransactionLockWatchingCacheView getView(long startTimestamp) {
         return NoOpTransactionLockWatchingCacheView.INSTANCE;
     }
 }
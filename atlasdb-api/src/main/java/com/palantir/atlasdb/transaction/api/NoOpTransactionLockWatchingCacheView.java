@@ -19,7 +19,6 @@ package com.palantir.atlasdb.transaction.api;
 import com.google.common.collect.ImmutableMap;
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
-import com.palantir.lock.watch.LockWatchStateUpdate;
 import java.util.Map;
 import java.util.Set;
 
@@ -36,7 +35,7 @@ public final class NoOpTransactionLockWatchingCacheView implements TransactionLo
     }
 
     @Override
-    public void tryCacheNewValuesRead(TableReference tableRef, Map<Cell, byte[]> writes, LockWatchStateUpdate lwState) {
+    public void tryCacheNewValuesRead(TableReference tableRef, Map<Cell, byte[]> reads) {
         // noop
     }
 
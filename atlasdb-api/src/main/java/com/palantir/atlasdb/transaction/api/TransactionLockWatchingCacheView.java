@@ -18,7 +18,6 @@ package com.palantir.atlasdb.transaction.api;
 
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
-import com.palantir.lock.watch.LockWatchStateUpdate;
 import java.util.Map;
 import java.util.Set;
 
@@ -39,10 +38,9 @@ public interface TransactionLockWatchingCacheView {
      * {@link LockWatchingCache} to arbitrate which, if any, values should be cached.
      *
      * @param tableRef table we read from
-     * @param writes entries read from the KVS
-     * @param lwState lock watch state when the view was created
+     * @param reads entries read from the KVS
      */
-    void tryCacheNewValuesRead(TableReference tableRef, Map<Cell, byte[]> writes, LockWatchStateUpdate lwState);
+    void tryCacheNewValuesRead(TableReference tableRef, Map<Cell, byte[]> reads);
 
     /**
      * Try to cache values written to the kvs in this transaction. This method must be called only after the writing
@@ -0,0 +1,131 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Futures;
+import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.cassandra.CassandraKeyValueServiceConfig;
+import com.palantir.atlasdb.cassandra.ImmutableCassandraKeyValueServiceConfig;
+import com.palantir.atlasdb.containers.CassandraResource;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.AsyncKeyValueService;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.keyvalue.cassandra.async.CassandraAsyncKeyValueServiceFactory;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+public class CassandraKvsCqlReadRoutingTest {
+    private static final TableReference CQL_TABLE = TableReference.createFromFullyQualifiedName("ns.cql_read_table");
+    private static final TableReference THRIFT_TABLE =
+            TableReference.createFromFullyQualifiedName("ns.thrift_read_table");
+    private static final byte[] ROW = PtBytes.toBytes("row");
+    private static final byte[] COLUMN = PtBytes.toBytes("column");
+    private static final Cell CELL = Cell.create(ROW, COLUMN);
+    private static final Value VALUE = Value.create(PtBytes.toBytes("value"), 1L);
+
+    @ClassRule
+    public static final CassandraResource CASSANDRA_RESOURCE = new CassandraResource();
+
+    private KeyValueService keyValueService;
+    private AsyncKeyValueService asyncKeyValueService;
+
+    @Before
+    public void setUp() {
+        asyncKeyValueService = mock(AsyncKeyValueService.class);
+        when(asyncKeyValueService.getAsync(any(), any()))
+                .thenReturn(Futures.immediateFuture(ImmutableMap.of(CELL, VALUE)));
+        CassandraAsyncKeyValueServiceFactory factory = mock(CassandraAsyncKeyValueServiceFactory.class);
+        when(factory.constructAsyncKeyValueService(any(), any(), eq(AtlasDbConstants.DEFAULT_INITIALIZE_ASYNC)))
+                .thenReturn(Optional.of(asyncKeyValueService));
+
+        CassandraKeyValueServiceConfig config = ImmutableCassandraKeyValueServiceConfig.builder()
+                .from(CASSANDRA_RESOURCE.getConfig())
+                .asyncKeyValueServiceFactory(factory)
+                .addTablesReadWithCql(CQL_TABLE.getQualifiedName())
+                .build();
+
+        keyValueService = CassandraKeyValueServiceImpl.createForTesting(config);
+        keyValueService.createTables(ImmutableMap.of(
+                CQL_TABLE, AtlasDbConstants.GENERIC_TABLE_METADATA,
+                THRIFT_TABLE, AtlasDbConstants.GENERIC_TABLE_METADATA));
+    }
+
+    @After
+    public void tearDown() {
+        try {
+            keyValueService.truncateTables(ImmutableSet.of(CQL_TABLE, THRIFT_TABLE));
+        } catch (Exception e) {
+            // this is fine
+        }
+        CASSANDRA_RESOURCE.registerKvs(keyValueService);
+    }
+
+    @Test
+    public void getOnTableReadWithCqlIsServedByCql() {
+        Map<Cell, Long> request = ImmutableMap.of(CELL, 3L);
+
+        assertThat(keyValueService.get(CQL_TABLE, request)).isEqualTo(ImmutableMap.of(CELL, VALUE));
+        verify(asyncKeyValueService).getAsync(CQL_TABLE, request);
+    }
+
+    @Test
+    public void getRowsWithSelectedColumnsOnTableReadWithCqlIsServedByCql() {
+        Map<Cell, Value> result = keyValueService.getRows(
+                CQL_TABLE, ImmutableList.of(ROW), ColumnSelection.create(ImmutableList.of(COLUMN)), 3L);
+
+        assertThat(result).isEqualTo(ImmutableMap.of(CELL, VALUE));
+        verify(asyncKeyValueService).getAsync(CQL_TABLE, ImmutableMap.of(CELL, 3L));
+    }
+
+    @Test
+    public void getRowsForAllColumnsOnTableReadWithCqlIsServedByThrift() {
+        keyValueService.getRows(CQL_TABLE, ImmutableList.of(ROW), ColumnSelection.all(), 3L);
+
+        verify(asyncKeyValueService, never()).getAsync(any(), any());
+    }
+
+    @Test
+    public void readsOnOtherTablesAreServedByThrift() {
+        keyValueService.put(THRIFT_TABLE, ImmutableMap.of(CELL, VALUE.getContents()), VALUE.getTimestamp());
+
+        assertThat(keyValueService.get(THRIFT_TABLE, ImmutableMap.of(CELL, 3L)))
+                .isEqualTo(ImmutableMap.of(CELL, VALUE));
+        assertThat(keyValueService.getRows(
+                        THRIFT_TABLE, ImmutableList.of(ROW), ColumnSelection.create(ImmutableList.of(COLUMN)), 3L))
+                .isEqualTo(ImmutableMap.of(CELL, VALUE));
+        verify(asyncKeyValueService, never()).getAsync(any(), any());
+    }
+}
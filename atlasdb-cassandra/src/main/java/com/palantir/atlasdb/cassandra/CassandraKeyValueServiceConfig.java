@@ -21,6 +21,7 @@ import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.google.auto.service.AutoService;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.palantir.atlasdb.AtlasDbConstants;
 import com.palantir.atlasdb.cassandra.CassandraServersConfigs.ThriftHostsExtractingVisitor;
 import com.palantir.atlasdb.keyvalue.cassandra.CassandraConstants;
@@ -35,6 +36,7 @@ import java.net.InetSocketAddress;
 import java.net.SocketTimeoutException;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.function.Supplier;
 import org.immutables.value.Value;
@@ -305,6 +307,50 @@ public interface CassandraKeyValueServiceConfig extends KeyValueServiceConfig {
         return 32;
     }
 
+    /**
+     * Maximum number of token ranges that a single call to getRange scans concurrently. Ranges are split by token
+     * ownership, so that each subrange is read from a host that owns it, and rows are still returned in key order.
+     * The default of 1 scans ranges sequentially.
+     */
+    @Value.Default
+    default int getRangeConcurrency() {
+        return 1;
+    }
+
+    /**
+     * Fully qualified names of tables whose get and getRows calls are served by asynchronous CQL queries rather than
+     * by Thrift multigets, if the servers config is CQL capable. Each cell is read with a single partition query that
+     * is routed to a replica of its row, so large multigets do not need a thread per host. Calls to getRows for all
+     * columns of a row are always served through Thrift.
+     * <p>
+     * CQL reads are always made at LOCAL_QUORUM. If the key value service lowers its read consistency (as it does for
+     * a single datacenter with a replication factor of 2), these tables are read through Thrift at that consistency
+     * instead.
+     */
+    @Value.Default
+    default Set<String> tablesReadWithCql() {
+        return ImmutableSet.of();
+    }
+
+    /**
+     * If true, requests are sent to whichever of two randomly chosen candidate hosts has the lower product of recent
+     * average latency and requests in flight, rather than to a random host weighted by requests in flight only.
+     */
+    @Value.Default
+    default boolean latencyAwareHostSelection() {
+        return false;
+    }
+
+    /**
+     * If true, multiget reads that take longer than the recent 99th percentile latency of such reads are also sent to
+     * a second host, and whichever response arrives first is used. At most {@link #poolSize()} reads per Cassandra
+     * host can be retried speculatively at once; further reads only wait for their first host.
+     */
+    @Value.Default
+    default boolean speculativeReadRetry() {
+        return false;
+    }
+
     /**
      * Obsolete value, replaced by {@link SweepConfig#readLimit}.
      *
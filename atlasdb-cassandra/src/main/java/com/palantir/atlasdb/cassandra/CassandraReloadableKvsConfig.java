@@ -23,6 +23,7 @@ import com.palantir.conjure.java.api.config.ssl.SslConfiguration;
 import java.net.InetSocketAddress;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -215,6 +216,26 @@ public class CassandraReloadableKvsConfig implements CassandraKeyValueServiceCon
         return config.rangesConcurrency();
     }
 
+    @Override
+    public int getRangeConcurrency() {
+        return config.getRangeConcurrency();
+    }
+
+    @Override
+    public Set<String> tablesReadWithCql() {
+        return config.tablesReadWithCql();
+    }
+
+    @Override
+    public boolean latencyAwareHostSelection() {
+        return config.latencyAwareHostSelection();
+    }
+
+    @Override
+    public boolean speculativeReadRetry() {
+        return config.speculativeReadRetry();
+    }
+
     @Override
     public Integer timestampsGetterBatchSize() {
         return config.timestampsGetterBatchSize();
@@ -66,6 +66,16 @@ public final class CassandraServersConfigs {
         public int preparedStatementCacheSize() {
             return 100;
         }
+
+        /**
+         * Maximum number of CQL queries in flight to any one set of replicas. Further queries are queued on the client
+         * until earlier queries complete, rather than in the driver's connection pools, which fail queries once their
+         * queues are full.
+         */
+        @Value.Default
+        public int maxInFlightQueriesPerHost() {
+            return 256;
+        }
     }
 
     @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type", defaultImpl = ImmutableDefaultConfig.class)
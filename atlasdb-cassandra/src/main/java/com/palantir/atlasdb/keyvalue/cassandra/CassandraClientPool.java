@@ -15,9 +15,11 @@
  */
 package com.palantir.atlasdb.keyvalue.cassandra;
 
+import com.google.common.collect.RangeMap;
 import com.palantir.common.base.FunctionCheckedException;
 import com.palantir.processors.AutoDelegate;
 import java.net.InetSocketAddress;
+import java.util.List;
 import java.util.Map;
 
 @AutoDelegate
@@ -36,6 +38,8 @@ public interface CassandraClientPool {
 
     InetSocketAddress getRandomHostForKey(byte[] key);
 
+    RangeMap<LightweightOppToken, List<InetSocketAddress>> getTokenMap();
+
     Map<InetSocketAddress, CassandraClientPoolingContainer> getCurrentPools();
 
     void shutdown();
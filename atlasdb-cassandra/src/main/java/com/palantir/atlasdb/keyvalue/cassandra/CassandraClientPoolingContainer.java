@@ -18,12 +18,17 @@ package com.palantir.atlasdb.keyvalue.cassandra;
 import com.codahale.metrics.Gauge;
 import com.google.common.base.Function;
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
 import com.palantir.atlasdb.cassandra.CassandraKeyValueServiceConfig;
 import com.palantir.atlasdb.encoding.PtBytes;
 import com.palantir.atlasdb.keyvalue.cassandra.pool.CassandraClientPoolHostLevelMetric;
 import com.palantir.atlasdb.keyvalue.cassandra.pool.CassandraClientPoolMetrics;
+import com.palantir.atlasdb.keyvalue.cassandra.pool.ExponentiallyWeightedLatency;
+import com.palantir.atlasdb.keyvalue.cassandra.pool.LockFreeObjectPool;
 import com.palantir.atlasdb.util.MetricsManager;
 import com.palantir.common.base.FunctionCheckedException;
+import com.palantir.common.concurrent.NamedThreadFactory;
+import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.common.pooling.PoolingContainer;
 import com.palantir.logsafe.SafeArg;
 import com.palantir.logsafe.UnsafeArg;
@@ -32,15 +37,14 @@ import java.lang.management.ThreadInfo;
 import java.lang.management.ThreadMXBean;
 import java.lang.reflect.Field;
 import java.net.InetSocketAddress;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
-import org.apache.commons.pool2.impl.GenericObjectPool;
-import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import org.apache.thrift.transport.TFramedTransport;
 import org.apache.thrift.transport.TMemoryInputTransport;
 import org.apache.thrift.transport.TTransport;
@@ -50,13 +54,16 @@ import org.slf4j.LoggerFactory;
 
 public class CassandraClientPoolingContainer implements PoolingContainer<CassandraClient> {
     private static final Logger log = LoggerFactory.getLogger(CassandraClientPoolingContainer.class);
+    private static final ScheduledExecutorService sharedEvictionDaemon =
+            PTExecutors.newScheduledThreadPool(1, new NamedThreadFactory("CassandraClientPoolEviction", true));
 
     private final InetSocketAddress host;
     private final CassandraKeyValueServiceConfig config;
     private final MetricsManager metricsManager;
     private final AtomicLong count = new AtomicLong();
     private final AtomicInteger openRequests = new AtomicInteger();
-    private final GenericObjectPool<CassandraClient> clientPool;
+    private final ExponentiallyWeightedLatency latency = new ExponentiallyWeightedLatency(0.1, Duration.ofSeconds(5));
+    private final LockFreeObjectPool<CassandraClient> clientPool;
     private final int poolNumber;
     private final CassandraClientPoolMetrics poolMetrics;
 
@@ -88,6 +95,15 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Cassand
         return openRequests.get();
     }
 
+    /**
+     * Exponentially weighted average latency of recent requests to {@link #runWithPooledResource}, in nanoseconds, or
+     * 0 if no request has completed yet. Failed requests are included, as a host that times out is slow. The estimate
+     * decays while no requests complete, so that a host that was slow is eventually tried again.
+     */
+    public long getLatencyEstimateNanos() {
+        return latency.getNanos();
+    }
+
     // returns negative if not available; only expected use is debugging
     public int getActiveCheckouts() {
         return clientPool.getNumActive();
@@ -107,6 +123,7 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Cassand
                         + " calling cassandra host " + host
                         + " started at " + DateTimeFormatter.ISO_INSTANT.format(Instant.now())
                         + " - " + count.getAndIncrement());
+        long startNanos = System.nanoTime();
         try {
             openRequests.getAndIncrement();
             return runWithGoodResource(fn);
@@ -126,6 +143,7 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Cassand
             }
             throw t;
         } finally {
+            latency.record(System.nanoTime() - startNanos);
             openRequests.getAndDecrement();
             Thread.currentThread().setName(origName);
         }
@@ -141,10 +159,10 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Cassand
     private <V, K extends Exception> V runWithGoodResource(FunctionCheckedException<CassandraClient, V, K> fn)
             throws K {
         boolean shouldReuse = true;
-        CassandraClient resource = null;
+        LockFreeObjectPool.Pooled<CassandraClient> resource = null;
         try {
             resource = clientPool.borrowObject();
-            return fn.apply(resource);
+            return fn.apply(resource.get());
         } catch (Exception e) {
             if (isInvalidClientConnection(resource)) {
                 log.warn(
@@ -165,7 +183,7 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Cassand
                 if (shouldReuse) {
                     log.debug(
                             "Returning resource to pool of host {}", SafeArg.of("host", CassandraLogHelper.host(host)));
-                    eagerlyCleanupReadBuffersFromIdleConnection(resource, host);
+                    eagerlyCleanupReadBuffersFromIdleConnection(resource.get(), host);
                     clientPool.returnObject(resource);
                 } else {
                     invalidateQuietly(resource);
@@ -198,11 +216,11 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Cassand
         }
     }
 
-    private static boolean isInvalidClientConnection(CassandraClient client) {
-        return client != null && client.isValid();
+    private static boolean isInvalidClientConnection(LockFreeObjectPool.Pooled<CassandraClient> resource) {
+        return resource != null && resource.get().isValid();
     }
 
-    private void invalidateQuietly(CassandraClient resource) {
+    private void invalidateQuietly(LockFreeObjectPool.Pooled<CassandraClient> resource) {
         try {
             log.debug("Discarding resource of host {}", SafeArg.of("host", CassandraLogHelper.host(host)));
             clientPool.invalidateObject(resource);
@@ -238,12 +256,14 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Cassand
      *    up to {@link CassandraKeyValueServiceConfig#maxConnectionBurstSize()} connections per host under load.
      *
      * Borrowing from pool:
+     *    Prefer the connection this thread last returned, and otherwise take any idle connection. Neither takes a lock.
      *    On borrow, check if the connection is actually open. If it is not,
      *       immediately discard this connection from the pool, and try to take another.
      *    Borrow attempts against a fully in-use pool immediately throw a NoSuchElementException.
      *       {@code CassandraClientPool} when it sees this will:
      *          Follow an exponential backoff as a method of back pressure.
      *          Try 3 times against this host, and then give up and try against different hosts 3 additional times.
+     *    The time taken to borrow, including creating a new connection if needed, is recorded per host.
      *
      *
      * In an asynchronous thread (using default values):
@@ -252,35 +272,25 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Cassand
      *    Discard any connections in this tenth of the pool that have been idle for more than 10 minutes,
      *       while still keeping a minimum number of idle connections around for fast borrows.
      */
-    private GenericObjectPool<CassandraClient> createClientPool() {
+    private LockFreeObjectPool<CassandraClient> createClientPool() {
         CassandraClientFactory cassandraClientFactory = new CassandraClientFactory(metricsManager, host, config);
-        GenericObjectPoolConfig poolConfig = new GenericObjectPoolConfig();
-
-        poolConfig.setMinIdle(config.poolSize());
-        poolConfig.setMaxIdle(config.maxConnectionBurstSize());
-        poolConfig.setMaxTotal(config.maxConnectionBurstSize());
-
-        // immediately throw when we try and borrow from a full pool; dealt with at higher level
-        poolConfig.setBlockWhenExhausted(false);
-
-        // this test is free/just checks a boolean and does not block; borrow is still fast
-        poolConfig.setTestOnBorrow(true);
-
-        poolConfig.setSoftMinEvictableIdleTimeMillis(
-                TimeUnit.MILLISECONDS.convert(config.idleConnectionTimeoutSeconds(), TimeUnit.SECONDS));
-        poolConfig.setMinEvictableIdleTimeMillis(Long.MAX_VALUE);
+        LockFreeObjectPool<CassandraClient> pool = new LockFreeObjectPool<>(
+                cassandraClientFactory,
+                config.poolSize(),
+                config.maxConnectionBurstSize(),
+                Duration.ofSeconds(config.idleConnectionTimeoutSeconds()),
+                config.proportionConnectionsToCheckPerEvictionRun(),
+                metricsManager.registerOrGetTaggedHistogram(
+                        CassandraClientPoolingContainer.class,
+                        "borrowTimeNanos",
+                        ImmutableMap.of("pool", "pool" + poolNumber)));
 
         // the randomness here is to prevent all of the pools for all of the hosts
         // evicting all at at once, which isn't great for C*.
         int timeBetweenEvictionsSeconds = config.timeBetweenConnectionEvictionRunsSeconds();
         int delta = ThreadLocalRandom.current().nextInt(Math.min(timeBetweenEvictionsSeconds / 2, 10));
-        poolConfig.setTimeBetweenEvictionRunsMillis(
-                TimeUnit.MILLISECONDS.convert(timeBetweenEvictionsSeconds + delta, TimeUnit.SECONDS));
-        poolConfig.setNumTestsPerEvictionRun(-(int) (1.0 / config.proportionConnectionsToCheckPerEvictionRun()));
-        poolConfig.setTestWhileIdle(true);
+        pool.scheduleEviction(sharedEvictionDaemon, Duration.ofSeconds(timeBetweenEvictionsSeconds + delta));
 
-        poolConfig.setJmxNamePrefix(CassandraLogHelper.host(host));
-        GenericObjectPool<CassandraClient> pool = new GenericObjectPool<>(cassandraClientFactory, poolConfig);
         registerMetrics(pool);
         return pool;
     }
@@ -308,7 +318,7 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Cassand
         }
     }
 
-    private void registerMetrics(GenericObjectPool<CassandraClient> pool) {
+    private void registerMetrics(LockFreeObjectPool<CassandraClient> pool) {
         registerPoolMetric(CassandraClientPoolHostLevelMetric.MEAN_ACTIVE_TIME_MILLIS, pool::getMeanActiveTimeMillis);
         registerPoolMetric(CassandraClientPoolHostLevelMetric.NUM_IDLE, () -> (long) pool.getNumIdle());
         registerPoolMetric(CassandraClientPoolHostLevelMetric.NUM_ACTIVE, () -> (long) pool.getNumActive());
@@ -43,6 +43,7 @@ import com.palantir.atlasdb.cassandra.CassandraKeyValueServiceRuntimeConfig;
 import com.palantir.atlasdb.cassandra.CassandraMutationTimestampProvider;
 import com.palantir.atlasdb.cassandra.CassandraMutationTimestampProviders;
 import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.futures.AtlasFutures;
 import com.palantir.atlasdb.keyvalue.api.AsyncKeyValueService;
 import com.palantir.atlasdb.keyvalue.api.BatchColumnRangeSelection;
 import com.palantir.atlasdb.keyvalue.api.CandidateCellForSweeping;
@@ -217,6 +218,7 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
     private final TracingQueryRunner queryRunner;
     private final WrappingQueryRunner wrappingQueryRunner;
     private final CellLoader cellLoader;
+    private final Optional<SpeculativeReads> speculativeReads;
     private final Optional<AsyncKeyValueService> asyncKeyValueService;
     private final RangeLoader rangeLoader;
     private final TaskRunner taskRunner;
@@ -424,8 +426,13 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
         this.wrappingQueryRunner = new WrappingQueryRunner(queryRunner);
         this.cassandraTables = new CassandraTables(clientPool, config);
         this.taskRunner = new TaskRunner(executor);
-        this.cellLoader = CellLoader.create(clientPool, wrappingQueryRunner, taskRunner, runtimeConfigSupplier);
-        this.rangeLoader = new RangeLoader(clientPool, queryRunner, metricsManager, readConsistency);
+        this.speculativeReads = config.speculativeReadRetry()
+                ? Optional.of(SpeculativeReads.create(config.poolSize() * config.servers().numberOfThriftHosts()))
+                : Optional.empty();
+        this.cellLoader = CellLoader.create(
+                clientPool, wrappingQueryRunner, taskRunner, runtimeConfigSupplier, speculativeReads);
+        this.rangeLoader = new RangeLoader(
+                clientPool, queryRunner, metricsManager, readConsistency, executor, config.getRangeConcurrency());
         this.cellValuePutter = new CellValuePutter(
                 config,
                 clientPool,
@@ -739,6 +746,11 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
             }
         }
 
+        Optional<AsyncKeyValueService> cqlReader = getCqlReader(tableRef);
+        if (cqlReader.isPresent()) {
+            return getWithCql(cqlReader.get(), tableRef, Maps.asMap(cells, unused -> startTs));
+        }
+
         StartTsResultsCollector collector = new StartTsResultsCollector(metricsManager, startTs);
         cellLoader.loadWithTs("getRows", tableRef, cells, startTs, false, collector, readConsistency);
         return collector.getCollectedResults();
@@ -766,6 +778,11 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
             return ImmutableMap.of();
         }
 
+        Optional<AsyncKeyValueService> cqlReader = getCqlReader(tableRef);
+        if (cqlReader.isPresent()) {
+            return getWithCql(cqlReader.get(), tableRef, timestampByCell);
+        }
+
         try {
             Long firstTs = timestampByCell.values().iterator().next();
             if (Iterables.all(timestampByCell.values(), Predicates.equalTo(firstTs))) {
@@ -786,6 +803,27 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
         }
     }
 
+    /**
+     * CQL reads are always made at LOCAL_QUORUM, so once the read consistency has been lowered (e.g. for single
+     * datacenter clusters with a replication factor of 2) tables are read through Thrift instead.
+     */
+    private Optional<AsyncKeyValueService> getCqlReader(TableReference tableRef) {
+        if (!config.tablesReadWithCql().contains(tableRef.getQualifiedName())
+                || readConsistency != ConsistencyLevel.LOCAL_QUORUM) {
+            return Optional.empty();
+        }
+        return asyncKeyValueService;
+    }
+
+    private static Map<Cell, Value> getWithCql(
+            AsyncKeyValueService cqlReader, TableReference tableRef, Map<Cell, Long> timestampByCell) {
+        try {
+            return AtlasFutures.getUnchecked(cqlReader.getAsync(tableRef, timestampByCell));
+        } catch (Exception e) {
+            throw Throwables.unwrapAndThrowAtlasDbDependencyException(e);
+        }
+    }
+
     private Map<Cell, Value> get(
             String kvsMethodName, TableReference tableRef, Set<Cell> cells, long maxTimestampExclusive) {
         StartTsResultsCollector collector = new StartTsResultsCollector(metricsManager, maxTimestampExclusive);
@@ -1751,6 +1789,7 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
     public void close() {
         clientPool.shutdown();
         asyncKeyValueService.ifPresent(AsyncKeyValueService::close);
+        speculativeReads.ifPresent(SpeculativeReads::close);
         super.close();
     }
 
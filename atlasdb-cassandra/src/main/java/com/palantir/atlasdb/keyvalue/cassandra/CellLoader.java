@@ -35,6 +35,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.Callable;
@@ -49,31 +50,36 @@ import org.slf4j.LoggerFactory;
 
 final class CellLoader {
     private static final Logger log = LoggerFactory.getLogger(CellLoader.class);
+    private static final int MAX_ATTEMPTS_TO_FIND_BACKUP_HOST = 3;
 
     private final CassandraClientPool clientPool;
     private final WrappingQueryRunner queryRunner;
     private final TaskRunner taskRunner;
     private final CellLoadingBatcher batcher;
+    private final Optional<SpeculativeReads> speculativeReads;
 
     private CellLoader(
             CassandraClientPool clientPool,
             WrappingQueryRunner queryRunner,
             TaskRunner taskRunner,
-            CellLoadingBatcher batcher) {
+            CellLoadingBatcher batcher,
+            Optional<SpeculativeReads> speculativeReads) {
         this.clientPool = clientPool;
         this.queryRunner = queryRunner;
         this.taskRunner = taskRunner;
         this.batcher = batcher;
+        this.speculativeReads = speculativeReads;
     }
 
     static CellLoader create(
             CassandraClientPool clientPool,
             WrappingQueryRunner queryRunner,
             TaskRunner taskRunner,
-            Supplier<CassandraKeyValueServiceRuntimeConfig> configSupplier) {
+            Supplier<CassandraKeyValueServiceRuntimeConfig> configSupplier,
+            Optional<SpeculativeReads> speculativeReads) {
         CellLoadingBatcher batcher = new CellLoadingBatcher(
                 () -> configSupplier.get().cellLoadingConfig(), CellLoader::logRebatchingWarnMessage);
-        return new CellLoader(clientPool, queryRunner, taskRunner, batcher);
+        return new CellLoader(clientPool, queryRunner, taskRunner, batcher, speculativeReads);
     }
 
     Multimap<Cell, Long> getAllTimestamps(
@@ -145,36 +151,16 @@ final class CellLoader {
         final ColumnParent colFam = new ColumnParent(CassandraKeyValueServiceImpl.internalTableName(tableRef));
         List<Callable<Void>> tasks = new ArrayList<>();
         for (final List<Cell> partition : batcher.partitionIntoBatches(cells, host, tableRef)) {
-            Callable<Void> multiGetCallable = () -> clientPool.runWithRetryOnHost(
-                    host, new FunctionCheckedException<CassandraClient, Void, Exception>() {
-                        @Override
-                        public Void apply(CassandraClient client) throws Exception {
-                            List<KeyPredicate> query = translatePartitionToKeyPredicates(partition, startTs, loadAllTs);
-
-                            if (log.isTraceEnabled()) {
-                                log.trace(
-                                        "Requesting {} cells from {} {}starting at timestamp {} on {}",
-                                        SafeArg.of("cells", partition.size()),
-                                        LoggingArgs.tableRef(tableRef),
-                                        SafeArg.of("timestampClause", loadAllTs ? "for all timestamps " : ""),
-                                        SafeArg.of("startTs", startTs),
-                                        SafeArg.of("host", CassandraLogHelper.host(host)));
-                            }
-
-                            Map<ByteBuffer, List<List<ColumnOrSuperColumn>>> results = queryRunner.multiget_multislice(
-                                    kvsMethodName, client, tableRef, query, consistency);
-                            Map<ByteBuffer, List<ColumnOrSuperColumn>> aggregatedResults =
-                                    Maps.transformValues(results, lists -> Lists.newArrayList(Iterables.concat(lists)));
-                            visitor.visit(aggregatedResults);
-                            return null;
-                        }
-
-                        @Override
-                        public String toString() {
-                            return "multiget_multislice(" + host + ", " + colFam + ", " + partition.size() + " cells"
-                                    + ")";
-                        }
-                    });
+            FunctionCheckedException<InetSocketAddress, Map<ByteBuffer, List<ColumnOrSuperColumn>>, Exception>
+                    multiGet = readHost -> clientPool.runWithRetryOnHost(readHost, multiGetOnHost(
+                            kvsMethodName, readHost, tableRef, colFam, partition, startTs, loadAllTs, consistency));
+            Callable<Void> multiGetCallable = () -> {
+                Map<ByteBuffer, List<ColumnOrSuperColumn>> results = speculativeReads.isPresent()
+                        ? speculativeReads.get().run(multiGet, host, () -> getBackupHost(host, partition))
+                        : multiGet.apply(host);
+                visitor.visit(results);
+                return null;
+            };
             tasks.add(AnnotatedCallable.wrapWithThreadName(
                     AnnotationType.PREPEND,
                     "Atlas loadWithTs " + partition.size() + " cells from " + tableRef + " on " + host,
@@ -183,6 +169,58 @@ final class CellLoader {
         return tasks;
     }
 
+    private FunctionCheckedException<CassandraClient, Map<ByteBuffer, List<ColumnOrSuperColumn>>, Exception>
+            multiGetOnHost(
+                    String kvsMethodName,
+                    InetSocketAddress host,
+                    TableReference tableRef,
+                    ColumnParent colFam,
+                    List<Cell> partition,
+                    long startTs,
+                    boolean loadAllTs,
+                    ConsistencyLevel consistency) {
+        return new FunctionCheckedException<CassandraClient, Map<ByteBuffer, List<ColumnOrSuperColumn>>, Exception>() {
+            @Override
+            public Map<ByteBuffer, List<ColumnOrSuperColumn>> apply(CassandraClient client) throws Exception {
+                List<KeyPredicate> query = translatePartitionToKeyPredicates(partition, startTs, loadAllTs);
+
+                if (log.isTraceEnabled()) {
+                    log.trace(
+                            "Requesting {} cells from {} {}starting at timestamp {} on {}",
+                            SafeArg.of("cells", partition.size()),
+                            LoggingArgs.tableRef(tableRef),
+                            SafeArg.of("timestampClause", loadAllTs ? "for all timestamps " : ""),
+                            SafeArg.of("startTs", startTs),
+                            SafeArg.of("host", CassandraLogHelper.host(host)));
+                }
+
+                Map<ByteBuffer, List<List<ColumnOrSuperColumn>>> results = queryRunner.multiget_multislice(
+                        kvsMethodName, client, tableRef, query, consistency);
+                return Maps.transformValues(results, lists -> Lists.newArrayList(Iterables.concat(lists)));
+            }
+
+            @Override
+            public String toString() {
+                return "multiget_multislice(" + host + ", " + colFam + ", " + partition.size() + " cells)";
+            }
+        };
+    }
+
+    /**
+     * Picks another host that owns the first row of the batch, if one can be found. Any host can coordinate the
+     * multiget, so the other rows of the batch do not need to be owned by it.
+     */
+    private Optional<InetSocketAddress> getBackupHost(InetSocketAddress host, List<Cell> partition) {
+        byte[] firstRow = partition.get(0).getRowName();
+        for (int attempt = 0; attempt < MAX_ATTEMPTS_TO_FIND_BACKUP_HOST; attempt++) {
+            InetSocketAddress candidate = clientPool.getRandomHostForKey(firstRow);
+            if (!candidate.equals(host)) {
+                return Optional.of(candidate);
+            }
+        }
+        return Optional.empty();
+    }
+
     private static List<KeyPredicate> translatePartitionToKeyPredicates(
             List<Cell> partition, long startTs, boolean loadAllTs) {
         Map<byte[], SlicePredicate> canonicalPredicates = new TreeMap<>(UnsignedBytes.lexicographicalComparator());
@@ -0,0 +1,169 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra;
+
+import com.google.common.collect.AbstractIterator;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+import com.palantir.common.base.ClosableIterator;
+import com.palantir.common.base.Throwables;
+import com.palantir.logsafe.Preconditions;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Scans a number of consecutive, non-overlapping subranges concurrently, and returns their rows in order. Each subrange
+ * that is being scanned has at most one batch of rows loaded ahead of the consumer, so memory use is bounded by the
+ * number of concurrent scans, regardless of how large the subranges are.
+ *
+ * Batches are loaded by separate executor tasks, rather than by threads that block until the consumer catches up, so
+ * that slow consumers do not tie up executor threads.
+ */
+@NotThreadSafe
+final class ParallelRangeIterator<T> extends AbstractIterator<RowResult<T>> implements ClosableIterator<RowResult<T>> {
+    private final ExecutorService executor;
+    private final Function<RangeRequest, ClosableIterator<RowResult<T>>> scanner;
+    private final int concurrency;
+    private final int batchSize;
+
+    private final Deque<RangeRequest> pendingSubranges;
+    private final Deque<SubrangeScan> activeScans = new ArrayDeque<>();
+    private Iterator<RowResult<T>> currentBatch = Collections.emptyIterator();
+
+    ParallelRangeIterator(
+            ExecutorService executor,
+            Function<RangeRequest, ClosableIterator<RowResult<T>>> scanner,
+            List<RangeRequest> subrangesInOrder,
+            int concurrency,
+            int batchSize) {
+        Preconditions.checkArgument(concurrency > 0, "concurrency must be positive");
+        Preconditions.checkArgument(batchSize > 0, "batchSize must be positive");
+        this.executor = executor;
+        this.scanner = scanner;
+        this.pendingSubranges = new ArrayDeque<>(subrangesInOrder);
+        this.concurrency = concurrency;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    protected RowResult<T> computeNext() {
+        while (!currentBatch.hasNext()) {
+            startScans();
+            SubrangeScan scan = activeScans.peekFirst();
+            if (scan == null) {
+                return endOfData();
+            }
+            Batch<T> batch = scan.awaitBatch();
+            if (batch.hasMore) {
+                scan.loadNextBatch();
+            } else {
+                activeScans.removeFirst();
+                scan.close();
+            }
+            currentBatch = batch.rows.iterator();
+        }
+        return currentBatch.next();
+    }
+
+    @Override
+    public void close() {
+        activeScans.forEach(SubrangeScan::close);
+        activeScans.clear();
+        pendingSubranges.clear();
+        currentBatch = Collections.emptyIterator();
+    }
+
+    private void startScans() {
+        while (activeScans.size() < concurrency && !pendingSubranges.isEmpty()) {
+            SubrangeScan scan = new SubrangeScan(pendingSubranges.removeFirst());
+            scan.loadNextBatch();
+            activeScans.addLast(scan);
+        }
+    }
+
+    /**
+     * Only one batch of a scan is loaded at a time, so the underlying iterator is never used concurrently, and each
+     * task sees the effects of the previous one through the future that it was awaited on.
+     */
+    private final class SubrangeScan {
+        private final RangeRequest subrange;
+        private ClosableIterator<RowResult<T>> rows;
+        private Future<Batch<T>> nextBatch;
+
+        private SubrangeScan(RangeRequest subrange) {
+            this.subrange = subrange;
+        }
+
+        private void loadNextBatch() {
+            nextBatch = executor.submit(() -> {
+                if (rows == null) {
+                    rows = scanner.apply(subrange);
+                }
+                List<RowResult<T>> batch = new ArrayList<>(batchSize);
+                while (batch.size() < batchSize && rows.hasNext()) {
+                    batch.add(rows.next());
+                }
+                return new Batch<>(batch, rows.hasNext());
+            });
+        }
+
+        private Batch<T> awaitBatch() {
+            try {
+                return nextBatch.get();
+            } catch (Exception e) {
+                throw Throwables.unwrapAndThrowAtlasDbDependencyException(e);
+            }
+        }
+
+        private void close() {
+            if (nextBatch != null && !nextBatch.cancel(false)) {
+                closeRowsOnceLoaded();
+            } else if (rows != null) {
+                rows.close();
+            }
+        }
+
+        private void closeRowsOnceLoaded() {
+            try {
+                nextBatch.get();
+            } catch (Exception e) {
+                // The scan is being abandoned, so there is nothing to report.
+            }
+            if (rows != null) {
+                rows.close();
+            }
+        }
+    }
+
+    private static final class Batch<T> {
+        private final List<RowResult<T>> rows;
+        private final boolean hasMore;
+
+        private Batch(List<RowResult<T>> rows, boolean hasMore) {
+            this.rows = rows;
+            this.hasMore = hasMore;
+        }
+    }
+}
@@ -16,8 +16,15 @@
 
 package com.palantir.atlasdb.keyvalue.cassandra;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.BoundType;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeMap;
+import com.google.common.primitives.UnsignedBytes;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RangeRequests;
 import com.palantir.atlasdb.keyvalue.api.RowResult;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
 import com.palantir.atlasdb.keyvalue.api.Value;
@@ -29,6 +36,11 @@ import com.palantir.atlasdb.keyvalue.cassandra.thrift.SlicePredicates;
 import com.palantir.atlasdb.util.MetricsManager;
 import com.palantir.common.base.ClosableIterator;
 import com.palantir.common.base.ClosableIterators;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Supplier;
 import org.apache.cassandra.thrift.ConsistencyLevel;
 import org.apache.cassandra.thrift.SlicePredicate;
@@ -37,6 +49,8 @@ public class RangeLoader {
     private final CassandraClientPool clientPool;
     private final TracingQueryRunner queryRunner;
     private final MetricsManager metricsManager;
+    private final ExecutorService executor;
+    private final int concurrency;
     private ConsistencyLevel consistencyLevel;
 
     public RangeLoader(
@@ -44,21 +58,102 @@ public class RangeLoader {
             TracingQueryRunner queryRunner,
             MetricsManager metricsManager,
             ConsistencyLevel consistencyLevel) {
+        this(clientPool, queryRunner, metricsManager, consistencyLevel, MoreExecutors.newDirectExecutorService(), 1);
+    }
+
+    /**
+     * @param concurrency the maximum number of token ranges to scan concurrently on the given executor, for ranges that
+     * span the token ranges of more than one set of hosts.
+     */
+    public RangeLoader(
+            CassandraClientPool clientPool,
+            TracingQueryRunner queryRunner,
+            MetricsManager metricsManager,
+            ConsistencyLevel consistencyLevel,
+            ExecutorService executor,
+            int concurrency) {
         this.clientPool = clientPool;
         this.queryRunner = queryRunner;
         this.metricsManager = metricsManager;
         this.consistencyLevel = consistencyLevel;
+        this.executor = executor;
+        this.concurrency = concurrency;
     }
 
     public ClosableIterator<RowResult<Value>> getRange(TableReference tableRef, RangeRequest rangeRequest, long ts) {
-        return getRangeWithPageCreator(
-                tableRef, rangeRequest, ts, consistencyLevel, () -> ValueExtractor.create(metricsManager));
+        ConsistencyLevel consistency = consistencyLevel;
+        if (concurrency > 1 && !rangeRequest.isReverse() && !rangeRequest.isEmptyRange()) {
+            List<RangeRequest> subranges = splitByTokenOwnership(rangeRequest, clientPool.getTokenMap());
+            if (subranges.size() > 1) {
+                return new ParallelRangeIterator<>(
+                        executor,
+                        subrange -> getRange(tableRef, subrange, ts, consistency),
+                        subranges,
+                        concurrency,
+                        rangeRequest.getBatchHint() == null ? 100 : rangeRequest.getBatchHint());
+            }
+        }
+        return getRange(tableRef, rangeRequest, ts, consistency);
     }
 
     public void setConsistencyLevel(ConsistencyLevel consistencyLevel) {
         this.consistencyLevel = consistencyLevel;
     }
 
+    /**
+     * Splits the given range at the boundaries between token ranges that are owned by different sets of hosts, so that
+     * each subrange can be read from hosts that own all of it. As Cassandra is using the byte ordered partitioner,
+     * tokens are row names, and the subranges cover the given range in order.
+     */
+    @VisibleForTesting
+    static List<RangeRequest> splitByTokenOwnership(
+            RangeRequest rangeRequest, RangeMap<LightweightOppToken, List<InetSocketAddress>> tokenMap) {
+        List<Map.Entry<Range<LightweightOppToken>, List<InetSocketAddress>>> tokenRanges =
+                ImmutableList.copyOf(tokenMap.asMapOfRanges().entrySet());
+        List<RangeRequest> subranges = new ArrayList<>();
+        byte[] subrangeStart = rangeRequest.getStartInclusive();
+        for (int i = 0; i + 1 < tokenRanges.size(); i++) {
+            Range<LightweightOppToken> tokenRange = tokenRanges.get(i).getKey();
+            boolean sameOwnersAsNext = tokenRanges.get(i).getValue().equals(tokenRanges.get(i + 1).getValue());
+            if (sameOwnersAsNext || !tokenRange.hasUpperBound()) {
+                continue;
+            }
+            byte[] splitPoint = getFirstRowAfter(tokenRange);
+            if (splitPoint != null && isAfter(splitPoint, subrangeStart) && isBeforeEnd(splitPoint, rangeRequest)) {
+                subranges.add(rangeRequest.getBuilder()
+                        .startRowInclusive(subrangeStart)
+                        .endRowExclusive(splitPoint)
+                        .build());
+                subrangeStart = splitPoint;
+            }
+        }
+        subranges.add(rangeRequest.getBuilder().startRowInclusive(subrangeStart).build());
+        return subranges;
+    }
+
+    private static byte[] getFirstRowAfter(Range<LightweightOppToken> tokenRange) {
+        byte[] upperEndpoint = tokenRange.upperEndpoint().bytes;
+        if (tokenRange.upperBoundType() == BoundType.OPEN) {
+            return upperEndpoint;
+        }
+        return RangeRequests.isLastRowName(upperEndpoint) ? null : RangeRequests.nextLexicographicName(upperEndpoint);
+    }
+
+    private static boolean isAfter(byte[] row, byte[] startInclusive) {
+        return UnsignedBytes.lexicographicalComparator().compare(row, startInclusive) > 0;
+    }
+
+    private static boolean isBeforeEnd(byte[] row, RangeRequest rangeRequest) {
+        byte[] endExclusive = rangeRequest.getEndExclusive();
+        return endExclusive.length == 0 || UnsignedBytes.lexicographicalComparator().compare(row, endExclusive) < 0;
+    }
+
+    private ClosableIterator<RowResult<Value>> getRange(
+            TableReference tableRef, RangeRequest rangeRequest, long ts, ConsistencyLevel consistency) {
+        return getRangeWithPageCreator(
+                tableRef, rangeRequest, ts, consistency, () -> ValueExtractor.create(metricsManager));
+    }
+
     private <T> ClosableIterator<RowResult<T>> getRangeWithPageCreator(
             TableReference tableRef,
             RangeRequest rangeRequest,
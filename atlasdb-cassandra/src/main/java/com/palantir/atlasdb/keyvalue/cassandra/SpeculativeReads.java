@@ -0,0 +1,185 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.SlidingTimeWindowArrayReservoir;
+import com.codahale.metrics.Snapshot;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.palantir.common.base.FunctionCheckedException;
+import com.palantir.common.base.Throwables;
+import com.palantir.common.concurrent.PTExecutors;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs reads against one host and, if a read has not completed within the recent 99th percentile latency of reads,
+ * also against a second host, returning whichever result arrives first. This bounds the latency that a single slow
+ * host, for example one that is pausing for garbage collection, can add to reads, at the cost of around one percent
+ * more reads.
+ *
+ * Until enough reads have completed to estimate the 99th percentile, reads are run on the calling thread and are
+ * never retried speculatively. Reads are run on a bounded pool of threads; when it is saturated, reads are run on the
+ * calling thread and backup reads are not sent, so that a slow host cannot make the number of threads grow unboundedly.
+ */
+final class SpeculativeReads implements AutoCloseable {
+    @VisibleForTesting
+    static final int MIN_SAMPLES_FOR_BUDGET = 100;
+
+    private static final Duration BUDGET_REFRESH_INTERVAL = Duration.ofSeconds(1);
+
+    private final ListeningExecutorService executor;
+    private final Histogram latencies = new Histogram(new SlidingTimeWindowArrayReservoir(1, TimeUnit.MINUTES));
+    private final Supplier<OptionalLong> budgetNanos;
+
+    @VisibleForTesting
+    SpeculativeReads(ExecutorService executor, Duration budgetRefreshInterval) {
+        this.executor = MoreExecutors.listeningDecorator(executor);
+        this.budgetNanos = Suppliers.memoizeWithExpiration(
+                this::computeBudgetNanos, budgetRefreshInterval.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    static SpeculativeReads create(int maxThreads) {
+        return new SpeculativeReads(
+                PTExecutors.newCachedThreadPoolWithMaxThreads(maxThreads, "Atlas Cassandra speculative reads"),
+                BUDGET_REFRESH_INTERVAL);
+    }
+
+    <T> T run(
+            FunctionCheckedException<InetSocketAddress, T, Exception> read,
+            InetSocketAddress host,
+            Supplier<Optional<InetSocketAddress>> backupHost)
+            throws Exception {
+        long startNanos = System.nanoTime();
+        OptionalLong budget = budgetNanos.get();
+        if (!budget.isPresent()) {
+            return runOnCallingThread(read, host, startNanos);
+        }
+
+        ListenableFuture<T> primaryRead;
+        try {
+            primaryRead = executor.submit(() -> read.apply(host));
+        } catch (RejectedExecutionException e) {
+            return runOnCallingThread(read, host, startNanos);
+        }
+        primaryRead.addListener(
+                () -> latencies.update(System.nanoTime() - startNanos), MoreExecutors.directExecutor());
+        try {
+            return primaryRead.get(budget.getAsLong(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Fall through to the speculative read.
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+
+        Optional<InetSocketAddress> backup = backupHost.get();
+        if (!backup.isPresent()) {
+            return getUnwrapped(primaryRead);
+        }
+        ListenableFuture<T> backupRead;
+        try {
+            backupRead = executor.submit(() -> read.apply(backup.get()));
+        } catch (RejectedExecutionException e) {
+            return getUnwrapped(primaryRead);
+        }
+        try {
+            return getUnwrapped(firstSuccessful(primaryRead, backupRead));
+        } finally {
+            primaryRead.cancel(false);
+            backupRead.cancel(false);
+        }
+    }
+
+    private <T> T runOnCallingThread(
+            FunctionCheckedException<InetSocketAddress, T, Exception> read, InetSocketAddress host, long startNanos)
+            throws Exception {
+        try {
+            return read.apply(host);
+        } finally {
+            latencies.update(System.nanoTime() - startNanos);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private OptionalLong computeBudgetNanos() {
+        Snapshot snapshot = latencies.getSnapshot();
+        if (snapshot.size() < MIN_SAMPLES_FOR_BUDGET) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of((long) snapshot.get99thPercentile());
+    }
+
+    private static <T> ListenableFuture<T> firstSuccessful(ListenableFuture<T> first, ListenableFuture<T> second) {
+        SettableFuture<T> result = SettableFuture.create();
+        AtomicInteger failures = new AtomicInteger();
+        for (ListenableFuture<T> read : ImmutableList.of(first, second)) {
+            Futures.addCallback(
+                    read,
+                    new FutureCallback<T>() {
+                        @Override
+                        public void onSuccess(T value) {
+                            result.set(value);
+                        }
+
+                        @Override
+                        public void onFailure(Throwable failure) {
+                            if (failures.incrementAndGet() == 2) {
+                                result.setException(failure);
+                            }
+                        }
+                    },
+                    MoreExecutors.directExecutor());
+        }
+        return result;
+    }
+
+    private static <T> T getUnwrapped(ListenableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static Exception unwrap(ExecutionException e) {
+        if (e.getCause() instanceof Exception) {
+            return (Exception) e.getCause();
+        }
+        throw Throwables.rewrapAndThrowUncheckedException(e.getCause());
+    }
+}
@@ -17,10 +17,14 @@
 package com.palantir.atlasdb.keyvalue.cassandra.async;
 
 import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.Configuration;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.Metadata;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Session;
 import com.datastax.driver.core.Statement;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Streams;
 import com.google.common.util.concurrent.AsyncFunction;
 import com.google.common.util.concurrent.Futures;
@@ -33,20 +37,23 @@ import com.palantir.atlasdb.keyvalue.cassandra.async.queries.RowStreamAccumulato
 import com.palantir.atlasdb.keyvalue.cassandra.async.statement.preparing.CachingStatementPreparer;
 import com.palantir.atlasdb.keyvalue.cassandra.async.statement.preparing.StatementPreparer;
 import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.nio.ByteBuffer;
+import java.util.Set;
 import java.util.concurrent.Executor;
 
 public final class CqlClientImpl implements CqlClient {
     private static final class InitializingWrapper extends AsyncInitializer implements AutoDelegate_CqlClient {
 
         private final TaggedMetricRegistry taggedMetricRegistry;
-        private final int cacheSize;
+        private final CqlCapableConfigTuning tuningConfig;
         private final Cluster cluster;
         private volatile CqlClient internalImpl;
 
-        InitializingWrapper(TaggedMetricRegistry taggedMetricRegistry, Cluster cluster, int cacheSize) {
+        InitializingWrapper(
+                TaggedMetricRegistry taggedMetricRegistry, Cluster cluster, CqlCapableConfigTuning tuningConfig) {
             this.taggedMetricRegistry = taggedMetricRegistry;
             this.cluster = cluster;
-            this.cacheSize = cacheSize;
+            this.tuningConfig = tuningConfig;
         }
 
         @Override
@@ -57,7 +64,7 @@ public final class CqlClientImpl implements CqlClient {
 
         @Override
         protected void tryInitialize() {
-            internalImpl = CqlClientImpl.create(taggedMetricRegistry, cluster.connect(), cacheSize);
+            internalImpl = CqlClientImpl.create(taggedMetricRegistry, cluster.connect(), tuningConfig);
         }
 
         @Override
@@ -75,6 +82,7 @@ public final class CqlClientImpl implements CqlClient {
 
     private final Session session;
     private final StatementPreparer statementPreparer;
+    private final PerHostQueryLimiter queryLimiter;
 
     public static CqlClient create(
             TaggedMetricRegistry taggedMetricRegistry,
@@ -82,23 +90,28 @@ public final class CqlClientImpl implements CqlClient {
             CqlCapableConfigTuning tuningConfig,
             boolean initializeAsync) {
         if (initializeAsync) {
-            return new InitializingWrapper(taggedMetricRegistry, cluster, tuningConfig.preparedStatementCacheSize());
+            return new InitializingWrapper(taggedMetricRegistry, cluster, tuningConfig);
         }
 
-        return create(taggedMetricRegistry, cluster.connect(), tuningConfig.preparedStatementCacheSize());
+        return create(taggedMetricRegistry, cluster.connect(), tuningConfig);
     }
 
     private static CqlClient create(
-            TaggedMetricRegistry taggedMetricRegistry, Session session, int preparedStatementCacheSize) {
+            TaggedMetricRegistry taggedMetricRegistry, Session session, CqlCapableConfigTuning tuningConfig) {
         CachingStatementPreparer cachingStatementPreparer = CachingStatementPreparer.create(
-                key -> session.prepare(key.formatQueryString()), taggedMetricRegistry, preparedStatementCacheSize);
+                key -> session.prepare(key.formatQueryString()),
+                taggedMetricRegistry,
+                tuningConfig.preparedStatementCacheSize());
 
-        return new CqlClientImpl(session, cachingStatementPreparer);
+        return new CqlClientImpl(
+                session, cachingStatementPreparer, new PerHostQueryLimiter(tuningConfig.maxInFlightQueriesPerHost()));
     }
 
-    private CqlClientImpl(Session session, CachingStatementPreparer statementPreparer) {
+    private CqlClientImpl(
+            Session session, CachingStatementPreparer statementPreparer, PerHostQueryLimiter queryLimiter) {
         this.session = session;
         this.statementPreparer = statementPreparer;
+        this.queryLimiter = queryLimiter;
     }
 
     @Override
@@ -114,7 +127,24 @@ public final class CqlClientImpl implements CqlClient {
         Statement executableStatement =
                 querySpec.makeExecutableStatement(statement).setConsistencyLevel(querySpec.queryConsistency());
 
-        return execute(executableStatement, MoreExecutors.directExecutor(), querySpec.rowStreamAccumulator());
+        return queryLimiter.submit(
+                getReplicas(executableStatement),
+                () -> execute(executableStatement, MoreExecutors.directExecutor(), querySpec.rowStreamAccumulator()));
+    }
+
+    /**
+     * Returns the hosts that the token aware load balancing policy can send the statement to, so that queries are
+     * limited per replica set. Statements without a routing key all share one limit.
+     */
+    private Set<Host> getReplicas(Statement statement) {
+        Configuration configuration = session.getCluster().getConfiguration();
+        ByteBuffer routingKey = statement.getRoutingKey(
+                configuration.getProtocolOptions().getProtocolVersion(), configuration.getCodecRegistry());
+        String keyspace = statement.getKeyspace();
+        if (routingKey == null || keyspace == null) {
+            return ImmutableSet.of();
+        }
+        return session.getCluster().getMetadata().getReplicas(Metadata.quote(keyspace), routingKey);
     }
 
     private <V> ListenableFuture<V> execute(
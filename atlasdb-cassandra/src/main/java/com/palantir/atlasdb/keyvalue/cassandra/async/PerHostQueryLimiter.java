@@ -0,0 +1,114 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra.async;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.palantir.logsafe.Preconditions;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Limits the number of queries in flight to each host, queueing any further queries until earlier ones complete. This
+ * keeps large multigets from exceeding the request queues of the driver's connection pools, which would otherwise fail
+ * queries with a {@link com.datastax.driver.core.exceptions.BusyPoolException}, and stops a single large multiget
+ * from monopolising any one host.
+ *
+ * Hosts are identified by arbitrary keys, so that callers can limit queries by the set of replicas that can serve
+ * them, rather than by the coordinator that the driver ends up choosing.
+ */
+final class PerHostQueryLimiter {
+    private final int maxInFlightQueriesPerHost;
+    private final ConcurrentMap<Object, HostQueue> hostQueues = new ConcurrentHashMap<>();
+
+    PerHostQueryLimiter(int maxInFlightQueriesPerHost) {
+        Preconditions.checkArgument(maxInFlightQueriesPerHost > 0, "maxInFlightQueriesPerHost must be positive");
+        this.maxInFlightQueriesPerHost = maxInFlightQueriesPerHost;
+    }
+
+    <V> ListenableFuture<V> submit(Object host, Supplier<ListenableFuture<V>> query) {
+        HostQueue hostQueue = hostQueues.computeIfAbsent(host, unused -> new HostQueue());
+        SettableFuture<V> result = SettableFuture.create();
+        hostQueue.submit(() -> {
+            if (result.isDone()) {
+                hostQueue.release();
+                return;
+            }
+            try {
+                ListenableFuture<V> future = query.get();
+                future.addListener(hostQueue::release, MoreExecutors.directExecutor());
+                result.setFuture(future);
+            } catch (Throwable t) {
+                result.setException(t);
+                hostQueue.release();
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Queries that complete immediately release their slot from within {@link #release()}, so releases are drained in
+     * a loop by whichever thread is already draining, rather than recursing once per queued query.
+     */
+    private final class HostQueue {
+        private final Queue<Runnable> waitingQueries = new ArrayDeque<>();
+        private int inFlightQueries = 0;
+        private int pendingReleases = 0;
+        private boolean draining = false;
+
+        private void submit(Runnable query) {
+            synchronized (this) {
+                if (inFlightQueries >= maxInFlightQueriesPerHost) {
+                    waitingQueries.add(query);
+                    return;
+                }
+                inFlightQueries++;
+            }
+            query.run();
+        }
+
+        private void release() {
+            synchronized (this) {
+                pendingReleases++;
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            while (true) {
+                Runnable nextQuery;
+                synchronized (this) {
+                    if (pendingReleases == 0) {
+                        draining = false;
+                        return;
+                    }
+                    pendingReleases--;
+                    nextQuery = waitingQueries.poll();
+                    if (nextQuery == null) {
+                        inFlightQueries--;
+                        continue;
+                    }
+                }
+                nextQuery.run();
+            }
+        }
+    }
+}
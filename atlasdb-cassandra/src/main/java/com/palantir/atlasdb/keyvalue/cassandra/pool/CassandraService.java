@@ -319,6 +319,9 @@ public class CassandraService implements AutoCloseable {
             return Optional.empty();
         }
 
+        if (config.latencyAwareHostSelection()) {
+            return Optional.of(LatencyAwareHosts.create(matchingPools).getRandomHost());
+        }
         return Optional.of(WeightedHosts.create(matchingPools).getRandomHost());
     }
 
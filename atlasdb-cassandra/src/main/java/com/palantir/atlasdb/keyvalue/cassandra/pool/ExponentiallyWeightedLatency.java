@@ -0,0 +1,106 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra.pool;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.palantir.logsafe.Preconditions;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks an exponentially weighted moving average of request latencies, so that recent requests dominate the estimate
+ * and a host that has started pausing is noticed within a few requests.
+ *
+ * If given a {@code halfLife}, the estimate also halves for every {@code halfLife} that passes without a request
+ * completing. A host is only sent requests while its estimate compares well with other hosts, so without this, a host
+ * that was slow once would keep its high estimate, and never be sent the requests that would show it has recovered.
+ */
+public final class ExponentiallyWeightedLatency {
+    private static final Sample NO_SAMPLES = new Sample(0, 0);
+
+    private final double weightOfNewSample;
+    private final double halfLifeNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicReference<Sample> latest = new AtomicReference<>(NO_SAMPLES);
+
+    /**
+     * Creates an estimate that does not decay while no requests complete.
+     */
+    public ExponentiallyWeightedLatency(double weightOfNewSample) {
+        this(weightOfNewSample, Double.POSITIVE_INFINITY, System::nanoTime);
+    }
+
+    public ExponentiallyWeightedLatency(double weightOfNewSample, Duration halfLife) {
+        this(weightOfNewSample, halfLife, System::nanoTime);
+    }
+
+    @VisibleForTesting
+    ExponentiallyWeightedLatency(double weightOfNewSample, Duration halfLife, LongSupplier nanoClock) {
+        this(weightOfNewSample, toPositiveNanos(halfLife), nanoClock);
+    }
+
+    private ExponentiallyWeightedLatency(double weightOfNewSample, double halfLifeNanos, LongSupplier nanoClock) {
+        Preconditions.checkArgument(
+                weightOfNewSample > 0 && weightOfNewSample <= 1, "weightOfNewSample must be in (0, 1]");
+        this.weightOfNewSample = weightOfNewSample;
+        this.halfLifeNanos = halfLifeNanos;
+        this.nanoClock = nanoClock;
+    }
+
+    private static double toPositiveNanos(Duration halfLife) {
+        Preconditions.checkArgument(!halfLife.isNegative() && !halfLife.isZero(), "halfLife must be positive");
+        return halfLife.toNanos();
+    }
+
+    public void record(long latencyNanos) {
+        long nowNanos = nanoClock.getAsLong();
+        latest.updateAndGet(sample -> {
+            if (sample == NO_SAMPLES) {
+                return new Sample(latencyNanos, nowNanos);
+            }
+            double average = sample.decayedTo(nowNanos, halfLifeNanos);
+            return new Sample(Math.round(average + weightOfNewSample * (latencyNanos - average)), nowNanos);
+        });
+    }
+
+    /**
+     * Returns the current estimate, or 0 if no requests have completed yet.
+     */
+    public long getNanos() {
+        Sample sample = latest.get();
+        if (sample == NO_SAMPLES) {
+            return 0;
+        }
+        return Math.max(Math.round(sample.decayedTo(nanoClock.getAsLong(), halfLifeNanos)), 0);
+    }
+
+    private static final class Sample {
+        private final long averageNanos;
+        private final long timeNanos;
+
+        private Sample(long averageNanos, long timeNanos) {
+            this.averageNanos = averageNanos;
+            this.timeNanos = timeNanos;
+        }
+
+        private double decayedTo(long nowNanos, double halfLifeNanos) {
+            long elapsedNanos = Math.max(nowNanos - timeNanos, 0);
+            return averageNanos * Math.pow(0.5, elapsedNanos / halfLifeNanos);
+        }
+    }
+}
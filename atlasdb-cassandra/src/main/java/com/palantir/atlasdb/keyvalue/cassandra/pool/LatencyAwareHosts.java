@@ -0,0 +1,81 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra.pool;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.atlasdb.keyvalue.cassandra.CassandraClientPoolingContainer;
+import com.palantir.logsafe.Preconditions;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks hosts by the power of two choices: two distinct hosts are sampled at random, and the one with the lower
+ * expected wait is used. The expected wait of a host is its recent average latency multiplied by the number of
+ * requests that would be in flight to it, so a host that is slow, for example because it is pausing for garbage
+ * collection, quickly stops receiving requests, while sampling keeps load spread across the remaining hosts. Latency
+ * estimates decay while a host receives no requests, so a host that has stopped receiving requests is eventually
+ * chosen again, and its estimate updated, rather than being starved by a stale estimate.
+ */
+public final class LatencyAwareHosts {
+    private final List<Map.Entry<InetSocketAddress, CassandraClientPoolingContainer>> hosts;
+
+    private LatencyAwareHosts(List<Map.Entry<InetSocketAddress, CassandraClientPoolingContainer>> hosts) {
+        this.hosts = hosts;
+    }
+
+    public static LatencyAwareHosts create(Map<InetSocketAddress, CassandraClientPoolingContainer> pools) {
+        Preconditions.checkArgument(!pools.isEmpty(), "pools should be non-empty");
+        return new LatencyAwareHosts(ImmutableList.copyOf(pools.entrySet()));
+    }
+
+    public InetSocketAddress getRandomHost() {
+        if (hosts.size() == 1) {
+            return hosts.get(0).getKey();
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(hosts.size());
+        int second = random.nextInt(hosts.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        return chooseBetween(first, second);
+    }
+
+    // This basically exists for testing
+    InetSocketAddress chooseBetween(int first, int second) {
+        CassandraClientPoolingContainer firstPool = hosts.get(first).getValue();
+        CassandraClientPoolingContainer secondPool = hosts.get(second).getValue();
+        boolean preferSecond;
+        if (firstPool.getLatencyEstimateNanos() == 0 || secondPool.getLatencyEstimateNanos() == 0) {
+            // Until both hosts have served a request, we can only go by how busy they are.
+            preferSecond = openRequests(secondPool) < openRequests(firstPool);
+        } else {
+            preferSecond = expectedWait(secondPool) < expectedWait(firstPool);
+        }
+        return preferSecond ? hosts.get(second).getKey() : hosts.get(first).getKey();
+    }
+
+    private static double expectedWait(CassandraClientPoolingContainer pool) {
+        return (double) pool.getLatencyEstimateNanos() * (openRequests(pool) + 1);
+    }
+
+    private static int openRequests(CassandraClientPoolingContainer pool) {
+        return Math.max(pool.getOpenRequests(), 0);
+    }
+}
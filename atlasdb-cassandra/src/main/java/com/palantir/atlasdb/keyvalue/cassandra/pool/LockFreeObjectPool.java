@@ -0,0 +1,324 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra.pool;
+
+import com.codahale.metrics.Histogram;
+import com.google.common.annotations.VisibleForTesting;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import java.time.Duration;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.PooledObjectFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An object pool whose borrows and returns never take locks, for pools that are borrowed from by many threads at once.
+ *
+ * Pooled objects live in a fixed array of {@code maxTotal} slots, and are claimed by atomically moving them from idle
+ * to in use. A borrowing thread first tries the object it last returned, which is uncontended unless the pool is
+ * exhausted, and otherwise scans the slots from a random offset, so that concurrent borrowers rarely compete for the
+ * same object. Borrows against a full pool immediately throw a {@link NoSuchElementException}, as with a
+ * non-blocking commons-pool {@code GenericObjectPool}.
+ *
+ * Borrows only run the factory's validation, which is expected to be cheap. Closing objects that have been idle for
+ * too long, and topping the pool back up to {@code minIdle} objects, happens on the eviction executor.
+ */
+public final class LockFreeObjectPool<T> implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(LockFreeObjectPool.class);
+
+    private static final int IDLE = 0;
+    private static final int IN_USE = 1;
+    private static final int REMOVED = 2;
+
+    private final PooledObjectFactory<T> factory;
+    private final int minIdle;
+    private final long softMinEvictableIdleNanos;
+    private final int numTestsPerEvictionRun;
+    private final Histogram borrowTimesNanos;
+
+    private final AtomicReferenceArray<Pooled<T>> slots;
+    private final AtomicInteger numTotal = new AtomicInteger();
+    private final AtomicInteger numActive = new AtomicInteger();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong destroyedByEvictorCount = new AtomicLong();
+    private final AtomicInteger evictionCursor = new AtomicInteger();
+    private final ExponentiallyWeightedLatency activeTimes = new ExponentiallyWeightedLatency(0.1);
+    private final ExponentiallyWeightedLatency idleTimes = new ExponentiallyWeightedLatency(0.1);
+    private final ThreadLocal<Pooled<T>> lastReturned = new ThreadLocal<>();
+
+    private volatile boolean closed = false;
+    private volatile ScheduledFuture<?> evictionTask;
+
+    public LockFreeObjectPool(
+            PooledObjectFactory<T> factory,
+            int minIdle,
+            int maxTotal,
+            Duration softMinEvictableIdleTime,
+            double proportionToCheckPerEvictionRun,
+            Histogram borrowTimesNanos) {
+        Preconditions.checkArgument(maxTotal > 0, "maxTotal must be positive", SafeArg.of("maxTotal", maxTotal));
+        Preconditions.checkArgument(
+                proportionToCheckPerEvictionRun > 0 && proportionToCheckPerEvictionRun <= 1,
+                "proportionToCheckPerEvictionRun must be in (0, 1]",
+                SafeArg.of("proportion", proportionToCheckPerEvictionRun));
+        this.factory = factory;
+        this.minIdle = Math.min(minIdle, maxTotal);
+        this.softMinEvictableIdleNanos = softMinEvictableIdleTime.toNanos();
+        this.numTestsPerEvictionRun = (int) Math.ceil(maxTotal * proportionToCheckPerEvictionRun);
+        this.borrowTimesNanos = borrowTimesNanos;
+        this.slots = new AtomicReferenceArray<>(maxTotal);
+    }
+
+    public void scheduleEviction(ScheduledExecutorService executor, Duration timeBetweenEvictionRuns) {
+        long periodMillis = timeBetweenEvictionRuns.toMillis();
+        evictionTask = executor.scheduleWithFixedDelay(this::evict, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public Pooled<T> borrowObject() throws Exception {
+        long startNanos = System.nanoTime();
+        try {
+            Pooled<T> pooled = claimIdleObject();
+            if (pooled == null) {
+                pooled = create();
+            }
+            pooled.borrowedNanos = System.nanoTime();
+            numActive.incrementAndGet();
+            return pooled;
+        } finally {
+            borrowTimesNanos.update(System.nanoTime() - startNanos);
+        }
+    }
+
+    public void returnObject(Pooled<T> pooled) {
+        long nowNanos = System.nanoTime();
+        activeTimes.record(nowNanos - pooled.borrowedNanos);
+        numActive.decrementAndGet();
+        pooled.lastReturnedNanos = nowNanos;
+        pooled.state.set(IDLE);
+        lastReturned.set(pooled);
+        if (closed && pooled.tryClaim()) {
+            // Raced with close, which may already have looked at this slot.
+            remove(pooled);
+        }
+    }
+
+    public void invalidateObject(Pooled<T> pooled) {
+        numActive.decrementAndGet();
+        remove(pooled);
+    }
+
+    /**
+     * Closes all idle objects. Objects that are in use are closed when they are invalidated, or by later evictions.
+     */
+    public void clear() {
+        for (int slot = 0; slot < slots.length(); slot++) {
+            Pooled<T> pooled = slots.get(slot);
+            if (pooled != null && pooled.tryClaim()) {
+                remove(pooled);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        ScheduledFuture<?> task = evictionTask;
+        if (task != null) {
+            task.cancel(false);
+        }
+        clear();
+    }
+
+    public int getNumActive() {
+        return numActive.get();
+    }
+
+    public int getNumIdle() {
+        return Math.max(numTotal.get() - numActive.get(), 0);
+    }
+
+    public int getMaxTotal() {
+        return slots.length();
+    }
+
+    public long getCreatedCount() {
+        return createdCount.get();
+    }
+
+    public long getDestroyedByEvictorCount() {
+        return destroyedByEvictorCount.get();
+    }
+
+    public long getMeanActiveTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(activeTimes.getNanos());
+    }
+
+    public long getMeanIdleTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(idleTimes.getNanos());
+    }
+
+    /**
+     * Examines the next {@code numTestsPerEvictionRun} slots, closing objects that are no longer valid, or that have
+     * been idle for too long while more than {@code minIdle} objects are idle, and then tops the pool back up to
+     * {@code minIdle} idle objects.
+     */
+    @VisibleForTesting
+    void evict() {
+        if (closed) {
+            return;
+        }
+        for (int test = 0; test < numTestsPerEvictionRun; test++) {
+            Pooled<T> pooled = slots.get(Math.floorMod(evictionCursor.getAndIncrement(), slots.length()));
+            if (pooled == null || !pooled.tryClaim()) {
+                continue;
+            }
+            boolean idleTooLong = System.nanoTime() - pooled.lastReturnedNanos > softMinEvictableIdleNanos
+                    && getNumIdle() > minIdle;
+            if (idleTooLong || !factory.validateObject(pooled.object)) {
+                destroyedByEvictorCount.incrementAndGet();
+                remove(pooled);
+            } else {
+                pooled.state.set(IDLE);
+            }
+        }
+        ensureMinIdle();
+    }
+
+    private void ensureMinIdle() {
+        while (!closed && getNumIdle() < minIdle && numTotal.get() < slots.length()) {
+            Pooled<T> pooled;
+            try {
+                pooled = create();
+            } catch (Exception e) {
+                log.info("Failed to create an idle object for the pool; will retry on the next eviction run", e);
+                return;
+            }
+            pooled.lastReturnedNanos = System.nanoTime();
+            pooled.state.set(IDLE);
+        }
+    }
+
+    private Pooled<T> claimIdleObject() {
+        Preconditions.checkState(!closed, "Pool is closed");
+        Pooled<T> pooled = lastReturned.get();
+        if (pooled != null && tryActivate(pooled)) {
+            return pooled;
+        }
+        int numSlots = slots.length();
+        int start = ThreadLocalRandom.current().nextInt(numSlots);
+        for (int offset = 0; offset < numSlots; offset++) {
+            pooled = slots.get((start + offset) % numSlots);
+            if (pooled != null && tryActivate(pooled)) {
+                return pooled;
+            }
+        }
+        return null;
+    }
+
+    private boolean tryActivate(Pooled<T> pooled) {
+        if (!pooled.tryClaim()) {
+            return false;
+        }
+        if (!factory.validateObject(pooled.object)) {
+            remove(pooled);
+            return false;
+        }
+        idleTimes.record(System.nanoTime() - pooled.lastReturnedNanos);
+        return true;
+    }
+
+    /**
+     * Creates a new object in use by the caller. A slot is reserved before creating the object, so that the pool never
+     * holds more than {@code maxTotal} objects.
+     */
+    private Pooled<T> create() throws Exception {
+        int total;
+        do {
+            total = numTotal.get();
+            if (total >= slots.length()) {
+                throw new NoSuchElementException("Pool exhausted");
+            }
+        } while (!numTotal.compareAndSet(total, total + 1));
+
+        PooledObject<T> object;
+        try {
+            object = factory.makeObject();
+        } catch (Exception e) {
+            numTotal.decrementAndGet();
+            throw e;
+        }
+        createdCount.incrementAndGet();
+        Pooled<T> pooled = new Pooled<>(object);
+        insert(pooled);
+        return pooled;
+    }
+
+    private void insert(Pooled<T> pooled) {
+        // Slots are emptied before the total is decremented, so reserving a slot guarantees that one is free.
+        while (true) {
+            for (int slot = 0; slot < slots.length(); slot++) {
+                if (slots.get(slot) == null && slots.compareAndSet(slot, null, pooled)) {
+                    pooled.slot = slot;
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes and destroys an object that has been claimed by the caller.
+     */
+    private void remove(Pooled<T> pooled) {
+        pooled.state.set(REMOVED);
+        slots.compareAndSet(pooled.slot, pooled, null);
+        numTotal.decrementAndGet();
+        try {
+            factory.destroyObject(pooled.object);
+        } catch (Exception e) {
+            log.debug("Failed to destroy pooled object", e);
+        }
+    }
+
+    public static final class Pooled<T> {
+        private final PooledObject<T> object;
+        private final AtomicInteger state = new AtomicInteger(IN_USE);
+        private int slot;
+        private long borrowedNanos;
+        private long lastReturnedNanos;
+
+        private Pooled(PooledObject<T> object) {
+            this.object = object;
+        }
+
+        public T get() {
+            return object.getObject();
+        }
+
+        private boolean tryClaim() {
+            return state.compareAndSet(IDLE, IN_USE);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+import com.palantir.common.base.ClosableIterator;
+import com.palantir.common.base.ClosableIterators;
+import com.palantir.common.exception.AtlasDbDependencyException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.After;
+import org.junit.Test;
+
+public class ParallelRangeIteratorTest {
+    private static final int ROWS_PER_SUBRANGE = 25;
+    private static final List<RangeRequest> SUBRANGES = ImmutableList.of(
+            subrange("", "b"), subrange("b", "c"), subrange("c", "d"), subrange("d", ""));
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Set<RangeRequest> scannedSubranges = ConcurrentHashMap.newKeySet();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void returnsRowsOfAllSubrangesInOrder() {
+        try (ClosableIterator<RowResult<String>> iterator =
+                new ParallelRangeIterator<>(executor, this::scan, SUBRANGES, 2, 10)) {
+            List<String> rows = new ArrayList<>();
+            iterator.forEachRemaining(row -> rows.add(PtBytes.toString(row.getRowName())));
+
+            assertThat(rows).hasSize(SUBRANGES.size() * ROWS_PER_SUBRANGE).isSorted();
+        }
+    }
+
+    @Test
+    public void onlyScansUpToConcurrencySubrangesAhead() {
+        try (ClosableIterator<RowResult<String>> iterator =
+                new ParallelRangeIterator<>(executor, this::scan, SUBRANGES, 2, 10)) {
+            iterator.next();
+
+            assertThat(SUBRANGES.subList(2, SUBRANGES.size())).doesNotContainAnyElementsOf(scannedSubranges);
+        }
+    }
+
+    @Test
+    public void propagatesScanFailures() {
+        ClosableIterator<RowResult<String>> iterator = new ParallelRangeIterator<>(
+                executor,
+                subrange -> {
+                    throw new IllegalStateException("boom");
+                },
+                SUBRANGES,
+                2,
+                10);
+
+        assertThatThrownBy(iterator::hasNext)
+                .isInstanceOf(AtlasDbDependencyException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        iterator.close();
+    }
+
+    private ClosableIterator<RowResult<String>> scan(RangeRequest subrange) {
+        scannedSubranges.add(subrange);
+        String prefix = PtBytes.toString(subrange.getStartInclusive());
+        List<RowResult<String>> rows = IntStream.range(0, ROWS_PER_SUBRANGE)
+                .mapToObj(i -> RowResult.of(
+                        Cell.create(PtBytes.toBytes(String.format("%s%03d", prefix, i)), PtBytes.toBytes("c")),
+                        "value"))
+                .collect(Collectors.toList());
+        return ClosableIterators.wrap(rows.iterator());
+    }
+
+    private static RangeRequest subrange(String start, String end) {
+        return RangeRequest.builder()
+                .startRowInclusive(PtBytes.toBytes(start))
+                .endRowExclusive(PtBytes.toBytes(end))
+                .build();
+    }
+}
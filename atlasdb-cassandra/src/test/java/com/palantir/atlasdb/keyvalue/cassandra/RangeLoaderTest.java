@@ -0,0 +1,105 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableRangeMap;
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeMap;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RangeRequests;
+import java.net.InetSocketAddress;
+import java.util.List;
+import org.junit.Test;
+
+public class RangeLoaderTest {
+    private static final List<InetSocketAddress> HOSTS_1 = ImmutableList.of(new InetSocketAddress(1));
+    private static final List<InetSocketAddress> HOSTS_2 = ImmutableList.of(new InetSocketAddress(2));
+    private static final List<InetSocketAddress> HOSTS_3 = ImmutableList.of(new InetSocketAddress(3));
+
+    private static final RangeMap<LightweightOppToken, List<InetSocketAddress>> TOKEN_MAP =
+            ImmutableRangeMap.<LightweightOppToken, List<InetSocketAddress>>builder()
+                    .put(Range.atMost(token("d")), HOSTS_1)
+                    .put(Range.openClosed(token("d"), token("h")), HOSTS_2)
+                    .put(Range.openClosed(token("h"), token("m")), HOSTS_2)
+                    .put(Range.openClosed(token("m"), token("s")), HOSTS_3)
+                    .put(Range.greaterThan(token("s")), HOSTS_1)
+                    .build();
+
+    @Test
+    public void splitsFullRangeWhereOwnersChange() {
+        List<RangeRequest> subranges = RangeLoader.splitByTokenOwnership(RangeRequest.all(), TOKEN_MAP);
+
+        assertThat(boundaries(subranges)).containsExactly("", next("d"), next("m"), next("s"), "");
+    }
+
+    @Test
+    public void onlySplitsWithinRequestedRange() {
+        RangeRequest request = RangeRequest.builder()
+                .startRowInclusive(PtBytes.toBytes("f"))
+                .endRowExclusive(PtBytes.toBytes("p"))
+                .batchHint(10)
+                .build();
+
+        List<RangeRequest> subranges = RangeLoader.splitByTokenOwnership(request, TOKEN_MAP);
+
+        assertThat(boundaries(subranges)).containsExactly("f", next("m"), "p");
+        assertThat(subranges).allSatisfy(subrange -> assertThat(subrange.getBatchHint()).isEqualTo(10));
+    }
+
+    @Test
+    public void doesNotSplitRangeOwnedByOneSetOfHosts() {
+        RangeRequest request = RangeRequest.builder()
+                .startRowInclusive(PtBytes.toBytes("e"))
+                .endRowExclusive(PtBytes.toBytes("m"))
+                .build();
+
+        assertThat(RangeLoader.splitByTokenOwnership(request, TOKEN_MAP)).containsExactly(request);
+    }
+
+    @Test
+    public void doesNotSplitIfRingHasSingleTokenRange() {
+        RangeMap<LightweightOppToken, List<InetSocketAddress>> singleRange =
+                ImmutableRangeMap.of(Range.all(), HOSTS_1);
+
+        assertThat(RangeLoader.splitByTokenOwnership(RangeRequest.all(), singleRange))
+                .containsExactly(RangeRequest.all());
+    }
+
+    private static List<String> boundaries(List<RangeRequest> subranges) {
+        ImmutableList.Builder<String> boundaries = ImmutableList.builder();
+        for (int i = 0; i < subranges.size(); i++) {
+            if (i > 0) {
+                assertThat(subranges.get(i).getStartInclusive()).isEqualTo(subranges.get(i - 1).getEndExclusive());
+            }
+            boundaries.add(PtBytes.toString(subranges.get(i).getStartInclusive()));
+        }
+        boundaries.add(PtBytes.toString(subranges.get(subranges.size() - 1).getEndExclusive()));
+        return boundaries.build();
+    }
+
+    private static String next(String row) {
+        return PtBytes.toString(RangeRequests.nextLexicographicName(PtBytes.toBytes(row)));
+    }
+
+    private static LightweightOppToken token(String row) {
+        return new LightweightOppToken(PtBytes.toBytes(row));
+    }
+}
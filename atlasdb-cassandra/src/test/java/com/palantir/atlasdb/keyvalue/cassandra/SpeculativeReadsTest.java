@@ -0,0 +1,147 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.palantir.atlasdb.keyvalue.cassandra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.palantir.common.base.FunctionCheckedException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+public class SpeculativeReadsTest {
+    private static final InetSocketAddress HOST = InetSocketAddress.createUnresolved("host", 9160);
+    private static final InetSocketAddress BACKUP_HOST = InetSocketAddress.createUnresolved("backup", 9160);
+    private static final Duration NO_BUDGET_CACHING = Duration.ofNanos(1);
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final SpeculativeReads speculativeReads = new SpeculativeReads(executor, NO_BUDGET_CACHING);
+    private final CountDownLatch slowReadLatch = new CountDownLatch(1);
+
+    @After
+    public void tearDown() {
+        slowReadLatch.countDown();
+        speculativeReads.close();
+    }
+
+    @Test
+    public void readsRunOnCallingThreadUntilThereAreEnoughSamplesForABudget() throws Exception {
+        Thread caller = Thread.currentThread();
+        for (int i = 0; i < SpeculativeReads.MIN_SAMPLES_FOR_BUDGET; i++) {
+            assertThat(speculativeReads.run(host -> Thread.currentThread(), HOST, Optional::empty))
+                    .isEqualTo(caller);
+        }
+
+        assertThat(speculativeReads.run(host -> Thread.currentThread(), HOST, Optional::empty))
+                .isNotEqualTo(caller);
+    }
+
+    @Test
+    public void backupReadWinsIfPrimaryReadIsSlow() throws Exception {
+        warmUp(speculativeReads);
+
+        assertThat(speculativeReads.run(slowOnPrimary("backup"), HOST, () -> Optional.of(BACKUP_HOST)))
+                .isEqualTo("backup");
+    }
+
+    @Test
+    public void throwsIfBothReadsFail() throws Exception {
+        warmUp(speculativeReads);
+
+        assertThatThrownBy(() -> speculativeReads.run(
+                        host -> {
+                            if (host.equals(HOST)) {
+                                slowReadLatch.await();
+                            }
+                            throw new IOException("Failed to read from " + host.getHostString());
+                        },
+                        HOST,
+                        () -> {
+                            slowReadLatch.countDown();
+                            return Optional.of(BACKUP_HOST);
+                        }))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    public void waitsForPrimaryReadIfThereIsNoBackupHost() throws Exception {
+        warmUp(speculativeReads);
+        AtomicInteger numReads = new AtomicInteger();
+
+        assertThat(speculativeReads.run(
+                        host -> {
+                            numReads.incrementAndGet();
+                            Thread.sleep(50);
+                            return "primary";
+                        },
+                        HOST,
+                        Optional::empty))
+                .isEqualTo("primary");
+        assertThat(numReads).hasValue(1);
+    }
+
+    @Test
+    public void readsRunOnCallingThreadWithoutBackupIfExecutorIsSaturated() throws Exception {
+        ThreadPoolExecutor singleThread =
+                new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new SynchronousQueue<>());
+        SpeculativeReads saturated = new SpeculativeReads(singleThread, NO_BUDGET_CACHING);
+        warmUp(saturated);
+        singleThread.execute(() -> awaitUninterruptibly(slowReadLatch));
+        Thread caller = Thread.currentThread();
+
+        assertThat(saturated.run(host -> Thread.currentThread(), HOST, () -> Optional.of(BACKUP_HOST)))
+                .isEqualTo(caller);
+        slowReadLatch.countDown();
+        saturated.close();
+    }
+
+    private FunctionCheckedException<InetSocketAddress, String, Exception> slowOnPrimary(String result) {
+        return host -> {
+            if (host.equals(HOST)) {
+                slowReadLatch.await();
+                return "primary";
+            }
+            return result;
+        };
+    }
+
+    private static void warmUp(SpeculativeReads reads) throws Exception {
+        for (int i = 0; i < SpeculativeReads.MIN_SAMPLES_FOR_BUDGET; i++) {
+            reads.run(host -> null, HOST, Optional::empty);
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
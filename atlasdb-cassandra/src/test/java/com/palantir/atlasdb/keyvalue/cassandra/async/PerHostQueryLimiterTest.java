@@ -0,0 +1,106 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra.async;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class PerHostQueryLimiterTest {
+    private static final String HOST_1 = "host1";
+    private static final String HOST_2 = "host2";
+
+    private final PerHostQueryLimiter limiter = new PerHostQueryLimiter(2);
+    private final List<SettableFuture<String>> startedQueries = new ArrayList<>();
+
+    @Test
+    public void queuesQueriesBeyondLimitForSameHost() {
+        ListenableFuture<String> first = limiter.submit(HOST_1, this::startQuery);
+        limiter.submit(HOST_1, this::startQuery);
+        ListenableFuture<String> third = limiter.submit(HOST_1, this::startQuery);
+        assertThat(startedQueries).hasSize(2);
+
+        startedQueries.get(0).set("done");
+
+        assertThat(Futures.getUnchecked(first)).isEqualTo("done");
+        assertThat(startedQueries).hasSize(3);
+        startedQueries.get(2).set("third");
+        assertThat(Futures.getUnchecked(third)).isEqualTo("third");
+    }
+
+    @Test
+    public void doesNotLimitQueriesToDifferentHostsTogether() {
+        limiter.submit(HOST_1, this::startQuery);
+        limiter.submit(HOST_1, this::startQuery);
+        limiter.submit(HOST_2, this::startQuery);
+
+        assertThat(startedQueries).hasSize(3);
+    }
+
+    @Test
+    public void releasesSlotIfQueryFailsToStart() {
+        ListenableFuture<String> failed = limiter.submit(HOST_1, () -> {
+            throw new IllegalStateException("boom");
+        });
+        limiter.submit(HOST_1, this::startQuery);
+        limiter.submit(HOST_1, this::startQuery);
+
+        assertThat(failed).isDone();
+        assertThat(startedQueries).hasSize(2);
+    }
+
+    @Test
+    public void skipsQueuedQueriesThatWereCancelled() {
+        limiter.submit(HOST_1, this::startQuery);
+        limiter.submit(HOST_1, this::startQuery);
+        ListenableFuture<String> cancelled = limiter.submit(HOST_1, this::startQuery);
+        limiter.submit(HOST_1, this::startQuery);
+        cancelled.cancel(false);
+
+        startedQueries.get(0).set("done");
+
+        assertThat(startedQueries).hasSize(3);
+    }
+
+    @Test
+    public void drainsManyQueuedQueriesThatCompleteImmediatelyWithoutOverflowingTheStack() {
+        int numQueries = 100_000;
+        limiter.submit(HOST_1, this::startQuery);
+        limiter.submit(HOST_1, this::startQuery);
+        List<ListenableFuture<String>> queued = new ArrayList<>();
+        for (int i = 0; i < numQueries; i++) {
+            queued.add(limiter.submit(HOST_1, () -> Futures.immediateFuture("immediate")));
+        }
+
+        startedQueries.get(0).set("done");
+
+        assertThat(queued).allMatch(ListenableFuture::isDone);
+        assertThat(limiter.submit(HOST_1, this::startQuery)).isNotDone();
+        assertThat(startedQueries).hasSize(3);
+    }
+
+    private ListenableFuture<String> startQuery() {
+        SettableFuture<String> query = SettableFuture.create();
+        startedQueries.add(query);
+        return query;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra.pool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+
+public class ExponentiallyWeightedLatencyTest {
+    private static final Duration HALF_LIFE = Duration.ofSeconds(5);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final ExponentiallyWeightedLatency latency = new ExponentiallyWeightedLatency(0.5, HALF_LIFE, clock::get);
+
+    @Test
+    public void hasNoEstimateBeforeFirstSample() {
+        assertThat(latency.getNanos()).isZero();
+    }
+
+    @Test
+    public void firstSampleIsTheEstimate() {
+        latency.record(1000);
+
+        assertThat(latency.getNanos()).isEqualTo(1000);
+    }
+
+    @Test
+    public void weightsNewSamples() {
+        latency.record(1000);
+        latency.record(3000);
+
+        assertThat(latency.getNanos()).isEqualTo(2000);
+    }
+
+    @Test
+    public void estimateHalvesEveryHalfLifeWithoutSamples() {
+        latency.record(1000);
+
+        clock.addAndGet(HALF_LIFE.toNanos());
+        assertThat(latency.getNanos()).isEqualTo(500);
+
+        clock.addAndGet(HALF_LIFE.toNanos());
+        assertThat(latency.getNanos()).isEqualTo(250);
+    }
+
+    @Test
+    public void newSamplesAreWeightedAgainstTheDecayedEstimate() {
+        latency.record(4000);
+        clock.addAndGet(HALF_LIFE.toNanos());
+
+        latency.record(1000);
+
+        assertThat(latency.getNanos()).isEqualTo(1500);
+    }
+
+    @Test
+    public void estimateDoesNotDecayWithoutHalfLife() throws InterruptedException {
+        ExponentiallyWeightedLatency undecayed = new ExponentiallyWeightedLatency(0.5);
+        undecayed.record(1000);
+
+        Thread.sleep(10);
+
+        assertThat(undecayed.getNanos()).isEqualTo(1000);
+    }
+}
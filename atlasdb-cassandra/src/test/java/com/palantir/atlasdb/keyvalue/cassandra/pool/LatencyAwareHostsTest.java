@@ -0,0 +1,98 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra.pool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableMap;
+import com.palantir.atlasdb.keyvalue.cassandra.CassandraClientPoolingContainer;
+import java.net.InetSocketAddress;
+import org.junit.Test;
+
+public class LatencyAwareHostsTest {
+    private static final InetSocketAddress HOST_1 = new InetSocketAddress(1);
+    private static final InetSocketAddress HOST_2 = new InetSocketAddress(2);
+    private static final InetSocketAddress HOST_3 = new InetSocketAddress(3);
+
+    @Test
+    public void prefersHostWithLowerLatencyWhenEquallyBusy() {
+        LatencyAwareHosts hosts = LatencyAwareHosts.create(ImmutableMap.of(
+                HOST_1, createMockClientPoolingContainer(100, 2),
+                HOST_2, createMockClientPoolingContainer(10, 2)));
+
+        assertThat(hosts.chooseBetween(0, 1)).isEqualTo(HOST_2);
+        assertThat(hosts.chooseBetween(1, 0)).isEqualTo(HOST_2);
+    }
+
+    @Test
+    public void prefersFasterHostOnlyWhileItsQueueIsShorter() {
+        LatencyAwareHosts hosts = LatencyAwareHosts.create(ImmutableMap.of(
+                HOST_1, createMockClientPoolingContainer(100, 0),
+                HOST_2, createMockClientPoolingContainer(10, 20)));
+
+        assertThat(hosts.chooseBetween(0, 1)).isEqualTo(HOST_1);
+    }
+
+    @Test
+    public void comparesOpenRequestsUntilBothHostsHaveLatencySamples() {
+        LatencyAwareHosts hosts = LatencyAwareHosts.create(ImmutableMap.of(
+                HOST_1, createMockClientPoolingContainer(0, 3),
+                HOST_2, createMockClientPoolingContainer(10, 1)));
+
+        assertThat(hosts.chooseBetween(0, 1)).isEqualTo(HOST_2);
+    }
+
+    @Test
+    public void prefersFirstHostOnTies() {
+        LatencyAwareHosts hosts = LatencyAwareHosts.create(ImmutableMap.of(
+                HOST_1, createMockClientPoolingContainer(10, 1),
+                HOST_2, createMockClientPoolingContainer(10, 1)));
+
+        assertThat(hosts.chooseBetween(0, 1)).isEqualTo(HOST_1);
+        assertThat(hosts.chooseBetween(1, 0)).isEqualTo(HOST_2);
+    }
+
+    @Test
+    public void returnsOnlyHostWithoutSampling() {
+        LatencyAwareHosts hosts =
+                LatencyAwareHosts.create(ImmutableMap.of(HOST_3, createMockClientPoolingContainer(10, 1)));
+
+        assertThat(hosts.getRandomHost()).isEqualTo(HOST_3);
+    }
+
+    @Test
+    public void randomHostIsAlwaysOneOfThePools() {
+        LatencyAwareHosts hosts = LatencyAwareHosts.create(ImmutableMap.of(
+                HOST_1, createMockClientPoolingContainer(10, 1),
+                HOST_2, createMockClientPoolingContainer(20, 1),
+                HOST_3, createMockClientPoolingContainer(30, 1)));
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(hosts.getRandomHost()).isIn(HOST_1, HOST_2, HOST_3);
+        }
+    }
+
+    private static CassandraClientPoolingContainer createMockClientPoolingContainer(
+            long latencyNanos, int openRequests) {
+        CassandraClientPoolingContainer mock = mock(CassandraClientPoolingContainer.class);
+        when(mock.getLatencyEstimateNanos()).thenReturn(latencyNanos);
+        when(mock.getOpenRequests()).thenReturn(openRequests);
+        return mock;
+    }
+}
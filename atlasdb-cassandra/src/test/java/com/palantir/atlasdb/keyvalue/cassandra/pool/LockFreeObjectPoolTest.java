@@ -0,0 +1,235 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra.pool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.UniformReservoir;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.pool2.BasePooledObjectFactory;
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.impl.DefaultPooledObject;
+import org.junit.Test;
+
+public class LockFreeObjectPoolTest {
+    private static final int MAX_TOTAL = 4;
+
+    private final TestFactory factory = new TestFactory();
+    private final Histogram borrowTimes = new Histogram(new UniformReservoir());
+
+    @Test
+    public void reusesReturnedObjects() throws Exception {
+        LockFreeObjectPool<TestObject> pool = createPool(0, Duration.ofMinutes(10));
+
+        LockFreeObjectPool.Pooled<TestObject> first = pool.borrowObject();
+        pool.returnObject(first);
+        LockFreeObjectPool.Pooled<TestObject> second = pool.borrowObject();
+
+        assertThat(second.get()).isSameAs(first.get());
+        assertThat(pool.getCreatedCount()).isEqualTo(1);
+        assertThat(borrowTimes.getCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void throwsWhenExhausted() throws Exception {
+        LockFreeObjectPool<TestObject> pool = createPool(0, Duration.ofMinutes(10));
+        for (int i = 0; i < MAX_TOTAL; i++) {
+            pool.borrowObject();
+        }
+
+        assertThat(pool.getNumActive()).isEqualTo(MAX_TOTAL);
+        assertThatThrownBy(pool::borrowObject)
+                .isInstanceOf(NoSuchElementException.class)
+                .hasMessageContaining("Pool exhausted");
+    }
+
+    @Test
+    public void invalidatedObjectsAreDestroyedAndFreeTheirSlot() throws Exception {
+        LockFreeObjectPool<TestObject> pool = createPool(0, Duration.ofMinutes(10));
+        List<LockFreeObjectPool.Pooled<TestObject>> borrowed = new ArrayList<>();
+        for (int i = 0; i < MAX_TOTAL; i++) {
+            borrowed.add(pool.borrowObject());
+        }
+
+        pool.invalidateObject(borrowed.get(0));
+
+        assertThat(borrowed.get(0).get().destroyed).isTrue();
+        assertThat(pool.borrowObject().get()).isNotSameAs(borrowed.get(0).get());
+    }
+
+    @Test
+    public void doesNotLendClosedObjects() throws Exception {
+        LockFreeObjectPool<TestObject> pool = createPool(0, Duration.ofMinutes(10));
+        LockFreeObjectPool.Pooled<TestObject> first = pool.borrowObject();
+        pool.returnObject(first);
+
+        first.get().open = false;
+
+        assertThat(pool.borrowObject().get()).isNotSameAs(first.get());
+        assertThat(first.get().destroyed).isTrue();
+    }
+
+    @Test
+    public void clearDestroysOnlyIdleObjects() throws Exception {
+        LockFreeObjectPool<TestObject> pool = createPool(0, Duration.ofMinutes(10));
+        LockFreeObjectPool.Pooled<TestObject> idle = pool.borrowObject();
+        LockFreeObjectPool.Pooled<TestObject> active = pool.borrowObject();
+        pool.returnObject(idle);
+
+        pool.clear();
+
+        assertThat(idle.get().destroyed).isTrue();
+        assertThat(active.get().destroyed).isFalse();
+        assertThat(pool.getNumIdle()).isZero();
+        assertThat(pool.getNumActive()).isEqualTo(1);
+    }
+
+    @Test
+    public void evictionTopsUpToMinIdle() {
+        LockFreeObjectPool<TestObject> pool = createPool(2, Duration.ofMinutes(10));
+
+        pool.evict();
+
+        assertThat(pool.getNumIdle()).isEqualTo(2);
+        assertThat(pool.getCreatedCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void evictionDestroysObjectsIdleForTooLongAboveMinIdle() throws Exception {
+        LockFreeObjectPool<TestObject> pool = createPool(1, Duration.ZERO);
+        List<LockFreeObjectPool.Pooled<TestObject>> borrowed = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            borrowed.add(pool.borrowObject());
+        }
+        borrowed.forEach(pool::returnObject);
+
+        pool.evict();
+
+        assertThat(pool.getNumIdle()).isEqualTo(1);
+        assertThat(pool.getDestroyedByEvictorCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void evictionDestroysClosedObjects() throws Exception {
+        LockFreeObjectPool<TestObject> pool = createPool(0, Duration.ofMinutes(10));
+        LockFreeObjectPool.Pooled<TestObject> pooled = pool.borrowObject();
+        pool.returnObject(pooled);
+        pooled.get().open = false;
+
+        pool.evict();
+
+        assertThat(pooled.get().destroyed).isTrue();
+        assertThat(pool.getNumIdle()).isZero();
+    }
+
+    @Test
+    public void objectsReturnedAfterCloseAreDestroyed() throws Exception {
+        LockFreeObjectPool<TestObject> pool = createPool(0, Duration.ofMinutes(10));
+        LockFreeObjectPool.Pooled<TestObject> pooled = pool.borrowObject();
+
+        pool.close();
+        pool.returnObject(pooled);
+
+        assertThat(pooled.get().destroyed).isTrue();
+        assertThatThrownBy(pool::borrowObject).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void neverLendsAnObjectToTwoBorrowersAtOnce() throws Exception {
+        LockFreeObjectPool<TestObject> pool = createPool(0, Duration.ofMinutes(10));
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        AtomicInteger exhaustions = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 16; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        LockFreeObjectPool.Pooled<TestObject> pooled;
+                        try {
+                            pooled = pool.borrowObject();
+                        } catch (NoSuchElementException e) {
+                            exhaustions.incrementAndGet();
+                            continue;
+                        }
+                        assertThat(pooled.get().borrowers.incrementAndGet()).isEqualTo(1);
+                        pooled.get().borrowers.decrementAndGet();
+                        pool.returnObject(pooled);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(pool.getNumActive()).isZero();
+        assertThat(pool.getCreatedCount()).isLessThanOrEqualTo(MAX_TOTAL);
+        Set<TestObject> created = new HashSet<>(factory.created);
+        assertThat(created).hasSize((int) pool.getCreatedCount());
+    }
+
+    private LockFreeObjectPool<TestObject> createPool(int minIdle, Duration softMinEvictableIdleTime) {
+        return new LockFreeObjectPool<>(factory, minIdle, MAX_TOTAL, softMinEvictableIdleTime, 1.0, borrowTimes);
+    }
+
+    private static final class TestObject {
+        private final AtomicInteger borrowers = new AtomicInteger();
+        private volatile boolean open = true;
+        private volatile boolean destroyed = false;
+    }
+
+    private static final class TestFactory extends BasePooledObjectFactory<TestObject> {
+        private final List<TestObject> created = new ArrayList<>();
+
+        @Override
+        public synchronized TestObject create() {
+            TestObject object = new TestObject();
+            created.add(object);
+            return object;
+        }
+
+        @Override
+        public PooledObject<TestObject> wrap(TestObject object) {
+            return new DefaultPooledObject<>(object);
+        }
+
+        @Override
+        public boolean validateObject(PooledObject<TestObject> pooled) {
+            return pooled.getObject().open;
+        }
+
+        @Override
+        public void destroyObject(PooledObject<TestObject> pooled) {
+            pooled.getObject().destroyed = true;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.cache;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.math.IntMath;
+import com.google.common.math.LongMath;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongSupplier;
+import javax.annotation.Nullable;
+
+/**
+ * A {@link TimestampCache} that stores start to commit timestamp mappings in primitive arrays, so cached entries
+ * cost sixteen bytes plus a reference bit each rather than two boxed longs and a cache node.
+ *
+ * The table is split into independently locked stripes. Within a stripe, a start timestamp hashes to a bucket of
+ * {@link #BUCKET_SIZE} slots that is probed linearly; once the bucket is full, an entry is evicted using the CLOCK
+ * algorithm. Reads are optimistic and only fall back to taking the stripe's read lock if they race with a write.
+ *
+ * Changes to the supplied size are picked up lazily, and discard all cached entries.
+ */
+public final class PrimitiveTimestampCache implements TimestampCache {
+    @VisibleForTesting
+    static final int BUCKET_SIZE = 8;
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int MAX_STRIPES = 64;
+
+    private final LongSupplier size;
+    private final int numStripes;
+
+    private volatile Table table;
+
+    public PrimitiveTimestampCache(LongSupplier size) {
+        this(size, defaultNumStripes());
+    }
+
+    @VisibleForTesting
+    PrimitiveTimestampCache(LongSupplier size, int numStripes) {
+        this.size = size;
+        this.numStripes = IntMath.ceilingPowerOfTwo(numStripes);
+        this.table = new Table(size.getAsLong(), this.numStripes);
+    }
+
+    @Override
+    @Nullable
+    public Long getCommitTimestampIfPresent(Long startTimestamp) {
+        long commitTimestamp = getCommitTimestamp(startTimestamp);
+        return commitTimestamp == EMPTY ? null : commitTimestamp;
+    }
+
+    @Override
+    public void putAlreadyCommittedTransaction(Long startTimestamp, Long commitTimestamp) {
+        putCommitTimestamp(startTimestamp, commitTimestamp);
+    }
+
+    @Override
+    public void clear() {
+        table.clear();
+    }
+
+    private long getCommitTimestamp(long startTimestamp) {
+        if (startTimestamp == EMPTY) {
+            return EMPTY;
+        }
+        long hash = mix(startTimestamp);
+        return resizeIfNecessary().stripeFor(hash).get(startTimestamp, bucketIndex(hash));
+    }
+
+    private void putCommitTimestamp(long startTimestamp, long commitTimestamp) {
+        if (startTimestamp == EMPTY) {
+            return;
+        }
+        long hash = mix(startTimestamp);
+        table.stripeFor(hash).put(startTimestamp, commitTimestamp, bucketIndex(hash));
+    }
+
+    private Table resizeIfNecessary() {
+        Table current = table;
+        long maximumSize = size.getAsLong();
+        if (current.maximumSize == maximumSize) {
+            return current;
+        }
+        synchronized (this) {
+            if (table.maximumSize != maximumSize) {
+                table = new Table(maximumSize, numStripes);
+            }
+            return table;
+        }
+    }
+
+    @VisibleForTesting
+    long capacity() {
+        return table.capacity();
+    }
+
+    private static int defaultNumStripes() {
+        return Math.min(MAX_STRIPES, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    private static int bucketIndex(long hash) {
+        return (int) (hash >>> 32);
+    }
+
+    /**
+     * The finalisation step of MurmurHash3; timestamps are mostly sequential, so they must be mixed before being
+     * used to pick a stripe and bucket.
+     */
+    private static long mix(long key) {
+        long hash = key;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static final class Table {
+        private final long maximumSize;
+        private final Stripe[] stripes;
+        private final int stripeMask;
+
+        private Table(long maximumSize, int numStripes) {
+            this.maximumSize = maximumSize;
+            long slotsPerStripe = LongMath.divide(Math.max(maximumSize, 1), numStripes, RoundingMode.CEILING);
+            int bucketsPerStripe = IntMath.ceilingPowerOfTwo(
+                    Math.toIntExact(LongMath.divide(slotsPerStripe, BUCKET_SIZE, RoundingMode.CEILING)));
+            this.stripes = new Stripe[numStripes];
+            for (int i = 0; i < numStripes; i++) {
+                stripes[i] = new Stripe(bucketsPerStripe);
+            }
+            this.stripeMask = numStripes - 1;
+        }
+
+        private Stripe stripeFor(long hash) {
+            return stripes[(int) hash & stripeMask];
+        }
+
+        private void clear() {
+            for (Stripe stripe : stripes) {
+                stripe.clear();
+            }
+        }
+
+        private long capacity() {
+            return (long) stripes.length * stripes[0].keys.length;
+        }
+    }
+
+    private static final class Stripe {
+        private final StampedLock lock = new StampedLock();
+        private final long[] keys;
+        private final long[] values;
+        private final boolean[] referenced;
+        private final int bucketMask;
+
+        private int clockHand;
+
+        private Stripe(int numBuckets) {
+            this.keys = new long[numBuckets * BUCKET_SIZE];
+            this.values = new long[numBuckets * BUCKET_SIZE];
+            this.referenced = new boolean[numBuckets * BUCKET_SIZE];
+            this.bucketMask = numBuckets - 1;
+            Arrays.fill(keys, EMPTY);
+        }
+
+        private long get(long key, int bucketIndex) {
+            int bucketStart = (bucketIndex & bucketMask) * BUCKET_SIZE;
+
+            long stamp = lock.tryOptimisticRead();
+            int slot = find(key, bucketStart);
+            long value = slot == -1 ? EMPTY : values[slot];
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    slot = find(key, bucketStart);
+                    value = slot == -1 ? EMPTY : values[slot];
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+
+            // Racy by design: losing a reference bit only makes an entry slightly more likely to be evicted.
+            if (slot != -1 && !referenced[slot]) {
+                referenced[slot] = true;
+            }
+            return value;
+        }
+
+        private void put(long key, long value, int bucketIndex) {
+            int bucketStart = (bucketIndex & bucketMask) * BUCKET_SIZE;
+
+            long stamp = lock.writeLock();
+            try {
+                int slot = find(key, bucketStart);
+                if (slot == -1) {
+                    slot = find(EMPTY, bucketStart);
+                }
+                if (slot == -1) {
+                    slot = evict(bucketStart);
+                }
+                keys[slot] = key;
+                values[slot] = value;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private int find(long key, int bucketStart) {
+            for (int slot = bucketStart; slot < bucketStart + BUCKET_SIZE; slot++) {
+                if (keys[slot] == key) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Sweeps the bucket from the clock hand, giving referenced entries a second chance. Terminates within two
+         * passes, since the first pass clears every reference bit it sees.
+         */
+        private int evict(int bucketStart) {
+            while (true) {
+                int slot = bucketStart + (clockHand++ & (BUCKET_SIZE - 1));
+                if (!referenced[slot]) {
+                    return slot;
+                }
+                referenced[slot] = false;
+            }
+        }
+
+        private void clear() {
+            long stamp = lock.writeLock();
+            try {
+                Arrays.fill(keys, EMPTY);
+                Arrays.fill(referenced, false);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+}
@@ -27,6 +27,7 @@ import com.palantir.atlasdb.transaction.api.Transaction;
 import com.palantir.atlasdb.transaction.api.TransactionManager;
 import com.palantir.common.base.Throwables;
 import com.palantir.common.compression.StreamCompression;
+import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
 import com.palantir.util.ByteArrayIOStream;
 import java.io.ByteArrayInputStream;
@@ -35,10 +36,19 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import javax.annotation.CheckForNull;
 import org.slf4j.Logger;
@@ -47,6 +57,8 @@ import org.slf4j.LoggerFactory;
 public abstract class AbstractGenericStreamStore<T> implements GenericStreamStore<T> {
     protected static final Logger log = LoggerFactory.getLogger(AbstractGenericStreamStore.class);
 
+    private static final ExecutorService readAheadExecutor = PTExecutors.newCachedThreadPool("stream-store-read-ahead");
+
     @CheckForNull
     protected final TransactionManager txnMgr;
 
@@ -97,9 +109,14 @@ public abstract class AbstractGenericStreamStore<T> implements GenericStreamStor
                 .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
     }
 
-    private InputStream getStream(Transaction transaction, T id, StreamMetadata metadata) {
+    protected final InputStream getStream(Transaction transaction, T id, StreamMetadata metadata) {
+        if (metadata != null && metadata.getChunked()) {
+            checkStreamStored(id, metadata);
+            return loadChunkedStream(transaction, id, metadata);
+        }
         try {
-            return compression.decompress(tryGetStream(transaction, id, metadata));
+            StreamCompression streamCompression = StreamMetadataCompression.getCompression(metadata, compression);
+            return streamCompression.decompress(tryGetStream(transaction, id, metadata));
         } catch (FileNotFoundException e) {
             log.error("Error opening temp file for stream {}", id, e);
             throw Throwables.rewrapAndThrowUncheckedException("Could not open temp file to create stream.", e);
@@ -143,6 +160,14 @@ public abstract class AbstractGenericStreamStore<T> implements GenericStreamStor
             }
         };
 
+        int blocksToReadAhead = getNumberOfBlocksToReadAhead();
+        if (blocksToReadAhead > 0) {
+            // Transactions must not be used concurrently, so blocks are only fetched in parallel once the parent
+            // transaction has finished and each block is loaded in its own read-only transaction.
+            return new ReadAheadBlockInputStream(
+                    pageRefresher, totalBlocks, blocksToReadAhead, () -> !parent.isUncommitted(), readAheadExecutor);
+        }
+
         try {
             return BlockConsumingInputStream.create(pageRefresher, totalBlocks, blocksInMemory);
         } catch (IOException e) {
@@ -150,12 +175,27 @@ public abstract class AbstractGenericStreamStore<T> implements GenericStreamStor
         }
     }
 
+    /**
+     * Loads a stream whose content is made up of chunks stored as other streams of this stream store.
+     */
+    protected InputStream loadChunkedStream(Transaction transaction, T id, StreamMetadata metadata) {
+        throw new SafeIllegalArgumentException("Chunked streams are not supported by this stream store");
+    }
+
     protected int getNumberOfBlocksThatFitInMemory() {
         int inMemoryThreshold = (int) getInMemoryThreshold(); // safe; actually defined as an int in generated code.
         int blocksInMemory = inMemoryThreshold / BLOCK_SIZE_IN_BYTES;
         return Math.max(1, blocksInMemory);
     }
 
+    /**
+     * The number of blocks to fetch ahead of the reader of streams that span multiple blocks, or 0 to fetch blocks
+     * only as they are needed.
+     */
+    protected int getNumberOfBlocksToReadAhead() {
+        return 0;
+    }
+
     @Override
     public final File loadStreamAsFile(Transaction transaction, T id) {
         StreamMetadata metadata = getMetadata(transaction, id);
@@ -166,7 +206,11 @@ public abstract class AbstractGenericStreamStore<T> implements GenericStreamStor
     private File loadToNewTempFile(Transaction transaction, T id, StreamMetadata metadata) {
         try {
             File file = createTempFile(id);
-            writeStreamToFile(transaction, id, metadata, file);
+            if (isStoredAsRawBlocks(metadata)) {
+                writeBlocksToFile(transaction, id, metadata, file);
+            } else {
+                writeStreamToFile(transaction, id, metadata, file);
+            }
             return file;
         } catch (IOException e) {
             log.error("Could not create temp file for stream id {}", id, e);
@@ -201,6 +245,74 @@ public abstract class AbstractGenericStreamStore<T> implements GenericStreamStor
         }
     }
 
+    /**
+     * Whether the stored blocks of the stream are exactly its content, so that each block can be written straight to
+     * its offset in a file. Compressed and chunked streams must instead be copied through {@link #loadStream}.
+     */
+    private boolean isStoredAsRawBlocks(StreamMetadata metadata) {
+        return !metadata.getChunked()
+                && StreamMetadataCompression.getCompression(metadata, compression) == StreamCompression.NONE;
+    }
+
+    /**
+     * Writes each block of the stream at its offset in the file through a {@link FileChannel}, without copying it
+     * through any intermediate stream. If blocks are read ahead and the given transaction has finished, they are
+     * loaded in parallel and written out of order, each in its own read-only transaction; this is safe because the
+     * blocks of a stored stream are never modified. Transactions must not be used concurrently, and other transactions
+     * cannot see a stream stored by the given transaction while it is open, so until then blocks are loaded in order.
+     */
+    private void writeBlocksToFile(Transaction transaction, T id, StreamMetadata metadata, File file) {
+        long numBlocks = getNumberOfBlocksFromMetadata(metadata);
+        int maxBlocksInFlight = getNumberOfBlocksToReadAhead();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(metadata.getLength());
+            FileChannel channel = raf.getChannel();
+            if (maxBlocksInFlight > 0 && numBlocks > 1 && !transaction.isUncommitted()) {
+                writeBlocksToFileInParallel(id, numBlocks, maxBlocksInFlight, channel);
+            } else {
+                for (long block = 0; block < numBlocks; block++) {
+                    loadSingleBlockToOutputStream(transaction, id, block, new FileChannelOutputStream(channel, block));
+                }
+            }
+        } catch (IOException e) {
+            log.error("Could not finish streaming blocks to file for stream {}", id, e);
+            throw Throwables.rewrapAndThrowUncheckedException("Error writing blocks while opening a stream.", e);
+        }
+    }
+
+    private void writeBlocksToFileInParallel(T id, long numBlocks, int maxBlocksInFlight, FileChannel channel)
+            throws InterruptedIOException {
+        Deque<Future<?>> inFlight = new ArrayDeque<>();
+        try {
+            for (long block = 0; block < numBlocks; block++) {
+                if (inFlight.size() >= maxBlocksInFlight) {
+                    awaitBlock(inFlight.removeFirst());
+                }
+                long blockId = block;
+                inFlight.addLast(readAheadExecutor.submit(() -> txnMgr.runTaskReadOnly(txn -> {
+                    loadSingleBlockToOutputStream(txn, id, blockId, new FileChannelOutputStream(channel, blockId));
+                    return null;
+                })));
+            }
+            while (!inFlight.isEmpty()) {
+                awaitBlock(inFlight.removeFirst());
+            }
+        } finally {
+            inFlight.forEach(future -> future.cancel(false));
+        }
+    }
+
+    private static void awaitBlock(Future<?> future) throws InterruptedIOException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing stream blocks to file");
+        } catch (ExecutionException e) {
+            throw Throwables.rewrapAndThrowUncheckedException(e.getCause());
+        }
+    }
+
     private void loadNBlocksToOutputStream(
             Transaction tx, T streamId, long firstBlock, long numBlocks, OutputStream os) {
         for (long i = 0; i < numBlocks; i++) {
@@ -229,4 +341,31 @@ public abstract class AbstractGenericStreamStore<T> implements GenericStreamStor
     private StreamMetadata getOnlyStreamMetadata(Map<T, StreamMetadata> idToMetadata) {
         return Iterables.getOnlyElement(idToMetadata.values());
     }
+
+    /**
+     * Writes the bytes of a single block to the file at the offset of that block. Positional writes do not affect
+     * each other, so blocks may be written concurrently.
+     */
+    private static final class FileChannelOutputStream extends OutputStream {
+        private final FileChannel channel;
+        private long position;
+
+        private FileChannelOutputStream(FileChannel channel, long blockId) {
+            this.channel = channel;
+            this.position = blockId * BLOCK_SIZE_IN_BYTES;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int off, int len) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, off, len);
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+    }
 }
@@ -17,10 +17,17 @@ package com.palantir.atlasdb.stream;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.google.common.io.ByteSource;
 import com.google.common.io.ByteStreams;
 import com.google.common.io.CountingInputStream;
+import com.google.common.primitives.Bytes;
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
 import com.google.protobuf.ByteString;
 import com.palantir.atlasdb.encoding.PtBytes;
 import com.palantir.atlasdb.protos.generated.StreamPersistence.Status;
@@ -31,21 +38,35 @@ import com.palantir.atlasdb.transaction.api.TransactionTask;
 import com.palantir.atlasdb.transaction.impl.TxTask;
 import com.palantir.common.base.Throwables;
 import com.palantir.common.compression.StreamCompression;
+import com.palantir.common.compression.StreamCompressionProbe;
+import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.common.streams.KeyedStream;
 import com.palantir.util.Pair;
 import com.palantir.util.crypto.Sha256Hash;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Supplier;
 import javax.annotation.Nullable;
 
 public abstract class AbstractPersistentStreamStore extends AbstractGenericStreamStore<Long>
         implements PersistentStreamStore {
+    private static final byte[] CHUNK_REFERENCE_PREFIX = PtBytes.toBytes("atlasdb_stream_chunk_");
+    private static final ExecutorService writeExecutor = PTExecutors.newCachedThreadPool("stream-store-write");
+
     private final StreamStoreBackoffStrategy backoffStrategy;
     private final StreamCompression compression;
+    private final Supplier<StreamStorePersistenceConfiguration> persistenceConfiguration;
 
     protected AbstractPersistentStreamStore(TransactionManager txManager, StreamCompression compression) {
         this(txManager, compression, () -> StreamStorePersistenceConfiguration.DEFAULT_CONFIG);
@@ -57,9 +78,16 @@ public abstract class AbstractPersistentStreamStore extends AbstractGenericStrea
             Supplier<StreamStorePersistenceConfiguration> persistenceConfiguration) {
         super(txManager, compression);
         this.compression = compression;
+        this.persistenceConfiguration = persistenceConfiguration;
         this.backoffStrategy = StandardPeriodicBackoffStrategy.create(persistenceConfiguration);
     }
 
+    @Override
+    protected int getNumberOfBlocksToReadAhead() {
+        long maxBytesInFlight = persistenceConfiguration.get().maxReadAheadBytesInFlight();
+        return Ints.saturatedCast(maxBytesInFlight / BLOCK_SIZE_IN_BYTES);
+    }
+
     protected final void storeMetadataAndIndex(final long streamId, final StreamMetadata metadata) {
         com.palantir.logsafe.Preconditions.checkNotNull(txnMgr, "Transaction manager must not be null");
         txnMgr.runTaskThrowOnConflict((TxTask) tx -> {
@@ -130,11 +158,157 @@ public abstract class AbstractPersistentStreamStore extends AbstractGenericStrea
         // Store empty metadata before doing anything
         long id = storeEmptyMetadata();
 
+        if (persistenceConfiguration.get().contentDefinedChunking()) {
+            return storeChunkedStream(id, stream);
+        }
+
         StreamMetadata metadata = storeBlocksAndGetFinalMetadata(null, id, stream);
         storeMetadataAndIndex(id, metadata);
         return Pair.create(id, new Sha256Hash(metadata.getHash().toByteArray()));
     }
 
+    /**
+     * Stores each chunk of the stream as a separate stream, reusing any stream already stored with the same content,
+     * and stores the ids of these chunks as the content of the given stream. Each chunk is referenced by the stream
+     * in the same transaction that finds or stores it, so that it cannot be cleaned up before the stream is stored.
+     * If storing the stream fails, these references are removed again, so that unused chunks can be cleaned up.
+     */
+    private Pair<Long, Sha256Hash> storeChunkedStream(long id, InputStream stream) {
+        com.palantir.logsafe.Preconditions.checkNotNull(txnMgr, "Transaction manager must not be null");
+        byte[] reference = getChunkReference(id);
+        List<Long> chunkIds = new ArrayList<>();
+        try {
+            return storeChunkedStream(id, stream, reference, chunkIds);
+        } catch (RuntimeException | Error e) {
+            try {
+                txnMgr.runTaskThrowOnConflict((TxTask) tx -> {
+                    unmarkStreamsAsUsed(tx, Maps.toMap(ImmutableSet.copyOf(chunkIds), $ -> reference));
+                    return null;
+                });
+            } catch (RuntimeException unmarkFailure) {
+                log.warn(
+                        "Could not remove the chunk references of stream {} that failed to be stored.",
+                        id,
+                        unmarkFailure);
+            }
+            throw e;
+        }
+    }
+
+    private Pair<Long, Sha256Hash> storeChunkedStream(
+            long id, InputStream stream, byte[] reference, List<Long> chunkIds) {
+        MessageDigest digest = Sha256Hash.getMessageDigest();
+        CountingInputStream countingStream = new CountingInputStream(stream);
+        try (InputStream hashingStream = new DigestInputStream(countingStream, digest)) {
+            ContentDefinedChunker chunker =
+                    new ContentDefinedChunker(hashingStream, ContentDefinedChunker.DEFAULT_AVERAGE_CHUNK_SIZE);
+            Optional<byte[]> chunk;
+            while ((chunk = chunker.nextChunk()).isPresent()) {
+                chunkIds.add(getByHashOrStoreChunkAndMarkAsUsed(chunk.get(), reference));
+            }
+        } catch (IOException e) {
+            long length = countingStream.getCount();
+            StreamMetadata metadata = StreamMetadata.newBuilder()
+                    .setStatus(Status.FAILED)
+                    .setLength(length)
+                    .setHash(ByteString.EMPTY)
+                    .build();
+            storeMetadataAndIndex(id, metadata);
+            log.error("Could not store stream {}. Failed after {} bytes.", id, length, e);
+            throw Throwables.rewrapAndThrowUncheckedException("Failed to store stream.", e);
+        }
+
+        ByteBuffer chunkIdsBuffer = ByteBuffer.allocate(chunkIds.size() * Long.BYTES);
+        chunkIds.forEach(chunkIdsBuffer::putLong);
+        StreamMetadata chunkIdsMetadata =
+                storeBlocksAndGetHashlessMetadata(null, id, new ByteArrayInputStream(chunkIdsBuffer.array()));
+        StreamMetadata metadata = StreamMetadata.newBuilder(chunkIdsMetadata)
+                .setHash(ByteString.copyFrom(digest.digest()))
+                .setChunked(true)
+                .build();
+        storeMetadataAndIndex(id, metadata);
+        return Pair.create(id, new Sha256Hash(metadata.getHash().toByteArray()));
+    }
+
+    private long getByHashOrStoreChunkAndMarkAsUsed(byte[] chunk, byte[] reference) {
+        Sha256Hash hash = Sha256Hash.computeHash(chunk);
+        Long existingChunkId = txnMgr.runTaskThrowOnConflict(tx -> {
+            Long chunkId = lookupStreamIdByHash(tx, hash);
+            if (chunkId != null) {
+                markStreamsAsUsed(tx, ImmutableMap.of(chunkId, reference));
+            }
+            return chunkId;
+        });
+        if (existingChunkId != null) {
+            return existingChunkId;
+        }
+
+        long chunkId = storeEmptyMetadata();
+        StreamMetadata metadata = storeBlocksAndGetFinalMetadata(null, chunkId, new ByteArrayInputStream(chunk));
+        txnMgr.runTaskThrowOnConflict((TxTask) tx -> {
+            putMetadataAndHashIndexTask(tx, chunkId, metadata);
+            markStreamsAsUsedInternal(tx, ImmutableMap.of(chunkId, reference));
+            return null;
+        });
+        return chunkId;
+    }
+
+    @Override
+    protected final InputStream loadChunkedStream(Transaction transaction, Long id, StreamMetadata metadata) {
+        List<Long> chunkIds = loadChunkIds(transaction, id, metadata);
+        Map<Long, StreamMetadata> chunkMetadata = getMetadata(transaction, ImmutableSet.copyOf(chunkIds));
+        List<ByteSource> chunks =
+                Lists.transform(chunkIds, chunkId -> getChunk(transaction, chunkId, chunkMetadata.get(chunkId)));
+        try {
+            // Chunks are only loaded once the previous chunk has been read.
+            return ByteSource.concat(chunks).openStream();
+        } catch (IOException e) {
+            throw Throwables.rewrapAndThrowUncheckedException("Failed to load chunked stream.", e);
+        }
+    }
+
+    private ByteSource getChunk(Transaction parent, long chunkId, StreamMetadata metadata) {
+        return new ByteSource() {
+            @Override
+            public InputStream openStream() {
+                if (parent.isUncommitted()) {
+                    return getStream(parent, chunkId, metadata);
+                }
+                return txnMgr.runTaskReadOnly(txn -> getStream(txn, chunkId, metadata));
+            }
+        };
+    }
+
+    /**
+     * Removes the references from the given stream to its chunks, if it is chunked, so that chunks no longer used by
+     * any stream can be cleaned up. This should only be called when deleting the stream.
+     */
+    protected final void unmarkChunksAsUsed(Transaction tx, long id, StreamMetadata metadata) {
+        if (!metadata.getChunked()) {
+            return;
+        }
+        byte[] reference = getChunkReference(id);
+        unmarkStreamsAsUsed(tx, Maps.toMap(loadChunkIds(tx, id, metadata), $ -> reference));
+    }
+
+    private List<Long> loadChunkIds(Transaction tx, long id, StreamMetadata metadata) {
+        ByteArrayOutputStream chunkIdsStream = new ByteArrayOutputStream(Ints.saturatedCast(metadata.getLength()));
+        long numBlocks = (metadata.getLength() + BLOCK_SIZE_IN_BYTES - 1) / BLOCK_SIZE_IN_BYTES;
+        for (long block = 0; block < numBlocks; block++) {
+            loadSingleBlockToOutputStream(tx, id, block, chunkIdsStream);
+        }
+        ByteBuffer chunkIdsBuffer = ByteBuffer.wrap(chunkIdsStream.toByteArray());
+        List<Long> chunkIds = new ArrayList<>(chunkIdsBuffer.remaining() / Long.BYTES);
+        while (chunkIdsBuffer.hasRemaining()) {
+            chunkIds.add(chunkIdsBuffer.getLong());
+        }
+        return chunkIds;
+    }
+
+    private static byte[] getChunkReference(long id) {
+        return Bytes.concat(CHUNK_REFERENCE_PREFIX, Longs.toByteArray(id));
+    }
+
     @Override
     public Map<Long, Sha256Hash> storeStreams(final Transaction tx, final Map<Long, InputStream> streams) {
         if (streams.isEmpty()) {
@@ -158,12 +332,22 @@ public abstract class AbstractPersistentStreamStore extends AbstractGenericStrea
     // This method is overridden in generated code. Changes to this method may have unintended consequences.
     protected StreamMetadata storeBlocksAndGetFinalMetadata(@Nullable Transaction tx, long id, InputStream stream) {
         MessageDigest digest = Sha256Hash.getMessageDigest();
-        try (InputStream hashingStream = new DigestInputStream(stream, digest);
-                InputStream compressingStream = compression.compress(hashingStream)) {
-            StreamMetadata metadata = storeBlocksAndGetHashlessMetadata(tx, id, compressingStream);
-            return StreamMetadata.newBuilder(metadata)
-                    .setHash(ByteString.copyFrom(digest.digest()))
-                    .build();
+        boolean adaptiveCompression = persistenceConfiguration.get().adaptiveCompression();
+        try (InputStream hashingStream = adaptiveCompression
+                        ? new BufferedInputStream(new DigestInputStream(stream, digest))
+                        : new DigestInputStream(stream, digest)) {
+            StreamCompression streamCompression = adaptiveCompression
+                    ? StreamCompressionProbe.choose(hashingStream, StreamCompressionProbe.DEFAULT_SAMPLE_SIZE)
+                    : compression;
+            try (InputStream compressingStream = streamCompression.compress(hashingStream)) {
+                StreamMetadata metadata = storeBlocksAndGetHashlessMetadata(tx, id, compressingStream);
+                StreamMetadata.Builder builder =
+                        StreamMetadata.newBuilder(metadata).setHash(ByteString.copyFrom(digest.digest()));
+                if (adaptiveCompression) {
+                    builder.setCompression(StreamMetadataCompression.toCompressionType(streamCompression));
+                }
+                return builder.build();
+            }
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -197,6 +381,26 @@ public abstract class AbstractPersistentStreamStore extends AbstractGenericStrea
     }
 
     private void storeBlocksFromStream(@Nullable Transaction tx, long id, InputStream stream) throws IOException {
+        StreamStorePersistenceConfiguration config = persistenceConfiguration.get();
+        int maxBlocksInFlight = Ints.saturatedCast(config.maxWriteBytesInFlight() / BLOCK_SIZE_IN_BYTES);
+        if (streamOperationIsTransactional(tx) || maxBlocksInFlight == 0) {
+            storeBlocksFromStream(
+                    tx, stream, (blockNumber, block) -> storeBlockWithNonNullTransaction(tx, id, blockNumber, block));
+            return;
+        }
+
+        try (PipelinedBlockWriter writer = new PipelinedBlockWriter(
+                (firstBlockNumber, blocks) -> storeBlocksInTransaction(id, firstBlockNumber, blocks),
+                maxBlocksInFlight,
+                config.numBlocksPerWriteTransaction(),
+                writeExecutor)) {
+            storeBlocksFromStream(tx, stream, writer::write);
+            writer.flush();
+        }
+    }
+
+    private void storeBlocksFromStream(@Nullable Transaction tx, InputStream stream, BlockWriter blockWriter)
+            throws IOException {
         long blockNumber = 0;
 
         while (true) {
@@ -208,11 +412,11 @@ public abstract class AbstractPersistentStreamStore extends AbstractGenericStrea
             }
             if (length < BLOCK_SIZE_IN_BYTES) {
                 // This is the last block.
-                storeBlockWithNonNullTransaction(tx, id, blockNumber, PtBytes.head(bytesToStore, length));
+                blockWriter.write(blockNumber, PtBytes.head(bytesToStore, length));
                 break;
             } else {
                 // Store a full block.
-                storeBlockWithNonNullTransaction(tx, id, blockNumber, bytesToStore);
+                blockWriter.write(blockNumber, bytesToStore);
             }
             blockNumber++;
             if (!streamOperationIsTransactional(tx)) {
@@ -221,6 +425,16 @@ public abstract class AbstractPersistentStreamStore extends AbstractGenericStrea
         }
     }
 
+    private void storeBlocksInTransaction(long id, long firstBlockNumber, List<byte[]> blocks) {
+        com.palantir.logsafe.Preconditions.checkNotNull(txnMgr, "Transaction manager must not be null");
+        txnMgr.runTaskThrowOnConflict((TransactionTask<Void, RuntimeException>) t1 -> {
+            for (int i = 0; i < blocks.size(); i++) {
+                storeBlock(t1, id, firstBlockNumber + i, blocks.get(i));
+            }
+            return null;
+        });
+    }
+
     private boolean streamOperationIsTransactional(@Nullable Transaction tx) {
         // TODO (jkong): I'm using tx == null as a proxy for whether the entire operation should be done
         // transactionally or not (null implies nontransactional).
@@ -257,4 +471,8 @@ public abstract class AbstractPersistentStreamStore extends AbstractGenericStrea
             throws StreamCleanedException;
 
     protected abstract void markStreamsAsUsedInternal(Transaction tx, Map<Long, byte[]> streamIdsToReference);
+
+    private interface BlockWriter {
+        void write(long blockNumber, byte[] block) throws IOException;
+    }
 }
@@ -0,0 +1,109 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.stream;
+
+import com.google.common.io.ByteStreams;
+import com.palantir.logsafe.Preconditions;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Random;
+
+/**
+ * Splits a stream into chunks at positions determined by the content just before them, using a gear rolling hash.
+ * Unlike fixed-size blocks, inserting or removing bytes only changes the chunks around the edit: later chunk
+ * boundaries are found at the same content, so the remaining chunks are unchanged and can be shared between
+ * near-identical streams.
+ *
+ * Chunk boundaries must never change for the same content, as that would prevent sharing chunks with streams that
+ * are already stored; in particular, the gear table is generated from a fixed seed.
+ */
+final class ContentDefinedChunker {
+    static final int DEFAULT_AVERAGE_CHUNK_SIZE = 1 << 20; // 1 MB
+
+    private static final long[] GEAR = createGearTable();
+
+    private final InputStream stream;
+    private final int minChunkSize;
+    private final int maxChunkSize;
+    private final long boundaryMask;
+
+    private final byte[] buffer;
+    private int bufferedBytes = 0;
+    private boolean exhausted = false;
+
+    /**
+     * Chunks are between a quarter and four times {@code averageChunkSize} long, which must be a power of two.
+     */
+    ContentDefinedChunker(InputStream stream, int averageChunkSize) {
+        Preconditions.checkArgument(
+                averageChunkSize >= 64 && Integer.bitCount(averageChunkSize) == 1,
+                "Average chunk size must be a power of two of at least 64 bytes");
+        this.stream = stream;
+        this.minChunkSize = averageChunkSize / 4;
+        this.maxChunkSize = averageChunkSize * 4;
+        // A boundary is expected once every averageChunkSize bytes past the minimum chunk size; subtracting the
+        // minimum keeps the mean chunk size close to the requested average.
+        this.boundaryMask = Long.highestOneBit(averageChunkSize - minChunkSize) - 1;
+        this.buffer = new byte[maxChunkSize];
+    }
+
+    Optional<byte[]> nextChunk() throws IOException {
+        fillBuffer();
+        if (bufferedBytes == 0) {
+            return Optional.empty();
+        }
+        int chunkLength = findChunkLength();
+        byte[] chunk = Arrays.copyOf(buffer, chunkLength);
+        System.arraycopy(buffer, chunkLength, buffer, 0, bufferedBytes - chunkLength);
+        bufferedBytes -= chunkLength;
+        return Optional.of(chunk);
+    }
+
+    private void fillBuffer() throws IOException {
+        if (!exhausted && bufferedBytes < maxChunkSize) {
+            int read = ByteStreams.read(stream, buffer, bufferedBytes, maxChunkSize - bufferedBytes);
+            bufferedBytes += read;
+            exhausted = bufferedBytes < maxChunkSize;
+        }
+    }
+
+    private int findChunkLength() {
+        if (bufferedBytes <= minChunkSize) {
+            return bufferedBytes;
+        }
+        // Each byte is shifted out of the hash after Long.SIZE bytes, so earlier bytes need not be hashed.
+        long hash = 0L;
+        for (int i = Math.max(0, minChunkSize - Long.SIZE); i < bufferedBytes; i++) {
+            hash = (hash << 1) + GEAR[buffer[i] & 0xff];
+            if (i >= minChunkSize && (hash & boundaryMask) == 0) {
+                return i + 1;
+            }
+        }
+        return bufferedBytes;
+    }
+
+    private static long[] createGearTable() {
+        Random random = new Random(0x5eed_c0de_1234_5678L);
+        long[] gear = new long[256];
+        for (int i = 0; i < gear.length; i++) {
+            gear[i] = random.nextLong();
+        }
+        return gear;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.stream;
+
+import com.palantir.logsafe.Preconditions;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Writes the blocks of a stream in batches of up to {@code maxBlocksPerBatch} consecutive blocks, with batches
+ * written in parallel while the caller reads further blocks. At most {@code maxBlocksInFlight} blocks (or a single
+ * batch, if larger) are written at once; {@link #write} blocks the caller until enough earlier batches have finished.
+ *
+ * Failures of a batch are surfaced by a later call to {@link #write} or {@link #flush}, after which no further
+ * batches should be written.
+ */
+final class PipelinedBlockWriter implements AutoCloseable {
+    interface BatchWriter {
+        void write(long firstBlockNumber, List<byte[]> blocks);
+    }
+
+    private final BatchWriter batchWriter;
+    private final int maxBlocksInFlight;
+    private final int maxBlocksPerBatch;
+    private final ExecutorService executor;
+
+    private final Deque<Batch> batchesInFlight = new ArrayDeque<>();
+    private int blocksInFlight = 0;
+    private List<byte[]> nextBatch = new ArrayList<>();
+    private long firstBlockOfNextBatch = 0L;
+
+    PipelinedBlockWriter(
+            BatchWriter batchWriter, int maxBlocksInFlight, int maxBlocksPerBatch, ExecutorService executor) {
+        Preconditions.checkArgument(maxBlocksInFlight > 0, "maxBlocksInFlight must be positive");
+        Preconditions.checkArgument(maxBlocksPerBatch > 0, "maxBlocksPerBatch must be positive");
+        this.batchWriter = batchWriter;
+        this.maxBlocksInFlight = maxBlocksInFlight;
+        this.maxBlocksPerBatch = maxBlocksPerBatch;
+        this.executor = executor;
+    }
+
+    void write(long blockNumber, byte[] block) throws IOException {
+        if (nextBatch.isEmpty()) {
+            firstBlockOfNextBatch = blockNumber;
+        }
+        nextBatch.add(block);
+        if (nextBatch.size() >= maxBlocksPerBatch) {
+            submitNextBatch();
+        }
+    }
+
+    /**
+     * Writes any remaining blocks, and waits for all blocks to have been written.
+     */
+    void flush() throws IOException {
+        if (!nextBatch.isEmpty()) {
+            submitNextBatch();
+        }
+        while (!batchesInFlight.isEmpty()) {
+            awaitOldestBatch();
+        }
+    }
+
+    @Override
+    public void close() {
+        batchesInFlight.forEach(batch -> batch.result.cancel(true));
+        batchesInFlight.clear();
+        blocksInFlight = 0;
+    }
+
+    private void submitNextBatch() throws IOException {
+        while (!batchesInFlight.isEmpty() && blocksInFlight + nextBatch.size() > maxBlocksInFlight) {
+            awaitOldestBatch();
+        }
+        List<byte[]> blocks = nextBatch;
+        long firstBlockNumber = firstBlockOfNextBatch;
+        Future<?> result = executor.submit(() -> batchWriter.write(firstBlockNumber, blocks));
+        batchesInFlight.add(new Batch(blocks.size(), result));
+        blocksInFlight += blocks.size();
+        nextBatch = new ArrayList<>();
+    }
+
+    private void awaitOldestBatch() throws IOException {
+        Batch batch = batchesInFlight.poll();
+        try {
+            batch.result.get();
+            blocksInFlight -= batch.numBlocks;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new InterruptedIOException("Interrupted while waiting for blocks of the stream to be written");
+        } catch (ExecutionException e) {
+            close();
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException("Failed to write blocks of the stream", cause);
+        }
+    }
+
+    private static final class Batch {
+        private final int numBlocks;
+        private final Future<?> result;
+
+        private Batch(int numBlocks, Future<?> result) {
+            this.numBlocks = numBlocks;
+            this.result = result;
+        }
+    }
+}
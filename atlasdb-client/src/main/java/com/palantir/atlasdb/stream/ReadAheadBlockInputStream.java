@@ -0,0 +1,225 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.stream;
+
+import com.palantir.logsafe.Preconditions;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+/**
+ * An input stream over blocks that fetches the next {@code maxBlocksInFlight} blocks concurrently while earlier blocks
+ * are being read, so that reading a large stream is bounded by throughput rather than by the latency of fetching each
+ * block in turn. At most {@code maxBlocksInFlight} blocks are buffered ahead of the reader, and block buffers are
+ * reused as the reader moves past them.
+ *
+ * Blocks are only fetched ahead while {@code canReadAhead} holds; otherwise they are fetched one at a time on the
+ * reading thread, as by {@link BlockConsumingInputStream}. This allows the {@link BlockGetter} to read through a
+ * transaction that must not be used concurrently, for as long as that transaction is open.
+ */
+public final class ReadAheadBlockInputStream extends InputStream {
+    private static final byte[] EMPTY = new byte[0];
+
+    private final BlockGetter blockGetter;
+    private final long numBlocks;
+    private final int maxBlocksInFlight;
+    private final BooleanSupplier canReadAhead;
+    private final ExecutorService executor;
+
+    private final Deque<Future<Block>> blocksInFlight = new ArrayDeque<>();
+    private final Queue<byte[]> freeBuffers = new ConcurrentLinkedQueue<>();
+
+    private long nextBlockToFetch = 0L;
+    private Block currentBlock = new Block(EMPTY, 0);
+    private int positionInBlock = 0;
+    private boolean closed = false;
+
+    public ReadAheadBlockInputStream(
+            BlockGetter blockGetter,
+            long numBlocks,
+            int maxBlocksInFlight,
+            BooleanSupplier canReadAhead,
+            ExecutorService executor) {
+        Preconditions.checkArgument(maxBlocksInFlight > 0, "maxBlocksInFlight must be positive");
+        this.blockGetter = blockGetter;
+        this.numBlocks = numBlocks;
+        this.maxBlocksInFlight = maxBlocksInFlight;
+        this.canReadAhead = canReadAhead;
+        this.executor = executor;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureBytesAvailable()) {
+            return -1;
+        }
+        return currentBlock.data[positionInBlock++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] bytes, int off, int len) throws IOException {
+        Preconditions.checkNotNull(bytes, "Cannot read into a null array!");
+        if (off < 0 || len < 0 || len > bytes.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+
+        int bytesRead = 0;
+        while (bytesRead < len && ensureBytesAvailable()) {
+            int bytesToCopy = Math.min(currentBlock.length - positionInBlock, len - bytesRead);
+            System.arraycopy(currentBlock.data, positionInBlock, bytes, off + bytesRead, bytesToCopy);
+            positionInBlock += bytesToCopy;
+            bytesRead += bytesToCopy;
+        }
+        return bytesRead == 0 ? -1 : bytesRead;
+    }
+
+    @Override
+    public int available() {
+        return currentBlock.length - positionInBlock;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        blocksInFlight.forEach(block -> block.cancel(true));
+        blocksInFlight.clear();
+    }
+
+    private boolean ensureBytesAvailable() throws IOException {
+        Preconditions.checkState(!closed, "Cannot read from a closed stream");
+        while (positionInBlock >= currentBlock.length) {
+            if (!moveToNextBlock()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean moveToNextBlock() throws IOException {
+        if (currentBlock.data != EMPTY) {
+            freeBuffers.add(currentBlock.data);
+        }
+        currentBlock = new Block(EMPTY, 0);
+        positionInBlock = 0;
+
+        if (blocksInFlight.isEmpty() && !canReadAhead.getAsBoolean()) {
+            if (nextBlockToFetch >= numBlocks) {
+                return false;
+            }
+            currentBlock = fetch(nextBlockToFetch++);
+            return true;
+        }
+
+        fillPipeline();
+        Future<Block> nextBlock = blocksInFlight.poll();
+        if (nextBlock == null) {
+            return false;
+        }
+        currentBlock = await(nextBlock);
+        fillPipeline();
+        return true;
+    }
+
+    private void fillPipeline() {
+        while (blocksInFlight.size() < maxBlocksInFlight && nextBlockToFetch < numBlocks) {
+            long block = nextBlockToFetch++;
+            blocksInFlight.add(executor.submit(() -> fetch(block)));
+        }
+    }
+
+    private Block fetch(long block) {
+        byte[] buffer = freeBuffers.poll();
+        BlockOutputStream outputStream =
+                new BlockOutputStream(buffer != null ? buffer : new byte[blockGetter.expectedBlockLength()]);
+        blockGetter.get(block, 1, outputStream);
+        return new Block(outputStream.buffer, outputStream.length);
+    }
+
+    private Block await(Future<Block> block) throws IOException {
+        try {
+            return block.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new InterruptedIOException("Interrupted while waiting for a block of the stream");
+        } catch (ExecutionException e) {
+            close();
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException("Failed to fetch a block of the stream", cause);
+        }
+    }
+
+    private static final class Block {
+        private final byte[] data;
+        private final int length;
+
+        private Block(byte[] data, int length) {
+            this.data = data;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Writes into a reused block buffer, only allocating if a block turns out to be longer than expected.
+     */
+    private static final class BlockOutputStream extends OutputStream {
+        private byte[] buffer;
+        private int length = 0;
+
+        private BlockOutputStream(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void write(int byteToWrite) {
+            ensureCapacity(length + 1);
+            buffer[length++] = (byte) byteToWrite;
+        }
+
+        @Override
+        public void write(byte[] bytes, int off, int len) {
+            ensureCapacity(length + len);
+            System.arraycopy(bytes, off, buffer, length, len);
+            length += len;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(capacity, 2 * buffer.length));
+            }
+        }
+    }
+}
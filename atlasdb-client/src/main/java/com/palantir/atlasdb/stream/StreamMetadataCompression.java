@@ -0,0 +1,58 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.stream;
+
+import com.palantir.atlasdb.protos.generated.StreamPersistence.StreamCompressionType;
+import com.palantir.atlasdb.protos.generated.StreamPersistence.StreamMetadata;
+import com.palantir.common.compression.StreamCompression;
+
+/**
+ * Maps between the compression of a stream and how it is recorded in the stream's metadata. Streams whose metadata
+ * does not record a compression were compressed as configured for their stream store.
+ */
+final class StreamMetadataCompression {
+    private StreamMetadataCompression() {
+        /* */
+    }
+
+    static StreamCompression getCompression(StreamMetadata metadata, StreamCompression storeCompression) {
+        if (!metadata.hasCompression()) {
+            return storeCompression;
+        }
+        switch (metadata.getCompression()) {
+            case UNCOMPRESSED:
+                return StreamCompression.NONE;
+            case LZ4_COMPRESSED:
+                return StreamCompression.LZ4;
+            case GZIP_COMPRESSED:
+                return StreamCompression.GZIP;
+        }
+        throw new AssertionError("Unreachable code");
+    }
+
+    static StreamCompressionType toCompressionType(StreamCompression compression) {
+        switch (compression) {
+            case NONE:
+                return StreamCompressionType.UNCOMPRESSED;
+            case LZ4:
+                return StreamCompressionType.LZ4_COMPRESSED;
+            case GZIP:
+                return StreamCompressionType.GZIP_COMPRESSED;
+        }
+        throw new AssertionError("Unreachable code");
+    }
+}
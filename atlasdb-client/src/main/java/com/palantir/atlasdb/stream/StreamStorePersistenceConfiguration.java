@@ -54,11 +54,80 @@ public interface StreamStorePersistenceConfiguration {
         return 0;
     }
 
+    /**
+     * The maximum number of bytes of blocks that streams loaded outside of a transaction fetch ahead of the reader,
+     * in parallel. Streams are still read one block at a time for as long as the transaction that loaded them is
+     * open. Uncompressed streams loaded with loadStreamAsFile() once its transaction has finished also fetch this many
+     * blocks in parallel, each in its own read-only transaction, and write them straight to their offsets in the file.
+     * Set to 0 to disable read-ahead.
+     *
+     * This parameter is live reloadable, and applies to streams loaded after it was reloaded.
+     */
+    @Value.Default
+    default long maxReadAheadBytesInFlight() {
+        return 0;
+    }
+
+    /**
+     * The maximum number of bytes of blocks that a nontransactional storeStream() writes in parallel, while reading
+     * further blocks from the stream. Set to 0 to write blocks one at a time. Transactional stores always write
+     * blocks one at a time, as transactions must not be used concurrently.
+     *
+     * This parameter is live reloadable, and applies to streams stored after it was reloaded.
+     */
+    @Value.Default
+    default long maxWriteBytesInFlight() {
+        return 0;
+    }
+
+    /**
+     * The number of consecutive blocks that a parallel storeStream() writes in each transaction, and so in a single
+     * put to the key value service. Only used if maxWriteBytesInFlight is positive.
+     */
+    @Value.Default
+    default int numBlocksPerWriteTransaction() {
+        return 1;
+    }
+
+    /**
+     * Whether storeStream() should choose the compression of each stream by sampling its start, overriding the
+     * compression configured for the stream store: streams that barely compress (such as already compressed media)
+     * are stored uncompressed, and all other streams are compressed with LZ4. The chosen compression is recorded in
+     * the stream's metadata, so this should only be enabled once all readers of the stream store record and respect
+     * it.
+     *
+     * This parameter is live reloadable, and applies to streams stored after it was reloaded.
+     */
+    @Value.Default
+    default boolean adaptiveCompression() {
+        return false;
+    }
+
+    /**
+     * Whether a nontransactional storeStream() should split streams into content-defined chunks of about 1 MB, each
+     * stored as a separate stream that is shared with all other streams containing the same chunk. This greatly
+     * reduces the space taken by streams that are stored many times with small changes, at the cost of an extra
+     * transaction per chunk when storing streams. Chunked streams cannot be read by versions of AtlasDB that do not
+     * support them, so this should only be enabled once all readers of the stream store have been upgraded.
+     * Generated stream stores only release the chunks of deleted streams if they were regenerated with a version of
+     * AtlasDB that calls unmarkChunksAsUsed() on deletion; chunks of streams deleted from older generated stores leak.
+     *
+     * This parameter is live reloadable, and applies to streams stored after it was reloaded.
+     */
+    @Value.Default
+    default boolean contentDefinedChunking() {
+        return false;
+    }
+
     @Value.Check
     default void check() {
         Preconditions.checkState(
                 numBlocksToWriteBeforePause() > 0, "Number of blocks to write before pausing must be positive");
         Preconditions.checkState(
                 writePauseDurationMillis() >= 0, "Pause duration between batches of writes must be non-negative");
+        Preconditions.checkState(maxReadAheadBytesInFlight() >= 0, "Read-ahead bytes in flight must be non-negative");
+        Preconditions.checkState(maxWriteBytesInFlight() >= 0, "Write bytes in flight must be non-negative");
+        Preconditions.checkState(
+                numBlocksPerWriteTransaction() > 0, "Number of blocks per write transaction must be positive");
     }
 }
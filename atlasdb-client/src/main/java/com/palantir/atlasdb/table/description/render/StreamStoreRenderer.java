@@ -648,6 +648,7 @@ public class StreamStoreRenderer {
                         line(StreamHashAidxRow, " hashRow = ", StreamHashAidxRow, ".of(hash);");
                         line(StreamHashAidxColumn, " column = ", StreamHashAidxColumn, ".of(streamId);");
                         line("shToDelete.put(hashRow, column);");
+                        line("unmarkChunksAsUsed(t, streamId, e.getValue());");
                     }
                     line("}");
 
@@ -0,0 +1,132 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import org.junit.Test;
+
+public final class PrimitiveTimestampCacheTests {
+    private static final long CACHE_SIZE = 1_000;
+
+    private final AtomicLong size = new AtomicLong(CACHE_SIZE);
+    private final PrimitiveTimestampCache cache = new PrimitiveTimestampCache(size::get, 4);
+
+    @Test
+    public void cachedEntry() {
+        cache.putAlreadyCommittedTransaction(1L, 3L);
+
+        assertThat(cache.getCommitTimestampIfPresent(1L)).isEqualTo(3L);
+    }
+
+    @Test
+    public void nonCachedEntry() {
+        cache.putAlreadyCommittedTransaction(1L, 3L);
+
+        assertThat(cache.getCommitTimestampIfPresent(2L)).isNull();
+    }
+
+    @Test
+    public void clearRemovesAllEntries() {
+        cache.putAlreadyCommittedTransaction(1L, 3L);
+        cache.putAlreadyCommittedTransaction(2L, 4L);
+
+        cache.clear();
+
+        assertThat(cache.getCommitTimestampIfPresent(1L)).isNull();
+        assertThat(cache.getCommitTimestampIfPresent(2L)).isNull();
+    }
+
+    @Test
+    public void capacityIsAtLeastConfiguredSize() {
+        assertThat(cache.capacity()).isBetween(CACHE_SIZE, 4 * CACHE_SIZE);
+
+        LongStream.range(0, CACHE_SIZE).forEach(ts -> cache.putAlreadyCommittedTransaction(ts, ts + 1));
+        long cachedEntries = LongStream.range(0, CACHE_SIZE)
+                .filter(ts -> cache.getCommitTimestampIfPresent(ts) != null)
+                .count();
+
+        assertThat(cachedEntries).isGreaterThan(CACHE_SIZE / 2);
+    }
+
+    @Test
+    public void evictsEntriesWhenFull() {
+        long numEntries = 10 * cache.capacity();
+        LongStream.range(0, numEntries).forEach(ts -> cache.putAlreadyCommittedTransaction(ts, ts + 1));
+
+        long cachedEntries = LongStream.range(0, numEntries)
+                .filter(ts -> cache.getCommitTimestampIfPresent(ts) != null)
+                .count();
+
+        assertThat(cachedEntries).isLessThanOrEqualTo(cache.capacity());
+        assertThat(cache.getCommitTimestampIfPresent(numEntries - 1)).isEqualTo(numEntries);
+    }
+
+    @Test
+    public void referencedEntriesSurviveEviction() {
+        cache.putAlreadyCommittedTransaction(-1L, 1L);
+
+        for (long ts = 0; ts < 10 * cache.capacity(); ts++) {
+            assertThat(cache.getCommitTimestampIfPresent(-1L)).isEqualTo(1L);
+            cache.putAlreadyCommittedTransaction(ts, ts + 1);
+        }
+    }
+
+    @Test
+    public void resizingDiscardsEntries() {
+        cache.putAlreadyCommittedTransaction(1L, 3L);
+        size.set(2 * CACHE_SIZE);
+
+        assertThat(cache.getCommitTimestampIfPresent(1L)).isNull();
+        assertThat(cache.capacity()).isGreaterThanOrEqualTo(2 * CACHE_SIZE);
+
+        cache.putAlreadyCommittedTransaction(1L, 3L);
+        assertThat(cache.getCommitTimestampIfPresent(1L)).isEqualTo(3L);
+    }
+
+    @Test
+    public void concurrentReadsNeverObserveWrongValues() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 100_000; j++) {
+                        long startTs = ThreadLocalRandom.current().nextLong(10 * CACHE_SIZE);
+                        cache.putAlreadyCommittedTransaction(startTs, 2 * startTs);
+                        long readTs = ThreadLocalRandom.current().nextLong(10 * CACHE_SIZE);
+                        Long commitTs = cache.getCommitTimestampIfPresent(readTs);
+                        assertThat(commitTs).isIn(null, 2 * readTs);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
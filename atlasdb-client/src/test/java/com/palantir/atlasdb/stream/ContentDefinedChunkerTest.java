@@ -0,0 +1,108 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.primitives.Bytes;
+import com.palantir.util.crypto.Sha256Hash;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+public class ContentDefinedChunkerTest {
+    private static final int AVERAGE_CHUNK_SIZE = 1 << 12;
+    private static final byte[] DATA = randomBytes(1_000_000);
+
+    @Test
+    public void chunksReassembleToStream() throws IOException {
+        List<byte[]> chunks = chunk(DATA);
+
+        assertThat(Bytes.concat(chunks.toArray(new byte[0][]))).isEqualTo(DATA);
+    }
+
+    @Test
+    public void chunksAreWithinBounds() throws IOException {
+        List<byte[]> chunks = chunk(DATA);
+
+        assertThat(chunks.subList(0, chunks.size() - 1)).allSatisfy(chunk -> assertThat(chunk.length)
+                .isBetween(AVERAGE_CHUNK_SIZE / 4, AVERAGE_CHUNK_SIZE * 4));
+        assertThat(chunks.size()).isBetween(DATA.length / (AVERAGE_CHUNK_SIZE * 2), DATA.length / (AVERAGE_CHUNK_SIZE / 2));
+    }
+
+    @Test
+    public void splitsStreamsWithoutBoundariesIntoMaximumSizeChunks() throws IOException {
+        List<byte[]> chunks = chunk(new byte[AVERAGE_CHUNK_SIZE * 10]);
+
+        assertThat(chunks).hasSize(3);
+        assertThat(chunks.get(0)).hasSize(AVERAGE_CHUNK_SIZE * 4);
+        assertThat(chunks.get(2)).hasSize(AVERAGE_CHUNK_SIZE * 2);
+    }
+
+    @Test
+    public void editsOnlyChangeNearbyChunks() throws IOException {
+        byte[] edited = Bytes.concat(
+                Arrays.copyOfRange(DATA, 0, DATA.length / 2),
+                randomBytes(10),
+                Arrays.copyOfRange(DATA, DATA.length / 2, DATA.length));
+
+        Set<Sha256Hash> originalChunks = hashes(chunk(DATA));
+        Set<Sha256Hash> editedChunks = hashes(chunk(edited));
+
+        assertThat(editedChunks.stream().filter(hash -> !originalChunks.contains(hash)))
+                .hasSizeBetween(1, 2);
+    }
+
+    @Test
+    public void emptyStreamHasNoChunks() throws IOException {
+        assertThat(chunk(new byte[0])).isEmpty();
+    }
+
+    @Test
+    public void rejectsAverageChunkSizesThatAreNotPowersOfTwo() {
+        assertThatThrownBy(() -> new ContentDefinedChunker(new ByteArrayInputStream(DATA), 1000))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<byte[]> chunk(byte[] data) throws IOException {
+        ContentDefinedChunker chunker = new ContentDefinedChunker(new ByteArrayInputStream(data), AVERAGE_CHUNK_SIZE);
+        List<byte[]> chunks = new ArrayList<>();
+        Optional<byte[]> chunk;
+        while ((chunk = chunker.nextChunk()).isPresent()) {
+            chunks.add(chunk.get());
+        }
+        return chunks;
+    }
+
+    private static Set<Sha256Hash> hashes(List<byte[]> chunks) {
+        return chunks.stream().map(Sha256Hash::computeHash).collect(Collectors.toSet());
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+}
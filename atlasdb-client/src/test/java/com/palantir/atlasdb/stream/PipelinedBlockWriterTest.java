@@ -0,0 +1,130 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+public class PipelinedBlockWriterTest {
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Map<Long, byte[]> writtenBlocks = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> batchSizes = new ConcurrentHashMap<>();
+    private final AtomicInteger blocksInFlight = new AtomicInteger();
+    private final AtomicInteger maxBlocksInFlight = new AtomicInteger();
+    private final CountDownLatch unblockWrites = new CountDownLatch(1);
+
+    private volatile long failWritesOf = -1;
+
+    @After
+    public void tearDown() {
+        unblockWrites.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void writesAllBlocksInBatches() throws IOException {
+        unblockWrites.countDown();
+        try (PipelinedBlockWriter writer = new PipelinedBlockWriter(this::writeBatch, 8, 3, executor)) {
+            for (long block = 0; block < 10; block++) {
+                writer.write(block, new byte[] {(byte) block});
+            }
+            writer.flush();
+        }
+
+        assertThat(writtenBlocks).hasSize(10);
+        writtenBlocks.forEach((block, data) -> assertThat(data).containsExactly((byte) block.longValue()));
+        assertThat(batchSizes).containsOnlyKeys(0L, 3L, 6L, 9L);
+        assertThat(batchSizes.get(9L)).isEqualTo(1);
+    }
+
+    @Test
+    public void doesNotWriteMoreThanMaxBlocksInFlight() throws IOException {
+        unblockWrites.countDown();
+        try (PipelinedBlockWriter writer = new PipelinedBlockWriter(this::writeBatch, 4, 2, executor)) {
+            for (long block = 0; block < 50; block++) {
+                writer.write(block, new byte[1]);
+            }
+            writer.flush();
+        }
+
+        assertThat(writtenBlocks).hasSize(50);
+        assertThat(maxBlocksInFlight.get()).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    public void writesBlocksWhileCallerContinues() throws Exception {
+        try (PipelinedBlockWriter writer = new PipelinedBlockWriter(this::writeBatch, 4, 1, executor)) {
+            for (long block = 0; block < 4; block++) {
+                writer.write(block, new byte[1]);
+            }
+            assertThat(writtenBlocks).isEmpty();
+
+            unblockWrites.countDown();
+            writer.flush();
+        }
+
+        assertThat(writtenBlocks).hasSize(4);
+    }
+
+    @Test
+    public void propagatesWriteFailures() {
+        unblockWrites.countDown();
+        failWritesOf = 2;
+        PipelinedBlockWriter writer = new PipelinedBlockWriter(this::writeBatch, 2, 1, executor);
+
+        assertThatThrownBy(() -> {
+                    for (long block = 0; block < 10; block++) {
+                        writer.write(block, new byte[1]);
+                    }
+                    writer.flush();
+                })
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("boom");
+        assertThat(writtenBlocks).doesNotContainKey(2L);
+    }
+
+    private void writeBatch(long firstBlockNumber, List<byte[]> blocks) {
+        maxBlocksInFlight.accumulateAndGet(blocksInFlight.addAndGet(blocks.size()), Math::max);
+        try {
+            unblockWrites.await(10, TimeUnit.SECONDS);
+            if (firstBlockNumber == failWritesOf) {
+                throw new IllegalStateException("boom");
+            }
+            batchSizes.put(firstBlockNumber, blocks.size());
+            for (int i = 0; i < blocks.size(); i++) {
+                writtenBlocks.put(firstBlockNumber + i, blocks.get(i));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            blocksInFlight.addAndGet(-blocks.size());
+        }
+    }
+}
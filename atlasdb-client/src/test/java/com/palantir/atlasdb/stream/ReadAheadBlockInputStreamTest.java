@@ -0,0 +1,155 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+public class ReadAheadBlockInputStreamTest {
+    private static final int BLOCK_LENGTH = 16;
+    private static final int NUM_BLOCKS = 20;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Set<Thread> fetchingThreads = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger fetchesInFlight = new AtomicInteger();
+    private final AtomicInteger maxFetchesInFlight = new AtomicInteger();
+
+    private volatile long failFetchesOf = -1;
+
+    private final BlockGetter blockGetter = new BlockGetter() {
+        @Override
+        public void get(long firstBlock, long numBlocks, OutputStream destination) {
+            fetchingThreads.add(Thread.currentThread());
+            maxFetchesInFlight.accumulateAndGet(fetchesInFlight.incrementAndGet(), Math::max);
+            try {
+                if (firstBlock == failFetchesOf) {
+                    throw new IllegalStateException("boom");
+                }
+                for (long block = firstBlock; block < firstBlock + numBlocks; block++) {
+                    destination.write(blockData(block));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                fetchesInFlight.decrementAndGet();
+            }
+        }
+
+        @Override
+        public int expectedBlockLength() {
+            return BLOCK_LENGTH;
+        }
+    };
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void readsAllBlocksInOrder() throws IOException {
+        try (InputStream stream = new ReadAheadBlockInputStream(blockGetter, NUM_BLOCKS, 4, () -> true, executor)) {
+            assertThat(ByteStreams.toByteArray(stream)).isEqualTo(expectedData(NUM_BLOCKS));
+        }
+    }
+
+    @Test
+    public void readsSingleBytesAcrossBlocks() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream stream = new ReadAheadBlockInputStream(blockGetter, NUM_BLOCKS, 3, () -> true, executor)) {
+            int next;
+            while ((next = stream.read()) != -1) {
+                bytes.write(next);
+            }
+        }
+        assertThat(bytes.toByteArray()).isEqualTo(expectedData(NUM_BLOCKS));
+    }
+
+    @Test
+    public void doesNotFetchMoreThanMaxBlocksInFlight() throws IOException {
+        try (InputStream stream = new ReadAheadBlockInputStream(blockGetter, NUM_BLOCKS, 2, () -> true, executor)) {
+            ByteStreams.exhaust(stream);
+        }
+        assertThat(maxFetchesInFlight.get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    public void fetchesBlocksOnReadingThreadWhileReadAheadIsNotAllowed() throws IOException {
+        try (InputStream stream = new ReadAheadBlockInputStream(blockGetter, NUM_BLOCKS, 4, () -> false, executor)) {
+            assertThat(ByteStreams.toByteArray(stream)).isEqualTo(expectedData(NUM_BLOCKS));
+        }
+        assertThat(fetchingThreads).containsExactly(Thread.currentThread());
+    }
+
+    @Test
+    public void startsReadingAheadOnceAllowed() throws IOException {
+        AtomicInteger checks = new AtomicInteger();
+        try (InputStream stream = new ReadAheadBlockInputStream(
+                blockGetter, NUM_BLOCKS, 4, () -> checks.incrementAndGet() > 2, executor)) {
+            assertThat(ByteStreams.toByteArray(stream)).isEqualTo(expectedData(NUM_BLOCKS));
+        }
+        assertThat(fetchingThreads).contains(Thread.currentThread()).hasSizeGreaterThan(1);
+    }
+
+    @Test
+    public void propagatesFetchFailures() {
+        failFetchesOf = 5;
+        InputStream stream = new ReadAheadBlockInputStream(blockGetter, NUM_BLOCKS, 4, () -> true, executor);
+
+        assertThatThrownBy(() -> ByteStreams.exhaust(stream))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("boom");
+    }
+
+    @Test
+    public void emptyStreamReturnsEndOfStream() throws IOException {
+        try (InputStream stream = new ReadAheadBlockInputStream(blockGetter, 0, 4, () -> true, executor)) {
+            assertThat(stream.read()).isEqualTo(-1);
+            assertThat(stream.read(new byte[4], 0, 4)).isEqualTo(-1);
+        }
+    }
+
+    private static byte[] expectedData(int numBlocks) {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        for (long block = 0; block < numBlocks; block++) {
+            data.write(blockData(block), 0, BLOCK_LENGTH);
+        }
+        return data.toByteArray();
+    }
+
+    private static byte[] blockData(long block) {
+        byte[] data = new byte[BLOCK_LENGTH];
+        for (int i = 0; i < BLOCK_LENGTH; i++) {
+            data[i] = (byte) (block * BLOCK_LENGTH + i);
+        }
+        return data;
+    }
+}
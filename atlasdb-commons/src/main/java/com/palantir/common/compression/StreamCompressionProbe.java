@@ -0,0 +1,66 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.common.compression;
+
+import com.google.common.io.ByteStreams;
+import com.palantir.logsafe.Preconditions;
+import java.io.IOException;
+import java.io.InputStream;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+
+/**
+ * Chooses how to compress a stream by compressing a sample from its start. Data that is already compressed (such as
+ * most images, video and archives) barely shrinks, so is left uncompressed rather than spending CPU on both writes
+ * and reads for no gain; anything else is compressed with LZ4, which is cheap enough to be worth it for modest gains.
+ */
+public final class StreamCompressionProbe {
+    public static final int DEFAULT_SAMPLE_SIZE = 1 << 16; // 64 KB
+    private static final double MAX_COMPRESSED_RATIO = 0.9;
+
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+
+    private StreamCompressionProbe() {
+        /* */
+    }
+
+    /**
+     * Returns the compression to use for the given stream, sampling up to {@code sampleSize} bytes from its start.
+     * The stream must support {@link InputStream#mark}, and is reset to its start before returning.
+     */
+    public static StreamCompression choose(InputStream stream, int sampleSize) throws IOException {
+        Preconditions.checkArgument(stream.markSupported(), "Stream must support mark to be sampled");
+        byte[] sample = new byte[sampleSize];
+        stream.mark(sampleSize);
+        int length;
+        try {
+            length = ByteStreams.read(stream, sample, 0, sampleSize);
+        } finally {
+            stream.reset();
+        }
+        return choose(sample, length);
+    }
+
+    static StreamCompression choose(byte[] sample, int length) {
+        if (length == 0) {
+            return StreamCompression.NONE;
+        }
+        byte[] compressed = new byte[COMPRESSOR.maxCompressedLength(length)];
+        int compressedLength = COMPRESSOR.compress(sample, 0, length, compressed, 0);
+        return compressedLength <= length * MAX_COMPRESSED_RATIO ? StreamCompression.LZ4 : StreamCompression.NONE;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.common.compression;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.io.ByteStreams;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+
+public class StreamCompressionProbeTest {
+    private static final int DATA_SIZE = 1_000_000;
+
+    @Test
+    public void compressesCompressibleData() throws IOException {
+        byte[] data = new byte[DATA_SIZE];
+        Arrays.fill(data, (byte) 42);
+
+        assertThat(choose(data)).isEqualTo(StreamCompression.LZ4);
+    }
+
+    @Test
+    public void doesNotCompressIncompressibleData() throws IOException {
+        byte[] data = new byte[DATA_SIZE];
+        new Random(0).nextBytes(data);
+
+        assertThat(choose(data)).isEqualTo(StreamCompression.NONE);
+    }
+
+    @Test
+    public void doesNotCompressAlreadyCompressedData() throws IOException {
+        byte[] data = new byte[DATA_SIZE];
+        new Random(0).nextBytes(data);
+        Arrays.fill(data, 0, DATA_SIZE / 2, (byte) 42);
+        byte[] compressed = ByteStreams.toByteArray(StreamCompression.GZIP.compress(new ByteArrayInputStream(data)));
+
+        assertThat(choose(compressed)).isEqualTo(StreamCompression.NONE);
+    }
+
+    @Test
+    public void doesNotCompressEmptyStreams() throws IOException {
+        assertThat(choose(new byte[0])).isEqualTo(StreamCompression.NONE);
+    }
+
+    @Test
+    public void resetsStreamAfterSampling() throws IOException {
+        byte[] data = new byte[DATA_SIZE];
+        new Random(0).nextBytes(data);
+        InputStream stream = new BufferedInputStream(new ByteArrayInputStream(data));
+
+        StreamCompressionProbe.choose(stream, StreamCompressionProbe.DEFAULT_SAMPLE_SIZE);
+
+        assertThat(ByteStreams.toByteArray(stream)).isEqualTo(data);
+    }
+
+    @Test
+    public void rejectsStreamsThatDoNotSupportMark() {
+        InputStream stream = new InputStream() {
+            @Override
+            public int read() {
+                return -1;
+            }
+        };
+
+        assertThatThrownBy(() -> StreamCompressionProbe.choose(stream, StreamCompressionProbe.DEFAULT_SAMPLE_SIZE))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static StreamCompression choose(byte[] data) throws IOException {
+        InputStream stream = new BufferedInputStream(new ByteArrayInputStream(data));
+        return StreamCompressionProbe.choose(stream, StreamCompressionProbe.DEFAULT_SAMPLE_SIZE);
+    }
+}
@@ -711,7 +711,10 @@ public abstract class TransactionManagers {
                 () -> AtlasDbMetrics.instrumentTimed(
                         metricsManager.getRegistry(),
                         TransactionService.class,
-                        TransactionServices.createTransactionService(keyValueService, transactionSchemaManager)),
+                        TransactionServices.createTransactionService(
+                                keyValueService,
+                                transactionSchemaManager,
+                                () -> runtimeConfigSupplier.get().transaction().batchTransactions2Reads())),
                 closeables);
         Optional<TransactionSchemaInstaller> schemaInstaller = getTransactionSchemaInstallerIfSupported(
                 closeables, keyValueService, runtimeConfigSupplier, transactionSchemaManager);
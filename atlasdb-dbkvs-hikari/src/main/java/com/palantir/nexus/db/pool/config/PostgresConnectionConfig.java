@@ -48,6 +48,9 @@ public abstract class PostgresConnectionConfig extends ConnectionConfig {
     /**
      * Set arbitrary additional connection parameters.
      * See https://jdbc.postgresql.org/documentation/head/connect.html
+     *
+     * For example, setting reWriteBatchedInserts to true sends each batch of DbKvs inserts to the server as a single
+     * multi-row insert, at the cost of the driver no longer reporting per-row update counts for batches.
      */
     @Value.Default
     public Map<String, String> getConnectionParameters() {
@@ -0,0 +1,50 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.nexus.db.pool.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class PostgresConnectionConfigTest {
+    private static final String REWRITE_BATCHED_INSERTS = "reWriteBatchedInserts";
+
+    @Test
+    public void batchedInsertsAreNotRewrittenByDefault() {
+        PostgresConnectionConfig connectionConfig = getBaseBuilder().build();
+        assertThat(connectionConfig.getHikariProperties().getProperty(REWRITE_BATCHED_INSERTS))
+                .isNull();
+    }
+
+    @Test
+    public void connectionParametersCanEnableBatchedInsertRewriting() {
+        PostgresConnectionConfig connectionConfig = getBaseBuilder()
+                .putConnectionParameters(REWRITE_BATCHED_INSERTS, "true")
+                .build();
+        assertThat(connectionConfig.getHikariProperties().getProperty(REWRITE_BATCHED_INSERTS))
+                .isEqualTo("true");
+    }
+
+    private static ImmutablePostgresConnectionConfig.Builder getBaseBuilder() {
+        return ImmutablePostgresConnectionConfig.builder()
+                .dbName("atlas")
+                .dbLogin("login")
+                .dbPassword(ImmutableMaskedValue.of("password"))
+                .host("host")
+                .port(5432);
+    }
+}
@@ -16,12 +16,15 @@
 package com.palantir.atlasdb.keyvalue.dbkvs;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.primitives.UnsignedBytes;
 import com.palantir.atlasdb.AtlasDbConstants;
 import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.Namespace;
 import com.palantir.atlasdb.keyvalue.api.RangeRequest;
 import com.palantir.atlasdb.keyvalue.api.RowResult;
@@ -33,6 +36,7 @@ import com.palantir.atlasdb.keyvalue.impl.KvsManager;
 import com.palantir.common.base.ClosableIterator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeSet;
@@ -45,6 +49,14 @@ public abstract class AbstractDbKvsKeyValueServiceTest extends AbstractKeyValueS
     protected static final String TEST_LONG_TABLE_NAME =
             "ThisShouldAlwaysBeAVeryLongTableNameThatExceedsPostgresLengthLimit";
 
+    private static final TableReference OTHER_TABLE = TableReference.create(TEST_NAMESPACE, "multi_put_test");
+    private static final TableReference MISSING_TABLE = TableReference.create(TEST_NAMESPACE, "missing_table");
+    private static final Cell CELL_1 = Cell.create(PtBytes.toBytes("row1"), PtBytes.toBytes("col"));
+    private static final Cell CELL_2 = Cell.create(PtBytes.toBytes("row2"), PtBytes.toBytes("col"));
+    private static final byte[] VALUE_1 = PtBytes.toBytes("value1");
+    private static final byte[] VALUE_2 = PtBytes.toBytes("value2");
+    private static final long PUT_TIMESTAMP = 10L;
+
     public AbstractDbKvsKeyValueServiceTest(KvsManager kvsManager) {
         super(kvsManager);
     }
@@ -64,6 +76,45 @@ public abstract class AbstractDbKvsKeyValueServiceTest extends AbstractKeyValueS
         keyValueService.dropTable(longTableName);
     }
 
+    @Test
+    public void multiPutWritesPartitionsOfSeveralTablesSharingACheckout() {
+        keyValueService.createTable(OTHER_TABLE, AtlasDbConstants.GENERIC_TABLE_METADATA);
+        try {
+            keyValueService.multiPut(
+                    ImmutableMap.of(
+                            TEST_TABLE, ImmutableMap.of(CELL_1, VALUE_1),
+                            OTHER_TABLE, ImmutableMap.of(CELL_1, VALUE_2, CELL_2, VALUE_2)),
+                    PUT_TIMESTAMP);
+
+            assertThat(getLatestValue(TEST_TABLE, CELL_1)).isEqualTo(VALUE_1);
+            assertThat(getLatestValue(OTHER_TABLE, CELL_1)).isEqualTo(VALUE_2);
+            assertThat(getLatestValue(OTHER_TABLE, CELL_2)).isEqualTo(VALUE_2);
+        } finally {
+            keyValueService.dropTable(OTHER_TABLE);
+        }
+    }
+
+    @Test
+    public void multiPutFailingPartwayThroughACheckoutThrowsAndReleasesTheConnection() {
+        keyValueService.createTable(OTHER_TABLE, AtlasDbConstants.GENERIC_TABLE_METADATA);
+        try {
+            Map<TableReference, Map<Cell, byte[]>> valuesByTable = ImmutableMap.of(
+                    TEST_TABLE, ImmutableMap.of(CELL_1, VALUE_1),
+                    MISSING_TABLE, ImmutableMap.of(CELL_1, VALUE_1),
+                    OTHER_TABLE, ImmutableMap.of(CELL_2, VALUE_2));
+
+            assertThatThrownBy(() -> keyValueService.multiPut(valuesByTable, PUT_TIMESTAMP))
+                    .isInstanceOf(RuntimeException.class);
+
+            // Partitions written before the failure are not rolled back, as multiPut is not atomic.
+            assertThat(getLatestValue(TEST_TABLE, CELL_1)).isEqualTo(VALUE_1);
+            keyValueService.multiPut(ImmutableMap.of(OTHER_TABLE, ImmutableMap.of(CELL_2, VALUE_2)), PUT_TIMESTAMP);
+            assertThat(getLatestValue(OTHER_TABLE, CELL_2)).isEqualTo(VALUE_2);
+        } finally {
+            keyValueService.dropTable(OTHER_TABLE);
+        }
+    }
+
     @Test
     public void getRangeOfTimestampsMaxRangeOfTimestampsBatchSizeBatchingTest() {
         setupTestTable();
@@ -177,6 +228,13 @@ public abstract class AbstractDbKvsKeyValueServiceTest extends AbstractKeyValueS
                 .build();
     }
 
+    private byte[] getLatestValue(TableReference table, Cell cell) {
+        return keyValueService
+                .get(table, ImmutableMap.of(cell, Long.MAX_VALUE))
+                .get(cell)
+                .getContents();
+    }
+
     private void setMaxRangeOfTimestampsBatchSize(long value) {
         DbKvsTestUtils.setMaxRangeOfTimestampsBatchSize(value, (ConnectionManagerAwareDbKvs) keyValueService);
     }
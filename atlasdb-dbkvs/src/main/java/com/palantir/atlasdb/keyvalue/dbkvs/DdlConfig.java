@@ -57,6 +57,26 @@ public abstract class DdlConfig {
         return 2 * 1024 * 1024;
     }
 
+    /**
+     * The maximum number of asynchronous gets that may wait for a connection at any time. Further asynchronous gets
+     * fail immediately until the waiting gets have been served.
+     */
+    @Value.Default
+    public int maxPendingAsyncGets() {
+        return 10_000;
+    }
+
+    /**
+     * If true, gets return views of the compact
+     * {@link com.palantir.atlasdb.keyvalue.dbkvs.impl.ColumnarCellValues}, which retain far fewer objects for large
+     * results until their entries are accessed. Transactions still create a cell and value for every entry they
+     * post-filter, so this does not reduce allocation for most workloads, and is off by default.
+     */
+    @Value.Default
+    public boolean enableColumnarReads() {
+        return false;
+    }
+
     @Value.Check
     protected final void check() {
         Preconditions.checkState(
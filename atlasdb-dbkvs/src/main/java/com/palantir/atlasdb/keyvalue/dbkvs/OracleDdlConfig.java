@@ -65,6 +65,15 @@ public abstract class OracleDdlConfig extends DdlConfig {
 
     public abstract OverflowMigrationState overflowMigrationState();
 
+    /**
+     * Total size of recently read overflow values to cache across all tables. Overflow values are never modified once
+     * written, so cached values cannot become stale. Set to 0 to disable the cache.
+     */
+    @Value.Default
+    public long overflowValueCacheSizeBytes() {
+        return 16 * 1024 * 1024;
+    }
+
     @Value.Default
     public boolean enableOracleEnterpriseFeatures() {
         return false;
@@ -50,4 +50,29 @@ public abstract class PostgresDdlConfig extends DdlConfig {
     public HumanReadableDuration compactInterval() {
         return HumanReadableDuration.seconds(0);
     }
+
+    /**
+     * If positive, values put with explicit timestamps, as by migrations and backfills, are bulk loaded with COPY in
+     * chunks of up to this many cells, rather than inserted in batches. Falls back to batched inserts if COPY cannot be
+     * used, or if any of the loaded cells already exist.
+     */
+    @Value.Default
+    public int bulkLoadChunkSize() {
+        return 0;
+    }
+
+    /**
+     * If true, each getRange is streamed from a single query held open for the lifetime of the returned iterator,
+     * rather than re-queried page by page. Every open range holds a connection, so iterators must be closed; those
+     * left idle for longer than {@link #streamingRangeIdleTimeout()} are closed automatically.
+     */
+    @Value.Default
+    public boolean streamingRanges() {
+        return false;
+    }
+
+    @Value.Default
+    public HumanReadableDuration streamingRangeIdleTimeout() {
+        return HumanReadableDuration.minutes(10);
+    }
 }
@@ -72,6 +72,11 @@ public abstract class AbstractDbWriteTable implements DbWriteTable {
         put(args);
     }
 
+    @Override
+    public boolean tryBulkPut(Collection<Map.Entry<Cell, Value>> data) {
+        return false;
+    }
+
     private void put(List<Object[]> args) {
         try {
             String prefixedTableName = prefixedTableNames.get(tableRef, conns);
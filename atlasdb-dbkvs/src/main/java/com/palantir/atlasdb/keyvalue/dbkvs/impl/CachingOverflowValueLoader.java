@@ -0,0 +1,95 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.dbkvs.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Caches recently read overflow values, so that repeated reads of large values do not need a second query. Overflow
+ * values are never modified and overflow ids are never reused, so cached values never need to be invalidated.
+ *
+ * The cache is bounded by the total size of the cached values, and evicts the least recently read values first.
+ */
+public final class CachingOverflowValueLoader implements OverflowValueLoader {
+    private final OverflowValueLoader delegate;
+    private final Cache<OverflowKey, byte[]> cache;
+
+    public CachingOverflowValueLoader(OverflowValueLoader delegate, long maxCachedBytes) {
+        this.delegate = delegate;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxCachedBytes)
+                .weigher((OverflowKey key, byte[] value) -> value.length)
+                .build();
+    }
+
+    @Override
+    public Map<Long, byte[]> loadOverflowValues(
+            ConnectionSupplier conns, TableReference tableRef, Collection<Long> overflowIds) {
+        Map<Long, byte[]> values = new HashMap<>(overflowIds.size());
+        List<Long> uncachedIds = new ArrayList<>();
+        for (Long overflowId : overflowIds) {
+            byte[] value = cache.getIfPresent(new OverflowKey(tableRef, overflowId));
+            if (value != null) {
+                values.put(overflowId, value);
+            } else {
+                uncachedIds.add(overflowId);
+            }
+        }
+        if (!uncachedIds.isEmpty()) {
+            delegate.loadOverflowValues(conns, tableRef, uncachedIds).forEach((overflowId, value) -> {
+                cache.put(new OverflowKey(tableRef, overflowId), value);
+                values.put(overflowId, value);
+            });
+        }
+        return values;
+    }
+
+    private static final class OverflowKey {
+        private final TableReference tableRef;
+        private final long overflowId;
+
+        private OverflowKey(TableReference tableRef, long overflowId) {
+            this.tableRef = tableRef;
+            this.overflowId = overflowId;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (other == null || getClass() != other.getClass()) {
+                return false;
+            }
+            OverflowKey that = (OverflowKey) other;
+            return overflowId == that.overflowId && tableRef.equals(that.tableRef);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tableRef, overflowId);
+        }
+    }
+}
@@ -0,0 +1,464 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.dbkvs.impl;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.IntFunction;
+import javax.annotation.Nullable;
+
+/**
+ * A compact, read-only result of a multi-get against {@link DbKvs}. The row names, column names, contents and
+ * timestamps of the entries are held in one array each, rather than in a {@link Cell} and {@link Value} per entry,
+ * and the arrays given to the {@link Builder} are held as they are rather than copied. This means that a
+ * result retains only the byte arrays read from the database, as opposed to the three or more further objects per
+ * cell retained by a {@code Map<Cell, Value>}.
+ *
+ * {@link Cell} and {@link Value} objects are only created when an entry is accessed through {@link #getCell(int)},
+ * {@link #getValue(int)} or the {@link #asMap()} view; callers that only need timestamps or sizes may use the
+ * primitive accessors instead. Each {@link #asMap()} view creates the cell and value of an entry at most once, so
+ * callers that access every entry allocate about as much as for a {@code Map<Cell, Value>} result.
+ *
+ * Cells and values share their byte arrays with this class, so as with the cells and values of a map result, callers
+ * must not modify them.
+ *
+ * Each cell appears at most once. If the same cell is added to a {@link Builder} more than once, the entry with the
+ * highest timestamp is kept.
+ */
+public final class ColumnarCellValues {
+    private static final int EMPTY_SLOT = -1;
+
+    private static final ColumnarCellValues EMPTY =
+            new ColumnarCellValues(new byte[0][], new byte[0][], new byte[0][], new long[0], 0, 0);
+
+    private final byte[][] rowNames;
+    private final byte[][] columnNames;
+    private final byte[][] contents;
+    private final long[] timestamps;
+    private final int size;
+    private final long sizeInBytes;
+
+    // Lazily built open addressing table from cell hash to entry index; benign data races are permitted.
+    private int[] index;
+
+    private ColumnarCellValues(
+            byte[][] rowNames, byte[][] columnNames, byte[][] contents, long[] timestamps, int size, long sizeInBytes) {
+        this.rowNames = rowNames;
+        this.columnNames = columnNames;
+        this.contents = contents;
+        this.timestamps = timestamps;
+        this.size = size;
+        this.sizeInBytes = sizeInBytes;
+    }
+
+    public static ColumnarCellValues of() {
+        return EMPTY;
+    }
+
+    public static ColumnarCellValues copyOf(Map<Cell, Value> values) {
+        Optional<ColumnarCellValues> columnar = fromView(values);
+        if (columnar.isPresent()) {
+            return columnar.get();
+        }
+        Builder builder = builder();
+        values.forEach(builder::add);
+        return builder.build();
+    }
+
+    /**
+     * Returns the values backing the given map, if it is a view returned by {@link #asMap()}.
+     */
+    public static Optional<ColumnarCellValues> fromView(Map<Cell, Value> values) {
+        if (values instanceof MapView) {
+            return Optional.of(((MapView) values).values);
+        }
+        return Optional.empty();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns a builder sized for the given number of entries, so that it need not grow as they are added.
+     */
+    public static Builder builder(int expectedEntries) {
+        return new Builder(Math.max(expectedEntries, 1));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the combined length of the row names, column names and contents of all entries.
+     */
+    public long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    public long getTimestamp(int entry) {
+        checkEntry(entry);
+        return timestamps[entry];
+    }
+
+    public int getContentsLength(int entry) {
+        checkEntry(entry);
+        return contents[entry].length;
+    }
+
+    public Cell getCell(int entry) {
+        checkEntry(entry);
+        return Cell.create(rowNames[entry], columnNames[entry]);
+    }
+
+    public byte[] getContents(int entry) {
+        checkEntry(entry);
+        return contents[entry];
+    }
+
+    public Value getValue(int entry) {
+        checkEntry(entry);
+        return Value.create(contents[entry], timestamps[entry]);
+    }
+
+    /**
+     * Returns the index of the entry for the given cell, or -1 if there is no such entry.
+     */
+    public int indexOf(Cell cell) {
+        if (size == 0) {
+            return -1;
+        }
+        int[] table = getIndex();
+        int mask = table.length - 1;
+        for (int slot = cell.hashCode() & mask; table[slot] != EMPTY_SLOT; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (Arrays.equals(rowNames[entry], cell.getRowName())
+                    && Arrays.equals(columnNames[entry], cell.getColumnName())) {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns an unmodifiable map view of these values. Keys and values are created as entries are first accessed,
+     * and are then retained by the view. Iteration follows the order in which entries were added.
+     */
+    public Map<Cell, Value> asMap() {
+        return new MapView(this);
+    }
+
+    private void checkEntry(int entry) {
+        Preconditions.checkElementIndex(entry, size);
+    }
+
+    private boolean entriesHaveSameCell(int entry, int other) {
+        return Arrays.equals(rowNames[entry], rowNames[other]) && Arrays.equals(columnNames[entry], columnNames[other]);
+    }
+
+    /**
+     * Consistent with {@link Cell#hashCode()}, so that entries can be looked up by {@link Cell}.
+     */
+    private int cellHash(int entry) {
+        return Arrays.hashCode(rowNames[entry]) ^ Arrays.hashCode(columnNames[entry]);
+    }
+
+    private int[] getIndex() {
+        int[] table = index;
+        if (table == null) {
+            table = buildIndex();
+            index = table;
+        }
+        return table;
+    }
+
+    /**
+     * Builds the lookup table, keeping the entry with the highest timestamp for any cell that appears more than once.
+     */
+    private int[] buildIndex() {
+        int[] table = new int[Integer.highestOneBit(Math.max(2 * size, 1)) << 1];
+        Arrays.fill(table, EMPTY_SLOT);
+        int mask = table.length - 1;
+        for (int entry = 0; entry < size; entry++) {
+            int slot = cellHash(entry) & mask;
+            while (table[slot] != EMPTY_SLOT && !entriesHaveSameCell(table[slot], entry)) {
+                slot = (slot + 1) & mask;
+            }
+            if (table[slot] == EMPTY_SLOT || timestamps[entry] > timestamps[table[slot]]) {
+                table[slot] = entry;
+            }
+        }
+        return table;
+    }
+
+    private ColumnarCellValues withoutDuplicateCells() {
+        int[] table = getIndex();
+        boolean[] retained = new boolean[size];
+        int numRetained = 0;
+        for (int entry : table) {
+            if (entry != EMPTY_SLOT) {
+                retained[entry] = true;
+                numRetained++;
+            }
+        }
+        if (numRetained == size) {
+            return this;
+        }
+        Builder builder = new Builder(numRetained);
+        for (int entry = 0; entry < size; entry++) {
+            if (retained[entry]) {
+                builder.add(rowNames[entry], columnNames[entry], contents[entry], timestamps[entry]);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Accumulates entries. Building hands the accumulated arrays over to the built values without copying them, and
+     * leaves the builder empty. This class is not thread-safe.
+     */
+    public static final class Builder {
+        private static final int DEFAULT_EXPECTED_ENTRIES = 16;
+
+        private byte[][] rowNames;
+        private byte[][] columnNames;
+        private byte[][] contents;
+        private long[] timestamps;
+        private int size;
+        private long sizeInBytes;
+
+        private Builder() {
+            this(DEFAULT_EXPECTED_ENTRIES);
+        }
+
+        private Builder(int expectedEntries) {
+            reset(expectedEntries);
+        }
+
+        public Builder add(Cell cell, Value value) {
+            return add(cell.getRowName(), cell.getColumnName(), value.getContents(), value.getTimestamp());
+        }
+
+        /**
+         * Adds an entry. The given arrays are held as they are, and so must not be modified afterwards. As with
+         * {@link Value#create(byte[], long)}, null contents are treated as empty.
+         */
+        public Builder add(byte[] rowName, byte[] columnName, @Nullable byte[] entryContents, long timestamp) {
+            byte[] nonNullContents = entryContents == null ? PtBytes.EMPTY_BYTE_ARRAY : entryContents;
+            ensureCapacity(size + 1);
+            rowNames[size] = rowName;
+            columnNames[size] = columnName;
+            contents[size] = nonNullContents;
+            timestamps[size] = timestamp;
+            size++;
+            sizeInBytes += rowName.length + columnName.length + nonNullContents.length;
+            return this;
+        }
+
+        public Builder addAll(ColumnarCellValues values) {
+            appendAll(values.rowNames, values.columnNames, values.contents, values.timestamps, values.size);
+            sizeInBytes += values.sizeInBytes;
+            return this;
+        }
+
+        public Builder addAll(Builder other) {
+            appendAll(other.rowNames, other.columnNames, other.contents, other.timestamps, other.size);
+            sizeInBytes += other.sizeInBytes;
+            return this;
+        }
+
+        public ColumnarCellValues build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            ColumnarCellValues values =
+                    new ColumnarCellValues(rowNames, columnNames, contents, timestamps, size, sizeInBytes);
+            reset(DEFAULT_EXPECTED_ENTRIES);
+            return values.withoutDuplicateCells();
+        }
+
+        private void reset(int expectedEntries) {
+            rowNames = new byte[expectedEntries][];
+            columnNames = new byte[expectedEntries][];
+            contents = new byte[expectedEntries][];
+            timestamps = new long[expectedEntries];
+            size = 0;
+            sizeInBytes = 0;
+        }
+
+        private void appendAll(
+                byte[][] otherRowNames,
+                byte[][] otherColumnNames,
+                byte[][] otherContents,
+                long[] otherTimestamps,
+                int otherSize) {
+            ensureCapacity(size + otherSize);
+            System.arraycopy(otherRowNames, 0, rowNames, size, otherSize);
+            System.arraycopy(otherColumnNames, 0, columnNames, size, otherSize);
+            System.arraycopy(otherContents, 0, contents, size, otherSize);
+            System.arraycopy(otherTimestamps, 0, timestamps, size, otherSize);
+            size += otherSize;
+        }
+
+        private void ensureCapacity(int entries) {
+            if (entries > timestamps.length) {
+                int newCapacity = Math.max(entries, 2 * timestamps.length);
+                rowNames = Arrays.copyOf(rowNames, newCapacity);
+                columnNames = Arrays.copyOf(columnNames, newCapacity);
+                contents = Arrays.copyOf(contents, newCapacity);
+                timestamps = Arrays.copyOf(timestamps, newCapacity);
+            }
+        }
+    }
+
+    private static final class MapView extends AbstractMap<Cell, Value> {
+        private final ColumnarCellValues values;
+
+        // Entries created so far, allocated on first access; benign data races are permitted.
+        private Cell[] cells;
+        private Value[] cellValues;
+
+        private MapView(ColumnarCellValues values) {
+            this.values = values;
+        }
+
+        private Cell cell(int entry) {
+            Cell[] created = cells;
+            if (created == null) {
+                created = new Cell[values.size];
+                cells = created;
+            }
+            Cell cell = created[entry];
+            if (cell == null) {
+                cell = values.getCell(entry);
+                created[entry] = cell;
+            }
+            return cell;
+        }
+
+        private Value value(int entry) {
+            Value[] created = cellValues;
+            if (created == null) {
+                created = new Value[values.size];
+                cellValues = created;
+            }
+            Value value = created[entry];
+            if (value == null) {
+                value = values.getValue(entry);
+                created[entry] = value;
+            }
+            return value;
+        }
+
+        @Override
+        public int size() {
+            return values.size;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return values.size == 0;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Cell && values.indexOf((Cell) key) != -1;
+        }
+
+        @Override
+        public Value get(Object key) {
+            if (!(key instanceof Cell)) {
+                return null;
+            }
+            int entry = values.indexOf((Cell) key);
+            return entry == -1 ? null : value(entry);
+        }
+
+        @Override
+        public Set<Entry<Cell, Value>> entrySet() {
+            return new AbstractSet<Entry<Cell, Value>>() {
+                @Override
+                public Iterator<Entry<Cell, Value>> iterator() {
+                    return new EntryIterator<>(
+                            values.size, entry -> Maps.immutableEntry(cell(entry), value(entry)));
+                }
+
+                @Override
+                public int size() {
+                    return values.size;
+                }
+            };
+        }
+
+        @Override
+        public Collection<Value> values() {
+            return new AbstractCollection<Value>() {
+                @Override
+                public Iterator<Value> iterator() {
+                    return new EntryIterator<>(values.size, MapView.this::value);
+                }
+
+                @Override
+                public int size() {
+                    return values.size;
+                }
+            };
+        }
+    }
+
+    private static final class EntryIterator<T> implements Iterator<T> {
+        private final int size;
+        private final IntFunction<T> entryFunction;
+        private int next = 0;
+
+        private EntryIterator(int size, IntFunction<T> entryFunction) {
+            this.size = size;
+            this.entryFunction = entryFunction;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return entryFunction.apply(next++);
+        }
+    }
+}
@@ -71,8 +71,17 @@ public final class ConnectionManagerAwareDbKvs extends ForwardingKeyValueService
         return new SqlConnectionSupplier() {
             @Override
             public SqlConnection get() {
+                return createSqlConnection(supplier.get());
+            }
+
+            @Override
+            public SqlConnection getUnsharedConnection() {
+                return createSqlConnection(connectionSupplier.getUnsharedConnection());
+            }
+
+            private SqlConnection createSqlConnection(Connection connection) {
                 return new ConnectionBackedSqlConnectionImpl(
-                        supplier.get(),
+                        connection,
                         () -> {
                             throw new UnsupportedOperationException(
                                     "This SQL connection does not provide reliable timestamp.");
@@ -38,6 +38,11 @@ public class ConnectionSupplier implements SqlConnectionSupplier {
         return sharedConnection;
     }
 
+    @Override
+    public SqlConnection getUnsharedConnection() {
+        return delegate.get();
+    }
+
     /**
      * Returns fresh PalantirSqlConnection. It is the responsibility of the consumer of this method
      * to close the returned connection when done.
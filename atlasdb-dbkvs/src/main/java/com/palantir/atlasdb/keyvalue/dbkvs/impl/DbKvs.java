@@ -15,6 +15,7 @@
  */
 package com.palantir.atlasdb.keyvalue.dbkvs.impl;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Functions;
 import com.google.common.base.Stopwatch;
@@ -34,7 +35,6 @@ import com.google.common.collect.Multimaps;
 import com.google.common.collect.Ordering;
 import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.Atomics;
-import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.palantir.atlasdb.AtlasDbConstants;
 import com.palantir.atlasdb.keyvalue.api.BatchColumnRangeSelection;
@@ -64,6 +64,7 @@ import com.palantir.atlasdb.keyvalue.dbkvs.PostgresDdlConfig;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.batch.AccumulatorStrategies;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.batch.BatchingStrategies;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.batch.BatchingTaskRunner;
+import com.palantir.atlasdb.keyvalue.dbkvs.impl.batch.CoalescingAsyncGetter;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.batch.ImmediateSingleBatchTaskRunner;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.batch.ParallelTaskRunner;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.oracle.OracleCellTsPageLoader;
@@ -86,7 +87,6 @@ import com.palantir.common.annotation.Output;
 import com.palantir.common.base.ClosableIterator;
 import com.palantir.common.base.ClosableIterators;
 import com.palantir.common.base.Throwables;
-import com.palantir.common.collect.Maps2;
 import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.exception.PalantirSqlException;
 import com.palantir.logsafe.Preconditions;
@@ -119,7 +119,9 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -146,6 +148,19 @@ public final class DbKvs extends AbstractKeyValueService {
     private final OverflowValueLoader overflowValueLoader;
     private final DbKvsGetRange getRangeStrategy;
     private final DbKvsGetCandidateCellsForSweeping getCandidateCellsForSweepingStrategy;
+    private final CoalescingAsyncGetter asyncGetter;
+    private final int bulkLoadChunkSize;
+
+    /**
+     * Only present for databases whose tables can have overflow values.
+     */
+    private final Optional<ExecutorService> overflowPrefetchExecutor;
+
+    /**
+     * Bounds the number of connections overflow prefetches may hold or wait for to a fraction of the pool, so that
+     * they do not take connections from the reads they are prefetching for.
+     */
+    private final Semaphore overflowPrefetchPermits;
 
     public static DbKvs create(DbKeyValueServiceConfig config, SqlConnectionSupplier sqlConnSupplier) {
         DbKvs dbKvs = createNoInit(config.ddl(), sqlConnSupplier);
@@ -194,7 +209,13 @@ public final class DbKvs extends AbstractKeyValueService {
                 connections,
                 new ParallelTaskRunner(newFixedThreadPool(config.poolSize()), config.fetchBatchSize()),
                 (conns, tbl, ids) -> Collections.emptyMap(), // no overflow on postgres
-                new PostgresGetRange(prefixedTableNames, connections, tableMetadataCache),
+                new PostgresGetRange(
+                        prefixedTableNames,
+                        connections,
+                        tableMetadataCache,
+                        config.streamingRanges()
+                                ? Optional.of(config.streamingRangeIdleTimeout().toJavaDuration())
+                                : Optional.empty()),
                 new DbKvsGetCandidateCellsForSweeping(cellTsPairLoader));
     }
 
@@ -206,7 +227,9 @@ public final class DbKvs extends AbstractKeyValueService {
         DbTableFactory tableFactory = new OracleDbTableFactory(
                 oracleDdlConfig, tableNameGetter, prefixedTableNames, valueStyleCache, executor);
         TableMetadataCache tableMetadataCache = new TableMetadataCache(tableFactory);
-        OverflowValueLoader overflowValueLoader = new OracleOverflowValueLoader(oracleDdlConfig, tableNameGetter);
+        OverflowValueLoader overflowValueLoader = new CachingOverflowValueLoader(
+                new OracleOverflowValueLoader(oracleDdlConfig, tableNameGetter),
+                oracleDdlConfig.overflowValueCacheSizeBytes());
         DbKvsGetRange getRange = new OracleGetRange(
                 connections,
                 overflowValueLoader,
@@ -249,6 +272,54 @@ public final class DbKvs extends AbstractKeyValueService {
         this.overflowValueLoader = overflowValueLoader;
         this.getRangeStrategy = getRangeStrategy;
         this.getCandidateCellsForSweepingStrategy = getCandidateCellsForSweepingStrategy;
+        this.asyncGetter = new CoalescingAsyncGetter(
+                this::get,
+                PTExecutors.newCachedThreadPool("Atlas DbKvs async reader"),
+                config.poolSize(),
+                config.fetchBatchSize(),
+                config.maxPendingAsyncGets());
+        this.bulkLoadChunkSize = getBulkLoadChunkSize(config);
+        int maxOverflowPrefetches = Math.max(1, config.poolSize() / 4);
+        this.overflowPrefetchExecutor = createOverflowPrefetchExecutor(config, maxOverflowPrefetches);
+        this.overflowPrefetchPermits = new Semaphore(maxOverflowPrefetches);
+    }
+
+    private static Optional<ExecutorService> createOverflowPrefetchExecutor(DdlConfig config, int numThreads) {
+        return config.accept(new DdlConfig.Visitor<Optional<ExecutorService>>() {
+            @Override
+            public Optional<ExecutorService> visit(PostgresDdlConfig postgresDdlConfig) {
+                return Optional.empty();
+            }
+
+            @Override
+            public Optional<ExecutorService> visit(H2DdlConfig h2DdlConfig) {
+                return Optional.empty();
+            }
+
+            @Override
+            public Optional<ExecutorService> visit(OracleDdlConfig oracleDdlConfig) {
+                return Optional.of(PTExecutors.newFixedThreadPool(numThreads, "Atlas DbKvs overflow prefetcher"));
+            }
+        });
+    }
+
+    private static int getBulkLoadChunkSize(DdlConfig config) {
+        return config.accept(new DdlConfig.Visitor<Integer>() {
+            @Override
+            public Integer visit(PostgresDdlConfig postgresDdlConfig) {
+                return postgresDdlConfig.bulkLoadChunkSize();
+            }
+
+            @Override
+            public Integer visit(H2DdlConfig h2DdlConfig) {
+                return 0;
+            }
+
+            @Override
+            public Integer visit(OracleDdlConfig oracleDdlConfig) {
+                return 0;
+            }
+        });
     }
 
     private static ExecutorService newFixedThreadPool(int maxPoolSize) {
@@ -285,6 +356,9 @@ public final class DbKvs extends AbstractKeyValueService {
         dbTables.close();
         connections.close();
         batchingQueryRunner.close();
+        asyncGetter.close();
+        overflowPrefetchExecutor.ifPresent(ExecutorService::shutdown);
+        getRangeStrategy.close();
     }
 
     @Override
@@ -295,6 +369,9 @@ public final class DbKvs extends AbstractKeyValueService {
 
     @Override
     public Map<Cell, Value> get(TableReference tableRef, Map<Cell, Long> timestampByCell) {
+        if (config.enableColumnarReads()) {
+            return getColumnar(tableRef, timestampByCell).asMap();
+        }
         return batchingQueryRunner.runTask(
                 timestampByCell,
                 BatchingStrategies.forMap(),
@@ -302,6 +379,19 @@ public final class DbKvs extends AbstractKeyValueService {
                 cellBatch -> runReadAndExtractResults(tableRef, table -> table.getLatestCells(cellBatch, true)));
     }
 
+    private ColumnarCellValues getColumnar(TableReference tableRef, Map<Cell, Long> timestampByCell) {
+        return batchingQueryRunner
+                .runTask(
+                        timestampByCell,
+                        BatchingStrategies.forMap(),
+                        AccumulatorStrategies.forColumnarCellValues(),
+                        cellBatch -> runRead(
+                                tableRef,
+                                table -> extractColumnarResults(
+                                        table, tableRef, cellBatch.size(), table.getLatestCells(cellBatch, true))))
+                .build();
+    }
+
     private Map<Cell, Value> getRowsBatching(
             TableReference tableRef, Iterable<byte[]> rows, ColumnSelection columnSelection, long timestamp) {
         return batchingQueryRunner.runTask(
@@ -322,6 +412,7 @@ public final class DbKvs extends AbstractKeyValueService {
             DbReadTable table, TableReference tableRef, ClosableIterator<AgnosticLightResultRow> rows) {
         Map<Cell, Value> results = new HashMap<>();
         Map<Cell, OverflowValue> overflowResults = new HashMap<>();
+        Optional<OverflowValuePrefetcher> overflowPrefetcher = newOverflowValuePrefetcher(table, tableRef);
         try (ClosableIterator<AgnosticLightResultRow> iter = rows) {
             boolean hasOverflow = table.hasOverflowValues();
             while (iter.hasNext()) {
@@ -336,14 +427,61 @@ public final class DbKvs extends AbstractKeyValueService {
                     }
                 } else {
                     OverflowValue ov = ImmutableOverflowValue.of(row.getLong(TIMESTAMP), overflowId);
+                    overflowPrefetcher.ifPresent(prefetcher -> prefetcher.prefetch(overflowId));
                     OverflowValue oldOv = overflowResults.put(cell, ov);
                     if (oldOv != null && oldOv.ts() > ov.ts()) {
                         overflowResults.put(cell, oldOv);
                     }
                 }
             }
+        } catch (RuntimeException | Error e) {
+            overflowPrefetcher.ifPresent(OverflowValuePrefetcher::cancel);
+            throw e;
+        }
+        fillOverflowValues(table.getConnectionSupplier(), tableRef, overflowPrefetcher, overflowResults, results);
+        return results;
+    }
+
+    /**
+     * As {@link #extractResults(DbReadTable, TableReference, ClosableIterator)}, but without creating a {@link Cell}
+     * or {@link Value} for values stored inline. Older versions of a cell are removed when the builder is built.
+     */
+    @SuppressWarnings("deprecation")
+    private ColumnarCellValues.Builder extractColumnarResults(
+            DbReadTable table,
+            TableReference tableRef,
+            int expectedResults,
+            ClosableIterator<AgnosticLightResultRow> rows) {
+        ColumnarCellValues.Builder results = ColumnarCellValues.builder(expectedResults);
+        Map<Cell, OverflowValue> overflowResults = new HashMap<>();
+        Optional<OverflowValuePrefetcher> overflowPrefetcher = newOverflowValuePrefetcher(table, tableRef);
+        try (ClosableIterator<AgnosticLightResultRow> iter = rows) {
+            boolean hasOverflow = table.hasOverflowValues();
+            while (iter.hasNext()) {
+                AgnosticLightResultRow row = iter.next();
+                Long overflowId = hasOverflow ? row.getLongObject("overflow") : null;
+                if (overflowId == null) {
+                    results.add(row.getBytes(ROW), row.getBytes(COL), row.getBytes(VAL), row.getLong(TIMESTAMP));
+                } else {
+                    Cell cell = Cell.create(row.getBytes(ROW), row.getBytes(COL));
+                    OverflowValue ov = ImmutableOverflowValue.of(row.getLong(TIMESTAMP), overflowId);
+                    overflowPrefetcher.ifPresent(prefetcher -> prefetcher.prefetch(overflowId));
+                    OverflowValue oldOv = overflowResults.put(cell, ov);
+                    if (oldOv != null && oldOv.ts() > ov.ts()) {
+                        overflowResults.put(cell, oldOv);
+                    }
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            overflowPrefetcher.ifPresent(OverflowValuePrefetcher::cancel);
+            throw e;
+        }
+        if (!overflowResults.isEmpty()) {
+            Map<Cell, Value> overflowValues = new HashMap<>();
+            fillOverflowValues(
+                    table.getConnectionSupplier(), tableRef, overflowPrefetcher, overflowResults, overflowValues);
+            overflowValues.forEach(results::add);
         }
-        fillOverflowValues(table.getConnectionSupplier(), tableRef, overflowResults, results);
         return results;
     }
 
@@ -381,53 +519,132 @@ public final class DbKvs extends AbstractKeyValueService {
                 Cells.getApproxSizeOfCell(entry.getKey()) + entry.getValue().getContents().length;
     }
 
-    /* (non-Javadoc)
-     * @see com.palantir.atlasdb.keyvalue.api.KeyValueService#multiPut(java.util.Map, long)
+    /**
+     * Puts the values for all tables with as few connection checkouts as possible. Partitions of up to the multiPut
+     * batch count and size are packed, across tables, into groups of the same bounds, and each group is written in
+     * parallel with the others over a single connection.
      */
     @Override
     public void multiPut(Map<TableReference, ? extends Map<Cell, byte[]>> valuesByTable, final long timestamp)
             throws KeyAlreadyExistsException {
-        List<Callable<Void>> callables = new ArrayList<>();
+        Stopwatch watch = Stopwatch.createStarted();
+        Function<Map.Entry<Cell, byte[]>, Long> sizingFunction =
+                entry -> entry == null ? 0 : entry.getValue().length + Cells.getApproxSizeOfCell(entry.getKey());
+        List<TablePartition> partitions = new ArrayList<>();
         for (Map.Entry<TableReference, ? extends Map<Cell, byte[]>> e : valuesByTable.entrySet()) {
             final TableReference table = e.getKey();
             // We sort here because some key value stores are more efficient if you store adjacent keys together.
             NavigableMap<Cell, byte[]> sortedMap = ImmutableSortedMap.copyOf(e.getValue());
 
-            Iterable<List<Map.Entry<Cell, byte[]>>> partitions = IterablePartitioner.partitionByCountAndBytes(
+            Iterable<List<Map.Entry<Cell, byte[]>>> tablePartitions = IterablePartitioner.partitionByCountAndBytes(
                     sortedMap.entrySet(),
                     getMultiPutBatchCount(),
                     getMultiPutBatchSizeBytes(),
                     table,
-                    entry -> entry == null ? 0 : entry.getValue().length + Cells.getApproxSizeOfCell(entry.getKey()));
-
-            for (final List<Map.Entry<Cell, byte[]>> p : partitions) {
-                callables.add(() -> {
-                    String originalName = Thread.currentThread().getName();
-                    Thread.currentThread().setName("Atlas multiPut of " + p.size() + " cells into " + table);
-                    try {
-                        put(table, Maps2.fromEntries(p), timestamp);
-                        return null;
-                    } finally {
-                        Thread.currentThread().setName(originalName);
-                    }
-                });
+                    sizingFunction);
+
+            for (List<Map.Entry<Cell, byte[]>> p : tablePartitions) {
+                long sizeInBytes = 0;
+                for (Map.Entry<Cell, byte[]> entry : p) {
+                    sizeInBytes += sizingFunction.apply(entry);
+                }
+                partitions.add(new TablePartition(table, p, sizeInBytes));
             }
         }
 
-        List<Future<Void>> futures;
-        try {
-            futures = executor.invokeAll(callables);
-        } catch (InterruptedException e) {
-            throw Throwables.throwUncheckedException(e);
+        List<List<TablePartition>> groups =
+                groupPartitionsForSingleCheckout(partitions, getMultiPutBatchCount(), getMultiPutBatchSizeBytes());
+        AtomicInteger numStatements = new AtomicInteger();
+        List<Callable<Void>> callables = new ArrayList<>();
+        for (List<TablePartition> group : groups) {
+            callables.add(() -> {
+                String originalName = Thread.currentThread().getName();
+                Thread.currentThread()
+                        .setName("Atlas multiPut of " + group.size() + " partitions into "
+                                + group.get(0).table + (group.size() > 1 ? " and others" : ""));
+                try {
+                    numStatements.addAndGet(putWithSingleCheckout(group, timestamp));
+                    return null;
+                } finally {
+                    Thread.currentThread().setName(originalName);
+                }
+            });
         }
-        for (Future<Void> future : futures) {
+
+        try {
+            List<Future<Void>> futures;
             try {
-                future.get();
+                futures = executor.invokeAll(callables);
             } catch (InterruptedException e) {
                 throw Throwables.throwUncheckedException(e);
-            } catch (ExecutionException e) {
-                throw Throwables.rewrapAndThrowUncheckedException(e.getCause());
             }
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    throw Throwables.throwUncheckedException(e);
+                } catch (ExecutionException e) {
+                    throw Throwables.rewrapAndThrowUncheckedException(e.getCause());
+                }
+            }
+        } finally {
+            log.debug(
+                    "Call to KVS.multiPut of {} partitions into {} tables took {} ms, using {} connection checkouts"
+                            + " and {} insert statements.",
+                    partitions.size(),
+                    valuesByTable.size(),
+                    watch.elapsed(TimeUnit.MILLISECONDS),
+                    groups.size(),
+                    numStatements.get());
+        }
+    }
+
+    /**
+     * Packs the partitions, in order, into groups of at most the given count and size; a partition that is larger than
+     * these bounds on its own gets a group to itself.
+     */
+    @VisibleForTesting
+    static List<List<TablePartition>> groupPartitionsForSingleCheckout(
+            List<TablePartition> partitions, long maxCount, long maxBytes) {
+        List<List<TablePartition>> groups = new ArrayList<>();
+        List<TablePartition> group = new ArrayList<>();
+        long groupCount = 0;
+        long groupBytes = 0;
+        for (TablePartition partition : partitions) {
+            if (!group.isEmpty()
+                    && (groupCount + partition.entries.size() > maxCount
+                            || groupBytes + partition.sizeInBytes > maxBytes)) {
+                groups.add(group);
+                group = new ArrayList<>();
+                groupCount = 0;
+                groupBytes = 0;
+            }
+            group.add(partition);
+            groupCount += partition.entries.size();
+            groupBytes += partition.sizeInBytes;
+        }
+        if (!group.isEmpty()) {
+            groups.add(group);
+        }
+        return groups;
+    }
+
+    private int putWithSingleCheckout(List<TablePartition> group, long timestamp) {
+        ConnectionSupplier conns = new ConnectionSupplier(connections);
+        try {
+            int numStatements = 0;
+            for (TablePartition partition : group) {
+                numStatements += putBatches(
+                        dbTables.createRead(partition.table, conns),
+                        dbTables.createWrite(partition.table, conns),
+                        partition.table,
+                        partition.entries,
+                        timestamp,
+                        true);
+            }
+            return numStatements;
+        } finally {
+            conns.close();
         }
     }
 
@@ -438,27 +655,45 @@ public final class DbKvs extends AbstractKeyValueService {
     }
 
     private void put(TableReference tableRef, Map<Cell, byte[]> values, long timestamp, boolean idempotent) {
+        runReadWrite(
+                tableRef,
+                (readTable, writeTable) ->
+                        putBatches(readTable, writeTable, tableRef, values.entrySet(), timestamp, idempotent));
+    }
+
+    /**
+     * Writes the values in batches of up to the mutation batch count and size, returning the number of insert
+     * statements issued.
+     */
+    private int putBatches(
+            DbReadTable readTable,
+            DbWriteTable writeTable,
+            TableReference tableRef,
+            Collection<Map.Entry<Cell, byte[]>> values,
+            long timestamp,
+            boolean idempotent) {
         Iterable<List<Map.Entry<Cell, byte[]>>> batches = IterablePartitioner.partitionByCountAndBytes(
-                values.entrySet(),
+                values,
                 config.mutationBatchCount(),
                 config.mutationBatchSizeBytes(),
                 tableRef,
                 getByteSizingFunction());
 
-        runReadWrite(tableRef, (readTable, writeTable) -> {
-            for (List<Map.Entry<Cell, byte[]>> batch : batches) {
-                try {
-                    writeTable.put(batch, timestamp);
-                } catch (KeyAlreadyExistsException e) {
-                    if (idempotent) {
-                        putIfNotUpdate(readTable, writeTable, tableRef, batch, timestamp, e);
-                    } else {
-                        throw e;
-                    }
+        int numStatements = 0;
+        for (List<Map.Entry<Cell, byte[]>> batch : batches) {
+            numStatements++;
+            try {
+                writeTable.put(batch, timestamp);
+            } catch (KeyAlreadyExistsException e) {
+                if (idempotent) {
+                    numStatements++;
+                    putIfNotUpdate(readTable, writeTable, tableRef, batch, timestamp, e);
+                } else {
+                    throw e;
                 }
             }
-            return null;
-        });
+        }
+        return numStatements;
     }
 
     private void putIfNotUpdate(
@@ -506,23 +741,62 @@ public final class DbKvs extends AbstractKeyValueService {
     @Override
     public void putWithTimestamps(TableReference tableRef, Multimap<Cell, Value> cellValues)
             throws KeyAlreadyExistsException {
-        Iterable<List<Map.Entry<Cell, Value>>> batches = IterablePartitioner.partitionByCountAndBytes(
-                cellValues.entries(),
-                config.mutationBatchCount(),
-                config.mutationBatchSizeBytes(),
-                tableRef,
-                getValueSizingFunction());
+        if (bulkLoadChunkSize > 0) {
+            bulkPutWithTimestamps(tableRef, cellValues);
+            return;
+        }
+        runReadWrite(tableRef, (readTable, writeTable) -> {
+            putWithTimestampsInBatches(readTable, writeTable, tableRef, cellValues.entries());
+            return null;
+        });
+    }
 
+    /**
+     * Bulk loads the values in chunks, falling back to batched inserts for any chunk that could not be bulk loaded.
+     * Chunks containing cells that already exist are put in batches, so that cells already written with the same
+     * value are skipped just as they are by {@link #putWithTimestampsInBatches}.
+     */
+    private void bulkPutWithTimestamps(TableReference tableRef, Multimap<Cell, Value> cellValues) {
+        Stopwatch watch = Stopwatch.createStarted();
         runReadWrite(tableRef, (readTable, writeTable) -> {
-            for (List<Map.Entry<Cell, Value>> batch : batches) {
+            for (List<Map.Entry<Cell, Value>> chunk : Iterables.partition(cellValues.entries(), bulkLoadChunkSize)) {
+                boolean loaded;
                 try {
-                    writeTable.put(batch);
+                    loaded = writeTable.tryBulkPut(chunk);
                 } catch (KeyAlreadyExistsException e) {
-                    putIfNotUpdate(readTable, writeTable, tableRef, batch, e);
+                    loaded = false;
+                }
+                if (!loaded) {
+                    putWithTimestampsInBatches(readTable, writeTable, tableRef, chunk);
                 }
             }
             return null;
         });
+        log.debug(
+                "Call to KVS.putWithTimestamps bulk loading {} cells into table {} took {} ms.",
+                cellValues.size(),
+                tableRef,
+                watch.elapsed(TimeUnit.MILLISECONDS));
+    }
+
+    private void putWithTimestampsInBatches(
+            DbReadTable readTable,
+            DbWriteTable writeTable,
+            TableReference tableRef,
+            Collection<Map.Entry<Cell, Value>> values) {
+        Iterable<List<Map.Entry<Cell, Value>>> batches = IterablePartitioner.partitionByCountAndBytes(
+                values,
+                config.mutationBatchCount(),
+                config.mutationBatchSizeBytes(),
+                tableRef,
+                getValueSizingFunction());
+        for (List<Map.Entry<Cell, Value>> batch : batches) {
+            try {
+                writeTable.put(batch);
+            } catch (KeyAlreadyExistsException e) {
+                putIfNotUpdate(readTable, writeTable, tableRef, batch, e);
+            }
+        }
     }
 
     @Override
@@ -614,7 +888,11 @@ public final class DbKvs extends AbstractKeyValueService {
     @Override
     public ClosableIterator<RowResult<Value>> getRange(
             TableReference tableRef, RangeRequest rangeRequest, long timestamp) {
-        return ClosableIterators.wrap(getRangeStrategy.getRange(tableRef, rangeRequest, timestamp));
+        Iterator<RowResult<Value>> range = getRangeStrategy.getRange(tableRef, rangeRequest, timestamp);
+        if (range instanceof ClosableIterator) {
+            return (ClosableIterator<RowResult<Value>>) range;
+        }
+        return ClosableIterators.wrap(range);
     }
 
     public void setMaxRangeOfTimestampsBatchSize(long newValue) {
@@ -1000,6 +1278,7 @@ public final class DbKvs extends AbstractKeyValueService {
         boolean hasOverflow = table.hasOverflowValues();
         Map<Cell, Value> values = new HashMap<>();
         Map<Cell, OverflowValue> overflowValues = new HashMap<>();
+        Optional<OverflowValuePrefetcher> overflowPrefetcher = newOverflowValuePrefetcher(table, tableRef);
 
         try (ClosableIterator<AgnosticLightResultRow> iter = rowLoader.get()) {
             while (iter.hasNext()) {
@@ -1016,15 +1295,19 @@ public final class DbKvs extends AbstractKeyValueService {
                     }
                 } else {
                     OverflowValue ov = ImmutableOverflowValue.of(row.getLong(TIMESTAMP), overflowId);
+                    overflowPrefetcher.ifPresent(prefetcher -> prefetcher.prefetch(overflowId));
                     OverflowValue oldOv = overflowValues.put(cell, ov);
                     if (oldOv != null && oldOv.ts() > ov.ts()) {
                         overflowValues.put(cell, oldOv);
                     }
                 }
             }
+        } catch (RuntimeException | Error e) {
+            overflowPrefetcher.ifPresent(OverflowValuePrefetcher::cancel);
+            throw e;
         }
 
-        fillOverflowValues(table.getConnectionSupplier(), tableRef, overflowValues, values);
+        fillOverflowValues(table.getConnectionSupplier(), tableRef, overflowPrefetcher, overflowValues, values);
 
         Map<byte[], List<Map.Entry<Cell, Value>>> results = Maps.newHashMapWithExpectedSize(allRows.size());
         for (Map.Entry<Sha256Hash, List<Cell>> e : cellsByRow.entrySet()) {
@@ -1039,9 +1322,23 @@ public final class DbKvs extends AbstractKeyValueService {
         return results;
     }
 
+    private Optional<OverflowValuePrefetcher> newOverflowValuePrefetcher(DbReadTable table, TableReference tableRef) {
+        if (!table.hasOverflowValues()) {
+            return Optional.empty();
+        }
+        return overflowPrefetchExecutor.map(executor -> new OverflowValuePrefetcher(
+                overflowValueLoader,
+                connections,
+                executor,
+                overflowPrefetchPermits,
+                tableRef,
+                config.fetchBatchSize()));
+    }
+
     private void fillOverflowValues(
             ConnectionSupplier conns,
             TableReference tableRef,
+            Optional<OverflowValuePrefetcher> overflowPrefetcher,
             Map<Cell, OverflowValue> overflowValues,
             @Output Map<Cell, Value> values) {
         Iterator<Map.Entry<Cell, OverflowValue>> overflowIterator =
@@ -1053,8 +1350,14 @@ public final class DbKvs extends AbstractKeyValueService {
                 overflowIterator.remove();
             }
         }
-        Map<Long, byte[]> resolvedOverflowValues = overflowValueLoader.loadOverflowValues(
-                conns, tableRef, Collections2.transform(overflowValues.values(), OverflowValue::id));
+        if (overflowValues.isEmpty()) {
+            overflowPrefetcher.ifPresent(OverflowValuePrefetcher::cancel);
+            return;
+        }
+        Collection<Long> overflowIds = Collections2.transform(overflowValues.values(), OverflowValue::id);
+        Map<Long, byte[]> resolvedOverflowValues = overflowPrefetcher
+                .map(prefetcher -> prefetcher.load(conns, overflowIds))
+                .orElseGet(() -> overflowValueLoader.loadOverflowValues(conns, tableRef, overflowIds));
         for (Map.Entry<Cell, OverflowValue> entry : overflowValues.entrySet()) {
             Cell cell = entry.getKey();
             OverflowValue ov = entry.getValue();
@@ -1200,7 +1503,7 @@ public final class DbKvs extends AbstractKeyValueService {
 
     @Override
     public ListenableFuture<Map<Cell, Value>> getAsync(TableReference tableRef, Map<Cell, Long> timestampByCell) {
-        return Futures.immediateFuture(get(tableRef, timestampByCell));
+        return asyncGetter.getAsync(tableRef, timestampByCell);
     }
 
     @Override
@@ -1368,4 +1671,17 @@ public final class DbKvs extends AbstractKeyValueService {
     private interface ReadWriteTask<T> {
         T run(DbReadTable readTable, DbWriteTable writeTable);
     }
+
+    @VisibleForTesting
+    static final class TablePartition {
+        private final TableReference table;
+        private final List<Map.Entry<Cell, byte[]>> entries;
+        private final long sizeInBytes;
+
+        TablePartition(TableReference table, List<Map.Entry<Cell, byte[]>> entries, long sizeInBytes) {
+            this.table = table;
+            this.entries = entries;
+            this.sizeInBytes = sizeInBytes;
+        }
+    }
 }
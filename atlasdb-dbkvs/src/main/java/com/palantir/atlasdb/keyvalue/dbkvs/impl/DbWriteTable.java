@@ -28,6 +28,12 @@ public interface DbWriteTable {
 
     void put(Collection<Map.Entry<Cell, Value>> data);
 
+    /**
+     * Puts the values using a bulk load path that is cheaper than {@link #put(Collection)} for large numbers of values,
+     * if the underlying database supports one. Returns false without writing anything otherwise.
+     */
+    boolean tryBulkPut(Collection<Map.Entry<Cell, Value>> data);
+
     void putSentinels(Iterable<Cell> cells);
 
     void update(Cell cell, long ts, byte[] oldValue, byte[] newValue);
@@ -0,0 +1,185 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.dbkvs.impl;
+
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.common.base.Throwables;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.concurrent.NotThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads overflow values while the read that found them is still in progress. Overflow ids are loaded in chunks on a
+ * separate connection as soon as each chunk fills up, so that by the time the read has finished, most overflow values
+ * have already been loaded.
+ *
+ * Chunks that have not started loading by the time their values are needed, or that failed to load, are loaded on the
+ * caller's connection instead, so that reads never wait behind other reads for a connection or an executor thread. A
+ * chunk only starts loading once its prefetch has a connection, and chunks are not prefetched at all while all
+ * prefetch permits are taken, so that prefetches cannot take more than their share of the connection pool.
+ */
+@NotThreadSafe
+final class OverflowValuePrefetcher {
+    private static final Logger log = LoggerFactory.getLogger(OverflowValuePrefetcher.class);
+
+    private final OverflowValueLoader loader;
+    private final SqlConnectionSupplier connections;
+    private final Executor executor;
+    private final Semaphore prefetchPermits;
+    private final TableReference tableRef;
+    private final int chunkSize;
+
+    private final List<Prefetch> prefetches = new ArrayList<>();
+    private List<Long> currentChunk = new ArrayList<>();
+
+    OverflowValuePrefetcher(
+            OverflowValueLoader loader,
+            SqlConnectionSupplier connections,
+            Executor executor,
+            Semaphore prefetchPermits,
+            TableReference tableRef,
+            int chunkSize) {
+        this.loader = loader;
+        this.connections = connections;
+        this.executor = executor;
+        this.prefetchPermits = prefetchPermits;
+        this.tableRef = tableRef;
+        this.chunkSize = chunkSize;
+    }
+
+    void prefetch(long overflowId) {
+        currentChunk.add(overflowId);
+        if (currentChunk.size() < chunkSize) {
+            return;
+        }
+        List<Long> chunk = currentChunk;
+        currentChunk = new ArrayList<>();
+        if (!prefetchPermits.tryAcquire()) {
+            // The chunk is left for the caller to load once needed.
+            return;
+        }
+        Prefetch prefetch = new Prefetch(chunk);
+        try {
+            executor.execute(prefetch.task);
+            prefetches.add(prefetch);
+        } catch (RejectedExecutionException e) {
+            prefetchPermits.release();
+            log.debug("Could not prefetch overflow values, they will be loaded once needed", e);
+        }
+    }
+
+    /**
+     * Returns the values of the given overflow ids, waiting for any prefetches that are already loading, and loading
+     * everything else with the given connection.
+     */
+    Map<Long, byte[]> load(ConnectionSupplier conns, Collection<Long> overflowIds) {
+        Map<Long, byte[]> values = new HashMap<>(overflowIds.size());
+        for (Prefetch prefetch : prefetches) {
+            values.putAll(prefetch.awaitOrClaim());
+        }
+        prefetches.clear();
+
+        List<Long> remainingIds = new ArrayList<>();
+        for (Long overflowId : overflowIds) {
+            if (!values.containsKey(overflowId)) {
+                remainingIds.add(overflowId);
+            }
+        }
+        if (!remainingIds.isEmpty()) {
+            values.putAll(loader.loadOverflowValues(conns, tableRef, remainingIds));
+        }
+        return values;
+    }
+
+    /**
+     * Stops any prefetches that have not started loading, for when the read that found the overflow ids has failed.
+     * Prefetches that are already loading are left to finish in the background.
+     */
+    void cancel() {
+        for (Prefetch prefetch : prefetches) {
+            prefetch.cancel();
+        }
+        prefetches.clear();
+    }
+
+    private final class Prefetch implements Callable<Map<Long, byte[]>> {
+        private final List<Long> overflowIds;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final FutureTask<Map<Long, byte[]>> task = new FutureTask<Map<Long, byte[]>>(this) {
+            @Override
+            protected void done() {
+                prefetchPermits.release();
+            }
+        };
+
+        private Prefetch(List<Long> overflowIds) {
+            this.overflowIds = overflowIds;
+        }
+
+        @Override
+        public Map<Long, byte[]> call() {
+            try (ConnectionSupplier conns = new ConnectionSupplier(connections)) {
+                // Getting a connection may block, so the caller may have claimed the chunk in the meantime.
+                conns.get();
+                if (!claimed.compareAndSet(false, true)) {
+                    return new HashMap<>();
+                }
+                return loader.loadOverflowValues(conns, tableRef, overflowIds);
+            }
+        }
+
+        /**
+         * Returns the prefetched values if the prefetch has started loading, waiting for it to finish. Otherwise,
+         * claims the chunk so that it is not loaded by the prefetch, and returns no values for the caller to load.
+         */
+        private Map<Long, byte[]> awaitOrClaim() {
+            if (claimed.compareAndSet(false, true)) {
+                task.cancel(false);
+                return new HashMap<>();
+            }
+            return getPrefetched(task);
+        }
+
+        private void cancel() {
+            claimed.set(true);
+            task.cancel(false);
+        }
+    }
+
+    private static Map<Long, byte[]> getPrefetched(FutureTask<Map<Long, byte[]>> prefetch) {
+        try {
+            return prefetch.get();
+        } catch (InterruptedException e) {
+            throw Throwables.rewrapAndThrowUncheckedException(e);
+        } catch (ExecutionException e) {
+            log.debug("Failed to prefetch overflow values, they will be loaded again", e.getCause());
+            return new HashMap<>();
+        }
+    }
+}
@@ -17,6 +17,7 @@ package com.palantir.atlasdb.keyvalue.dbkvs.impl;
 
 import com.palantir.atlasdb.keyvalue.api.TableReference;
 import com.palantir.atlasdb.keyvalue.dbkvs.PostgresDdlConfig;
+import com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres.PostgresBulkLoader;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres.PostgresDdlTable;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres.PostgresPrefixedTableNames;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres.PostgresQueryFactory;
@@ -28,6 +29,7 @@ public class PostgresDbTableFactory implements DbTableFactory {
 
     private final PostgresDdlConfig config;
     private final PostgresPrefixedTableNames prefixedTableNames;
+    private final PostgresBulkLoader bulkLoader = new PostgresBulkLoader();
 
     public PostgresDbTableFactory(PostgresDdlConfig config, PostgresPrefixedTableNames prefixedTableNames) {
         this.config = config;
@@ -56,7 +58,7 @@ public class PostgresDbTableFactory implements DbTableFactory {
 
     @Override
     public DbWriteTable createWrite(TableReference tableRef, ConnectionSupplier conns) {
-        return new PostgresWriteTable(config, conns, tableRef, prefixedTableNames);
+        return new PostgresWriteTable(config, conns, tableRef, prefixedTableNames, bulkLoader);
     }
 
     @Override
@@ -16,6 +16,7 @@
 package com.palantir.atlasdb.keyvalue.dbkvs.impl;
 
 import com.palantir.exception.PalantirSqlException;
+import com.palantir.logsafe.exceptions.SafeUnsupportedOperationException;
 import com.palantir.nexus.db.sql.SqlConnection;
 import java.io.Closeable;
 import java.util.function.Supplier;
@@ -24,6 +25,14 @@ public interface SqlConnectionSupplier extends Supplier<SqlConnection>, Closeabl
     @Override
     SqlConnection get();
 
+    /**
+     * Returns a connection that is not shared with other calls made on this thread, so that it can be held in a
+     * transaction of its own. Callers must close the underlying connection when they are finished with it.
+     */
+    default SqlConnection getUnsharedConnection() {
+        throw new SafeUnsupportedOperationException("This connection supplier does not supply unshared connections");
+    }
+
     @Override
     void close() throws PalantirSqlException;
 }
@@ -17,6 +17,7 @@ package com.palantir.atlasdb.keyvalue.dbkvs.impl.batch;
 
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
+import com.palantir.atlasdb.keyvalue.dbkvs.impl.ColumnarCellValues;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -34,6 +35,10 @@ public final class AccumulatorStrategies {
         return (ListMultimapAccumulatorStrategy<K, V>) listMultimapAccumulatorStrategy;
     }
 
+    public static BatchingTaskRunner.ResultAccumulatorStrategy<ColumnarCellValues.Builder> forColumnarCellValues() {
+        return columnarCellValuesAccumulatorStrategy;
+    }
+
     private static final class MapAccumulatorStrategy<K, V>
             implements BatchingTaskRunner.ResultAccumulatorStrategy<Map<K, V>> {
         @Override
@@ -64,4 +69,20 @@ public final class AccumulatorStrategies {
 
     private static final ListMultimapAccumulatorStrategy<?, ?> listMultimapAccumulatorStrategy =
             new ListMultimapAccumulatorStrategy<>();
+
+    private static final class ColumnarCellValuesAccumulatorStrategy
+            implements BatchingTaskRunner.ResultAccumulatorStrategy<ColumnarCellValues.Builder> {
+        @Override
+        public ColumnarCellValues.Builder createEmptyResult() {
+            return ColumnarCellValues.builder();
+        }
+
+        @Override
+        public void accumulateResult(ColumnarCellValues.Builder result, ColumnarCellValues.Builder toAdd) {
+            result.addAll(toAdd);
+        }
+    }
+
+    private static final ColumnarCellValuesAccumulatorStrategy columnarCellValuesAccumulatorStrategy =
+            new ColumnarCellValuesAccumulatorStrategy();
 }
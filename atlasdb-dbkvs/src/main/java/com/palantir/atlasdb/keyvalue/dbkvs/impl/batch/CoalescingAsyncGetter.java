@@ -0,0 +1,230 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.dbkvs.impl.batch;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.logsafe.Preconditions;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Serves asynchronous gets with a bounded number of concurrent synchronous reads, so that callers do not need a thread
+ * per in-flight query. Gets that queue up while all reads are busy are coalesced, so that gets against the same table
+ * are served by a single read of up to {@code maxCellsPerRead} cells, and the results split between the callers.
+ *
+ * Gets requesting the same cell at different timestamps are never coalesced with each other. The executor should not
+ * bound its number of threads, as the number of concurrent reads is already bounded by {@code maxConcurrentReads}.
+ * At most {@code maxPendingGets} gets may wait for a read at any time; further gets fail immediately with a
+ * {@link RejectedExecutionException}, rather than queueing without bound while the database falls behind.
+ */
+public final class CoalescingAsyncGetter implements AutoCloseable {
+    private final BiFunction<TableReference, Map<Cell, Long>, Map<Cell, Value>> reader;
+    private final ExecutorService executor;
+    private final int maxConcurrentReads;
+    private final int maxCellsPerRead;
+    private final int maxPendingGets;
+
+    private final Queue<PendingGet> pendingGets = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger numPendingGets = new AtomicInteger();
+    private final AtomicInteger runningDrainers = new AtomicInteger();
+
+    public CoalescingAsyncGetter(
+            BiFunction<TableReference, Map<Cell, Long>, Map<Cell, Value>> reader,
+            ExecutorService executor,
+            int maxConcurrentReads,
+            int maxCellsPerRead,
+            int maxPendingGets) {
+        Preconditions.checkArgument(maxConcurrentReads > 0, "maxConcurrentReads must be positive");
+        Preconditions.checkArgument(maxCellsPerRead > 0, "maxCellsPerRead must be positive");
+        Preconditions.checkArgument(maxPendingGets > 0, "maxPendingGets must be positive");
+        this.reader = reader;
+        this.executor = executor;
+        this.maxConcurrentReads = maxConcurrentReads;
+        this.maxCellsPerRead = maxCellsPerRead;
+        this.maxPendingGets = maxPendingGets;
+    }
+
+    public ListenableFuture<Map<Cell, Value>> getAsync(TableReference tableRef, Map<Cell, Long> timestampByCell) {
+        if (numPendingGets.incrementAndGet() > maxPendingGets) {
+            numPendingGets.decrementAndGet();
+            return Futures.immediateFailedFuture(new RejectedExecutionException(
+                    "Too many gets are waiting for a read; at most " + maxPendingGets + " may wait at a time"));
+        }
+        PendingGet get = new PendingGet(tableRef, timestampByCell);
+        pendingGets.add(get);
+        maybeStartDrainer();
+        return get.result;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private void maybeStartDrainer() {
+        while (!pendingGets.isEmpty()) {
+            int running = runningDrainers.get();
+            if (running >= maxConcurrentReads) {
+                // A running drainer re-checks the queue before stopping, so this get will be served.
+                return;
+            }
+            if (runningDrainers.compareAndSet(running, running + 1)) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    runningDrainers.decrementAndGet();
+                    failPendingGets(e);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Serves one round of coalesced reads. Futures are only completed after the read slot has been released, so that
+     * callbacks running on this thread cannot starve other gets of reads, even if they block on further gets.
+     */
+    private void drain() {
+        List<CoalescedRead> reads;
+        try {
+            reads = nextReads();
+            reads.forEach(CoalescedRead::read);
+        } finally {
+            runningDrainers.decrementAndGet();
+            maybeStartDrainer();
+        }
+        reads.forEach(CoalescedRead::complete);
+    }
+
+    /**
+     * Takes pending gets off the queue, up to {@code maxCellsPerRead} cells in total (or a single larger get), and
+     * groups them into reads that can each be served by a single call to the reader.
+     */
+    private List<CoalescedRead> nextReads() {
+        List<CoalescedRead> reads = new ArrayList<>();
+        int numCells = 0;
+        PendingGet get;
+        while (numCells < maxCellsPerRead && (get = pendingGets.poll()) != null) {
+            numPendingGets.decrementAndGet();
+            if (get.result.isDone()) {
+                continue;
+            }
+            numCells += get.timestampByCell.size();
+            addToCompatibleRead(reads, get);
+        }
+        return reads;
+    }
+
+    private void addToCompatibleRead(List<CoalescedRead> reads, PendingGet get) {
+        for (CoalescedRead read : reads) {
+            if (read.tryAdd(get)) {
+                return;
+            }
+        }
+        CoalescedRead read = new CoalescedRead(get.tableRef);
+        read.tryAdd(get);
+        reads.add(read);
+    }
+
+    private void failPendingGets(Throwable failure) {
+        PendingGet get;
+        while ((get = pendingGets.poll()) != null) {
+            numPendingGets.decrementAndGet();
+            get.result.setException(failure);
+        }
+    }
+
+    private final class CoalescedRead {
+        private final TableReference tableRef;
+        private final Map<Cell, Long> timestampByCell = new HashMap<>();
+        private final List<PendingGet> gets = new ArrayList<>();
+        private Map<Cell, Value> values;
+        private Throwable failure;
+
+        private CoalescedRead(TableReference tableRef) {
+            this.tableRef = tableRef;
+        }
+
+        private boolean tryAdd(PendingGet get) {
+            if (!tableRef.equals(get.tableRef)) {
+                return false;
+            }
+            for (Map.Entry<Cell, Long> entry : get.timestampByCell.entrySet()) {
+                Long timestamp = timestampByCell.get(entry.getKey());
+                if (timestamp != null && !timestamp.equals(entry.getValue())) {
+                    return false;
+                }
+            }
+            timestampByCell.putAll(get.timestampByCell);
+            gets.add(get);
+            return true;
+        }
+
+        private void read() {
+            try {
+                values = reader.apply(tableRef, timestampByCell);
+            } catch (Throwable t) {
+                failure = t;
+            }
+        }
+
+        private void complete() {
+            if (failure != null) {
+                gets.forEach(get -> get.result.setException(failure));
+                return;
+            }
+            if (gets.size() == 1) {
+                gets.get(0).result.set(values);
+                return;
+            }
+            for (PendingGet get : gets) {
+                Map<Cell, Value> valuesForGet = new HashMap<>();
+                for (Cell cell : get.timestampByCell.keySet()) {
+                    Value value = values.get(cell);
+                    if (value != null) {
+                        valuesForGet.put(cell, value);
+                    }
+                }
+                get.result.set(valuesForGet);
+            }
+        }
+    }
+
+    private static final class PendingGet {
+        private final TableReference tableRef;
+        private final Map<Cell, Long> timestampByCell;
+        private final SettableFuture<Map<Cell, Value>> result = SettableFuture.create();
+
+        private PendingGet(TableReference tableRef, Map<Cell, Long> timestampByCell) {
+            this.tableRef = tableRef;
+            this.timestampByCell = timestampByCell;
+        }
+    }
+}
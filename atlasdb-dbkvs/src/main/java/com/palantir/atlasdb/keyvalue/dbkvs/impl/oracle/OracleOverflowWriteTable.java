@@ -101,6 +101,11 @@ public final class OracleOverflowWriteTable implements DbWriteTable {
         put(args, overflowArgs);
     }
 
+    @Override
+    public boolean tryBulkPut(Collection<Map.Entry<Cell, Value>> data) {
+        return false;
+    }
+
     @Override
     public void put(Collection<Map.Entry<Cell, Value>> data) {
         List<Object[]> args = new ArrayList<>(data.size());
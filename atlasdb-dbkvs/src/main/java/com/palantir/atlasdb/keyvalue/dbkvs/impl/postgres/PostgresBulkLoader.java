@@ -0,0 +1,150 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres;
+
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.exception.PalantirSqlException;
+import com.palantir.nexus.db.sql.SqlConnection;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads values into tables by streaming them with a binary COPY into a temporary staging table, and then inserting them
+ * into the target table with a single statement. Values are streamed through a fixed size buffer, so memory used by
+ * the load does not grow with the number of values.
+ *
+ * If COPY cannot be used, for example because the connection is not a Postgres connection or the user may not create
+ * temporary tables, loads return false and the loader stops attempting COPY until it is recreated.
+ */
+public final class PostgresBulkLoader {
+    private static final Logger log = LoggerFactory.getLogger(PostgresBulkLoader.class);
+
+    private static final String STAGING_TABLE = "atlasdb_bulk_load_staging";
+    private static final byte[] COPY_SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    private static final short NUM_COLUMNS = 4;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private volatile boolean copyUnavailable = false;
+
+    /**
+     * Loads the values into the given table, returning false without writing anything if COPY cannot be used.
+     *
+     * @throws PalantirSqlException if the values could not be loaded, including if any of them already exist
+     */
+    public boolean tryLoad(SqlConnection conn, String prefixedTableName, Collection<Map.Entry<Cell, Value>> values) {
+        if (copyUnavailable) {
+            return false;
+        }
+        Optional<PGConnection> pgConnection = getPgConnection(conn);
+        if (!pgConnection.isPresent() || !createStagingTable(conn)) {
+            return false;
+        }
+
+        conn.executeUnregisteredQuery("TRUNCATE " + STAGING_TABLE);
+        try {
+            copyIntoStagingTable(pgConnection.get(), values);
+            conn.executeUnregisteredQuery("/* BULK_LOAD (" + prefixedTableName + ") */"
+                    + " INSERT INTO " + prefixedTableName + " (row_name, col_name, ts, val)"
+                    + " SELECT row_name, col_name, ts, val FROM " + STAGING_TABLE);
+            return true;
+        } finally {
+            conn.executeUnregisteredQuery("TRUNCATE " + STAGING_TABLE);
+        }
+    }
+
+    private Optional<PGConnection> getPgConnection(SqlConnection conn) {
+        try {
+            Connection underlyingConnection = conn.getUnderlyingConnection();
+            if (underlyingConnection.isWrapperFor(PGConnection.class)) {
+                return Optional.of(underlyingConnection.unwrap(PGConnection.class));
+            }
+        } catch (SQLException e) {
+            log.debug("Failed to unwrap the connection as a Postgres connection", e);
+        }
+        log.info("Connections are not Postgres connections, so values will not be bulk loaded with COPY.");
+        copyUnavailable = true;
+        return Optional.empty();
+    }
+
+    private boolean createStagingTable(SqlConnection conn) {
+        try {
+            conn.executeUnregisteredQuery("CREATE TEMP TABLE IF NOT EXISTS " + STAGING_TABLE + " ("
+                    + "  row_name   BYTEA NOT NULL,"
+                    + "  col_name   BYTEA NOT NULL,"
+                    + "  ts         INT8 NOT NULL,"
+                    + "  val        BYTEA)");
+            return true;
+        } catch (PalantirSqlException e) {
+            log.warn(
+                    "Failed to create the staging table for bulk loads, so values will not be bulk loaded with COPY.",
+                    e);
+            copyUnavailable = true;
+            return false;
+        }
+    }
+
+    private static void copyIntoStagingTable(PGConnection pgConnection, Collection<Map.Entry<Cell, Value>> values) {
+        String copy = "COPY " + STAGING_TABLE + " (row_name, col_name, ts, val) FROM STDIN WITH (FORMAT BINARY)";
+        try (DataOutputStream out =
+                new DataOutputStream(new PGCopyOutputStream(pgConnection, copy, COPY_BUFFER_SIZE))) {
+            writeCopyData(out, values);
+        } catch (SQLException e) {
+            throw PalantirSqlException.create(e);
+        } catch (IOException e) {
+            throw PalantirSqlException.create(new SQLException("Failed to stream values to the staging table", e));
+        }
+    }
+
+    /**
+     * Writes the values in the binary COPY format, as described in the documentation of the COPY statement.
+     */
+    static void writeCopyData(DataOutputStream out, Collection<Map.Entry<Cell, Value>> values) throws IOException {
+        out.write(COPY_SIGNATURE);
+        out.writeInt(0); // flags
+        out.writeInt(0); // header extension length
+        for (Map.Entry<Cell, Value> entry : values) {
+            Cell cell = entry.getKey();
+            Value value = entry.getValue();
+            out.writeShort(NUM_COLUMNS);
+            writeField(out, cell.getRowName());
+            writeField(out, cell.getColumnName());
+            out.writeInt(Long.BYTES);
+            out.writeLong(value.getTimestamp());
+            writeField(out, value.getContents());
+        }
+        out.writeShort(-1);
+    }
+
+    private static void writeField(DataOutputStream out, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -36,16 +36,22 @@ import com.palantir.atlasdb.keyvalue.dbkvs.impl.ranges.RangePredicateHelper;
 import com.palantir.common.annotation.Output;
 import com.palantir.common.base.ClosableIterator;
 import com.palantir.common.base.ClosableIterators;
+import com.palantir.common.concurrent.NamedThreadFactory;
+import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.logsafe.Preconditions;
 import com.palantir.nexus.db.DBType;
 import com.palantir.nexus.db.sql.AgnosticLightResultRow;
 import com.palantir.nexus.db.sql.AgnosticLightResultSet;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 
 /* 1) On Postgres, there seems to be no efficient way to page at atlas row boundaries.
  *    The approach with 'DENSE_RANK() <= x' that works exceptionally well on Oracle,
@@ -118,19 +124,37 @@ import java.util.Set;
  *
  *    All of the above seem to perform wrose than the self-join approach.
  *
+ *
+ * 3) Paging re-plans the query and re-walks the index from the start of every page, which adds up over long scans.
+ *    If a streaming range idle timeout is given, ranges are instead streamed from a single query without a LIMIT,
+ *    held open for the lifetime of the returned iterator (see PostgresStreamingRangeIterator).
  */
 public class PostgresGetRange implements DbKvsGetRange {
     private final PostgresPrefixedTableNames prefixedTableNames;
     private final SqlConnectionSupplier connectionPool;
     private final TableMetadataCache tableMetadataCache;
+    private final Optional<Duration> streamingRangeIdleTimeout;
+    private final Optional<ScheduledExecutorService> idleStreamingRangeChecker;
 
     public PostgresGetRange(
             PostgresPrefixedTableNames prefixedTableNames,
             SqlConnectionSupplier connectionPool,
             TableMetadataCache tableMetadataCache) {
+        this(prefixedTableNames, connectionPool, tableMetadataCache, Optional.empty());
+    }
+
+    public PostgresGetRange(
+            PostgresPrefixedTableNames prefixedTableNames,
+            SqlConnectionSupplier connectionPool,
+            TableMetadataCache tableMetadataCache,
+            Optional<Duration> streamingRangeIdleTimeout) {
         this.prefixedTableNames = prefixedTableNames;
         this.connectionPool = connectionPool;
         this.tableMetadataCache = tableMetadataCache;
+        this.streamingRangeIdleTimeout = streamingRangeIdleTimeout;
+        this.idleStreamingRangeChecker = streamingRangeIdleTimeout.map(unused ->
+                PTExecutors.newSingleThreadScheduledExecutor(
+                        new NamedThreadFactory("Atlas DbKvs idle streaming range checker", true)));
     }
 
     @Override
@@ -139,6 +163,25 @@ public class PostgresGetRange implements DbKvsGetRange {
         int maxCellsPerPage = DbKvsGetRanges.getMaxCellsPerPage(
                 tableRef, rangeRequest, maxRowsPerPage, connectionPool, tableMetadataCache);
         String tableName = DbKvs.internalTableName(tableRef);
+        if (streamingRangeIdleTimeout.isPresent()) {
+            FullQuery query = getRangeQuery(
+                    tableName,
+                    prefixedTableNames.get(tableRef),
+                    timestamp,
+                    rangeRequest.isReverse(),
+                    rangeRequest.getStartInclusive(),
+                    PtBytes.EMPTY_BYTE_ARRAY,
+                    rangeRequest.getEndExclusive(),
+                    rangeRequest.getColumnNames(),
+                    OptionalInt.empty());
+            return new PostgresStreamingRangeIterator(
+                    connectionPool,
+                    query,
+                    maxCellsPerPage,
+                    tableRef,
+                    idleStreamingRangeChecker.get(),
+                    streamingRangeIdleTimeout.get());
+        }
         Iterator<Iterator<RowResult<Value>>> pageIterator = new PageIterator(
                 rangeRequest.getStartInclusive(),
                 rangeRequest.getEndExclusive(),
@@ -152,6 +195,11 @@ public class PostgresGetRange implements DbKvsGetRange {
         return Iterators.concat(pageIterator);
     }
 
+    @Override
+    public void close() {
+        idleStreamingRangeChecker.ifPresent(ExecutorService::shutdown);
+    }
+
     private class PageIterator extends AbstractIterator<Iterator<RowResult<Value>>> {
         private byte[] currentRowName;
         private ImmutableSortedMap.Builder<byte[], Value> currentRowCells = RangeHelpers.newColumnMap();
@@ -259,39 +307,61 @@ public class PostgresGetRange implements DbKvsGetRange {
         }
 
         private FullQuery getRangeQuery() {
-            String direction = reverse ? "DESC" : "ASC";
-            FullQuery.Builder queryBuilder = FullQuery.builder()
-                    .append("/* GET_RANGE(")
-                    .append(tableName)
-                    .append(") */")
-                    .append("SELECT wrap.row_name, wrap.col_name, wrap.ts, wrap.val")
-                    .append("  FROM ")
-                    .append(prefixedTableName)
-                    .append(" wrap, (")
-                    .append("    SELECT row_name, col_name, MAX(ts) AS ts FROM ")
-                    .append(prefixedTableName)
-                    .append("    WHERE ts < ? ", ts);
-            RangePredicateHelper.create(reverse, DBType.POSTGRESQL, queryBuilder)
-                    .startCellInclusive(currentRowName, firstRowStartColumnInclusive)
-                    .endRowExclusive(endExclusive)
-                    .columnSelection(columnSelection);
-            queryBuilder
-                    .append("    GROUP BY row_name, col_name")
-                    .append("    ORDER BY row_name ")
-                    .append(direction)
-                    .append(", col_name ")
-                    .append(direction)
-                    .append("    LIMIT ")
-                    .append(maxCellsPerPage)
-                    .append("  ) i")
-                    .append("  WHERE wrap.row_name = i.row_name")
-                    .append("    AND wrap.col_name = i.col_name")
-                    .append("    AND wrap.ts = i.ts")
-                    .append("  ORDER BY row_name ")
-                    .append(direction)
-                    .append(", col_name ")
-                    .append(direction);
-            return queryBuilder.build();
+            return PostgresGetRange.getRangeQuery(
+                    tableName,
+                    prefixedTableName,
+                    ts,
+                    reverse,
+                    currentRowName,
+                    firstRowStartColumnInclusive,
+                    endExclusive,
+                    columnSelection,
+                    OptionalInt.of(maxCellsPerPage));
         }
     }
+
+    private static FullQuery getRangeQuery(
+            String tableName,
+            String prefixedTableName,
+            long ts,
+            boolean reverse,
+            byte[] startRowInclusive,
+            byte[] startColumnInclusive,
+            byte[] endRowExclusive,
+            Set<byte[]> columnSelection,
+            OptionalInt maxCells) {
+        String direction = reverse ? "DESC" : "ASC";
+        FullQuery.Builder queryBuilder = FullQuery.builder()
+                .append("/* GET_RANGE(")
+                .append(tableName)
+                .append(") */")
+                .append("SELECT wrap.row_name, wrap.col_name, wrap.ts, wrap.val")
+                .append("  FROM ")
+                .append(prefixedTableName)
+                .append(" wrap, (")
+                .append("    SELECT row_name, col_name, MAX(ts) AS ts FROM ")
+                .append(prefixedTableName)
+                .append("    WHERE ts < ? ", ts);
+        RangePredicateHelper.create(reverse, DBType.POSTGRESQL, queryBuilder)
+                .startCellInclusive(startRowInclusive, startColumnInclusive)
+                .endRowExclusive(endRowExclusive)
+                .columnSelection(columnSelection);
+        queryBuilder
+                .append("    GROUP BY row_name, col_name")
+                .append("    ORDER BY row_name ")
+                .append(direction)
+                .append(", col_name ")
+                .append(direction);
+        maxCells.ifPresent(limit -> queryBuilder.append("    LIMIT ").append(limit));
+        queryBuilder
+                .append("  ) i")
+                .append("  WHERE wrap.row_name = i.row_name")
+                .append("    AND wrap.col_name = i.col_name")
+                .append("    AND wrap.ts = i.ts")
+                .append("  ORDER BY row_name ")
+                .append(direction)
+                .append(", col_name ")
+                .append(direction);
+        return queryBuilder.build();
+    }
 }
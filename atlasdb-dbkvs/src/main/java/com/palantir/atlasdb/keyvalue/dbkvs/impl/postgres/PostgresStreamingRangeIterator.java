@@ -0,0 +1,225 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableSortedMap;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.keyvalue.dbkvs.impl.FullQuery;
+import com.palantir.atlasdb.keyvalue.dbkvs.impl.SqlConnectionSupplier;
+import com.palantir.atlasdb.keyvalue.dbkvs.impl.ranges.RangeHelpers;
+import com.palantir.atlasdb.logging.LoggingArgs;
+import com.palantir.common.base.ClosableIterator;
+import com.palantir.exception.PalantirSqlException;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.exceptions.SafeIllegalStateException;
+import com.palantir.nexus.db.sql.AgnosticLightResultRow;
+import com.palantir.nexus.db.sql.AgnosticLightResultSet;
+import com.palantir.nexus.db.sql.SqlConnection;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Streams the results of a range query from a single query that is held open for the lifetime of the iterator, rather
+ * than issuing a new query per page. The driver fetches {@code fetchSize} cells at a time as the iterator is consumed,
+ * so a slow consumer holds the query open instead of causing the range to be buffered in memory.
+ *
+ * The query runs in a transaction on a connection that is not shared with other calls, and that connection is held
+ * until the iterator is exhausted or closed. Iterators left idle for longer than the idle timeout are closed
+ * automatically, so that leaked iterators do not hold connections and open transactions indefinitely.
+ */
+final class PostgresStreamingRangeIterator extends AbstractIterator<RowResult<Value>>
+        implements ClosableIterator<RowResult<Value>> {
+    private static final Logger log = LoggerFactory.getLogger(PostgresStreamingRangeIterator.class);
+
+    private final SqlConnectionSupplier connectionPool;
+    private final FullQuery query;
+    private final int fetchSize;
+    private final TableReference tableRef;
+    private final Duration idleTimeout;
+    private final ScheduledFuture<?> idleCheck;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile long lastAccessNanos = System.nanoTime();
+    private boolean closed = false;
+    private boolean closedWhileIdle = false;
+
+    private SqlConnection connection;
+    private AgnosticLightResultSet resultSet;
+    private Iterator<AgnosticLightResultRow> sqlRows;
+
+    private byte[] nextRowName;
+    private byte[] nextColName;
+    private Value nextValue;
+
+    PostgresStreamingRangeIterator(
+            SqlConnectionSupplier connectionPool,
+            FullQuery query,
+            int fetchSize,
+            TableReference tableRef,
+            ScheduledExecutorService idleChecker,
+            Duration idleTimeout) {
+        this.connectionPool = connectionPool;
+        this.query = query;
+        this.fetchSize = fetchSize;
+        this.tableRef = tableRef;
+        this.idleTimeout = idleTimeout;
+        this.idleCheck = idleChecker.scheduleWithFixedDelay(
+                this::closeIfIdle, idleTimeout.toNanos(), idleTimeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    protected RowResult<Value> computeNext() {
+        lock.lock();
+        try {
+            if (closedWhileIdle) {
+                throw new SafeIllegalStateException(
+                        "This range iterator was closed after being idle", SafeArg.of("idleTimeout", idleTimeout));
+            }
+            if (closed) {
+                return endOfData();
+            }
+            if (sqlRows == null) {
+                open();
+                advance();
+            }
+            if (nextRowName == null) {
+                closeResources();
+                return endOfData();
+            }
+
+            byte[] rowName = nextRowName;
+            ImmutableSortedMap.Builder<byte[], Value> cells = RangeHelpers.newColumnMap();
+            do {
+                cells.put(nextColName, nextValue);
+                advance();
+            } while (nextRowName != null && Arrays.equals(rowName, nextRowName));
+            return RowResult.create(rowName, cells.build());
+        } catch (RuntimeException | Error e) {
+            closeResources();
+            throw e;
+        } finally {
+            lastAccessNanos = System.nanoTime();
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closeResources();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void advance() {
+        if (!sqlRows.hasNext()) {
+            nextRowName = null;
+            return;
+        }
+        AgnosticLightResultRow sqlRow = sqlRows.next();
+        nextRowName = sqlRow.getBytes("row_name");
+        nextColName = Preconditions.checkNotNull(
+                sqlRow.getBytes("col_name"), "received a null col_name from the database");
+        nextValue = Value.create(sqlRow.getBytes("val"), sqlRow.getLong("ts"));
+    }
+
+    private void open() {
+        // Connections are shared between calls made on the same thread, which must stay out of this transaction.
+        connection = connectionPool.getUnsharedConnection();
+        try {
+            // The driver only fetches results in batches of the fetch size within a transaction.
+            connection.getUnderlyingConnection().setAutoCommit(false);
+        } catch (SQLException e) {
+            throw PalantirSqlException.create(e);
+        }
+        resultSet = connection.selectLightResultSetUnregisteredQueryWithFetchSize(
+                query.getQuery(), fetchSize, query.getArgs());
+        sqlRows = resultSet.iterator();
+    }
+
+    private void closeIfIdle() {
+        if (!lock.tryLock()) {
+            // The iterator is in use.
+            return;
+        }
+        try {
+            if (!closed && System.nanoTime() - lastAccessNanos >= idleTimeout.toNanos()) {
+                log.warn(
+                        "Closing a streaming range over table {} that was left idle for longer than {}. Range"
+                                + " iterators should be closed once they are no longer needed.",
+                        LoggingArgs.tableRef(tableRef),
+                        SafeArg.of("idleTimeout", idleTimeout));
+                closedWhileIdle = true;
+                closeResources();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void closeResources() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        // The idle check may run before the constructor has finished with very short timeouts.
+        if (idleCheck != null) {
+            idleCheck.cancel(false);
+        }
+        try {
+            if (resultSet != null) {
+                resultSet.close();
+            }
+        } finally {
+            if (connection != null) {
+                closeConnection();
+            }
+        }
+    }
+
+    private void closeConnection() {
+        try {
+            Connection underlyingConnection = connection.getUnderlyingConnection();
+            try {
+                underlyingConnection.rollback();
+                underlyingConnection.setAutoCommit(true);
+            } finally {
+                underlyingConnection.close();
+            }
+        } catch (SQLException | PalantirSqlException e) {
+            log.error(
+                    "Failed to close the connection used by a streaming range over table {}",
+                    LoggingArgs.tableRef(tableRef),
+                    e);
+        }
+    }
+}
@@ -15,18 +15,43 @@
  */
 package com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres;
 
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
 import com.palantir.atlasdb.keyvalue.dbkvs.DdlConfig;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.AbstractDbWriteTable;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.ConnectionSupplier;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.PrefixedTableNames;
+import com.palantir.exception.PalantirSqlException;
+import com.palantir.nexus.db.sql.ExceptionCheck;
+import java.util.Collection;
+import java.util.Map;
 
 public class PostgresWriteTable extends AbstractDbWriteTable {
+    private final PrefixedTableNames prefixedTableNames;
+    private final PostgresBulkLoader bulkLoader;
+
     public PostgresWriteTable(
             DdlConfig config,
             ConnectionSupplier conns,
             TableReference tableRef,
-            PrefixedTableNames prefixedTableNames) {
+            PrefixedTableNames prefixedTableNames,
+            PostgresBulkLoader bulkLoader) {
         super(config, conns, tableRef, prefixedTableNames);
+        this.prefixedTableNames = prefixedTableNames;
+        this.bulkLoader = bulkLoader;
+    }
+
+    @Override
+    public boolean tryBulkPut(Collection<Map.Entry<Cell, Value>> data) {
+        try {
+            return bulkLoader.tryLoad(conns.get(), prefixedTableNames.get(tableRef, conns), data);
+        } catch (PalantirSqlException e) {
+            if (ExceptionCheck.isUniqueConstraintViolation(e)) {
+                throw new KeyAlreadyExistsException("primary key violation", e);
+            }
+            throw e;
+        }
     }
 }
@@ -23,4 +23,9 @@ import java.util.Iterator;
 
 public interface DbKvsGetRange {
     Iterator<RowResult<Value>> getRange(TableReference tableRef, RangeRequest rangeRequest, long timestamp);
+
+    /**
+     * Releases any resources held by this strategy. Called when the key value service is closed.
+     */
+    default void close() {}
 }
@@ -0,0 +1,113 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.dbkvs.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CachingOverflowValueLoaderTest {
+    private static final TableReference TABLE = TableReference.createFromFullyQualifiedName("test.table");
+    private static final TableReference OTHER_TABLE = TableReference.createFromFullyQualifiedName("test.other");
+    private static final byte[] VALUE_1 = new byte[] {1, 2, 3};
+    private static final byte[] VALUE_2 = new byte[] {4, 5, 6};
+
+    private final OverflowValueLoader delegate = mock(OverflowValueLoader.class);
+    private final ConnectionSupplier conns = mock(ConnectionSupplier.class);
+
+    @Before
+    public void setUp() {
+        when(delegate.loadOverflowValues(any(), any(), any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(2);
+            Map<Long, byte[]> values = new HashMap<>();
+            ids.forEach(id -> values.put(id, id % 2 == 1 ? VALUE_1 : VALUE_2));
+            return values;
+        });
+    }
+
+    @Test
+    public void onlyLoadsUncachedValues() {
+        CachingOverflowValueLoader loader = new CachingOverflowValueLoader(delegate, 1024);
+
+        loader.loadOverflowValues(conns, TABLE, ImmutableList.of(1L));
+        Map<Long, byte[]> values = loader.loadOverflowValues(conns, TABLE, ImmutableList.of(1L, 2L));
+
+        assertThat(values).containsExactlyInAnyOrderEntriesOf(ImmutableMap.of(1L, VALUE_1, 2L, VALUE_2));
+        verify(delegate).loadOverflowValues(conns, TABLE, ImmutableList.of(1L));
+        verify(delegate).loadOverflowValues(conns, TABLE, ImmutableList.of(2L));
+        verifyNoMoreInteractions(delegate);
+    }
+
+    @Test
+    public void doesNotCallDelegateIfAllValuesAreCached() {
+        CachingOverflowValueLoader loader = new CachingOverflowValueLoader(delegate, 1024);
+
+        loader.loadOverflowValues(conns, TABLE, ImmutableList.of(1L, 2L));
+        Map<Long, byte[]> values = loader.loadOverflowValues(conns, TABLE, ImmutableList.of(2L, 1L));
+
+        assertThat(values).containsOnlyKeys(1L, 2L);
+        verify(delegate).loadOverflowValues(eq(conns), eq(TABLE), any());
+        verifyNoMoreInteractions(delegate);
+    }
+
+    @Test
+    public void cachesValuesPerTable() {
+        CachingOverflowValueLoader loader = new CachingOverflowValueLoader(delegate, 1024);
+
+        loader.loadOverflowValues(conns, TABLE, ImmutableList.of(1L));
+        loader.loadOverflowValues(conns, OTHER_TABLE, ImmutableList.of(1L));
+
+        verify(delegate).loadOverflowValues(conns, TABLE, ImmutableList.of(1L));
+        verify(delegate).loadOverflowValues(conns, OTHER_TABLE, ImmutableList.of(1L));
+    }
+
+    @Test
+    public void evictsValuesOnceCacheIsFull() {
+        CachingOverflowValueLoader loader = new CachingOverflowValueLoader(delegate, VALUE_1.length + 1);
+
+        loader.loadOverflowValues(conns, TABLE, ImmutableList.of(1L));
+        loader.loadOverflowValues(conns, TABLE, ImmutableList.of(2L));
+        loader.loadOverflowValues(conns, TABLE, ImmutableList.of(1L));
+
+        verify(delegate, times(2)).loadOverflowValues(conns, TABLE, ImmutableList.of(1L));
+    }
+
+    @Test
+    public void doesNotCacheValuesIfCacheIsDisabled() {
+        CachingOverflowValueLoader loader = new CachingOverflowValueLoader(delegate, 0);
+
+        loader.loadOverflowValues(conns, TABLE, ImmutableList.of(1L));
+        Map<Long, byte[]> values = loader.loadOverflowValues(conns, TABLE, ImmutableList.of(1L));
+
+        assertThat(values).containsExactlyInAnyOrderEntriesOf(ImmutableMap.of(1L, VALUE_1));
+        verify(delegate, times(2)).loadOverflowValues(conns, TABLE, ImmutableList.of(1L));
+    }
+}
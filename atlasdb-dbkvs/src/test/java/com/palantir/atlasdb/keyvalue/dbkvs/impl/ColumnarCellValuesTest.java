@@ -0,0 +1,197 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.dbkvs.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Test;
+
+public class ColumnarCellValuesTest {
+    private static final Cell CELL_1 = cell("row1", "col1");
+    private static final Cell CELL_2 = cell("row1", "col2");
+    private static final Cell CELL_3 = cell("row2", "col1");
+    private static final Value VALUE_1 = value("value1", 10L);
+    private static final Value VALUE_2 = value("value2", 20L);
+    private static final Value TOMBSTONE = Value.create(PtBytes.EMPTY_BYTE_ARRAY, 30L);
+
+    @Test
+    public void emptyBuilderBuildsEmptyValues() {
+        ColumnarCellValues values = ColumnarCellValues.builder().build();
+
+        assertThat(values.isEmpty()).isTrue();
+        assertThat(values.getSizeInBytes()).isZero();
+        assertThat(values.indexOf(CELL_1)).isEqualTo(-1);
+        assertThat(values.asMap()).isEmpty();
+    }
+
+    @Test
+    public void accessorsReturnAddedEntries() {
+        ColumnarCellValues values = ColumnarCellValues.builder()
+                .add(CELL_1, VALUE_1)
+                .add(CELL_2, TOMBSTONE)
+                .build();
+
+        assertThat(values.size()).isEqualTo(2);
+        assertThat(values.getCell(0)).isEqualTo(CELL_1);
+        assertThat(values.getValue(0)).isEqualTo(VALUE_1);
+        assertThat(values.getContents(0)).isEqualTo(VALUE_1.getContents());
+        assertThat(values.getTimestamp(0)).isEqualTo(10L);
+        assertThat(values.getCell(1)).isEqualTo(CELL_2);
+        assertThat(values.getContentsLength(1)).isZero();
+        assertThat(values.getValue(1)).isEqualTo(TOMBSTONE);
+    }
+
+    @Test
+    public void nullContentsAreTreatedAsEmpty() {
+        ColumnarCellValues values = ColumnarCellValues.builder()
+                .add(CELL_1.getRowName(), CELL_1.getColumnName(), null, 10L)
+                .build();
+
+        assertThat(values.getValue(0)).isEqualTo(Value.create(null, 10L));
+    }
+
+    @Test
+    public void sizeInBytesIsTotalLengthOfNamesAndContents() {
+        ColumnarCellValues values = ColumnarCellValues.builder()
+                .add(CELL_1, VALUE_1)
+                .add(CELL_3, VALUE_2)
+                .build();
+
+        assertThat(values.getSizeInBytes()).isEqualTo(2 * ("row1".length() + "col1".length() + "value1".length()));
+    }
+
+    @Test
+    public void accessingEntriesOutOfBoundsThrows() {
+        ColumnarCellValues values = ColumnarCellValues.builder().add(CELL_1, VALUE_1).build();
+
+        assertThatThrownBy(() -> values.getCell(1)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> values.getTimestamp(-1)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    public void entryWithHighestTimestampIsKeptForDuplicateCells() {
+        ColumnarCellValues values = ColumnarCellValues.builder()
+                .add(CELL_1, VALUE_2)
+                .add(CELL_2, VALUE_1)
+                .add(CELL_1, VALUE_1)
+                .build();
+
+        assertThat(values.size()).isEqualTo(2);
+        assertThat(values.asMap()).containsEntry(CELL_1, VALUE_2).containsEntry(CELL_2, VALUE_1);
+    }
+
+    @Test
+    public void addAllAppendsEntries() {
+        ColumnarCellValues first = ColumnarCellValues.builder().add(CELL_1, VALUE_1).build();
+        ColumnarCellValues.Builder second = ColumnarCellValues.builder().add(CELL_2, VALUE_2);
+
+        ColumnarCellValues values = ColumnarCellValues.builder()
+                .addAll(first)
+                .addAll(second)
+                .add(CELL_3, TOMBSTONE)
+                .build();
+
+        assertThat(values.asMap())
+                .containsExactly(entry(CELL_1, VALUE_1), entry(CELL_2, VALUE_2), entry(CELL_3, TOMBSTONE));
+    }
+
+    @Test
+    public void growsBeyondInitialCapacity() {
+        Map<Cell, Value> expected = new LinkedHashMap<>();
+        ColumnarCellValues.Builder builder = ColumnarCellValues.builder();
+        for (int i = 0; i < 1000; i++) {
+            Cell cell = cell("row" + i, "col" + (i % 7));
+            Value value = value("value" + i, i);
+            expected.put(cell, value);
+            builder.add(cell, value);
+        }
+
+        ColumnarCellValues values = builder.build();
+
+        assertThat(values.asMap()).isEqualTo(expected);
+        expected.keySet().forEach(cell -> assertThat(values.asMap()).containsKey(cell));
+    }
+
+    @Test
+    public void copyOfMapViewReturnsBackingValues() {
+        ColumnarCellValues values = ColumnarCellValues.builder().add(CELL_1, VALUE_1).build();
+
+        assertThat(ColumnarCellValues.copyOf(values.asMap())).isSameAs(values);
+        assertThat(ColumnarCellValues.fromView(values.asMap())).contains(values);
+        assertThat(ColumnarCellValues.fromView(new HashMap<>(values.asMap()))).isEmpty();
+    }
+
+    @Test
+    public void mapViewBehavesAsMap() {
+        Map<Cell, Value> expected = new HashMap<>();
+        expected.put(CELL_1, VALUE_1);
+        expected.put(CELL_3, VALUE_2);
+
+        Map<Cell, Value> view = ColumnarCellValues.copyOf(expected).asMap();
+
+        assertThat(view).isEqualTo(expected);
+        assertThat(view.hashCode()).isEqualTo(expected.hashCode());
+        assertThat(view.get(CELL_3)).isEqualTo(VALUE_2);
+        assertThat(view.get(CELL_2)).isNull();
+        assertThat(view.get("not a cell")).isNull();
+        assertThat(view.values()).containsExactlyInAnyOrder(VALUE_1, VALUE_2);
+    }
+
+    @Test
+    public void mapViewCreatesEachEntryOnce() {
+        Map<Cell, Value> view = ColumnarCellValues.builder().add(CELL_1, VALUE_1).build().asMap();
+
+        assertThat(view.get(CELL_1)).isSameAs(view.get(CELL_1));
+        assertThat(view.values().iterator().next()).isSameAs(view.get(CELL_1));
+        assertThat(view.keySet().iterator().next()).isSameAs(view.keySet().iterator().next());
+    }
+
+    @Test
+    public void builderIsEmptyAfterBuild() {
+        ColumnarCellValues.Builder builder = ColumnarCellValues.builder().add(CELL_1, VALUE_1);
+        ColumnarCellValues first = builder.build();
+
+        ColumnarCellValues second = builder.add(CELL_2, VALUE_2).build();
+
+        assertThat(first.asMap()).containsExactly(entry(CELL_1, VALUE_1));
+        assertThat(second.asMap()).containsExactly(entry(CELL_2, VALUE_2));
+    }
+
+    @Test
+    public void mapViewIsUnmodifiable() {
+        Map<Cell, Value> view = ColumnarCellValues.builder().add(CELL_1, VALUE_1).build().asMap();
+
+        assertThatThrownBy(() -> view.put(CELL_2, VALUE_2)).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> view.keySet().remove(CELL_1)).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    private static Cell cell(String row, String column) {
+        return Cell.create(PtBytes.toBytes(row), PtBytes.toBytes(column));
+    }
+
+    private static Value value(String contents, long timestamp) {
+        return Value.create(PtBytes.toBytes(contents), timestamp);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.palantir.atlasdb.keyvalue.dbkvs.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.dbkvs.impl.DbKvs.TablePartition;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class DbKvsMultiPutGroupingTest {
+    private static final TableReference TABLE_1 = TableReference.createFromFullyQualifiedName("ns.table1");
+    private static final TableReference TABLE_2 = TableReference.createFromFullyQualifiedName("ns.table2");
+    private static final TableReference TABLE_3 = TableReference.createFromFullyQualifiedName("ns.table3");
+
+    @Test
+    public void partitionsOfSeveralTablesShareAGroup() {
+        TablePartition first = partition(TABLE_1, 2, 20);
+        TablePartition second = partition(TABLE_2, 3, 30);
+        TablePartition third = partition(TABLE_3, 1, 10);
+
+        assertThat(DbKvs.groupPartitionsForSingleCheckout(ImmutableList.of(first, second, third), 10, 100))
+                .containsExactly(ImmutableList.of(first, second, third));
+    }
+
+    @Test
+    public void startsANewGroupOnceTheCountWouldBeExceeded() {
+        TablePartition first = partition(TABLE_1, 6, 10);
+        TablePartition second = partition(TABLE_2, 5, 10);
+        TablePartition third = partition(TABLE_2, 5, 10);
+
+        assertThat(DbKvs.groupPartitionsForSingleCheckout(ImmutableList.of(first, second, third), 10, 100))
+                .containsExactly(ImmutableList.of(first), ImmutableList.of(second, third));
+    }
+
+    @Test
+    public void startsANewGroupOnceTheSizeWouldBeExceeded() {
+        TablePartition first = partition(TABLE_1, 1, 60);
+        TablePartition second = partition(TABLE_2, 1, 50);
+
+        assertThat(DbKvs.groupPartitionsForSingleCheckout(ImmutableList.of(first, second), 10, 100))
+                .containsExactly(ImmutableList.of(first), ImmutableList.of(second));
+    }
+
+    @Test
+    public void partitionLargerThanTheBoundsHasAGroupToItself() {
+        TablePartition first = partition(TABLE_1, 1, 10);
+        TablePartition large = partition(TABLE_2, 20, 500);
+        TablePartition last = partition(TABLE_3, 1, 10);
+
+        assertThat(DbKvs.groupPartitionsForSingleCheckout(ImmutableList.of(first, large, last), 10, 100))
+                .containsExactly(ImmutableList.of(first), ImmutableList.of(large), ImmutableList.of(last));
+    }
+
+    @Test
+    public void noPartitionsMakeNoGroups() {
+        assertThat(DbKvs.groupPartitionsForSingleCheckout(ImmutableList.of(), 10, 100)).isEmpty();
+    }
+
+    private static TablePartition partition(TableReference table, int numEntries, long sizeInBytes) {
+        List<Map.Entry<Cell, byte[]>> entries = new ArrayList<>();
+        for (int i = 0; i < numEntries; i++) {
+            entries.add(Maps.immutableEntry(
+                    Cell.create(PtBytes.toBytes("row" + i), PtBytes.toBytes("col")), PtBytes.toBytes(i)));
+        }
+        return new TablePartition(table, entries, sizeInBytes);
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.dbkvs.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.nexus.db.sql.SqlConnection;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OverflowValuePrefetcherTest {
+    private static final TableReference TABLE = TableReference.createFromFullyQualifiedName("test.table");
+    private static final int CHUNK_SIZE = 2;
+
+    private final OverflowValueLoader loader = mock(OverflowValueLoader.class);
+    private final SqlConnectionSupplier connections = mock(SqlConnectionSupplier.class);
+    private final ConnectionSupplier callerConnections = mock(ConnectionSupplier.class);
+    private final CountDownLatch connectionAvailable = new CountDownLatch(1);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Semaphore permits = new Semaphore(1);
+
+    @Before
+    public void setUp() {
+        SqlConnection sqlConnection = mock(SqlConnection.class);
+        when(sqlConnection.getUnderlyingConnection()).thenReturn(mock(Connection.class));
+        when(connections.get()).thenAnswer(invocation -> {
+            Uninterruptibles.awaitUninterruptibly(connectionAvailable);
+            return sqlConnection;
+        });
+        when(loader.loadOverflowValues(any(), eq(TABLE), anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> overflowIds = invocation.getArgument(2);
+            Map<Long, byte[]> values = new HashMap<>();
+            overflowIds.forEach(id -> values.put(id, new byte[] {id.byteValue()}));
+            return values;
+        });
+    }
+
+    @After
+    public void tearDown() {
+        connectionAvailable.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    public void loadsPrefetchedValues() throws Exception {
+        connectionAvailable.countDown();
+        OverflowValuePrefetcher prefetcher = newPrefetcher(permits);
+        prefetcher.prefetch(1L);
+        prefetcher.prefetch(2L);
+        awaitPrefetchesDone();
+
+        Map<Long, byte[]> values = prefetcher.load(callerConnections, ImmutableList.of(1L, 2L, 3L));
+
+        assertThat(values).containsOnlyKeys(1L, 2L, 3L);
+        verify(loader).loadOverflowValues(any(), eq(TABLE), eq(ImmutableList.of(1L, 2L)));
+        verify(loader).loadOverflowValues(callerConnections, TABLE, ImmutableList.of(3L));
+    }
+
+    @Test
+    public void doesNotWaitForPrefetchesWaitingForAConnection() throws Exception {
+        OverflowValuePrefetcher prefetcher = newPrefetcher(permits);
+        prefetcher.prefetch(1L);
+        prefetcher.prefetch(2L);
+
+        Map<Long, byte[]> values = prefetcher.load(callerConnections, ImmutableList.of(1L, 2L));
+
+        assertThat(values).containsOnlyKeys(1L, 2L);
+        verify(loader).loadOverflowValues(callerConnections, TABLE, ImmutableList.of(1L, 2L));
+        connectionAvailable.countDown();
+        awaitPrefetchesDone();
+        verify(loader, never()).loadOverflowValues(any(), eq(TABLE), eq(ImmutableList.of(1L, 2L)));
+    }
+
+    @Test
+    public void leavesChunksToTheCallerIfNoPrefetchPermitsAreAvailable() {
+        ExecutorService unusedExecutor = mock(ExecutorService.class);
+        OverflowValuePrefetcher prefetcher =
+                new OverflowValuePrefetcher(loader, connections, unusedExecutor, new Semaphore(0), TABLE, CHUNK_SIZE);
+        prefetcher.prefetch(1L);
+        prefetcher.prefetch(2L);
+
+        Map<Long, byte[]> values = prefetcher.load(callerConnections, ImmutableList.of(1L, 2L));
+
+        assertThat(values).containsOnlyKeys(1L, 2L);
+        verify(unusedExecutor, never()).execute(any());
+        verify(loader).loadOverflowValues(callerConnections, TABLE, ImmutableList.of(1L, 2L));
+    }
+
+    @Test
+    public void cancelledPrefetchesDoNotLoadAndReleaseTheirPermits() {
+        List<Runnable> tasks = new ArrayList<>();
+        OverflowValuePrefetcher prefetcher = new OverflowValuePrefetcher(
+                loader, connections, tasks::add, permits, TABLE, CHUNK_SIZE);
+        prefetcher.prefetch(1L);
+        prefetcher.prefetch(2L);
+        assertThat(permits.availablePermits()).isZero();
+
+        prefetcher.cancel();
+        connectionAvailable.countDown();
+        tasks.forEach(Runnable::run);
+
+        assertThat(permits.availablePermits()).isEqualTo(1);
+        verify(connections, never()).get();
+        verify(loader, never()).loadOverflowValues(any(), any(), anyCollection());
+    }
+
+    private OverflowValuePrefetcher newPrefetcher(Semaphore prefetchPermits) {
+        return new OverflowValuePrefetcher(loader, connections, executor, prefetchPermits, TABLE, CHUNK_SIZE);
+    }
+
+    private void awaitPrefetchesDone() throws InterruptedException {
+        assertThat(permits.tryAcquire(10, TimeUnit.SECONDS)).isTrue();
+        permits.release();
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.dbkvs.impl.batch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+
+public class CoalescingAsyncGetterTest {
+    private static final TableReference TABLE = TableReference.createFromFullyQualifiedName("test.table");
+    private static final TableReference OTHER_TABLE = TableReference.createFromFullyQualifiedName("test.other");
+    private static final Cell CELL_1 = Cell.create(PtBytes.toBytes("row1"), PtBytes.toBytes("col"));
+    private static final Cell CELL_2 = Cell.create(PtBytes.toBytes("row2"), PtBytes.toBytes("col"));
+    private static final Cell CELL_3 = Cell.create(PtBytes.toBytes("row3"), PtBytes.toBytes("col"));
+
+    private final List<Map<Cell, Long>> reads = new ArrayList<>();
+    private final CountDownLatch firstReadStarted = new CountDownLatch(1);
+    private final CountDownLatch unblockReads = new CountDownLatch(1);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CoalescingAsyncGetter getter = new CoalescingAsyncGetter(this::read, executor, 1, 100, 3);
+
+    private volatile Cell failReadsOf;
+
+    @After
+    public void tearDown() {
+        unblockReads.countDown();
+        getter.close();
+    }
+
+    @Test
+    public void returnsValuesFromReader() throws Exception {
+        unblockReads.countDown();
+
+        Map<Cell, Value> values = getter.getAsync(TABLE, ImmutableMap.of(CELL_1, 10L, CELL_2, 10L))
+                .get(10, TimeUnit.SECONDS);
+
+        assertThat(values).containsOnlyKeys(CELL_1, CELL_2);
+        assertThat(values.get(CELL_1).getTimestamp()).isEqualTo(9L);
+    }
+
+    @Test
+    public void coalescesGetsQueuedWhileReading() throws Exception {
+        ListenableFuture<Map<Cell, Value>> first = getter.getAsync(TABLE, ImmutableMap.of(CELL_1, 10L));
+        awaitFirstRead();
+        ListenableFuture<Map<Cell, Value>> second = getter.getAsync(TABLE, ImmutableMap.of(CELL_2, 10L));
+        ListenableFuture<Map<Cell, Value>> third = getter.getAsync(TABLE, ImmutableMap.of(CELL_2, 10L, CELL_3, 10L));
+        unblockReads.countDown();
+
+        assertThat(first.get(10, TimeUnit.SECONDS)).containsOnlyKeys(CELL_1);
+        assertThat(second.get(10, TimeUnit.SECONDS)).containsOnlyKeys(CELL_2);
+        assertThat(third.get(10, TimeUnit.SECONDS)).containsOnlyKeys(CELL_2, CELL_3);
+        synchronized (reads) {
+            assertThat(reads).containsExactly(
+                    ImmutableMap.of(CELL_1, 10L), ImmutableMap.of(CELL_2, 10L, CELL_3, 10L));
+        }
+    }
+
+    @Test
+    public void doesNotCoalesceGetsForDifferentTablesOrTimestamps() throws Exception {
+        ListenableFuture<Map<Cell, Value>> first = getter.getAsync(TABLE, ImmutableMap.of(CELL_1, 10L));
+        awaitFirstRead();
+        ListenableFuture<Map<Cell, Value>> second = getter.getAsync(TABLE, ImmutableMap.of(CELL_2, 10L));
+        ListenableFuture<Map<Cell, Value>> third = getter.getAsync(TABLE, ImmutableMap.of(CELL_2, 20L));
+        ListenableFuture<Map<Cell, Value>> fourth = getter.getAsync(OTHER_TABLE, ImmutableMap.of(CELL_2, 10L));
+        unblockReads.countDown();
+
+        first.get(10, TimeUnit.SECONDS);
+        assertThat(second.get(10, TimeUnit.SECONDS).get(CELL_2).getTimestamp()).isEqualTo(9L);
+        assertThat(third.get(10, TimeUnit.SECONDS).get(CELL_2).getTimestamp()).isEqualTo(19L);
+        fourth.get(10, TimeUnit.SECONDS);
+        synchronized (reads) {
+            assertThat(reads).hasSize(4);
+        }
+    }
+
+    @Test
+    public void readFailuresArePropagatedToAllCoalescedGets() throws Exception {
+        ListenableFuture<Map<Cell, Value>> first = getter.getAsync(TABLE, ImmutableMap.of(CELL_1, 10L));
+        awaitFirstRead();
+        failReadsOf = CELL_3;
+        ListenableFuture<Map<Cell, Value>> second = getter.getAsync(TABLE, ImmutableMap.of(CELL_2, 10L));
+        ListenableFuture<Map<Cell, Value>> third = getter.getAsync(TABLE, ImmutableMap.of(CELL_3, 10L));
+        unblockReads.countDown();
+
+        assertThat(first.get(10, TimeUnit.SECONDS)).containsOnlyKeys(CELL_1);
+        assertThatThrownBy(() -> second.get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> third.get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void getsOverThePendingLimitAreRejectedUntilPendingGetsAreServed() throws Exception {
+        ListenableFuture<Map<Cell, Value>> first = getter.getAsync(TABLE, ImmutableMap.of(CELL_1, 10L));
+        awaitFirstRead();
+        List<ListenableFuture<Map<Cell, Value>>> pending = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            pending.add(getter.getAsync(TABLE, ImmutableMap.of(CELL_2, 10L)));
+        }
+
+        assertThatThrownBy(() -> getter.getAsync(TABLE, ImmutableMap.of(CELL_3, 10L)).get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+
+        unblockReads.countDown();
+        first.get(10, TimeUnit.SECONDS);
+        for (ListenableFuture<Map<Cell, Value>> get : pending) {
+            assertThat(get.get(10, TimeUnit.SECONDS)).containsOnlyKeys(CELL_2);
+        }
+        assertThat(getter.getAsync(TABLE, ImmutableMap.of(CELL_3, 10L)).get(10, TimeUnit.SECONDS))
+                .containsOnlyKeys(CELL_3);
+    }
+
+    @Test
+    public void getsAfterCloseFail() {
+        getter.close();
+
+        assertThatThrownBy(() -> getter.getAsync(TABLE, ImmutableMap.of(CELL_1, 10L)).get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class);
+    }
+
+    private void awaitFirstRead() throws InterruptedException {
+        assertThat(firstReadStarted.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private Map<Cell, Value> read(TableReference tableRef, Map<Cell, Long> timestampByCell) {
+        synchronized (reads) {
+            reads.add(ImmutableMap.copyOf(timestampByCell));
+        }
+        firstReadStarted.countDown();
+        try {
+            unblockReads.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        if (timestampByCell.containsKey(failReadsOf)) {
+            throw new IllegalStateException("boom");
+        }
+        Map<Cell, Value> values = new HashMap<>();
+        timestampByCell.forEach(
+                (cell, timestamp) -> values.put(cell, Value.create(PtBytes.toBytes("value"), timestamp - 1)));
+        return values;
+    }
+}
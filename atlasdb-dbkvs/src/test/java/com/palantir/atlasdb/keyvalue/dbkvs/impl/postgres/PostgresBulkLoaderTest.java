@@ -0,0 +1,92 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.nexus.db.sql.SqlConnection;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.postgresql.PGConnection;
+
+public class PostgresBulkLoaderTest {
+    private static final String TABLE = "at_ns__table";
+    private static final Cell CELL = Cell.create(PtBytes.toBytes("row"), PtBytes.toBytes("column"));
+    private static final List<Map.Entry<Cell, Value>> VALUES =
+            ImmutableList.of(Maps.immutableEntry(CELL, Value.create(PtBytes.toBytes("value"), 42L)));
+
+    private final PostgresBulkLoader bulkLoader = new PostgresBulkLoader();
+
+    @Test
+    public void writesValuesInBinaryCopyFormat() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PostgresBulkLoader.writeCopyData(new DataOutputStream(bytes), VALUES);
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        byte[] signature = new byte[11];
+        buffer.get(signature);
+        assertThat(signature).isEqualTo(new byte[] {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0});
+        assertThat(buffer.getInt()).isZero();
+        assertThat(buffer.getInt()).isZero();
+
+        assertThat(buffer.getShort()).isEqualTo((short) 4);
+        assertThat(readField(buffer)).isEqualTo(CELL.getRowName());
+        assertThat(readField(buffer)).isEqualTo(CELL.getColumnName());
+        assertThat(buffer.getInt()).isEqualTo(Long.BYTES);
+        assertThat(buffer.getLong()).isEqualTo(42L);
+        assertThat(readField(buffer)).isEqualTo(PtBytes.toBytes("value"));
+
+        assertThat(buffer.getShort()).isEqualTo((short) -1);
+        assertThat(buffer.hasRemaining()).isFalse();
+    }
+
+    @Test
+    public void doesNotLoadOrRetryIfConnectionIsNotPostgres() throws Exception {
+        Connection underlyingConnection = mock(Connection.class);
+        when(underlyingConnection.isWrapperFor(PGConnection.class)).thenReturn(false);
+        SqlConnection conn = mock(SqlConnection.class);
+        when(conn.getUnderlyingConnection()).thenReturn(underlyingConnection);
+
+        assertThat(bulkLoader.tryLoad(conn, TABLE, VALUES)).isFalse();
+        assertThat(bulkLoader.tryLoad(conn, TABLE, VALUES)).isFalse();
+
+        verify(conn, times(1)).getUnderlyingConnection();
+        verify(conn, never()).executeUnregisteredQuery(any());
+    }
+
+    private static byte[] readField(ByteBuffer buffer) {
+        byte[] field = new byte[buffer.getInt()];
+        buffer.get(field);
+        return field;
+    }
+}
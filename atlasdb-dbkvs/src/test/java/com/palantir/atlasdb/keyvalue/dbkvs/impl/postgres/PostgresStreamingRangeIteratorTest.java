@@ -0,0 +1,147 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.keyvalue.dbkvs.impl.FullQuery;
+import com.palantir.atlasdb.keyvalue.dbkvs.impl.SqlConnectionSupplier;
+import com.palantir.logsafe.exceptions.SafeIllegalStateException;
+import com.palantir.nexus.db.sql.AgnosticLightResultRow;
+import com.palantir.nexus.db.sql.AgnosticLightResultSet;
+import com.palantir.nexus.db.sql.SqlConnection;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class PostgresStreamingRangeIteratorTest {
+    private static final TableReference TABLE = TableReference.createFromFullyQualifiedName("test.table");
+    private static final FullQuery QUERY = FullQuery.builder().append("SELECT * WHERE ts < ?", 100L).build();
+    private static final int FETCH_SIZE = 2;
+    private static final Duration SHORT_IDLE_TIMEOUT = Duration.ofMillis(1);
+    private static final Duration LONG_IDLE_TIMEOUT = Duration.ofHours(1);
+
+    private final SqlConnectionSupplier connectionPool = mock(SqlConnectionSupplier.class);
+    private final SqlConnection sqlConnection = mock(SqlConnection.class);
+    private final Connection connection = mock(Connection.class);
+    private final AgnosticLightResultSet resultSet = mock(AgnosticLightResultSet.class);
+    private final ScheduledExecutorService idleChecker = mock(ScheduledExecutorService.class);
+    private final ScheduledFuture<?> idleCheck = mock(ScheduledFuture.class);
+
+    @Before
+    public void setUp() {
+        when(connectionPool.getUnsharedConnection()).thenReturn(sqlConnection);
+        when(sqlConnection.getUnderlyingConnection()).thenReturn(connection);
+        when(sqlConnection.selectLightResultSetUnregisteredQueryWithFetchSize(anyString(), eq(FETCH_SIZE), any()))
+                .thenReturn(resultSet);
+        List<AgnosticLightResultRow> sqlRows = ImmutableList.of(
+                sqlRow("row1", "col1", 10L), sqlRow("row1", "col2", 20L), sqlRow("row2", "col1", 30L));
+        when(resultSet.iterator()).thenReturn(sqlRows.iterator());
+        doReturn(idleCheck).when(idleChecker).scheduleWithFixedDelay(any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    public void groupsCellsIntoRowsAndClosesConnectionOnceExhausted() throws Exception {
+        PostgresStreamingRangeIterator iterator = newIterator(LONG_IDLE_TIMEOUT);
+
+        List<RowResult<Value>> rows = ImmutableList.copyOf(iterator);
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0).getRowName()).isEqualTo(PtBytes.toBytes("row1"));
+        assertThat(rows.get(0).getColumns()).hasSize(2);
+        assertThat(rows.get(1).getRowName()).isEqualTo(PtBytes.toBytes("row2"));
+        assertThat(rows.get(1).getOnlyColumnValue().getTimestamp()).isEqualTo(30L);
+        verify(connectionPool, never()).get();
+        verify(connection).setAutoCommit(false);
+        verify(resultSet).close();
+        verify(connection).rollback();
+        verify(connection).close();
+        verify(idleCheck).cancel(false);
+    }
+
+    @Test
+    public void doesNotOpenConnectionUntilConsumed() {
+        newIterator(LONG_IDLE_TIMEOUT).close();
+
+        verify(connectionPool, never()).getUnsharedConnection();
+    }
+
+    @Test
+    public void closesIteratorLeftIdle() throws Exception {
+        PostgresStreamingRangeIterator iterator = newIterator(SHORT_IDLE_TIMEOUT);
+        Runnable idleCheckTask = captureIdleCheckTask();
+        assertThat(iterator.next().getRowName()).isEqualTo(PtBytes.toBytes("row1"));
+
+        Thread.sleep(10);
+        idleCheckTask.run();
+
+        verify(connection).close();
+        assertThatThrownBy(iterator::hasNext).isInstanceOf(SafeIllegalStateException.class);
+    }
+
+    @Test
+    public void doesNotCloseIteratorUsedWithinIdleTimeout() {
+        PostgresStreamingRangeIterator iterator = newIterator(LONG_IDLE_TIMEOUT);
+        Runnable idleCheckTask = captureIdleCheckTask();
+
+        assertThat(iterator.next().getRowName()).isEqualTo(PtBytes.toBytes("row1"));
+        idleCheckTask.run();
+
+        verify(connection, never()).close();
+        assertThat(iterator.next().getRowName()).isEqualTo(PtBytes.toBytes("row2"));
+    }
+
+    private PostgresStreamingRangeIterator newIterator(Duration idleTimeout) {
+        return new PostgresStreamingRangeIterator(connectionPool, QUERY, FETCH_SIZE, TABLE, idleChecker, idleTimeout);
+    }
+
+    private Runnable captureIdleCheckTask() {
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(idleChecker).scheduleWithFixedDelay(task.capture(), anyLong(), anyLong(), eq(TimeUnit.NANOSECONDS));
+        return task.getValue();
+    }
+
+    private static AgnosticLightResultRow sqlRow(String row, String col, long ts) {
+        AgnosticLightResultRow sqlRow = mock(AgnosticLightResultRow.class);
+        when(sqlRow.getBytes("row_name")).thenReturn(PtBytes.toBytes(row));
+        when(sqlRow.getBytes("col_name")).thenReturn(PtBytes.toBytes(col));
+        when(sqlRow.getBytes("val")).thenReturn(PtBytes.toBytes("value"));
+        when(sqlRow.getLong("ts")).thenReturn(ts);
+        return sqlRow;
+    }
+}
@@ -316,6 +316,7 @@ public final class SnapshotsStreamStore extends AbstractPersistentStreamStore {
             SnapshotsStreamHashAidxTable.SnapshotsStreamHashAidxRow hashRow = SnapshotsStreamHashAidxTable.SnapshotsStreamHashAidxRow.of(hash);
             SnapshotsStreamHashAidxTable.SnapshotsStreamHashAidxColumn column = SnapshotsStreamHashAidxTable.SnapshotsStreamHashAidxColumn.of(streamId);
             shToDelete.put(hashRow, column);
+            unmarkChunksAsUsed(t, streamId, e.getValue());
         }
         tables.getSnapshotsStreamHashAidxTable(t).delete(shToDelete);
         tables.getSnapshotsStreamValueTable(t).delete(streamValueToDelete);
@@ -316,6 +316,7 @@ public final class DataStreamStore extends AbstractPersistentStreamStore {
             DataStreamHashAidxTable.DataStreamHashAidxRow hashRow = DataStreamHashAidxTable.DataStreamHashAidxRow.of(hash);
             DataStreamHashAidxTable.DataStreamHashAidxColumn column = DataStreamHashAidxTable.DataStreamHashAidxColumn.of(streamId);
             shToDelete.put(hashRow, column);
+            unmarkChunksAsUsed(t, streamId, e.getValue());
         }
         tables.getDataStreamHashAidxTable(t).delete(shToDelete);
         tables.getDataStreamValueTable(t).delete(streamValueToDelete);
@@ -316,6 +316,7 @@ public final class HotspottyDataStreamStore extends AbstractPersistentStreamStor
             HotspottyDataStreamHashAidxTable.HotspottyDataStreamHashAidxRow hashRow = HotspottyDataStreamHashAidxTable.HotspottyDataStreamHashAidxRow.of(hash);
             HotspottyDataStreamHashAidxTable.HotspottyDataStreamHashAidxColumn column = HotspottyDataStreamHashAidxTable.HotspottyDataStreamHashAidxColumn.of(streamId);
             shToDelete.put(hashRow, column);
+            unmarkChunksAsUsed(t, streamId, e.getValue());
         }
         tables.getHotspottyDataStreamHashAidxTable(t).delete(shToDelete);
         tables.getHotspottyDataStreamValueTable(t).delete(streamValueToDelete);
@@ -77,6 +77,21 @@ final class ClientLockWatchSnapshot {
         snapshotVersion = Optional.of(LockWatchVersion.of(snapshot.logId(), snapshot.lastKnownVersion()));
     }
 
+    /**
+     * Applies the net lock state changes of a delta, which must have a base version no later than the version of
+     * this snapshot.
+     */
+    void applyDelta(LockWatchStateUpdate.Delta delta) {
+        Preconditions.checkState(
+                snapshotVersion.isPresent(), "Snapshot was reset on fail and has not been seeded since");
+        Preconditions.checkArgument(
+                delta.baseVersion() <= snapshotVersion.get().version(),
+                "Cannot apply a delta from after the snapshot version");
+        locked.removeAll(delta.unlocked());
+        locked.addAll(delta.locked());
+        snapshotVersion = Optional.of(LockWatchVersion.of(delta.logId(), delta.lastKnownVersion()));
+    }
+
     void reset() {
         snapshotVersion = Optional.empty();
         watches.clear();
@@ -103,6 +103,11 @@ public final class LockWatchEventCacheImpl implements LockWatchEventCache {
                 .toTransactionsLockWatchUpdate(timestampMapping, lastKnownVersion);
     }
 
+    @Override
+    public Optional<LockWatchVersion> getStartVersion(long startTimestamp) {
+        return timestampStateStore.getStartVersion(startTimestamp);
+    }
+
     @Override
     public void removeTransactionStateFromCache(long startTimestamp) {
         timestampStateStore.remove(startTimestamp);
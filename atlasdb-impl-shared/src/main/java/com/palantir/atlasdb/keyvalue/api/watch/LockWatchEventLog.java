@@ -158,6 +158,26 @@ final class LockWatchEventLog {
         }
     }
 
+    private CacheUpdate processDelta(LockWatchStateUpdate.Delta delta) {
+        Preconditions.checkState(latestVersion.isPresent(), "Must have a known version to process delta updates");
+        Preconditions.checkState(
+                snapshot.getSnapshotVersion().isPresent(), "Must have a snapshot before processing delta updates");
+
+        if (delta.baseVersion() > latestVersion.get().version()) {
+            processFailed();
+            return CacheUpdate.FAILED;
+        }
+
+        if (delta.lastKnownVersion() <= latestVersion.get().version()) {
+            return new CacheUpdate(false, latestVersion);
+        }
+
+        snapshot.processEvents(eventStore.retentionAllEvents(), delta.logId());
+        snapshot.applyDelta(delta);
+        latestVersion = Optional.of(LockWatchVersion.of(delta.logId(), delta.lastKnownVersion()));
+        return new CacheUpdate(true, latestVersion);
+    }
+
     private void processSnapshot(LockWatchStateUpdate.Snapshot snapshotUpdate) {
         eventStore.clear();
         snapshot.resetWithSnapshot(snapshotUpdate);
@@ -184,6 +204,11 @@ final class LockWatchEventLog {
             processSnapshot(snapshotUpdate);
             return new CacheUpdate(true, latestVersion);
         }
+
+        @Override
+        public CacheUpdate visit(LockWatchStateUpdate.Delta delta) {
+            return processDelta(delta);
+        }
     }
 
     private final class NewLeaderVisitor implements LockWatchStateUpdate.Visitor<CacheUpdate> {
@@ -199,5 +224,11 @@ final class LockWatchEventLog {
             processSnapshot(snapshotUpdate);
             return new CacheUpdate(true, latestVersion);
         }
+
+        @Override
+        public CacheUpdate visit(LockWatchStateUpdate.Delta delta) {
+            processFailed();
+            return CacheUpdate.FAILED;
+        }
     }
 }
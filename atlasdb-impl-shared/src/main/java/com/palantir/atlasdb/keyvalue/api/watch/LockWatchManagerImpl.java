@@ -17,6 +17,9 @@
 package com.palantir.atlasdb.keyvalue.api.watch;
 
 import com.palantir.atlasdb.timelock.api.LockWatchRequest;
+import com.palantir.atlasdb.transaction.api.LockWatchingCache;
+import com.palantir.atlasdb.transaction.api.NoOpTransactionLockWatchingCacheView;
+import com.palantir.atlasdb.transaction.api.TransactionLockWatchingCacheView;
 import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.lock.client.NamespacedConjureLockWatchingService;
 import com.palantir.lock.watch.CommitUpdate;
@@ -40,6 +43,7 @@ public final class LockWatchManagerImpl extends LockWatchManager implements Auto
 
     private final Set<LockWatchReferences.LockWatchReference> lockWatchReferences = ConcurrentHashMap.newKeySet();
     private final LockWatchEventCache lockWatchEventCache;
+    private final LockWatchingCache valueCache;
     private final NamespacedConjureLockWatchingService lockWatchingService;
     private final ScheduledExecutorService executorService = PTExecutors.newSingleThreadScheduledExecutor();
     private final ScheduledFuture<?> refreshTask;
@@ -47,6 +51,7 @@ public final class LockWatchManagerImpl extends LockWatchManager implements Auto
     public LockWatchManagerImpl(
             LockWatchEventCache lockWatchEventCache, NamespacedConjureLockWatchingService lockWatchingService) {
         this.lockWatchEventCache = lockWatchEventCache;
+        this.valueCache = new LockWatchValueCacheImpl(lockWatchEventCache);
         this.lockWatchingService = lockWatchingService;
         refreshTask = executorService.scheduleWithFixedDelay(this::registerWatchesWithTimelock, 0, 5, TimeUnit.SECONDS);
     }
@@ -62,6 +67,18 @@ public final class LockWatchManagerImpl extends LockWatchManager implements Auto
         return lockWatchEventCache.getUpdateForTransactions(startTimestamps, version);
     }
 
+    /**
+     * Until watches have been registered there is nothing to cache, so transactions do not catch the value cache up
+     * with the lock watch events, which would synchronize them on the event cache.
+     */
+    @Override
+    public TransactionLockWatchingCacheView getTransactionCacheView(long startTs) {
+        if (lockWatchReferences.isEmpty()) {
+            return NoOpTransactionLockWatchingCacheView.INSTANCE;
+        }
+        return valueCache.getView(startTs);
+    }
+
     @Override
     public void close() {
         refreshTask.cancel(false);
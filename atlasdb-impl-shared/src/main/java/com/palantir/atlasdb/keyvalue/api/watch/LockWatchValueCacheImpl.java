@@ -0,0 +1,298 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.api.watch;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.RangeSet;
+import com.google.common.collect.TreeRangeSet;
+import com.palantir.atlasdb.keyvalue.api.AtlasLockDescriptorUtils;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.transaction.api.GuardedValue;
+import com.palantir.atlasdb.transaction.api.LockWatchingCache;
+import com.palantir.atlasdb.transaction.api.NoOpTransactionLockWatchingCacheView;
+import com.palantir.atlasdb.transaction.api.TransactionLockWatchingCacheView;
+import com.palantir.lock.AtlasCellLockDescriptor;
+import com.palantir.lock.AtlasRowLockDescriptor;
+import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.watch.LockEvent;
+import com.palantir.lock.watch.LockWatchCreatedEvent;
+import com.palantir.lock.watch.LockWatchEvent;
+import com.palantir.lock.watch.LockWatchEventCache;
+import com.palantir.lock.watch.LockWatchReferences;
+import com.palantir.lock.watch.LockWatchVersion;
+import com.palantir.lock.watch.TransactionsLockWatchUpdate;
+import com.palantir.lock.watch.UnlockEvent;
+import com.palantir.logsafe.SafeArg;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.concurrent.GuardedBy;
+import okio.ByteString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded, per-table cache of committed values that is kept up to date using the lock watch events processed by a
+ * {@link LockWatchEventCache}.
+ *
+ * A value is only cached if both the row and the cell lock descriptors of its cell are watched, and neither is locked
+ * at the lock watch version of the transaction that read it. Every lock event touching a cached row invalidates the
+ * cached values for that row, so a value guarded by version v is the latest committed value for any transaction
+ * starting at a version greater than or equal to v, provided the cache has processed all events up to the version of
+ * that transaction. Views catch the cache up to the version of their transaction before serving any reads.
+ *
+ * This relies on every write to a watched table being made by a transaction that takes row or cell locks for its
+ * writes. Callers must therefore not consult the cache for tables whose conflict handler does not lock, and tables that
+ * are written to directly through the key value service must not be watched.
+ */
+public final class LockWatchValueCacheImpl implements LockWatchingCache {
+    private static final Logger log = LoggerFactory.getLogger(LockWatchValueCacheImpl.class);
+
+    @VisibleForTesting
+    static final int DEFAULT_MAX_CACHED_CELLS_PER_TABLE = 10_000;
+
+    private final LockWatchEventCache eventCache;
+    private final int maxCachedCellsPerTable;
+    private final LockWatchEvent.Visitor<Void> eventVisitor = new EventVisitor();
+
+    @GuardedBy("this")
+    private Optional<LockWatchVersion> currentVersion = Optional.empty();
+
+    @GuardedBy("this")
+    private final RangeSet<LockDescriptor> watchedRanges = TreeRangeSet.create();
+
+    @GuardedBy("this")
+    private final Set<LockDescriptor> lockedDescriptors = new HashSet<>();
+
+    private volatile ValueStore values = new ValueStore(Optional.empty());
+
+    public LockWatchValueCacheImpl(LockWatchEventCache eventCache) {
+        this(eventCache, DEFAULT_MAX_CACHED_CELLS_PER_TABLE);
+    }
+
+    @VisibleForTesting
+    LockWatchValueCacheImpl(LockWatchEventCache eventCache, int maxCachedCellsPerTable) {
+        this.eventCache = eventCache;
+        this.maxCachedCellsPerTable = maxCachedCellsPerTable;
+    }
+
+    @Override
+    public Map<Cell, GuardedValue> getCached(TableReference tableRef, Set<Cell> reads) {
+        Cache<Cell, GuardedValue> tableValues = values.getTable(tableRef);
+        if (tableValues == null) {
+            return ImmutableMap.of();
+        }
+        return ImmutableMap.copyOf(tableValues.getAllPresent(reads));
+    }
+
+    /**
+     * Committed writes are not cached, as the commit locks of the writing transaction are still held when this is
+     * called; instead, any cached values for the written cells are invalidated eagerly. The values will be cached the
+     * next time they are read by a transaction that starts after the commit locks are released.
+     */
+    @Override
+    public void maybeCacheCommittedWrites(TableReference tableRef, Map<Cell, byte[]> writes) {
+        Cache<Cell, GuardedValue> tableValues = values.getTable(tableRef);
+        if (tableValues != null) {
+            tableValues.invalidateAll(writes.keySet());
+        }
+    }
+
+    @Override
+    public synchronized void maybeCacheEntriesRead(
+            TableReference tableRef, Map<Cell, byte[]> reads, LockWatchVersion version) {
+        if (reads.isEmpty() || !currentVersion.equals(Optional.of(version))) {
+            // Events may have happened since the values were read, so we cannot tell whether they are still current.
+            return;
+        }
+
+        Cache<Cell, GuardedValue> tableValues = values.getOrCreateTable(tableRef, maxCachedCellsPerTable);
+        reads.forEach((cell, value) -> {
+            if (isCacheable(tableRef, cell)) {
+                tableValues.put(cell, GuardedValue.of(value, version.version()));
+            }
+        });
+    }
+
+    @Override
+    public TransactionLockWatchingCacheView getView(long startTimestamp) {
+        return catchUpToStartVersion(startTimestamp)
+                .<TransactionLockWatchingCacheView>map(version -> new TransactionValueCacheView(this, version))
+                .orElse(NoOpTransactionLockWatchingCacheView.INSTANCE);
+    }
+
+    Map<Cell, byte[]> getCachedAsOf(TableReference tableRef, Set<Cell> cells, LockWatchVersion version) {
+        ValueStore store = values;
+        Cache<Cell, GuardedValue> tableValues = store.getTable(tableRef);
+        if (tableValues == null || !store.logId.equals(Optional.of(version.id()))) {
+            return ImmutableMap.of();
+        }
+
+        Map<Cell, byte[]> result = new HashMap<>();
+        for (Cell cell : cells) {
+            GuardedValue guardedValue = tableValues.getIfPresent(cell);
+            if (guardedValue != null && guardedValue.guardTimestamp() <= version.version()) {
+                result.put(cell, guardedValue.value());
+            }
+        }
+        return result;
+    }
+
+    private synchronized Optional<LockWatchVersion> catchUpToStartVersion(long startTimestamp) {
+        Optional<LockWatchVersion> maybeStartVersion = eventCache.getStartVersion(startTimestamp);
+        if (!maybeStartVersion.isPresent()) {
+            return Optional.empty();
+        }
+
+        LockWatchVersion startVersion = maybeStartVersion.get();
+        Optional<LockWatchVersion> knownVersion =
+                currentVersion.filter(version -> version.id().equals(startVersion.id()));
+        if (knownVersion.isPresent() && knownVersion.get().version() >= startVersion.version()) {
+            return maybeStartVersion;
+        }
+
+        try {
+            TransactionsLockWatchUpdate update =
+                    eventCache.getUpdateForTransactions(ImmutableSet.of(startTimestamp), knownVersion);
+            if (update.clearCache()) {
+                reset(Optional.of(startVersion.id()));
+            }
+            update.events().forEach(event -> event.accept(eventVisitor));
+            currentVersion = maybeStartVersion;
+            return maybeStartVersion;
+        } catch (RuntimeException e) {
+            log.info(
+                    "Failed to update the lock watch value cache; clearing it and not caching for this transaction",
+                    SafeArg.of("startTimestamp", startTimestamp),
+                    e);
+            reset(Optional.empty());
+            return Optional.empty();
+        }
+    }
+
+    @GuardedBy("this")
+    private void reset(Optional<UUID> logId) {
+        currentVersion = Optional.empty();
+        watchedRanges.clear();
+        lockedDescriptors.clear();
+        values = new ValueStore(logId);
+    }
+
+    @GuardedBy("this")
+    private boolean isCacheable(TableReference tableRef, Cell cell) {
+        String tableName = tableRef.getQualifiedName();
+        LockDescriptor rowDescriptor = AtlasRowLockDescriptor.of(tableName, cell.getRowName());
+        LockDescriptor cellDescriptor = AtlasCellLockDescriptor.of(tableName, cell.getRowName(), cell.getColumnName());
+        return watchedRanges.contains(rowDescriptor)
+                && watchedRanges.contains(cellDescriptor)
+                && !lockedDescriptors.contains(rowDescriptor)
+                && !lockedDescriptors.contains(cellDescriptor);
+    }
+
+    /**
+     * Invalidates every cached value whose row could be referred to by one of the descriptors. As row names may contain
+     * zero bytes, a cell lock descriptor cannot be parsed unambiguously, so all possible rows are invalidated.
+     */
+    @GuardedBy("this")
+    private void invalidate(Set<LockDescriptor> descriptors) {
+        Map<TableReference, Set<ByteBuffer>> rowsByTable = new HashMap<>();
+        for (LockDescriptor descriptor : descriptors) {
+            AtlasLockDescriptorUtils.tryParseTableRef(descriptor).ifPresent(tableRefAndRemainder -> {
+                if (values.getTable(tableRefAndRemainder.tableRef()) != null) {
+                    rowsByTable
+                            .computeIfAbsent(tableRefAndRemainder.tableRef(), $ -> new HashSet<>())
+                            .addAll(candidateRows(tableRefAndRemainder.remainder()));
+                }
+            });
+        }
+
+        rowsByTable.forEach((tableRef, rows) -> {
+            Cache<Cell, GuardedValue> tableValues = values.getTable(tableRef);
+            tableValues.asMap().keySet().removeIf(cell -> rows.contains(ByteBuffer.wrap(cell.getRowName())));
+        });
+    }
+
+    private static Set<ByteBuffer> candidateRows(ByteString remainder) {
+        Set<ByteBuffer> rows = new HashSet<>();
+        rows.add(ByteBuffer.wrap(remainder.toByteArray()));
+        for (int index = 1; index < remainder.size() - 1; index++) {
+            if (remainder.getByte(index) == 0) {
+                rows.add(ByteBuffer.wrap(remainder.substring(0, index).toByteArray()));
+            }
+        }
+        return rows;
+    }
+
+    private final class EventVisitor implements LockWatchEvent.Visitor<Void> {
+        @Override
+        public Void visit(LockEvent lockEvent) {
+            lockedDescriptors.addAll(lockEvent.lockDescriptors());
+            invalidate(lockEvent.lockDescriptors());
+            return null;
+        }
+
+        @Override
+        public Void visit(UnlockEvent unlockEvent) {
+            lockedDescriptors.removeAll(unlockEvent.lockDescriptors());
+            return null;
+        }
+
+        @Override
+        public Void visit(LockWatchCreatedEvent lockWatchCreatedEvent) {
+            lockWatchCreatedEvent
+                    .references()
+                    .forEach(reference -> watchedRanges.add(reference.accept(LockWatchReferences.TO_RANGES_VISITOR)));
+            lockedDescriptors.addAll(lockWatchCreatedEvent.lockDescriptors());
+            invalidate(lockWatchCreatedEvent.lockDescriptors());
+            return null;
+        }
+    }
+
+    /**
+     * All values cached while the cache was following the event log with the given id. A new store is swapped in
+     * whenever the cache has to be cleared, so readers never mix versions from different logs.
+     */
+    private static final class ValueStore {
+        private final Optional<UUID> logId;
+        private final ConcurrentMap<TableReference, Cache<Cell, GuardedValue>> valuesByTable =
+                new ConcurrentHashMap<>();
+
+        private ValueStore(Optional<UUID> logId) {
+            this.logId = logId;
+        }
+
+        private Cache<Cell, GuardedValue> getTable(TableReference tableRef) {
+            return valuesByTable.get(tableRef);
+        }
+
+        private Cache<Cell, GuardedValue> getOrCreateTable(TableReference tableRef, int maxCachedCells) {
+            return valuesByTable.computeIfAbsent(
+                    tableRef, $ -> Caffeine.newBuilder().maximumSize(maxCachedCells).build());
+        }
+    }
+}
@@ -24,61 +24,160 @@ import com.palantir.lock.v2.LockToken;
 import com.palantir.lock.watch.LockWatchVersion;
 import com.palantir.lock.watch.TransactionUpdate;
 import com.palantir.logsafe.Preconditions;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import org.immutables.value.Value;
 
+/**
+ * Tracks the lock watch version and commit information of open transactions by start timestamp.
+ *
+ * Start timestamps are handed out in nearly increasing order, so entries are kept in parallel arrays sorted by start
+ * timestamp: new timestamps are almost always appended, and lookups are binary searches. Removed entries are only
+ * marked as such, and are compacted away in bulk once they make up half of the store. This avoids allocating a map
+ * entry and a boxed key for every transaction.
+ */
 final class TimestampStateStore {
-    private final Map<Long, MapEntry> timestampMap = new HashMap<>();
+    private static final int INITIAL_CAPACITY = 64;
 
-    void putStartTimestamps(Collection<Long> startTimestamps, LockWatchVersion version) {
-        startTimestamps.forEach(startTimestamp -> {
-            MapEntry previous = timestampMap.putIfAbsent(startTimestamp, MapEntry.of(version));
-            Preconditions.checkArgument(previous == null, "Start timestamp already present in map");
-        });
+    private long[] startTimestamps = new long[INITIAL_CAPACITY];
+    private LockWatchVersion[] startVersions = new LockWatchVersion[INITIAL_CAPACITY];
+    private CommitInfo[] commitInfos = new CommitInfo[INITIAL_CAPACITY];
+    private int size = 0;
+    private int numRemoved = 0;
+
+    void putStartTimestamps(Collection<Long> startTimestampsToAdd, LockWatchVersion version) {
+        startTimestampsToAdd.forEach(startTimestamp -> putStartTimestamp(startTimestamp, version));
     }
 
     void putCommitUpdates(Collection<TransactionUpdate> transactionUpdates, LockWatchVersion newVersion) {
         transactionUpdates.forEach(transactionUpdate -> {
-            MapEntry previousEntry = timestampMap.get(transactionUpdate.startTs());
-            if (previousEntry == null) {
+            int index = indexOf(transactionUpdate.startTs());
+            if (index < 0) {
                 throw new TransactionLockWatchFailedException("start timestamp missing from map");
             }
 
             Preconditions.checkArgument(
-                    !previousEntry.commitInfo().isPresent(), "Commit info already present for given timestamp");
+                    commitInfos[index] == null, "Commit info already present for given timestamp");
 
-            timestampMap.replace(
-                    transactionUpdate.startTs(),
-                    previousEntry.withCommitInfo(CommitInfo.of(transactionUpdate.writesToken(), newVersion)));
+            commitInfos[index] = CommitInfo.of(transactionUpdate.writesToken(), newVersion);
         });
     }
 
     void remove(long startTimestamp) {
-        Optional.ofNullable(timestampMap.remove(startTimestamp));
+        int index = indexOf(startTimestamp);
+        if (index < 0) {
+            return;
+        }
+        startVersions[index] = null;
+        commitInfos[index] = null;
+        numRemoved++;
+        if (numRemoved == size) {
+            size = 0;
+            numRemoved = 0;
+        } else if (numRemoved >= INITIAL_CAPACITY && numRemoved * 2 >= size) {
+            compact();
+        }
     }
 
     void clear() {
-        timestampMap.clear();
+        Arrays.fill(startVersions, 0, size, null);
+        Arrays.fill(commitInfos, 0, size, null);
+        size = 0;
+        numRemoved = 0;
     }
 
     Optional<LockWatchVersion> getStartVersion(long startTimestamp) {
-        return Optional.ofNullable(timestampMap.get(startTimestamp)).map(MapEntry::version);
+        int index = indexOf(startTimestamp);
+        return index < 0 ? Optional.empty() : Optional.of(startVersions[index]);
     }
 
     Optional<CommitInfo> getCommitInfo(long startTimestamp) {
-        return Optional.ofNullable(timestampMap.get(startTimestamp)).flatMap(MapEntry::commitInfo);
+        int index = indexOf(startTimestamp);
+        return index < 0 ? Optional.empty() : Optional.ofNullable(commitInfos[index]);
     }
 
     @VisibleForTesting
     TimestampStateStoreState getStateForTesting() {
+        Map<Long, MapEntry> timestampMap = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            if (startVersions[i] != null) {
+                timestampMap.put(
+                        startTimestamps[i], MapEntry.of(startVersions[i], Optional.ofNullable(commitInfos[i])));
+            }
+        }
         return ImmutableTimestampStateStoreState.builder()
                 .timestampMap(timestampMap)
                 .build();
     }
 
+    private void putStartTimestamp(long startTimestamp, LockWatchVersion version) {
+        if (size == 0 || startTimestamp > startTimestamps[size - 1]) {
+            ensureCapacity(size + 1);
+            setEntry(size, startTimestamp, version);
+            size++;
+            return;
+        }
+
+        int index = Arrays.binarySearch(startTimestamps, 0, size, startTimestamp);
+        if (index >= 0) {
+            Preconditions.checkArgument(startVersions[index] == null, "Start timestamp already present in map");
+            setEntry(index, startTimestamp, version);
+            numRemoved--;
+            return;
+        }
+
+        int insertionPoint = -(index + 1);
+        ensureCapacity(size + 1);
+        System.arraycopy(startTimestamps, insertionPoint, startTimestamps, insertionPoint + 1, size - insertionPoint);
+        System.arraycopy(startVersions, insertionPoint, startVersions, insertionPoint + 1, size - insertionPoint);
+        System.arraycopy(commitInfos, insertionPoint, commitInfos, insertionPoint + 1, size - insertionPoint);
+        setEntry(insertionPoint, startTimestamp, version);
+        size++;
+    }
+
+    private void setEntry(int index, long startTimestamp, LockWatchVersion version) {
+        startTimestamps[index] = startTimestamp;
+        startVersions[index] = version;
+        commitInfos[index] = null;
+    }
+
+    /**
+     * Returns the index of the given start timestamp, or a negative value if it is not present or has been removed.
+     */
+    private int indexOf(long startTimestamp) {
+        int index = Arrays.binarySearch(startTimestamps, 0, size, startTimestamp);
+        return index >= 0 && startVersions[index] != null ? index : -1;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= startTimestamps.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, startTimestamps.length * 2);
+        startTimestamps = Arrays.copyOf(startTimestamps, newCapacity);
+        startVersions = Arrays.copyOf(startVersions, newCapacity);
+        commitInfos = Arrays.copyOf(commitInfos, newCapacity);
+    }
+
+    private void compact() {
+        int live = 0;
+        for (int i = 0; i < size; i++) {
+            if (startVersions[i] != null) {
+                startTimestamps[live] = startTimestamps[i];
+                startVersions[live] = startVersions[i];
+                commitInfos[live] = commitInfos[i];
+                live++;
+            }
+        }
+        Arrays.fill(startVersions, live, size, null);
+        Arrays.fill(commitInfos, live, size, null);
+        size = live;
+        numRemoved = 0;
+    }
+
     @Value.Immutable
     @JsonDeserialize(as = ImmutableMapEntry.class)
     @JsonSerialize(as = ImmutableMapEntry.class)
@@ -89,13 +188,10 @@ final class TimestampStateStore {
         @Value.Parameter
         Optional<CommitInfo> commitInfo();
 
-        static MapEntry of(LockWatchVersion version) {
-            return ImmutableMapEntry.of(version, Optional.empty());
+        static MapEntry of(LockWatchVersion version, Optional<CommitInfo> commitInfo) {
+            return ImmutableMapEntry.of(version, commitInfo);
         }
 
-        default MapEntry withCommitInfo(CommitInfo commitInfo) {
-            return ImmutableMapEntry.builder().from(this).commitInfo(commitInfo).build();
-        }
     }
 
     @Value.Immutable
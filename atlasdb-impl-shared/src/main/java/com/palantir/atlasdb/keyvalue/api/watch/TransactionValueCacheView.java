@@ -0,0 +1,49 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.api.watch;
+
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.transaction.api.TransactionLockWatchingCacheView;
+import com.palantir.lock.watch.LockWatchVersion;
+import java.util.Map;
+import java.util.Set;
+
+final class TransactionValueCacheView implements TransactionLockWatchingCacheView {
+    private final LockWatchValueCacheImpl cache;
+    private final LockWatchVersion startVersion;
+
+    TransactionValueCacheView(LockWatchValueCacheImpl cache, LockWatchVersion startVersion) {
+        this.cache = cache;
+        this.startVersion = startVersion;
+    }
+
+    @Override
+    public Map<Cell, byte[]> readCached(TableReference tableRef, Set<Cell> cells) {
+        return cache.getCachedAsOf(tableRef, cells, startVersion);
+    }
+
+    @Override
+    public void tryCacheNewValuesRead(TableReference tableRef, Map<Cell, byte[]> reads) {
+        cache.maybeCacheEntriesRead(tableRef, reads, startVersion);
+    }
+
+    @Override
+    public void tryCacheWrittenValues(TableReference tableRef, Map<Cell, byte[]> writes, long lockTs) {
+        cache.maybeCacheCommittedWrites(tableRef, writes);
+    }
+}
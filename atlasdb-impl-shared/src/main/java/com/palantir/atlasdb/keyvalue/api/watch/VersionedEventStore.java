@@ -56,6 +56,13 @@ final class VersionedEventStore {
         return builder.build();
     }
 
+    LockWatchEvents retentionAllEvents() {
+        LockWatchEvents.Builder builder = new LockWatchEvents.Builder();
+        Iterators.consumingIterator(eventMap.entrySet().iterator())
+                .forEachRemaining(entry -> builder.addEvents(entry.getValue()));
+        return builder.build();
+    }
+
     boolean containsEntryLessThanOrEqualTo(long key) {
         return eventMap.floorKey(key) != null;
     }
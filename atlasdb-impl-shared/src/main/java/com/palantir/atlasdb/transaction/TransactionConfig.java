@@ -42,6 +42,36 @@ public abstract class TransactionConfig {
         return TransactionRetryStrategy.Strategies.LEGACY.get();
     }
 
+    /**
+     * If positive, a getRange reads and post-filters the next page of results in the background while the current
+     * page is being consumed, as long as the two pages are expected to fit in this many bytes. If zero, pages are
+     * only read when they are needed.
+     */
+    @Value.Default
+    public long getRangePrefetchMaxBytesInFlight() {
+        return 0L;
+    }
+
+    /**
+     * If true, concurrent reads of the _transactions2 table are batched into a single multi-get, and concurrent reads
+     * of the same start timestamp share one read. This only helps under many concurrent lookups, and otherwise adds a
+     * hop through the batcher to every read, so it is off by default.
+     */
+    @Value.Default
+    public boolean batchTransactions2Reads() {
+        return false;
+    }
+
+    /**
+     * If true, gets on tables whose writers take locks may be served from a cache of values kept up to date by lock
+     * watch events, once lock watches have been registered. Setting this to false always reads from the key value
+     * service.
+     */
+    @Value.Default
+    public boolean enableLockWatchValueCache() {
+        return true;
+    }
+
     /**
      * This value is ignored if {@link com.palantir.atlasdb.transaction.api.TransactionManager} is configured to lock
      * immutable ts by using TransactionManagers builder option.
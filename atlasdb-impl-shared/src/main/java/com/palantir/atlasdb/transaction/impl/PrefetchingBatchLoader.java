@@ -0,0 +1,119 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.transaction.impl;
+
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.palantir.atlasdb.futures.AtlasFutures;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+/**
+ * Loads batches sequentially from a loader that is not thread-safe, starting to load the next batch on an executor
+ * as soon as the current one is handed out, if the current batch satisfies the prefetch predicate. At most one batch
+ * is loaded ahead of the consumer.
+ *
+ * If the consumer asks for a batch whose prefetch has not yet started, the batch is loaded on the consumer's thread
+ * instead. This means that prefetching on a saturated executor (including one that the consumer itself runs on)
+ * degrades to loading synchronously rather than deadlocking.
+ *
+ * This class is not thread-safe; it is expected to be used by a single consumer.
+ */
+final class PrefetchingBatchLoader<T> {
+    private final Supplier<T> loader;
+    private final Executor executor;
+    private final Predicate<T> shouldPrefetchAfter;
+
+    @Nullable
+    private Prefetch prefetch;
+
+    PrefetchingBatchLoader(Supplier<T> loader, Executor executor, Predicate<T> shouldPrefetchAfter) {
+        this.loader = loader;
+        this.executor = executor;
+        this.shouldPrefetchAfter = shouldPrefetchAfter;
+    }
+
+    T next() {
+        T batch = prefetch == null ? loader.get() : awaitPrefetch();
+        if (shouldPrefetchAfter.test(batch)) {
+            startPrefetch();
+        }
+        return batch;
+    }
+
+    /**
+     * Stops any outstanding prefetch, waiting for it to finish if it is already running so that the caller may
+     * safely release resources used by the loader.
+     */
+    void close() {
+        if (prefetch == null) {
+            return;
+        }
+        Prefetch outstanding = prefetch;
+        prefetch = null;
+        if (!outstanding.tryClaim()) {
+            try {
+                Uninterruptibles.getUninterruptibly(outstanding.result);
+            } catch (ExecutionException e) {
+                // The consumer is no longer interested in this batch, so neither is it interested in the failure.
+            }
+        }
+    }
+
+    private T awaitPrefetch() {
+        Prefetch outstanding = prefetch;
+        prefetch = null;
+        // No-op if the prefetch has already started; otherwise, we load the batch ourselves.
+        outstanding.run();
+        return AtlasFutures.getUnchecked(outstanding.result);
+    }
+
+    private void startPrefetch() {
+        prefetch = new Prefetch();
+        try {
+            executor.execute(prefetch);
+        } catch (RejectedExecutionException e) {
+            // The batch will be loaded on the consumer's thread when it is requested.
+        }
+    }
+
+    private final class Prefetch implements Runnable {
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final SettableFuture<T> result = SettableFuture.create();
+
+        @Override
+        public void run() {
+            if (!tryClaim()) {
+                return;
+            }
+            try {
+                result.set(loader.get());
+            } catch (Throwable t) {
+                result.setException(t);
+            }
+        }
+
+        private boolean tryClaim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
@@ -23,6 +23,7 @@ import com.google.common.base.Functions;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.Collections2;
 import com.google.common.collect.FluentIterable;
@@ -79,6 +80,7 @@ import com.palantir.atlasdb.transaction.api.ConstraintCheckable;
 import com.palantir.atlasdb.transaction.api.ConstraintCheckingTransaction;
 import com.palantir.atlasdb.transaction.api.GetRangesQuery;
 import com.palantir.atlasdb.transaction.api.ImmutableGetRangesQuery;
+import com.palantir.atlasdb.transaction.api.NoOpTransactionLockWatchingCacheView;
 import com.palantir.atlasdb.transaction.api.PreCommitCondition;
 import com.palantir.atlasdb.transaction.api.TransactionCommitFailedException;
 import com.palantir.atlasdb.transaction.api.TransactionConflictException;
@@ -87,6 +89,7 @@ import com.palantir.atlasdb.transaction.api.TransactionFailedException;
 import com.palantir.atlasdb.transaction.api.TransactionFailedRetriableException;
 import com.palantir.atlasdb.transaction.api.TransactionLockAcquisitionTimeoutException;
 import com.palantir.atlasdb.transaction.api.TransactionLockTimeoutException;
+import com.palantir.atlasdb.transaction.api.TransactionLockWatchingCacheView;
 import com.palantir.atlasdb.transaction.api.TransactionReadSentinelBehavior;
 import com.palantir.atlasdb.transaction.impl.metrics.TableLevelMetricsController;
 import com.palantir.atlasdb.transaction.impl.metrics.TransactionOutcomeMetrics;
@@ -153,6 +156,8 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import javax.annotation.Nullable;
@@ -238,6 +243,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
     protected final boolean validateLocksOnReads;
     protected final Supplier<TransactionConfig> transactionConfig;
     protected final TableLevelMetricsController tableLevelMetricsController;
+    private final Supplier<TransactionLockWatchingCacheView> lockWatchingCacheView;
 
     protected volatile boolean hasReads;
 
@@ -302,6 +308,8 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         this.validateLocksOnReads = validateLocksOnReads;
         this.transactionConfig = transactionConfig;
         this.tableLevelMetricsController = tableLevelMetricsController;
+        this.lockWatchingCacheView =
+                Suppliers.memoize(() -> lockWatchManager.getTransactionCacheView(getStartTimestamp()));
     }
 
     @Override
@@ -681,7 +689,9 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
             }
         }
 
-        // We don't need to read any cells that were written locally.
+        // We don't need to read any cells that were written locally, or that are served by the lock watch cache.
+        TransactionLockWatchingCacheView cacheView = getLockWatchingCacheView(tableRef);
+        result.putAll(cacheView.readCached(tableRef, Sets.difference(cells, result.keySet())));
         return Futures.transform(
                 getFromKeyValueService(
                         tableRef,
@@ -689,6 +699,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
                         asyncKeyValueService,
                         asyncTransactionService),
                 fromKeyValueService -> {
+                    cacheView.tryCacheNewValuesRead(tableRef, fromKeyValueService);
                     result.putAll(fromKeyValueService);
 
                     long getMillis = TimeUnit.NANOSECONDS.toMillis(timer.stop());
@@ -707,6 +718,18 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
                 MoreExecutors.directExecutor());
     }
 
+    /**
+     * Values may only be served from the lock watch cache for tables whose writers take locks, as otherwise writes to
+     * the table would not generate any lock watch events invalidating the cached values.
+     */
+    private TransactionLockWatchingCacheView getLockWatchingCacheView(TableReference tableRef) {
+        if (!transactionConfig.get().enableLockWatchValueCache()
+                || !conflictDetectionManager.takesWriteLocks(tableRef)) {
+            return NoOpTransactionLockWatchingCacheView.INSTANCE;
+        }
+        return lockWatchingCacheView.get();
+    }
+
     @Override
     public Map<Cell, byte[]> getIgnoringLocalWrites(TableReference tableRef, Set<Cell> cells) {
         checkGetPreconditions(tableRef);
@@ -764,51 +787,53 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         }
 
         return FluentIterable.from(Iterables.partition(rangeRequests, BATCH_SIZE_GET_FIRST_PAGE))
-                .transformAndConcat(input -> {
-                    Timer.Context timer = getTimer("processedRangeMillis").time();
-                    Map<RangeRequest, TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> firstPages =
-                            keyValueService.getFirstBatchForRanges(tableRef, input, getStartTimestamp());
-                    validatePreCommitRequirementsOnReadIfNecessary(tableRef, getStartTimestamp());
+                .transformAndConcat(input -> getRangesWithFirstPages(tableRef, input));
+    }
+
+    private List<BatchingVisitable<RowResult<byte[]>>> getRangesWithFirstPages(
+            TableReference tableRef, List<RangeRequest> input) {
+        Timer.Context timer = getTimer("processedRangeMillis").time();
+        Map<RangeRequest, TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> firstPages =
+                keyValueService.getFirstBatchForRanges(tableRef, input, getStartTimestamp());
+        validatePreCommitRequirementsOnReadIfNecessary(tableRef, getStartTimestamp());
 
-                    SortedMap<Cell, byte[]> postFiltered = postFilterPages(tableRef, firstPages.values());
-
-                    List<BatchingVisitable<RowResult<byte[]>>> ret = new ArrayList<>(input.size());
-                    for (RangeRequest rangeRequest : input) {
-                        TokenBackedBasicResultsPage<RowResult<Value>, byte[]> prePostFilter =
-                                firstPages.get(rangeRequest);
-                        byte[] nextStartRowName = getNextStartRowName(rangeRequest, prePostFilter);
-                        List<Map.Entry<Cell, byte[]>> mergeIterators = getPostFilteredWithLocalWrites(
-                                tableRef, postFiltered, rangeRequest, prePostFilter.getResults(), nextStartRowName);
-                        ret.add(new AbstractBatchingVisitable<RowResult<byte[]>>() {
-                            @Override
-                            protected <K extends Exception> void batchAcceptSizeHint(
-                                    int batchSizeHint, ConsistentVisitor<RowResult<byte[]>, K> visitor) throws K {
-                                checkGetPreconditions(tableRef);
-                                final Iterator<RowResult<byte[]>> rowResults = Cells.createRowView(mergeIterators);
-                                while (rowResults.hasNext()) {
-                                    if (!visitor.visit(ImmutableList.of(rowResults.next()))) {
-                                        return;
-                                    }
-                                }
-                                if ((nextStartRowName.length == 0) || !prePostFilter.moreResultsAvailable()) {
-                                    return;
-                                }
-                                RangeRequest newRange = rangeRequest
-                                        .getBuilder()
-                                        .startRowInclusive(nextStartRowName)
-                                        .build();
-                                getRange(tableRef, newRange).batchAccept(batchSizeHint, visitor);
-                            }
-                        });
+        SortedMap<Cell, byte[]> postFiltered = postFilterPages(tableRef, firstPages.values());
+
+        List<BatchingVisitable<RowResult<byte[]>>> ret = new ArrayList<>(input.size());
+        for (RangeRequest rangeRequest : input) {
+            TokenBackedBasicResultsPage<RowResult<Value>, byte[]> prePostFilter = firstPages.get(rangeRequest);
+            byte[] nextStartRowName = getNextStartRowName(rangeRequest, prePostFilter);
+            List<Map.Entry<Cell, byte[]>> mergeIterators = getPostFilteredWithLocalWrites(
+                    tableRef, postFiltered, rangeRequest, prePostFilter.getResults(), nextStartRowName);
+            ret.add(new AbstractBatchingVisitable<RowResult<byte[]>>() {
+                @Override
+                protected <K extends Exception> void batchAcceptSizeHint(
+                        int batchSizeHint, ConsistentVisitor<RowResult<byte[]>, K> visitor) throws K {
+                    checkGetPreconditions(tableRef);
+                    final Iterator<RowResult<byte[]>> rowResults = Cells.createRowView(mergeIterators);
+                    while (rowResults.hasNext()) {
+                        if (!visitor.visit(ImmutableList.of(rowResults.next()))) {
+                            return;
+                        }
+                    }
+                    if ((nextStartRowName.length == 0) || !prePostFilter.moreResultsAvailable()) {
+                        return;
                     }
-                    long processedRangeMillis = TimeUnit.NANOSECONDS.toMillis(timer.stop());
-                    log.trace(
-                            "Processed {} range requests for {} in {}ms",
-                            SafeArg.of("numRequests", input.size()),
-                            LoggingArgs.tableRef(tableRef),
-                            SafeArg.of("millis", processedRangeMillis));
-                    return ret;
-                });
+                    RangeRequest newRange = rangeRequest
+                            .getBuilder()
+                            .startRowInclusive(nextStartRowName)
+                            .build();
+                    getRange(tableRef, newRange).batchAccept(batchSizeHint, visitor);
+                }
+            });
+        }
+        long processedRangeMillis = TimeUnit.NANOSECONDS.toMillis(timer.stop());
+        log.trace(
+                "Processed {} range requests for {} in {}ms",
+                SafeArg.of("numRequests", input.size()),
+                LoggingArgs.tableRef(tableRef),
+                SafeArg.of("millis", processedRangeMillis));
+        return ret;
     }
 
     @Override
@@ -854,6 +879,11 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         BiFunction<RangeRequest, BatchingVisitable<RowResult<byte[]>>, T> processor = query.visitableProcessor();
         int concurrencyLevel = query.concurrencyLevel().orElse(defaultGetRangesConcurrency);
 
+        if (query.firstPagePrefetchBatchSize().isPresent()) {
+            return getRangesWithPrefetchedFirstPages(
+                    query, query.firstPagePrefetchBatchSize().get(), concurrencyLevel);
+        }
+
         if (concurrencyLevel == 1 || isSingleton(query.rangeRequests())) {
             return requestAndVisitables.map(pair -> processor.apply(pair.getLeft(), pair.getRight()));
         }
@@ -865,6 +895,49 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
                 concurrencyLevel);
     }
 
+    /**
+     * Reads the first pages of the ranges in batches, keeping up to concurrencyLevel batches in flight, and then
+     * processes the ranges with the same parallelism. Both stages preserve the order of the range requests.
+     */
+    private <T> Stream<T> getRangesWithPrefetchedFirstPages(
+            GetRangesQuery<T> query, int prefetchBatchSize, int concurrencyLevel) {
+        TableReference tableRef = query.tableRef();
+        checkGetPreconditions(tableRef);
+        Preconditions.checkArgument(prefetchBatchSize > 0, "firstPagePrefetchBatchSize must be positive");
+
+        Stream<List<RangeRequest>> batches = StreamSupport.stream(
+                Iterables.partition(query.rangeRequests(), prefetchBatchSize).spliterator(), false);
+        Stream<Pair<RangeRequest, BatchingVisitable<RowResult<byte[]>>>> requestAndVisitables =
+                MoreStreams.blockingStreamWithParallelism(
+                                batches,
+                                batch -> zipWithFirstPages(tableRef, batch, query.rangeRequestOptimizer()),
+                                getRangesExecutor,
+                                concurrencyLevel)
+                        .flatMap(List::stream);
+
+        BiFunction<RangeRequest, BatchingVisitable<RowResult<byte[]>>, T> processor = query.visitableProcessor();
+        return MoreStreams.blockingStreamWithParallelism(
+                requestAndVisitables,
+                pair -> processor.apply(pair.getLeft(), pair.getRight()),
+                getRangesExecutor,
+                concurrencyLevel);
+    }
+
+    private List<Pair<RangeRequest, BatchingVisitable<RowResult<byte[]>>>> zipWithFirstPages(
+            TableReference tableRef, List<RangeRequest> rangeRequests, UnaryOperator<RangeRequest> optimizer) {
+        List<RangeRequest> optimizedRequests =
+                rangeRequests.stream().map(optimizer).collect(Collectors.toList());
+        // Goes through getRanges so that subclasses (e.g. SerializableTransaction) see the ranges that are read.
+        List<BatchingVisitable<RowResult<byte[]>>> visitables =
+                ImmutableList.copyOf(getRanges(tableRef, optimizedRequests));
+
+        List<Pair<RangeRequest, BatchingVisitable<RowResult<byte[]>>>> result = new ArrayList<>(rangeRequests.size());
+        for (int i = 0; i < rangeRequests.size(); i++) {
+            result.add(Pair.of(rangeRequests.get(i), visitables.get(i)));
+        }
+        return result;
+    }
+
     private static boolean isSingleton(Iterable<?> elements) {
         Iterator<?> it = elements.iterator();
         if (it.hasNext()) {
@@ -1051,18 +1124,19 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
                 new RowRangeBatchProvider(keyValueService, tableRef, range, getStartTimestamp());
         BatchSizeIncreasingIterator<RowResult<Value>> results =
                 new BatchSizeIncreasingIterator<>(batchProvider, preFilterBatchSize, null);
+        long maxBytesInFlight = transactionConfig.get().getRangePrefetchMaxBytesInFlight();
+        PrefetchingBatchLoader<PostFilteredBatch<T>> batches = new PrefetchingBatchLoader<>(
+                () -> loadPostFilteredBatch(tableRef, results, transformer),
+                getRangesExecutor,
+                batch -> maxBytesInFlight > 0 && !batch.isLastBatch && 2 * batch.sizeInBytes <= maxBytesInFlight);
         Iterator<Iterator<RowResult<T>>> batchedPostFiltered = new AbstractIterator<Iterator<RowResult<T>>>() {
             @Override
             protected Iterator<RowResult<T>> computeNext() {
-                List<RowResult<Value>> batch = results.getBatch().batch();
-                validatePreCommitRequirementsOnReadIfNecessary(tableRef, getStartTimestamp());
-                if (batch.isEmpty()) {
+                PostFilteredBatch<T> batch = batches.next();
+                if (batch.isExhausted) {
                     return endOfData();
                 }
-                SortedMap<Cell, T> postFilter = postFilterRows(tableRef, batch, transformer);
-                results.markNumResultsNotDeleted(
-                        Cells.getRows(postFilter.keySet()).size());
-                return Cells.createRowView(postFilter.entrySet());
+                return Cells.createRowView(batch.postFiltered.entrySet());
             }
         };
 
@@ -1075,11 +1149,54 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
 
             @Override
             public void close() {
+                batches.close();
                 results.close();
             }
         };
     }
 
+    private <T> PostFilteredBatch<T> loadPostFilteredBatch(
+            TableReference tableRef,
+            BatchSizeIncreasingIterator<RowResult<Value>> results,
+            Function<Value, T> transformer) {
+        BatchSizeIncreasingIterator.BatchResult<RowResult<Value>> batchResult = results.getBatch();
+        List<RowResult<Value>> batch = batchResult.batch();
+        validatePreCommitRequirementsOnReadIfNecessary(tableRef, getStartTimestamp());
+        if (batch.isEmpty()) {
+            return new PostFilteredBatch<>(ImmutableSortedMap.of(), true, true, 0L);
+        }
+        SortedMap<Cell, T> postFilter = postFilterRows(tableRef, batch, transformer);
+        results.markNumResultsNotDeleted(Cells.getRows(postFilter.keySet()).size());
+        return new PostFilteredBatch<>(postFilter, false, batchResult.isLastBatch(), estimateSizeInBytes(batch));
+    }
+
+    private static long estimateSizeInBytes(List<RowResult<Value>> rangeRows) {
+        long sizeInBytes = 0;
+        for (RowResult<Value> rowResult : rangeRows) {
+            for (Map.Entry<byte[], Value> e : rowResult.getColumns().entrySet()) {
+                sizeInBytes += rowResult.getRowName().length
+                        + e.getKey().length
+                        + e.getValue().getContents().length;
+            }
+        }
+        return sizeInBytes;
+    }
+
+    private static final class PostFilteredBatch<T> {
+        private final SortedMap<Cell, T> postFiltered;
+        private final boolean isExhausted;
+        private final boolean isLastBatch;
+        private final long sizeInBytes;
+
+        private PostFilteredBatch(
+                SortedMap<Cell, T> postFiltered, boolean isExhausted, boolean isLastBatch, long sizeInBytes) {
+            this.postFiltered = postFiltered;
+            this.isExhausted = isExhausted;
+            this.isLastBatch = isLastBatch;
+            this.sizeInBytes = sizeInBytes;
+        }
+    }
+
     private ConcurrentNavigableMap<Cell, byte[]> getLocalWrites(TableReference tableRef) {
         return writesByTable.computeIfAbsent(tableRef, unused -> new ConcurrentSkipListMap<>());
     }
@@ -66,6 +66,19 @@ public final class TransactionConflictDetectionManager {
         }
     }
 
+    /**
+     * Returns whether transactions writing to the given table take out row or cell locks for their writes. Unlike
+     * {@link #get(TableReference)}, this does not fix the conflict handler used for the table by this transaction;
+     * disabling read-write conflicts never changes which locks are taken.
+     */
+    public boolean takesWriteLocks(TableReference tableReference) {
+        ConflictHandler conflictHandler = conflictHandlers
+                .getOrDefault(tableReference, Optional.empty())
+                .orElseGet(() -> delegate.get(tableReference));
+        return conflictHandler != null
+                && (conflictHandler.lockCellsForConflicts() || conflictHandler.lockRowsForConflicts());
+    }
+
     @Nullable
     public ConflictHandler get(TableReference tableReference) {
         return conflictHandlers
@@ -0,0 +1,188 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.transaction.service;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.MultimapBuilder;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.palantir.atlasdb.autobatch.Autobatchers;
+import com.palantir.atlasdb.autobatch.BatchElement;
+import com.palantir.atlasdb.autobatch.DisruptorAutobatcher;
+import com.palantir.atlasdb.futures.AtlasFutures;
+import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BooleanSupplier;
+import javax.annotation.CheckForNull;
+
+/**
+ * This class coalesces read (that is, get) requests to an underlying {@link TransactionService}, such that there is
+ * at most one batched read in flight at a given time, and each start timestamp is read at most once by concurrent
+ * requests. Requests for a start timestamp that is already being read share the result of the outstanding read,
+ * unless that read finds the transaction uncommitted. Writes are not batched.
+ *
+ * Batching only pays off when many reads are concurrent, and otherwise adds the latency of a hop through the
+ * autobatcher, so reads go straight to the delegate while {@code batchReads} is false.
+ */
+public final class ReadBatchingTransactionService implements TransactionService {
+    private final TransactionService delegate;
+    private final DisruptorAutobatcher<Long, Long> autobatcher;
+    private final BooleanSupplier batchReads;
+    private final ConcurrentMap<Long, ListenableFuture<Long>> inFlightReads = new ConcurrentHashMap<>();
+
+    private ReadBatchingTransactionService(
+            TransactionService delegate, DisruptorAutobatcher<Long, Long> autobatcher, BooleanSupplier batchReads) {
+        this.delegate = delegate;
+        this.autobatcher = autobatcher;
+        this.batchReads = batchReads;
+    }
+
+    public static TransactionService create(TransactionService delegate) {
+        return create(delegate, () -> true);
+    }
+
+    public static TransactionService create(TransactionService delegate, BooleanSupplier batchReads) {
+        DisruptorAutobatcher<Long, Long> autobatcher = Autobatchers.<Long, Long>independent(
+                        elements -> processBatch(delegate, elements))
+                .safeLoggablePurpose("read-batching-transaction-service")
+                .build();
+        return new ReadBatchingTransactionService(delegate, autobatcher, batchReads);
+    }
+
+    @CheckForNull
+    @Override
+    public Long get(long startTimestamp) {
+        if (!batchReads.getAsBoolean()) {
+            return delegate.get(startTimestamp);
+        }
+        return AtlasFutures.getUnchecked(getAsync(startTimestamp));
+    }
+
+    @Override
+    public Map<Long, Long> get(Iterable<Long> startTimestamps) {
+        if (!batchReads.getAsBoolean()) {
+            return delegate.get(startTimestamps);
+        }
+        return AtlasFutures.getUnchecked(getAsync(startTimestamps));
+    }
+
+    @Override
+    public ListenableFuture<Long> getAsync(long startTimestamp) {
+        if (!batchReads.getAsBoolean()) {
+            return delegate.getAsync(startTimestamp);
+        }
+
+        ListenableFuture<Long> inFlightRead = inFlightReads.get(startTimestamp);
+        if (inFlightRead != null) {
+            return joinInFlightRead(startTimestamp, inFlightRead);
+        }
+
+        SettableFuture<Long> read = SettableFuture.create();
+        inFlightRead = inFlightReads.putIfAbsent(startTimestamp, read);
+        if (inFlightRead != null) {
+            return joinInFlightRead(startTimestamp, inFlightRead);
+        }
+
+        read.addListener(() -> inFlightReads.remove(startTimestamp, read), MoreExecutors.directExecutor());
+        try {
+            read.setFuture(autobatcher.apply(startTimestamp));
+        } catch (Throwable t) {
+            // Otherwise the read would never complete, and later reads of this start timestamp would join it forever
+            read.setException(t);
+        }
+        return Futures.nonCancellationPropagating(read);
+    }
+
+    /**
+     * A read that was already in flight may have been dispatched before the transaction in question committed.
+     * Commit timestamps never change once set, so a non-null result can be shared; a null result could be stale, so
+     * in that case we read again.
+     */
+    private ListenableFuture<Long> joinInFlightRead(long startTimestamp, ListenableFuture<Long> inFlightRead) {
+        return Futures.transformAsync(
+                Futures.nonCancellationPropagating(inFlightRead),
+                commitTimestamp -> commitTimestamp == null
+                        ? autobatcher.apply(startTimestamp)
+                        : Futures.immediateFuture(commitTimestamp),
+                MoreExecutors.directExecutor());
+    }
+
+    @Override
+    public ListenableFuture<Map<Long, Long>> getAsync(Iterable<Long> startTimestamps) {
+        if (!batchReads.getAsBoolean()) {
+            return delegate.getAsync(startTimestamps);
+        }
+
+        Map<Long, ListenableFuture<Long>> reads = new HashMap<>();
+        startTimestamps.forEach(startTimestamp -> reads.computeIfAbsent(startTimestamp, this::getAsync));
+
+        return Futures.whenAllSucceed(reads.values())
+                .call(
+                        () -> {
+                            Map<Long, Long> result = new HashMap<>();
+                            reads.forEach((startTimestamp, read) -> {
+                                Long commitTimestamp = Futures.getUnchecked(read);
+                                if (commitTimestamp != null) {
+                                    result.put(startTimestamp, commitTimestamp);
+                                }
+                            });
+                            return result;
+                        },
+                        MoreExecutors.directExecutor());
+    }
+
+    @Override
+    public void putUnlessExists(long startTimestamp, long commitTimestamp) throws KeyAlreadyExistsException {
+        delegate.putUnlessExists(startTimestamp, commitTimestamp);
+    }
+
+    @Override
+    public void putUnlessExistsMultiple(Map<Long, Long> startTimestampToCommitTimestamp) {
+        delegate.putUnlessExistsMultiple(startTimestampToCommitTimestamp);
+    }
+
+    @Override
+    public void close() {
+        autobatcher.close();
+        delegate.close();
+    }
+
+    /**
+     * Reads all distinct start timestamps in the batch from the delegate with a single request. Start timestamps
+     * that have not committed are absent from the delegate's response, and are completed with null.
+     */
+    @VisibleForTesting
+    static void processBatch(TransactionService delegate, List<BatchElement<Long, Long>> batchElements) {
+        Multimap<Long, BatchElement<Long, Long>> startTimestampKeyedBatchElements =
+                MultimapBuilder.hashKeys().arrayListValues().build();
+        batchElements.forEach(batchElement ->
+                startTimestampKeyedBatchElements.put(batchElement.argument(), batchElement));
+
+        Map<Long, Long> commitTimestamps =
+                delegate.get(ImmutableList.copyOf(startTimestampKeyedBatchElements.keySet()));
+        startTimestampKeyedBatchElements.forEach((startTimestamp, batchElement) ->
+                batchElement.result().set(commitTimestamps.get(startTimestamp)));
+    }
+}
@@ -31,6 +31,7 @@ import com.palantir.atlasdb.util.MetricsManagers;
 import com.palantir.logsafe.exceptions.SafeIllegalStateException;
 import com.palantir.timestamp.TimestampService;
 import java.util.Map;
+import java.util.function.BooleanSupplier;
 
 public final class TransactionServices {
     private TransactionServices() {
@@ -39,14 +40,29 @@ public final class TransactionServices {
 
     public static TransactionService createTransactionService(
             KeyValueService keyValueService, TransactionSchemaManager transactionSchemaManager) {
+        return createTransactionService(keyValueService, transactionSchemaManager, () -> false);
+    }
+
+    /**
+     * As {@link #createTransactionService(KeyValueService, TransactionSchemaManager)}, but reads of the
+     * _transactions2 table are batched and deduplicated across concurrent transactions while
+     * {@code batchTransactions2Reads} is true.
+     */
+    public static TransactionService createTransactionService(
+            KeyValueService keyValueService,
+            TransactionSchemaManager transactionSchemaManager,
+            BooleanSupplier batchTransactions2Reads) {
         if (keyValueService.getCheckAndSetCompatibility() == CheckAndSetCompatibility.SUPPORTED_DETAIL_ON_FAILURE) {
-            return createSplitKeyTransactionService(keyValueService, transactionSchemaManager);
+            return createSplitKeyTransactionService(
+                    keyValueService, transactionSchemaManager, batchTransactions2Reads);
         }
         return createV1TransactionService(keyValueService);
     }
 
     private static TransactionService createSplitKeyTransactionService(
-            KeyValueService keyValueService, TransactionSchemaManager transactionSchemaManager) {
+            KeyValueService keyValueService,
+            TransactionSchemaManager transactionSchemaManager,
+            BooleanSupplier batchTransactions2Reads) {
         // TODO (jkong): Is there a way to disallow DIRECT -> V2 transaction service in the map?
         return new PreStartHandlingTransactionService(new SplitKeyDelegatingTransactionService<>(
                 transactionSchemaManager::getTransactionsSchemaVersion,
@@ -54,16 +70,18 @@ public final class TransactionServices {
                         TransactionConstants.DIRECT_ENCODING_TRANSACTIONS_SCHEMA_VERSION,
                         createV1TransactionService(keyValueService),
                         TransactionConstants.TICKETS_ENCODING_TRANSACTIONS_SCHEMA_VERSION,
-                        createV2TransactionService(keyValueService))));
+                        createV2TransactionService(keyValueService, batchTransactions2Reads))));
     }
 
     public static TransactionService createV1TransactionService(KeyValueService keyValueService) {
         return new PreStartHandlingTransactionService(SimpleTransactionService.createV1(keyValueService));
     }
 
-    private static TransactionService createV2TransactionService(KeyValueService keyValueService) {
-        return new PreStartHandlingTransactionService(
-                WriteBatchingTransactionService.create(SimpleTransactionService.createV2(keyValueService)));
+    private static TransactionService createV2TransactionService(
+            KeyValueService keyValueService, BooleanSupplier batchReads) {
+        return new PreStartHandlingTransactionService(ReadBatchingTransactionService.create(
+                WriteBatchingTransactionService.create(SimpleTransactionService.createV2(keyValueService)),
+                batchReads));
     }
 
     /**
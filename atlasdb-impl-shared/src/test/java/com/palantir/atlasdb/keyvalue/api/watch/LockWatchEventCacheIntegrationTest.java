@@ -236,6 +236,59 @@ public class LockWatchEventCacheIntegrationTest {
         verifyStage();
     }
 
+    @Test
+    public void deltaUpdateIsAppliedToSnapshotAndClearsCache() {
+        setupInitialState();
+        eventCache.processStartTransactionsUpdate(TIMESTAMPS_2, SUCCESS);
+
+        LockWatchStateUpdate delta = LockWatchStateUpdate.delta(
+                LEADER, 4L, 1006L, ImmutableSet.of(DESCRIPTOR_2), ImmutableSet.of(DESCRIPTOR_3));
+        Set<Long> timestamps3 = ImmutableSet.of(123L, 1255L);
+        eventCache.processStartTransactionsUpdate(timestamps3, delta);
+
+        LockWatchEventCacheState state = eventCache.getStateForTesting();
+        LockWatchVersion deltaVersion = LockWatchVersion.of(LEADER, 1006L);
+        assertThat(state.logState().latestVersion()).contains(deltaVersion);
+        assertThat(state.logState().eventStoreState().eventMap()).isEmpty();
+        assertThat(state.logState().snapshotState().snapshotVersion()).contains(deltaVersion);
+        assertThat(state.logState().snapshotState().locked()).containsExactlyInAnyOrder(DESCRIPTOR, DESCRIPTOR_2);
+        assertThat(state.logState().snapshotState().watches()).containsExactly(REFERENCE);
+        assertThat(state.timestampStoreState().timestampMap()).containsOnlyKeys(timestamps3);
+    }
+
+    @Test
+    public void deltaUpdateNoNewerThanLatestVersionDoesNotClearCache() {
+        setupInitialState();
+        eventCache.processStartTransactionsUpdate(TIMESTAMPS_2, SUCCESS);
+
+        LockWatchStateUpdate delta = LockWatchStateUpdate.delta(
+                LEADER, 4L, SUCCESS_VERSION, ImmutableSet.of(DESCRIPTOR_2), ImmutableSet.of(DESCRIPTOR_3));
+        Set<Long> timestamps3 = ImmutableSet.of(123L, 1255L);
+        eventCache.processStartTransactionsUpdate(timestamps3, delta);
+
+        LockWatchEventCacheState state = eventCache.getStateForTesting();
+        assertThat(state.logState().latestVersion()).contains(LockWatchVersion.of(LEADER, SUCCESS_VERSION));
+        assertThat(state.logState().eventStoreState().eventMap()).isNotEmpty();
+        assertThat(state.timestampStoreState().timestampMap())
+                .containsOnlyKeys(ImmutableSet.<Long>builder()
+                        .addAll(TIMESTAMPS)
+                        .addAll(TIMESTAMPS_2)
+                        .addAll(timestamps3)
+                        .build());
+    }
+
+    @Test
+    public void deltaUpdateFromAfterLatestVersionFails() {
+        setupInitialState();
+
+        LockWatchStateUpdate delta =
+                LockWatchStateUpdate.delta(LEADER, 4L, 1006L, ImmutableSet.of(DESCRIPTOR_2), ImmutableSet.of());
+        eventCache.processStartTransactionsUpdate(TIMESTAMPS_2, delta);
+
+        assertThat(eventCache.lastKnownVersion()).isEmpty();
+        assertThat(eventCache.getStateForTesting().timestampStoreState().timestampMap()).isEmpty();
+    }
+
     @Test
     public void getEventsForTransactionsReturnsSnapshotWithOldEvents() {
         eventCache = createEventCache(3);
@@ -17,10 +17,15 @@
 package com.palantir.atlasdb.keyvalue.api.watch;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import com.google.common.collect.ImmutableSet;
+import com.palantir.atlasdb.transaction.api.NoOpTransactionLockWatchingCacheView;
 import com.palantir.lock.client.NamespacedConjureLockWatchingService;
 import com.palantir.lock.watch.LockWatchEventCache;
+import com.palantir.lock.watch.LockWatchReferences;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -29,6 +34,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 @RunWith(MockitoJUnitRunner.class)
 public final class LockWatchManagerImplTest {
+    private static final long START_TS = 10L;
 
     @Mock
     private LockWatchEventCache lockWatchEventCache;
@@ -48,4 +54,18 @@ public final class LockWatchManagerImplTest {
         when(lockWatchEventCache.isEnabled()).thenReturn(false);
         assertThat(manager.isEnabled()).isFalse();
     }
+
+    @Test
+    public void doesNotConsultEventCacheForTransactionCacheViewsWithoutWatches() {
+        assertThat(manager.getTransactionCacheView(START_TS)).isEqualTo(NoOpTransactionLockWatchingCacheView.INSTANCE);
+        verifyNoInteractions(lockWatchEventCache);
+    }
+
+    @Test
+    public void catchesValueCacheUpForTransactionCacheViewsOnceWatchesAreRegistered() {
+        manager.registerWatches(ImmutableSet.of(LockWatchReferences.entireTable("ns.table")));
+
+        manager.getTransactionCacheView(START_TS);
+        verify(lockWatchEventCache).getStartVersion(START_TS);
+    }
 }
@@ -0,0 +1,172 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.api.watch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.transaction.api.NoOpTransactionLockWatchingCacheView;
+import com.palantir.atlasdb.transaction.api.TransactionLockWatchingCacheView;
+import com.palantir.lock.AtlasCellLockDescriptor;
+import com.palantir.lock.AtlasRowLockDescriptor;
+import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.v2.LockToken;
+import com.palantir.lock.watch.LockEvent;
+import com.palantir.lock.watch.LockWatchEvent;
+import com.palantir.lock.watch.LockWatchEventCache;
+import com.palantir.lock.watch.LockWatchStateUpdate;
+import com.palantir.lock.watch.UnlockEvent;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.Before;
+import org.junit.Test;
+
+public final class LockWatchValueCacheImplTest {
+    private static final UUID LEADER = UUID.randomUUID();
+    private static final TableReference WATCHED_TABLE = TableReference.createFromFullyQualifiedName("test.watched");
+    private static final TableReference UNWATCHED_TABLE = TableReference.createFromFullyQualifiedName("test.other");
+    private static final Cell CELL = Cell.create(new byte[] {1}, new byte[] {2});
+    private static final Cell OTHER_CELL = Cell.create(new byte[] {3}, new byte[] {4});
+    private static final byte[] VALUE = new byte[] {5};
+    private static final Map<Cell, byte[]> READS = ImmutableMap.of(CELL, VALUE, OTHER_CELL, VALUE);
+    private static final LockDescriptor ROW_DESCRIPTOR =
+            AtlasRowLockDescriptor.of(WATCHED_TABLE.getQualifiedName(), CELL.getRowName());
+    private static final LockDescriptor CELL_DESCRIPTOR = AtlasCellLockDescriptor.of(
+            WATCHED_TABLE.getQualifiedName(), CELL.getRowName(), CELL.getColumnName());
+    private static final LockWatchStateUpdate SNAPSHOT = LockWatchStateUpdate.snapshot(
+            LEADER, 3L, ImmutableSet.of(), ImmutableSet.of(LockWatchReferenceUtils.entireTable(WATCHED_TABLE)));
+
+    private LockWatchEventCache eventCache;
+    private LockWatchValueCacheImpl valueCache;
+
+    @Before
+    public void before() {
+        eventCache = new LockWatchEventCacheImpl(LockWatchEventLog.create(1000));
+        valueCache = new LockWatchValueCacheImpl(eventCache);
+        eventCache.processStartTransactionsUpdate(ImmutableSet.of(1L), SNAPSHOT);
+    }
+
+    @Test
+    public void servesValuesReadAtCurrentVersion() {
+        TransactionLockWatchingCacheView view = valueCache.getView(1L);
+        view.tryCacheNewValuesRead(WATCHED_TABLE, READS);
+
+        assertThat(view.readCached(WATCHED_TABLE, READS.keySet())).containsOnlyKeys(CELL, OTHER_CELL);
+        assertThat(valueCache.getView(1L).readCached(WATCHED_TABLE, ImmutableSet.of(CELL)))
+                .containsEntry(CELL, VALUE);
+    }
+
+    @Test
+    public void doesNotCacheUnwatchedTables() {
+        TransactionLockWatchingCacheView view = valueCache.getView(1L);
+        view.tryCacheNewValuesRead(UNWATCHED_TABLE, READS);
+
+        assertThat(view.readCached(UNWATCHED_TABLE, READS.keySet())).isEmpty();
+    }
+
+    @Test
+    public void lockEventInvalidatesRowAndPreventsCachingUntilUnlocked() {
+        valueCache.getView(1L).tryCacheNewValuesRead(WATCHED_TABLE, READS);
+
+        startTransaction(2L, 4L, LockEvent.builder(ImmutableSet.of(CELL_DESCRIPTOR), LockToken.of(UUID.randomUUID()))
+                .build(4L));
+        TransactionLockWatchingCacheView lockedView = valueCache.getView(2L);
+        assertThat(lockedView.readCached(WATCHED_TABLE, READS.keySet())).containsOnlyKeys(OTHER_CELL);
+
+        lockedView.tryCacheNewValuesRead(WATCHED_TABLE, READS);
+        assertThat(lockedView.readCached(WATCHED_TABLE, READS.keySet())).containsOnlyKeys(OTHER_CELL);
+
+        startTransaction(3L, 5L, UnlockEvent.builder(ImmutableSet.of(CELL_DESCRIPTOR)).build(5L));
+        TransactionLockWatchingCacheView unlockedView = valueCache.getView(3L);
+        unlockedView.tryCacheNewValuesRead(WATCHED_TABLE, READS);
+        assertThat(unlockedView.readCached(WATCHED_TABLE, READS.keySet())).containsOnlyKeys(CELL, OTHER_CELL);
+    }
+
+    @Test
+    public void rowLocksInvalidateAllCellsInRow() {
+        valueCache.getView(1L).tryCacheNewValuesRead(WATCHED_TABLE, READS);
+
+        startTransaction(2L, 4L, LockEvent.builder(ImmutableSet.of(ROW_DESCRIPTOR), LockToken.of(UUID.randomUUID()))
+                .build(4L));
+
+        assertThat(valueCache.getView(2L).readCached(WATCHED_TABLE, READS.keySet()))
+                .containsOnlyKeys(OTHER_CELL);
+    }
+
+    @Test
+    public void valuesCachedAtLaterVersionsAreNotVisibleToEarlierTransactions() {
+        TransactionLockWatchingCacheView earlierView = valueCache.getView(1L);
+
+        startTransaction(2L, 4L, UnlockEvent.builder(ImmutableSet.of(ROW_DESCRIPTOR)).build(4L));
+        TransactionLockWatchingCacheView laterView = valueCache.getView(2L);
+        laterView.tryCacheNewValuesRead(WATCHED_TABLE, READS);
+
+        assertThat(laterView.readCached(WATCHED_TABLE, READS.keySet())).containsOnlyKeys(CELL, OTHER_CELL);
+        assertThat(earlierView.readCached(WATCHED_TABLE, READS.keySet())).isEmpty();
+    }
+
+    @Test
+    public void doesNotCacheValuesReadByTransactionsBehindTheCache() {
+        TransactionLockWatchingCacheView earlierView = valueCache.getView(1L);
+
+        startTransaction(2L, 4L, UnlockEvent.builder(ImmutableSet.of(ROW_DESCRIPTOR)).build(4L));
+        valueCache.getView(2L);
+        earlierView.tryCacheNewValuesRead(WATCHED_TABLE, READS);
+
+        assertThat(valueCache.getCached(WATCHED_TABLE, READS.keySet())).isEmpty();
+    }
+
+    @Test
+    public void committedWritesInvalidateCachedValues() {
+        TransactionLockWatchingCacheView view = valueCache.getView(1L);
+        view.tryCacheNewValuesRead(WATCHED_TABLE, READS);
+
+        valueCache.maybeCacheCommittedWrites(WATCHED_TABLE, ImmutableMap.of(CELL, VALUE));
+
+        assertThat(view.readCached(WATCHED_TABLE, READS.keySet())).containsOnlyKeys(OTHER_CELL);
+    }
+
+    @Test
+    public void unknownTransactionsGetNoOpView() {
+        assertThat(valueCache.getView(42L)).isEqualTo(NoOpTransactionLockWatchingCacheView.INSTANCE);
+    }
+
+    @Test
+    public void newLeaderClearsCache() {
+        valueCache.getView(1L).tryCacheNewValuesRead(WATCHED_TABLE, READS);
+
+        eventCache.processStartTransactionsUpdate(
+                ImmutableSet.of(2L),
+                LockWatchStateUpdate.snapshot(
+                        UUID.randomUUID(),
+                        10L,
+                        ImmutableSet.of(),
+                        ImmutableSet.of(LockWatchReferenceUtils.entireTable(WATCHED_TABLE))));
+
+        assertThat(valueCache.getView(2L).readCached(WATCHED_TABLE, READS.keySet())).isEmpty();
+        assertThat(valueCache.getCached(WATCHED_TABLE, READS.keySet())).isEmpty();
+    }
+
+    private void startTransaction(long startTs, long version, LockWatchEvent event) {
+        eventCache.processStartTransactionsUpdate(
+                ImmutableSet.of(startTs), LockWatchStateUpdate.success(LEADER, version, ImmutableList.of(event)));
+    }
+}
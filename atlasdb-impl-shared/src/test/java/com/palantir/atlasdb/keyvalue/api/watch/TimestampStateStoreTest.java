@@ -16,6 +16,7 @@
 
 package com.palantir.atlasdb.keyvalue.api.watch;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.google.common.collect.ImmutableSet;
@@ -26,6 +27,8 @@ import com.palantir.lock.watch.LockWatchVersion;
 import com.palantir.lock.watch.TransactionUpdate;
 import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -68,4 +71,60 @@ public final class TimestampStateStoreTest {
                 .isExactlyInstanceOf(TransactionLockWatchFailedException.class)
                 .hasMessage("start timestamp missing from map");
     }
+
+    @Test
+    public void cannotPutStartTimestampTwice() {
+        timestampStateStore.putStartTimestamps(ImmutableSet.of(100L, 200L), version1);
+        assertThatThrownBy(() -> timestampStateStore.putStartTimestamps(ImmutableSet.of(100L), version2))
+                .isExactlyInstanceOf(SafeIllegalArgumentException.class)
+                .hasMessage("Start timestamp already present in map");
+    }
+
+    @Test
+    public void startTimestampsArrivingOutOfOrderCanBeLookedUp() {
+        timestampStateStore.putStartTimestamps(ImmutableSet.of(100L, 300L), version1);
+        timestampStateStore.putStartTimestamps(ImmutableSet.of(200L, 50L), version2);
+
+        assertThat(timestampStateStore.getStartVersion(50L)).contains(version2);
+        assertThat(timestampStateStore.getStartVersion(100L)).contains(version1);
+        assertThat(timestampStateStore.getStartVersion(200L)).contains(version2);
+        assertThat(timestampStateStore.getStartVersion(300L)).contains(version1);
+        assertThat(timestampStateStore.getStartVersion(150L)).isEmpty();
+        assertThat(timestampStateStore.getStateForTesting().timestampMap()).containsOnlyKeys(50L, 100L, 200L, 300L);
+    }
+
+    @Test
+    public void removedTimestampsAreNoLongerPresentAndCanBeAddedAgain() {
+        timestampStateStore.putStartTimestamps(ImmutableSet.of(100L, 200L, 300L), version1);
+        timestampStateStore.putCommitUpdates(ImmutableSet.of(updateFor(200L)), version2);
+        timestampStateStore.remove(200L);
+
+        assertThat(timestampStateStore.getStartVersion(200L)).isEmpty();
+        assertThat(timestampStateStore.getCommitInfo(200L)).isEmpty();
+
+        timestampStateStore.putStartTimestamps(ImmutableSet.of(200L), version2);
+        assertThat(timestampStateStore.getStartVersion(200L)).contains(version2);
+        assertThat(timestampStateStore.getCommitInfo(200L)).isEmpty();
+    }
+
+    @Test
+    public void remainingTimestampsSurviveBulkRemoval() {
+        timestampStateStore.putStartTimestamps(
+                LongStream.range(0, 1000).boxed().collect(Collectors.toList()), version1);
+        timestampStateStore.putCommitUpdates(ImmutableSet.of(updateFor(999L)), version2);
+        LongStream.range(0, 999).filter(timestamp -> timestamp % 10 != 0).forEach(timestampStateStore::remove);
+
+        assertThat(timestampStateStore.getStateForTesting().timestampMap()).hasSize(101);
+        assertThat(timestampStateStore.getStartVersion(500L)).contains(version1);
+        assertThat(timestampStateStore.getStartVersion(501L)).isEmpty();
+        assertThat(timestampStateStore.getCommitInfo(999L)).isPresent();
+    }
+
+    private static TransactionUpdate updateFor(long startTs) {
+        return ImmutableTransactionUpdate.builder()
+                .startTs(startTs)
+                .commitTs(startTs + 1)
+                .writesToken(LockToken.of(UUID.randomUUID()))
+                .build();
+    }
 }
@@ -0,0 +1,170 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.transaction.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+public class PrefetchingBatchLoaderTest {
+    private final AtomicInteger nextBatch = new AtomicInteger();
+    private final List<String> loadingThreads = new ArrayList<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void loadsBatchesInOrder() {
+        PrefetchingBatchLoader<Integer> loader =
+                new PrefetchingBatchLoader<>(this::load, executor, batch -> true);
+
+        assertThat(loader.next()).isEqualTo(0);
+        assertThat(loader.next()).isEqualTo(1);
+        assertThat(loader.next()).isEqualTo(2);
+    }
+
+    @Test
+    public void prefetchesNextBatchOnExecutor() throws InterruptedException {
+        PrefetchingBatchLoader<Integer> loader =
+                new PrefetchingBatchLoader<>(this::load, executor, batch -> batch == 0);
+
+        assertThat(loader.next()).isEqualTo(0);
+        awaitExecutor();
+        assertThat(nextBatch).hasValue(2);
+
+        assertThat(loader.next()).isEqualTo(1);
+        assertThat(loader.next()).isEqualTo(2);
+        synchronized (loadingThreads) {
+            assertThat(loadingThreads.get(1)).isNotEqualTo(Thread.currentThread().getName());
+            assertThat(loadingThreads.get(2)).isEqualTo(Thread.currentThread().getName());
+        }
+    }
+
+    @Test
+    public void doesNotPrefetchIfPredicateFails() {
+        PrefetchingBatchLoader<Integer> loader =
+                new PrefetchingBatchLoader<>(this::load, executor, batch -> false);
+
+        loader.next();
+
+        assertThat(nextBatch).hasValue(1);
+    }
+
+    @Test
+    public void loadsOnConsumerThreadIfPrefetchHasNotStarted() throws InterruptedException {
+        CountDownLatch blockExecutor = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                blockExecutor.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        PrefetchingBatchLoader<Integer> loader =
+                new PrefetchingBatchLoader<>(this::load, executor, batch -> true);
+
+        assertThat(loader.next()).isEqualTo(0);
+        assertThat(loader.next()).isEqualTo(1);
+        blockExecutor.countDown();
+        awaitExecutor();
+
+        synchronized (loadingThreads) {
+            assertThat(loadingThreads.get(1)).isEqualTo(Thread.currentThread().getName());
+        }
+        assertThat(loader.next()).isEqualTo(2);
+    }
+
+    @Test
+    public void loadsOnConsumerThreadIfExecutorRejects() {
+        PrefetchingBatchLoader<Integer> loader = new PrefetchingBatchLoader<>(
+                this::load,
+                command -> {
+                    throw new RejectedExecutionException();
+                },
+                batch -> true);
+
+        assertThat(loader.next()).isEqualTo(0);
+        assertThat(loader.next()).isEqualTo(1);
+    }
+
+    @Test
+    public void prefetchFailuresAreThrownToConsumer() throws InterruptedException {
+        RuntimeException failure = new IllegalStateException("boo");
+        AtomicInteger calls = new AtomicInteger();
+        PrefetchingBatchLoader<Integer> loader = new PrefetchingBatchLoader<>(
+                () -> {
+                    if (calls.getAndIncrement() > 0) {
+                        throw failure;
+                    }
+                    return 0;
+                },
+                executor,
+                batch -> true);
+
+        loader.next();
+        awaitExecutor();
+
+        assertThatThrownBy(loader::next).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void closeStopsUnstartedPrefetches() throws InterruptedException {
+        CountDownLatch blockExecutor = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                blockExecutor.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        PrefetchingBatchLoader<Integer> loader =
+                new PrefetchingBatchLoader<>(this::load, executor, batch -> true);
+
+        loader.next();
+        loader.close();
+        blockExecutor.countDown();
+        awaitExecutor();
+
+        assertThat(nextBatch).hasValue(1);
+    }
+
+    private Integer load() {
+        synchronized (loadingThreads) {
+            loadingThreads.add(Thread.currentThread().getName());
+        }
+        return nextBatch.getAndIncrement();
+    }
+
+    private void awaitExecutor() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        executor.execute(done::countDown);
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.transaction.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.palantir.atlasdb.autobatch.BatchElement;
+import com.palantir.atlasdb.autobatch.DisruptorAutobatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import org.junit.After;
+import org.junit.Test;
+
+public class ReadBatchingTransactionServiceTest {
+    private final TransactionService mockTransactionService = mock(TransactionService.class);
+    private final TransactionService readBatchingTransactionService =
+            ReadBatchingTransactionService.create(mockTransactionService);
+
+    @After
+    public void tearDown() {
+        readBatchingTransactionService.close();
+    }
+
+    @Test
+    public void getsValuesFromUnderlyingViaBatch() {
+        when(mockTransactionService.get(anyIterable())).thenReturn(ImmutableMap.of(3L, 5L));
+
+        assertThat(readBatchingTransactionService.get(3L)).isEqualTo(5L);
+        assertThat(readBatchingTransactionService.get(ImmutableList.of(3L, 4L))).containsOnly(entry(3L, 5L));
+    }
+
+    @Test
+    public void uncommittedTransactionsAreReturnedAsNull() {
+        when(mockTransactionService.get(anyIterable())).thenReturn(ImmutableMap.of());
+
+        assertThat(readBatchingTransactionService.get(3L)).isNull();
+        assertThat(readBatchingTransactionService.get(ImmutableList.of(3L, 4L))).isEmpty();
+    }
+
+    @Test
+    public void batchesDistinctStartTimestampsAndDelegatesOnce() {
+        when(mockTransactionService.get(anyIterable())).thenReturn(ImmutableMap.of(1L, 10L, 2L, 20L));
+
+        List<BatchElement<Long, Long>> batch = ImmutableList.of(element(1L), element(2L), element(1L), element(3L));
+        ReadBatchingTransactionService.processBatch(mockTransactionService, batch);
+
+        verify(mockTransactionService).get(ImmutableList.of(1L, 2L, 3L));
+        assertThat(batch)
+                .extracting(element -> getUnchecked(element.result()))
+                .containsExactly(10L, 20L, 10L, null);
+    }
+
+    @Test
+    public void failuresArePropagatedToAllRequests() {
+        RuntimeException failure = new RuntimeException("boo");
+        when(mockTransactionService.get(anyIterable())).thenThrow(failure);
+
+        assertThatThrownBy(() -> readBatchingTransactionService
+                        .getAsync(ImmutableList.of(1L, 2L))
+                        .get())
+                .hasCause(failure);
+    }
+
+    @Test
+    public void concurrentRequestsForTheSameStartTimestampShareOneRead() throws InterruptedException {
+        CountDownLatch readStarted = new CountDownLatch(1);
+        CountDownLatch allowRead = new CountDownLatch(1);
+        when(mockTransactionService.get(anyIterable())).thenAnswer(invocation -> {
+            readStarted.countDown();
+            Uninterruptibles.awaitUninterruptibly(allowRead);
+            return ImmutableMap.of(1L, 10L);
+        });
+
+        ListenableFuture<Long> firstRead = readBatchingTransactionService.getAsync(1L);
+        readStarted.await();
+        List<ListenableFuture<Long>> joinedReads = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            joinedReads.add(readBatchingTransactionService.getAsync(1L));
+        }
+        allowRead.countDown();
+
+        assertThat(getUnchecked(firstRead)).isEqualTo(10L);
+        joinedReads.forEach(read -> assertThat(getUnchecked(read)).isEqualTo(10L));
+        verify(mockTransactionService, times(1)).get(anyIterable());
+    }
+
+    @Test
+    public void requestsJoiningAnUncommittedReadReadAgain() throws InterruptedException {
+        CountDownLatch readStarted = new CountDownLatch(1);
+        CountDownLatch allowRead = new CountDownLatch(1);
+        when(mockTransactionService.get(anyIterable()))
+                .thenAnswer(invocation -> {
+                    readStarted.countDown();
+                    Uninterruptibles.awaitUninterruptibly(allowRead);
+                    return ImmutableMap.of();
+                })
+                .thenReturn(ImmutableMap.of(1L, 10L));
+
+        ListenableFuture<Long> firstRead = readBatchingTransactionService.getAsync(1L);
+        readStarted.await();
+        ListenableFuture<Long> joinedRead = readBatchingTransactionService.getAsync(1L);
+        allowRead.countDown();
+
+        assertThat(getUnchecked(firstRead)).isNull();
+        assertThat(getUnchecked(joinedRead)).isEqualTo(10L);
+        verify(mockTransactionService, times(2)).get(anyIterable());
+    }
+
+    @Test
+    public void readsRejectedByTheBatcherFailAndDoNotBlockLaterReads() {
+        readBatchingTransactionService.close();
+
+        assertThatThrownBy(() -> readBatchingTransactionService.getAsync(1L).get())
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> readBatchingTransactionService.getAsync(1L).get())
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void readsGoStraightToTheDelegateIfBatchingIsDisabled() {
+        when(mockTransactionService.get(1L)).thenReturn(10L);
+        when(mockTransactionService.get(ImmutableList.of(1L))).thenReturn(ImmutableMap.of(1L, 10L));
+        TransactionService unbatched = ReadBatchingTransactionService.create(mockTransactionService, () -> false);
+
+        assertThat(unbatched.get(1L)).isEqualTo(10L);
+        assertThat(unbatched.get(ImmutableList.of(1L))).containsOnly(entry(1L, 10L));
+        verify(mockTransactionService).get(1L);
+        verify(mockTransactionService).get(ImmutableList.of(1L));
+        unbatched.close();
+    }
+
+    private static BatchElement<Long, Long> element(long startTimestamp) {
+        return BatchElement.of(startTimestamp, new DisruptorAutobatcher.DisruptorFuture<>("test"));
+    }
+
+    private static Long getUnchecked(ListenableFuture<Long> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.jdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.keyvalue.dbkvs.impl.batch.CoalescingAsyncGetter;
+import com.palantir.atlasdb.keyvalue.jdbc.JdbcKeyValueService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Serves asynchronous gets from an H2-backed key value service, to check that concurrent gets are coalesced into few
+ * reads, that the number of concurrent reads is bounded, and that gets beyond the pending limit are rejected.
+ */
+public class CoalescingAsyncGetterH2Test {
+    private static final TableReference TABLE = TableReference.createFromFullyQualifiedName("test.coalesced");
+    private static final int NUM_CELLS = 100;
+    private static final long WRITE_TIMESTAMP = 1L;
+    private static final long READ_TIMESTAMP = 10L;
+
+    private final AtomicInteger concurrentReads = new AtomicInteger();
+    private final AtomicInteger maxConcurrentReads = new AtomicInteger();
+    private final AtomicInteger numReads = new AtomicInteger();
+    private final CountDownLatch firstReadStarted = new CountDownLatch(1);
+    private final CountDownLatch unblockReads = new CountDownLatch(1);
+
+    private JdbcKeyValueService kvs;
+    private CoalescingAsyncGetter getter;
+
+    @Before
+    public void setUp() {
+        kvs = JdbcTests.createEmptyKvs();
+        kvs.createTable(TABLE, AtlasDbConstants.GENERIC_TABLE_METADATA);
+        Map<Cell, byte[]> values = new HashMap<>();
+        for (int i = 0; i < NUM_CELLS; i++) {
+            values.put(cell(i), PtBytes.toBytes(i));
+        }
+        kvs.put(TABLE, values, WRITE_TIMESTAMP);
+    }
+
+    @After
+    public void tearDown() {
+        unblockReads.countDown();
+        if (getter != null) {
+            getter.close();
+        }
+        kvs.close();
+    }
+
+    @Test
+    public void coalescesConcurrentGetsIntoBoundedConcurrentReads() throws Exception {
+        getter = createGetter(2, 10 * NUM_CELLS);
+        List<ListenableFuture<Map<Cell, Value>>> gets = new ArrayList<>();
+        for (int i = 0; i < NUM_CELLS; i++) {
+            gets.add(getter.getAsync(TABLE, ImmutableMap.of(cell(i), READ_TIMESTAMP)));
+        }
+        unblockReads.countDown();
+
+        for (int i = 0; i < NUM_CELLS; i++) {
+            Map<Cell, Value> values = gets.get(i).get(10, TimeUnit.SECONDS);
+            assertThat(values).containsOnlyKeys(cell(i));
+            assertThat(values.get(cell(i)).getContents()).isEqualTo(PtBytes.toBytes(i));
+            assertThat(values.get(cell(i)).getTimestamp()).isEqualTo(WRITE_TIMESTAMP);
+        }
+        assertThat(maxConcurrentReads.get()).isBetween(1, 2);
+        // Each of the two blocked reads may be followed by one read of all the gets that queued up behind them.
+        assertThat(numReads.get()).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    public void rejectsGetsOverThePendingLimit() throws Exception {
+        getter = createGetter(1, 10);
+        ListenableFuture<Map<Cell, Value>> first = getter.getAsync(TABLE, ImmutableMap.of(cell(0), READ_TIMESTAMP));
+        assertThat(firstReadStarted.await(10, TimeUnit.SECONDS)).isTrue();
+        List<ListenableFuture<Map<Cell, Value>>> pending = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            pending.add(getter.getAsync(TABLE, ImmutableMap.of(cell(i), READ_TIMESTAMP)));
+        }
+
+        ListenableFuture<Map<Cell, Value>> rejected = getter.getAsync(TABLE, ImmutableMap.of(cell(11), READ_TIMESTAMP));
+        assertThatThrownBy(() -> rejected.get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+
+        unblockReads.countDown();
+        assertThat(first.get(10, TimeUnit.SECONDS)).containsOnlyKeys(cell(0));
+        for (int i = 1; i <= 10; i++) {
+            assertThat(pending.get(i - 1).get(10, TimeUnit.SECONDS)).containsOnlyKeys(cell(i));
+        }
+        assertThat(numReads.get()).isEqualTo(2);
+    }
+
+    private CoalescingAsyncGetter createGetter(int maxConcurrentReads, int maxPendingGets) {
+        return new CoalescingAsyncGetter(
+                this::read, Executors.newCachedThreadPool(), maxConcurrentReads, NUM_CELLS, maxPendingGets);
+    }
+
+    private Map<Cell, Value> read(TableReference tableRef, Map<Cell, Long> timestampByCell) {
+        maxConcurrentReads.accumulateAndGet(concurrentReads.incrementAndGet(), Math::max);
+        numReads.incrementAndGet();
+        firstReadStarted.countDown();
+        try {
+            Uninterruptibles.awaitUninterruptibly(unblockReads);
+            return kvs.get(tableRef, timestampByCell);
+        } finally {
+            concurrentReads.decrementAndGet();
+        }
+    }
+
+    private static Cell cell(int index) {
+        return Cell.create(PtBytes.toBytes("row" + index), PtBytes.toBytes("col"));
+    }
+}
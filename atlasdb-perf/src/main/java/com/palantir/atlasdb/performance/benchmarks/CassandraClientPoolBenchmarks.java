@@ -0,0 +1,140 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.performance.benchmarks;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.UniformReservoir;
+import com.palantir.atlasdb.keyvalue.cassandra.pool.LockFreeObjectPool;
+import java.time.Duration;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.pool2.BasePooledObjectFactory;
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.impl.DefaultPooledObject;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares borrowing from and returning to the commons-pool {@link GenericObjectPool} that Cassandra client pools used
+ * to be built on with the {@link LockFreeObjectPool} that replaced it, under as many concurrent callers as a busy
+ * service issues. The pools are configured as for a single Cassandra host with the default pool sizes, and hold
+ * placeholder objects, so that only the cost of the pool itself is measured. Borrows against an exhausted pool fail
+ * fast in both pools, and are counted as operations.
+ */
+@Measurement(iterations = 10, time = 2)
+@Warmup(iterations = 6, time = 1)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CassandraClientPoolBenchmarks {
+    private static final int MIN_IDLE = 30;
+    private static final int MAX_TOTAL = 100;
+
+    @Param({"GENERIC", "LOCK_FREE"})
+    public PoolType poolType;
+
+    private GenericObjectPool<Object> genericPool;
+    private LockFreeObjectPool<Object> lockFreePool;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        switch (poolType) {
+            case GENERIC:
+                GenericObjectPoolConfig config = new GenericObjectPoolConfig();
+                config.setMinIdle(MIN_IDLE);
+                config.setMaxIdle(MAX_TOTAL);
+                config.setMaxTotal(MAX_TOTAL);
+                config.setBlockWhenExhausted(false);
+                config.setTestOnBorrow(true);
+                config.setJmxEnabled(false);
+                genericPool = new GenericObjectPool<>(new PlaceholderFactory(), config);
+                break;
+            case LOCK_FREE:
+                lockFreePool = new LockFreeObjectPool<>(
+                        new PlaceholderFactory(),
+                        MIN_IDLE,
+                        MAX_TOTAL,
+                        Duration.ofMinutes(10),
+                        0.1,
+                        new Histogram(new UniformReservoir()));
+                break;
+            default:
+                throw new IllegalStateException("Unknown pool type " + poolType);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (genericPool != null) {
+            genericPool.close();
+        }
+        if (lockFreePool != null) {
+            lockFreePool.close();
+        }
+    }
+
+    @Benchmark
+    @Threads(512)
+    public void borrowAndReturn(Blackhole blackhole) throws Exception {
+        try {
+            if (genericPool != null) {
+                Object object = genericPool.borrowObject();
+                blackhole.consume(object);
+                genericPool.returnObject(object);
+            } else {
+                LockFreeObjectPool.Pooled<Object> pooled = lockFreePool.borrowObject();
+                blackhole.consume(pooled.get());
+                lockFreePool.returnObject(pooled);
+            }
+        } catch (NoSuchElementException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    public enum PoolType {
+        GENERIC,
+        LOCK_FREE
+    }
+
+    private static final class PlaceholderFactory extends BasePooledObjectFactory<Object> {
+        @Override
+        public Object create() {
+            return new Object();
+        }
+
+        @Override
+        public PooledObject<Object> wrap(Object object) {
+            return new DefaultPooledObject<>(object);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.performance.benchmarks;
+
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.keyvalue.dbkvs.impl.ColumnarCellValues;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the allocation of a multi-get result read into a {@code Map<Cell, Value>} with one read into
+ * {@link ColumnarCellValues}. Both build the result from freshly copied arrays, as a key value service reading from
+ * a result set does. They then compute the result size and the start timestamps of the values, as post-filtering
+ * does, and finally access the given percentage of the entries.
+ *
+ * Run with {@code -prof gc} and compare {@code gc.alloc.rate.norm}. Both results allocate the same byte arrays, so
+ * the difference is the per-entry overhead: the columnar result saves most of it when few entries are accessed, and
+ * less as more of them are.
+ */
+@Measurement(iterations = 10, time = 2)
+@Warmup(iterations = 6, time = 1)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ColumnarCellValuesBenchmarks {
+    private static final int NUM_CELLS = 10_000;
+    private static final int CONTENTS_SIZE = 100;
+    private static final int NUM_WRITING_TRANSACTIONS = 100;
+
+    @Param({"0", "10", "100"})
+    public int percentageOfEntriesAccessed;
+
+    private byte[][] rows;
+    private byte[][] columns;
+    private byte[][] contents;
+    private long[] timestamps;
+    private Cell[] cellsToAccess;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        rows = new byte[NUM_CELLS][];
+        columns = new byte[NUM_CELLS][];
+        contents = new byte[NUM_CELLS][];
+        timestamps = new long[NUM_CELLS];
+        for (int i = 0; i < NUM_CELLS; i++) {
+            rows[i] = PtBytes.toBytes("row" + i);
+            columns[i] = PtBytes.toBytes("col" + (i % 10));
+            contents[i] = new byte[CONTENTS_SIZE];
+            timestamps[i] = i % NUM_WRITING_TRANSACTIONS;
+        }
+        cellsToAccess = new Cell[NUM_CELLS * percentageOfEntriesAccessed / 100];
+        for (int i = 0; i < cellsToAccess.length; i++) {
+            cellsToAccess[i] = Cell.create(rows[i], columns[i]);
+        }
+    }
+
+    @Benchmark
+    public void readIntoMap(Blackhole blackhole) {
+        Map<Cell, Value> results = new HashMap<>();
+        for (int i = 0; i < NUM_CELLS; i++) {
+            results.put(
+                    Cell.create(copy(rows[i]), copy(columns[i])), Value.create(copy(contents[i]), timestamps[i]));
+        }
+
+        long bytes = 0;
+        Set<Long> startTimestamps = new HashSet<>();
+        for (Map.Entry<Cell, Value> entry : results.entrySet()) {
+            bytes += entry.getValue().getContents().length + entry.getKey().getRowName().length
+                    + entry.getKey().getColumnName().length;
+            startTimestamps.add(entry.getValue().getTimestamp());
+        }
+        blackhole.consume(bytes);
+        blackhole.consume(startTimestamps);
+        for (Cell cell : cellsToAccess) {
+            blackhole.consume(results.get(cell));
+        }
+    }
+
+    @Benchmark
+    public void readIntoColumnarCellValues(Blackhole blackhole) {
+        ColumnarCellValues.Builder builder = ColumnarCellValues.builder(NUM_CELLS);
+        for (int i = 0; i < NUM_CELLS; i++) {
+            builder.add(copy(rows[i]), copy(columns[i]), copy(contents[i]), timestamps[i]);
+        }
+        ColumnarCellValues values = builder.build();
+
+        Set<Long> startTimestamps = new HashSet<>();
+        for (int i = 0; i < values.size(); i++) {
+            startTimestamps.add(values.getTimestamp(i));
+        }
+        blackhole.consume(values.getSizeInBytes());
+        blackhole.consume(startTimestamps);
+        Map<Cell, Value> results = values.asMap();
+        for (Cell cell : cellsToAccess) {
+            blackhole.consume(results.get(cell));
+        }
+    }
+
+    private static byte[] copy(byte[] bytes) {
+        return Arrays.copyOf(bytes, bytes.length);
+    }
+}
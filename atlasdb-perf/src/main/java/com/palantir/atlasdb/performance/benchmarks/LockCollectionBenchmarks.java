@@ -0,0 +1,114 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.performance.benchmarks;
+
+import com.palantir.atlasdb.timelock.lock.AsyncLock;
+import com.palantir.atlasdb.timelock.lock.LockCollection;
+import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.StringLockDescriptor;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how many locks per second can be resolved, locked and unlocked through a shared {@link LockCollection},
+ * with requests of {@link #LOCKS_PER_REQUEST} row-style locks. Each thread locks its own descriptors, so lock requests
+ * never block on each other and throughput should scale with the number of threads. Comparing the single threaded
+ * and the all cores results shows how well the collection scales.
+ */
+@Measurement(iterations = 10, time = 2)
+@Warmup(iterations = 6, time = 1)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LockCollectionBenchmarks {
+    private static final int LOCKS_PER_REQUEST = 1_000;
+    private static final int REQUESTS_PER_THREAD = 64;
+
+    private final LockCollection lockCollection = new LockCollection();
+    private final AtomicInteger threadIds = new AtomicInteger();
+
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(LOCKS_PER_REQUEST)
+    public void lockAndUnlockSingleThreaded(ThreadState state) {
+        lockAndUnlock(state);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    @OperationsPerInvocation(LOCKS_PER_REQUEST)
+    public void lockAndUnlockAllCores(ThreadState state) {
+        lockAndUnlock(state);
+    }
+
+    private void lockAndUnlock(ThreadState state) {
+        UUID requestId = UUID.randomUUID();
+        List<AsyncLock> locks = lockCollection.getAll(state.nextRequest()).get();
+        for (AsyncLock lock : locks) {
+            lock.lock(requestId);
+        }
+        for (AsyncLock lock : locks) {
+            lock.unlock(requestId);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private Set<LockDescriptor>[] requests;
+        private int nextRequest = 0;
+
+        @Setup(Level.Trial)
+        @SuppressWarnings("unchecked")
+        public void setup(LockCollectionBenchmarks benchmark) {
+            String threadPrefix = "thread-" + benchmark.threadIds.getAndIncrement() + "-row-";
+            requests = new Set[REQUESTS_PER_THREAD];
+            for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                Set<LockDescriptor> descriptors = new HashSet<>();
+                while (descriptors.size() < LOCKS_PER_REQUEST) {
+                    long row = ThreadLocalRandom.current().nextLong(100 * LOCKS_PER_REQUEST);
+                    descriptors.add(StringLockDescriptor.of(threadPrefix + row));
+                }
+                requests[i] = descriptors;
+            }
+        }
+
+        private Set<LockDescriptor> nextRequest() {
+            Set<LockDescriptor> request = requests[nextRequest];
+            nextRequest = (nextRequest + 1) % REQUESTS_PER_THREAD;
+            return request;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.performance.benchmarks;
+
+import com.codahale.metrics.MetricRegistry;
+import com.palantir.atlasdb.cache.DefaultTimestampCache;
+import com.palantir.atlasdb.cache.OffHeapTimestampCache;
+import com.palantir.atlasdb.cache.PrimitiveTimestampCache;
+import com.palantir.atlasdb.cache.TimestampCache;
+import com.palantir.atlasdb.persistent.api.PersistentStore;
+import com.palantir.atlasdb.persistent.rocksdb.RocksDbPersistentStore;
+import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.rocksdb.RocksDB;
+
+/**
+ * Compares the on-heap Caffeine, primitive and RocksDB backed {@link TimestampCache} implementations. The cache is
+ * filled before measuring; reads are drawn from twice the cache size so roughly half of them miss, and writes keep
+ * the eviction policy busy.
+ */
+@Measurement(iterations = 10, time = 2)
+@Warmup(iterations = 6, time = 1)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TimestampCacheBenchmarks {
+    private static final long CACHE_SIZE = 1_000_000;
+    private static final long KEY_SPACE = 2 * CACHE_SIZE;
+
+    @Param({"CAFFEINE", "PRIMITIVE", "OFF_HEAP"})
+    public CacheType cacheType;
+
+    private TimestampCache cache;
+    private PersistentStore persistentStore;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        switch (cacheType) {
+            case CAFFEINE:
+                cache = new DefaultTimestampCache(new MetricRegistry(), () -> CACHE_SIZE);
+                break;
+            case PRIMITIVE:
+                cache = new PrimitiveTimestampCache(() -> CACHE_SIZE);
+                break;
+            case OFF_HEAP:
+                File databaseFolder = Files.createTempDirectory("timestamp-cache-benchmark").toFile();
+                persistentStore = new RocksDbPersistentStore(
+                        RocksDB.open(databaseFolder.getAbsolutePath()), databaseFolder);
+                cache = OffHeapTimestampCache.create(
+                        persistentStore, new DefaultTaggedMetricRegistry(), () -> CACHE_SIZE);
+                break;
+            default:
+                throw new IllegalStateException("Unknown cache type " + cacheType);
+        }
+        for (long startTs = 0; startTs < CACHE_SIZE; startTs++) {
+            cache.putAlreadyCommittedTransaction(startTs, startTs + 1);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (persistentStore != null) {
+            persistentStore.close();
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Long get() {
+        return cache.getCommitTimestampIfPresent(ThreadLocalRandom.current().nextLong(KEY_SPACE));
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void put() {
+        long startTs = ThreadLocalRandom.current().nextLong(KEY_SPACE);
+        cache.putAlreadyCommittedTransaction(startTs, startTs + 1);
+    }
+
+    public enum CacheType {
+        CAFFEINE,
+        PRIMITIVE,
+        OFF_HEAP
+    }
+}
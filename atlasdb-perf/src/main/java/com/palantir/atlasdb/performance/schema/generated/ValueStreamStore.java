@@ -316,6 +316,7 @@ public final class ValueStreamStore extends AbstractPersistentStreamStore {
             ValueStreamHashAidxTable.ValueStreamHashAidxRow hashRow = ValueStreamHashAidxTable.ValueStreamHashAidxRow.of(hash);
             ValueStreamHashAidxTable.ValueStreamHashAidxColumn column = ValueStreamHashAidxTable.ValueStreamHashAidxColumn.of(streamId);
             shToDelete.put(hashRow, column);
+            unmarkChunksAsUsed(t, streamId, e.getValue());
         }
         tables.getValueStreamHashAidxTable(t).delete(shToDelete);
         tables.getValueStreamValueTable(t).delete(streamValueToDelete);
@@ -52,6 +52,7 @@ import com.palantir.atlasdb.table.description.ValueType;
 import com.palantir.atlasdb.transaction.ImmutableTransactionConfig;
 import com.palantir.atlasdb.transaction.api.AtlasDbConstraintCheckingMode;
 import com.palantir.atlasdb.transaction.api.ConflictHandler;
+import com.palantir.atlasdb.transaction.api.ImmutableGetRangesQuery;
 import com.palantir.atlasdb.transaction.api.PreCommitCondition;
 import com.palantir.atlasdb.transaction.api.Transaction;
 import com.palantir.atlasdb.transaction.api.TransactionFailedNonRetriableException;
@@ -70,6 +71,7 @@ import com.palantir.lock.v2.LockToken;
 import com.palantir.logsafe.Preconditions;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.BrokenBarrierException;
@@ -78,6 +80,7 @@ import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -544,6 +547,40 @@ public abstract class AbstractSerializableTransactionTest extends AbstractTransa
         }
     }
 
+    @Test
+    public void testPrefetchedRangeReadWriteFailure() {
+        String initialValue = "100";
+        Transaction t0 = startTransaction();
+        put(t0, "row1", "col1", initialValue);
+        put(t0, "row2", "col1", initialValue);
+        t0.commit();
+
+        Transaction t1 = startTransaction();
+        List<List<RowResult<byte[]>>> ranges = t1.getRanges(ImmutableGetRangesQuery.<List<RowResult<byte[]>>>builder()
+                        .tableRef(TEST_TABLE)
+                        .rangeRequests(ImmutableList.of(rangeRequest("row1", "row2"), rangeRequest("row2", "row3")))
+                        .concurrencyLevel(2)
+                        .firstPagePrefetchBatchSize(1)
+                        .visitableProcessor((unused, visitable) -> BatchingVisitables.copyToList(visitable))
+                        .build())
+                .collect(Collectors.toList());
+        assertThat(ranges).allSatisfy(range -> assertThat(range).hasSize(1));
+        put(t1, "row22", "col1", initialValue);
+
+        Transaction t2 = startTransaction();
+        put(t2, "row2", "col1", "101");
+        t2.commit();
+
+        assertThatThrownBy(t1::commit).isInstanceOf(TransactionSerializableConflictException.class);
+    }
+
+    private static RangeRequest rangeRequest(String startRow, String endRow) {
+        return RangeRequest.builder()
+                .startRowInclusive(PtBytes.toBytes(startRow))
+                .endRowExclusive(PtBytes.toBytes(endRow))
+                .build();
+    }
+
     @Test
     public void testColumnSelection() {
         String initialValue = "100";
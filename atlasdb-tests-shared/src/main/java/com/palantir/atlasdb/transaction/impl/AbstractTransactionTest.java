@@ -1830,9 +1830,12 @@ public abstract class AbstractTransactionTest extends TransactionTestSetup {
                 .collect(Collectors.toList());
         List<BatchingVisitable<RowResult<byte[]>>> getRangesLazyImpl =
                 t.getRangesLazy(TEST_TABLE, rangeRequests).collect(Collectors.toList());
+        List<BatchingVisitable<RowResult<byte[]>>> getRangesWithPrefetchedFirstPagesImpl =
+                getRangesWithPrefetchedFirstPages(t, rangeRequests);
 
         assertEquals(getRangesWithPrefetchingImpl.size(), getRangesLazyImpl.size());
         assertEquals(getRangesLazyImpl.size(), getRangesInParallelImpl.size());
+        assertEquals(getRangesLazyImpl.size(), getRangesWithPrefetchedFirstPagesImpl.size());
 
         for (int i = 0; i < getRangesWithPrefetchingImpl.size(); i++) {
             assertEquals(
@@ -1846,6 +1849,10 @@ public abstract class AbstractTransactionTest extends TransactionTestSetup {
             assertEquals(
                     expectedRangeSize,
                     BatchingVisitables.copyToList(getRangesLazyImpl.get(i)).size());
+            assertEquals(
+                    expectedRangeSize,
+                    BatchingVisitables.copyToList(getRangesWithPrefetchedFirstPagesImpl.get(i))
+                            .size());
         }
     }
 
@@ -1858,10 +1865,25 @@ public abstract class AbstractTransactionTest extends TransactionTestSetup {
                 .collect(Collectors.toList());
         Iterable<BatchingVisitable<RowResult<byte[]>>> getRangesLazyImpl =
                 t.getRangesLazy(TEST_TABLE, rangeRequests).collect(Collectors.toList());
+        Iterable<BatchingVisitable<RowResult<byte[]>>> getRangesWithPrefetchedFirstPagesImpl =
+                getRangesWithPrefetchedFirstPages(t, rangeRequests);
 
         assertEquals(expectedValues, extractStringsFromVisitables(getRangesWithPrefetchingImpl));
         assertEquals(expectedValues, extractStringsFromVisitables(getRangesInParallelImpl));
         assertEquals(expectedValues, extractStringsFromVisitables(getRangesLazyImpl));
+        assertEquals(expectedValues, extractStringsFromVisitables(getRangesWithPrefetchedFirstPagesImpl));
+    }
+
+    private static List<BatchingVisitable<RowResult<byte[]>>> getRangesWithPrefetchedFirstPages(
+            Transaction t, Iterable<RangeRequest> rangeRequests) {
+        return t.getRanges(ImmutableGetRangesQuery.<BatchingVisitable<RowResult<byte[]>>>builder()
+                        .tableRef(TEST_TABLE)
+                        .rangeRequests(rangeRequests)
+                        .concurrencyLevel(2)
+                        .firstPagePrefetchBatchSize(7)
+                        .visitableProcessor((rangeRequest, visitable) -> visitable)
+                        .build())
+                .collect(Collectors.toList());
     }
 
     private List<String> extractStringsFromVisitables(Iterable<BatchingVisitable<RowResult<byte[]>>> visitables) {
@@ -16,7 +16,9 @@
 package com.palantir.atlasdb.schema.stream;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
@@ -59,6 +61,7 @@ import com.palantir.atlasdb.schema.stream.generated.TestHashComponentsStreamMeta
 import com.palantir.atlasdb.schema.stream.generated.TestHashComponentsStreamMetadataTable.TestHashComponentsStreamMetadataRow;
 import com.palantir.atlasdb.schema.stream.generated.TestHashComponentsStreamStore;
 import com.palantir.atlasdb.schema.stream.generated.TestHashComponentsStreamValueTable.TestHashComponentsStreamValueRow;
+import com.palantir.atlasdb.stream.ImmutableStreamStorePersistenceConfiguration;
 import com.palantir.atlasdb.stream.PersistentStreamStore;
 import com.palantir.atlasdb.table.description.Schemas;
 import com.palantir.atlasdb.transaction.api.Transaction;
@@ -72,6 +75,7 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
@@ -686,6 +690,123 @@ public class StreamTest extends AtlasDbTestCase {
         assertEquals(expectedBlocksUsed, numBlocksUsed);
     }
 
+    @Test
+    public void testStoreByteStreamFiveMegaBytes_readAheadStream() throws IOException {
+        StreamTestStreamStore store = StreamTestStreamStore.of(
+                txManager,
+                StreamTestTableFactory.of(),
+                () -> ImmutableStreamStorePersistenceConfiguration.builder()
+                        .maxReadAheadBytesInFlight(3 * StreamTestStreamStore.BLOCK_SIZE_IN_BYTES)
+                        .build());
+
+        storeAndCheckByteStreams(store, getIncompressibleBytes(5_000_000));
+    }
+
+    @Test
+    public void loadStreamAsFileInTransactionThatStoredItWithReadAhead() throws IOException {
+        StreamTestStreamStore store = StreamTestStreamStore.of(
+                txManager,
+                StreamTestTableFactory.of(),
+                () -> ImmutableStreamStorePersistenceConfiguration.builder()
+                        .maxReadAheadBytesInFlight(3 * StreamTestStreamStore.BLOCK_SIZE_IN_BYTES)
+                        .build());
+        byte[] data = getIncompressibleBytes(StreamTestStreamStore.BLOCK_SIZE_IN_BYTES * 5);
+        long id = timestampService.getFreshTimestamp();
+
+        File file = txManager.runTaskWithRetry(t -> {
+            store.storeStreams(t, ImmutableMap.of(id, new ByteArrayInputStream(data)));
+            return store.loadStreamAsFile(t, id);
+        });
+
+        assertArrayEquals(data, FileUtils.readFileToByteArray(file));
+    }
+
+    @Test
+    public void testStoreChunkedStream() throws IOException {
+        StreamTestStreamStore store = createChunkingStore();
+        byte[] data = getIncompressibleBytes(5_000_000);
+
+        long id = store.storeStream(new ByteArrayInputStream(data)).getLhSide();
+
+        verifyLoadingStreams(store, id, data);
+    }
+
+    @Test
+    public void testChunkedStreamsShareUnchangedChunks() throws IOException {
+        StreamTestStreamStore store = createChunkingStore();
+        byte[] data = getIncompressibleBytes(5_000_000);
+        byte[] edited = data.clone();
+        edited[edited.length / 2]++;
+
+        store.storeStream(new ByteArrayInputStream(data));
+        long numStreams = countStoredStreams();
+        long id = store.storeStream(new ByteArrayInputStream(edited)).getLhSide();
+
+        // Only the list of chunks and the chunks around the edit should have been stored
+        assertThat(countStoredStreams() - numStreams, lessThanOrEqualTo(3L));
+        verifyLoadingStreams(store, id, edited);
+    }
+
+    @Test
+    public void testDeletingChunkedStreamUnmarksItsChunksAsUsed() {
+        StreamTestStreamStore store = createChunkingStore();
+        long id = store.storeStream(new ByteArrayInputStream(getIncompressibleBytes(5_000_000)))
+                .getLhSide();
+        assertThat(countReferencedStreams(), greaterThan(0L));
+
+        txManager.runTaskWithRetry(tx -> {
+            new DeletingStreamStore(store).deleteStreams(tx, ImmutableSet.of(id));
+            return null;
+        });
+
+        assertThat(countReferencedStreams(), is(0L));
+    }
+
+    @Test
+    public void testFailingToStoreChunkedStreamUnmarksItsChunksAsUsed() {
+        StreamTestStreamStore store = createChunkingStore();
+        InputStream failingStream = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Stream failed");
+            }
+        };
+
+        try {
+            store.storeStream(new SequenceInputStream(
+                    new ByteArrayInputStream(getIncompressibleBytes(5_000_000)), failingStream));
+            fail("Storing a failing stream should fail");
+        } catch (RuntimeException e) {
+            // expected
+        }
+
+        assertThat(countStoredStreams(), greaterThan(1L));
+        assertThat(countReferencedStreams(), is(0L));
+    }
+
+    private StreamTestStreamStore createChunkingStore() {
+        return StreamTestStreamStore.of(
+                txManager,
+                StreamTestTableFactory.of(),
+                () -> ImmutableStreamStorePersistenceConfiguration.builder()
+                        .contentDefinedChunking(true)
+                        .build());
+    }
+
+    private long countStoredStreams() {
+        return txManager.runTaskReadOnly(t -> StreamTestTableFactory.of()
+                .getStreamTestStreamMetadataTable(t)
+                .getAllRowsUnordered()
+                .count());
+    }
+
+    private long countReferencedStreams() {
+        return txManager.runTaskReadOnly(t -> StreamTestTableFactory.of()
+                .getStreamTestStreamIdxTable(t)
+                .getAllRowsUnordered()
+                .count());
+    }
+
     private byte[] generateRandomTwoBlockStream() {
         byte[] bytes = new byte[2 * StreamTestStreamStore.BLOCK_SIZE_IN_BYTES];
         Random rand = new Random();
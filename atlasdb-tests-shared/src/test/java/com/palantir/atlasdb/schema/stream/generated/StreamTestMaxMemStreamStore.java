@@ -316,6 +316,7 @@ public final class StreamTestMaxMemStreamStore extends AbstractPersistentStreamS
             StreamTestMaxMemStreamHashAidxTable.StreamTestMaxMemStreamHashAidxRow hashRow = StreamTestMaxMemStreamHashAidxTable.StreamTestMaxMemStreamHashAidxRow.of(hash);
             StreamTestMaxMemStreamHashAidxTable.StreamTestMaxMemStreamHashAidxColumn column = StreamTestMaxMemStreamHashAidxTable.StreamTestMaxMemStreamHashAidxColumn.of(streamId);
             shToDelete.put(hashRow, column);
+            unmarkChunksAsUsed(t, streamId, e.getValue());
         }
         tables.getStreamTestMaxMemStreamHashAidxTable(t).delete(shToDelete);
         tables.getStreamTestMaxMemStreamValueTable(t).delete(streamValueToDelete);
@@ -316,6 +316,7 @@ public final class StreamTestStreamStore extends AbstractPersistentStreamStore {
             StreamTestStreamHashAidxTable.StreamTestStreamHashAidxRow hashRow = StreamTestStreamHashAidxTable.StreamTestStreamHashAidxRow.of(hash);
             StreamTestStreamHashAidxTable.StreamTestStreamHashAidxColumn column = StreamTestStreamHashAidxTable.StreamTestStreamHashAidxColumn.of(streamId);
             shToDelete.put(hashRow, column);
+            unmarkChunksAsUsed(t, streamId, e.getValue());
         }
         tables.getStreamTestStreamHashAidxTable(t).delete(shToDelete);
         tables.getStreamTestStreamValueTable(t).delete(streamValueToDelete);
@@ -316,6 +316,7 @@ public final class StreamTestWithHashStreamStore extends AbstractPersistentStrea
             StreamTestWithHashStreamHashAidxTable.StreamTestWithHashStreamHashAidxRow hashRow = StreamTestWithHashStreamHashAidxTable.StreamTestWithHashStreamHashAidxRow.of(hash);
             StreamTestWithHashStreamHashAidxTable.StreamTestWithHashStreamHashAidxColumn column = StreamTestWithHashStreamHashAidxTable.StreamTestWithHashStreamHashAidxColumn.of(streamId);
             shToDelete.put(hashRow, column);
+            unmarkChunksAsUsed(t, streamId, e.getValue());
         }
         tables.getStreamTestWithHashStreamHashAidxTable(t).delete(shToDelete);
         tables.getStreamTestWithHashStreamValueTable(t).delete(streamValueToDelete);
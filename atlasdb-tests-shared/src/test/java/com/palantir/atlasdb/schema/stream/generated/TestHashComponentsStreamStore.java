@@ -316,6 +316,7 @@ public final class TestHashComponentsStreamStore extends AbstractPersistentStrea
             TestHashComponentsStreamHashAidxTable.TestHashComponentsStreamHashAidxRow hashRow = TestHashComponentsStreamHashAidxTable.TestHashComponentsStreamHashAidxRow.of(hash);
             TestHashComponentsStreamHashAidxTable.TestHashComponentsStreamHashAidxColumn column = TestHashComponentsStreamHashAidxTable.TestHashComponentsStreamHashAidxColumn.of(streamId);
             shToDelete.put(hashRow, column);
+            unmarkChunksAsUsed(t, streamId, e.getValue());
         }
         tables.getTestHashComponentsStreamHashAidxTable(t).delete(shToDelete);
         tables.getTestHashComponentsStreamValueTable(t).delete(streamValueToDelete);
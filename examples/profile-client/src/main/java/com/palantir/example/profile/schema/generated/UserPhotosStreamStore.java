@@ -314,6 +314,7 @@ public final class UserPhotosStreamStore extends AbstractPersistentStreamStore {
             UserPhotosStreamHashAidxTable.UserPhotosStreamHashAidxRow hashRow = UserPhotosStreamHashAidxTable.UserPhotosStreamHashAidxRow.of(hash);
             UserPhotosStreamHashAidxTable.UserPhotosStreamHashAidxColumn column = UserPhotosStreamHashAidxTable.UserPhotosStreamHashAidxColumn.of(streamId);
             shToDelete.put(hashRow, column);
+            unmarkChunksAsUsed(t, streamId, e.getValue());
         }
         tables.getUserPhotosStreamHashAidxTable(t).delete(shToDelete);
         tables.getUserPhotosStreamValueTable(t).delete(streamValueToDelete);
@@ -40,6 +40,9 @@ public class LockDescriptor implements Comparable<LockDescriptor>, Serializable
 
     private final byte[] bytes;
 
+    // Cached, as descriptors are hashed repeatedly by the lock service; benign data races are permitted.
+    private transient int hashCode;
+
     @JsonCreator
     LockDescriptor(@JsonProperty("bytes") byte[] bytes) {
         this.bytes = bytes;
@@ -74,10 +77,13 @@ public class LockDescriptor implements Comparable<LockDescriptor>, Serializable
 
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result + Arrays.hashCode(bytes);
-        return result;
+        if (hashCode == 0) {
+            final int prime = 31;
+            int result = 1;
+            result = prime * result + Arrays.hashCode(bytes);
+            hashCode = result;
+        }
+        return hashCode;
     }
 
     @Override
@@ -23,6 +23,8 @@ import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.palantir.lock.LockDescriptor;
 import com.palantir.lock.watch.LockWatchReferences.LockWatchReference;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.exceptions.SafeIllegalStateException;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
@@ -31,7 +33,8 @@ import org.immutables.value.Value;
 @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
 @JsonSubTypes({
     @JsonSubTypes.Type(value = LockWatchStateUpdate.Success.class, name = LockWatchStateUpdate.Success.TYPE),
-    @JsonSubTypes.Type(value = LockWatchStateUpdate.Snapshot.class, name = LockWatchStateUpdate.Snapshot.TYPE)
+    @JsonSubTypes.Type(value = LockWatchStateUpdate.Snapshot.class, name = LockWatchStateUpdate.Snapshot.TYPE),
+    @JsonSubTypes.Type(value = LockWatchStateUpdate.Delta.class, name = LockWatchStateUpdate.Delta.TYPE)
 })
 public interface LockWatchStateUpdate {
     UUID logId();
@@ -56,6 +59,17 @@ public interface LockWatchStateUpdate {
                 .build();
     }
 
+    static Delta delta(
+            UUID logId, long baseVersion, long version, Set<LockDescriptor> locked, Set<LockDescriptor> unlocked) {
+        return ImmutableDelta.builder()
+                .logId(logId)
+                .baseVersion(baseVersion)
+                .lastKnownVersion(version)
+                .locked(locked)
+                .unlocked(unlocked)
+                .build();
+    }
+
     /**
      * A successful update is an update containing information about all lock watch events occurring since the previous
      * last known version.
@@ -104,9 +118,47 @@ public interface LockWatchStateUpdate {
         }
     }
 
+    /**
+     * A delta update may be returned instead of a snapshot when the client has fallen too far behind to receive the
+     * individual events, but no lock watches were created since the base version. It contains the state, as of the
+     * last known version, of every lock descriptor that was locked or unlocked after the base version, which the
+     * client may apply to its own view of the world as of any version at or after the base version. As with a
+     * snapshot, the individual events are not recoverable, so any information derived from them must be purged.
+     */
+    @Value.Immutable
+    @Value.Style(visibility = Value.Style.ImplementationVisibility.PACKAGE)
+    @JsonSerialize(as = ImmutableDelta.class)
+    @JsonDeserialize(as = ImmutableDelta.class)
+    @JsonTypeName(Delta.TYPE)
+    interface Delta extends LockWatchStateUpdate {
+        String TYPE = "delta";
+
+        long baseVersion();
+
+        long lastKnownVersion();
+
+        Set<LockDescriptor> locked();
+
+        Set<LockDescriptor> unlocked();
+
+        @Override
+        default <T> T accept(Visitor<T> visitor) {
+            return visitor.visit(this);
+        }
+    }
+
     interface Visitor<T> {
         T visit(Success success);
 
         T visit(Snapshot snapshot);
+
+        /**
+         * Deltas are only sent by servers that have been configured to send them, so visitors written before they
+         * were introduced need not handle them.
+         */
+        default T visit(Delta delta) {
+            throw new SafeIllegalStateException(
+                    "This visitor does not support delta updates", SafeArg.of("logId", delta.logId()));
+        }
     }
 }
@@ -44,6 +44,11 @@ final class LockWatchLogUtility {
                         public Optional<LockWatchStateUpdate.Success> visit(LockWatchStateUpdate.Snapshot snapshot) {
                             return Optional.empty();
                         }
+
+                        @Override
+                        public Optional<LockWatchStateUpdate.Success> visit(LockWatchStateUpdate.Delta delta) {
+                            return Optional.empty();
+                        }
                     });
 
             successfulUpdate.ifPresent(success -> log.debug(
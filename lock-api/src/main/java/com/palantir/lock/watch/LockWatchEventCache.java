@@ -56,6 +56,12 @@ public interface LockWatchEventCache {
      */
     TransactionsLockWatchUpdate getUpdateForTransactions(Set<Long> startTimestamps, Optional<LockWatchVersion> version);
 
+    /**
+     * Returns the lock watch version that the given start timestamp was identified with, if the cache still holds
+     * state for that timestamp.
+     */
+    Optional<LockWatchVersion> getStartVersion(long startTimestamp);
+
     /**
      * Removes the given timestamp from the cache, along with all associated state. This may update the earliest
      * still-held version, and therefore may trigger retention in the underlying event log.
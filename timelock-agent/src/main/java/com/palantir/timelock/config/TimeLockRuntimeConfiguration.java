@@ -69,6 +69,18 @@ public abstract class TimeLockRuntimeConfiguration {
         return ImmutableTimeLockAdjudicationConfiguration.builder().build();
     }
 
+    /**
+     * If true, clients that have fallen too far behind to be sent the individual lock watch events may instead be sent
+     * a delta of the locks that changed since they were last up to date, rather than a snapshot of all watched locks.
+     * Clients on versions that predate delta updates cannot process them, so this should only be enabled once every
+     * client of this TimeLock has been upgraded.
+     */
+    @JsonProperty("send-lock-watch-deltas")
+    @Value.Default
+    public boolean sendLockWatchDeltas() {
+        return false;
+    }
+
     @Value.Check
     public void check() {
         Preconditions.checkState(
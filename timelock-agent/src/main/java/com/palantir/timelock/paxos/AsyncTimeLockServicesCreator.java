@@ -36,6 +36,7 @@ import com.palantir.timestamp.ManagedTimestampService;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.BooleanSupplier;
 import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,17 +48,20 @@ public class AsyncTimeLockServicesCreator implements TimeLockServicesCreator {
     private final LockLog lockLog;
     private final LeadershipComponents leadershipComponents;
     private final Map<Client, LockDiagnosticConfig> lockDiagnosticConfig;
+    private final BooleanSupplier sendLockWatchDeltas;
 
     AsyncTimeLockServicesCreator(
             MetricsManager metricsManager,
             LockLog lockLog,
             LeadershipComponents leadershipComponents,
             // TODO(fdesouza): Remove this once PDS-95791 is resolved.
-            Map<Client, LockDiagnosticConfig> lockDiagnosticConfig) {
+            Map<Client, LockDiagnosticConfig> lockDiagnosticConfig,
+            BooleanSupplier sendLockWatchDeltas) {
         this.metricsManager = metricsManager;
         this.lockLog = lockLog;
         this.leadershipComponents = leadershipComponents;
         this.lockDiagnosticConfig = lockDiagnosticConfig;
+        this.sendLockWatchDeltas = sendLockWatchDeltas;
     }
 
     @Override
@@ -100,7 +104,8 @@ public class AsyncTimeLockServicesCreator implements TimeLockServicesCreator {
                 metricsManager.getRegistry(),
                 "async-lock-timeouts");
         return new AsyncTimelockServiceImpl(
-                AsyncLockService.createDefault(maybeEnhancedLockLog, reaperExecutor, timeoutExecutor),
+                AsyncLockService.createDefault(
+                        maybeEnhancedLockLog, reaperExecutor, timeoutExecutor, sendLockWatchDeltas),
                 timestampServiceSupplier.get(),
                 maybeEnhancedLockLog);
     }
@@ -200,7 +200,11 @@ public class TimeLockAgent {
                 Suppliers.compose(TimeLockRuntimeConfiguration::slowLockLogTriggerMillis, runtime::get));
 
         this.timelockCreator = new AsyncTimeLockServicesCreator(
-                metricsManager, lockLog, paxosResources.leadershipComponents(), install.lockDiagnosticConfig());
+                metricsManager,
+                lockLog,
+                paxosResources.leadershipComponents(),
+                install.lockDiagnosticConfig(),
+                () -> runtime.get().sendLockWatchDeltas());
 
         this.noSimultaneousServiceCheck = NoSimultaneousServiceCheck.create(
                 new TimeLockActivityCheckerFactory(install, metricsManager, userAgent).getTimeLockActivityCheckers());
@@ -29,6 +29,7 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -58,11 +59,26 @@ public class AsyncLockService implements Closeable {
      */
     public static AsyncLockService createDefault(
             LockLog lockLog, ScheduledExecutorService reaperExecutor, ScheduledExecutorService timeoutExecutor) {
+        return createDefault(lockLog, reaperExecutor, timeoutExecutor, () -> false);
+    }
+
+    /**
+     * As {@link #createDefault(LockLog, ScheduledExecutorService, ScheduledExecutorService)}, but also allows lock
+     * watch delta updates to be sent to clients that have fallen behind.
+     *
+     * @param sendLockWatchDeltas whether lock watch delta updates may be sent; all clients must support them
+     */
+    public static AsyncLockService createDefault(
+            LockLog lockLog,
+            ScheduledExecutorService reaperExecutor,
+            ScheduledExecutorService timeoutExecutor,
+            BooleanSupplier sendLockWatchDeltas) {
 
         LeaderClock clock = LeaderClock.create();
 
         HeldLocksCollection heldLocks = HeldLocksCollection.create(clock);
-        LockWatchingService lockWatchingService = new LockWatchingServiceImpl(heldLocks, clock.id());
+        LockWatchingService lockWatchingService =
+                new LockWatchingServiceImpl(heldLocks, clock.id(), sendLockWatchDeltas);
         LockAcquirer lockAcquirer = new LockAcquirer(lockLog, timeoutExecutor, clock, lockWatchingService);
 
         return new AsyncLockService(
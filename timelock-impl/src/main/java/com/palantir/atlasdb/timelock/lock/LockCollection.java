@@ -15,41 +15,121 @@
  */
 package com.palantir.atlasdb.timelock.lock;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import com.palantir.lock.LockDescriptor;
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Maps lock descriptors to the {@link AsyncLock}s guarding them. Locks are only weakly referenced, so a lock that is
+ * neither held nor awaited is garbage collected and recreated on demand.
+ *
+ * Descriptors are spread over a number of stripes by their hash, and each stripe purges its own collected locks, so
+ * that concurrent requests for disjoint descriptors do not contend with each other. Looking up an existing lock does
+ * not block.
+ */
 public class LockCollection {
+    private static final int MAX_STRIPES = 256;
 
-    private final LoadingCache<LockDescriptor, AsyncLock> locksById;
+    private final Stripe[] stripes;
 
     public LockCollection() {
-        locksById = Caffeine.newBuilder().weakValues().build(ExclusiveLock::new);
+        this(Math.min(MAX_STRIPES, 4 * Runtime.getRuntime().availableProcessors()));
     }
 
-    public OrderedLocks getAll(Set<LockDescriptor> descriptors) {
-        List<LockDescriptor> orderedDescriptors = sort(descriptors);
+    @VisibleForTesting
+    LockCollection(int minimumStripes) {
+        Preconditions.checkArgument(minimumStripes > 0, "Must have at least one stripe");
+        int numStripes = Integer.highestOneBit(minimumStripes - 1) << 1;
+        stripes = new Stripe[Math.max(numStripes, 1)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
 
+    /**
+     * Returns the locks for the given descriptors, ordered by descriptor.
+     */
+    public OrderedLocks getAll(Set<LockDescriptor> descriptors) {
         List<AsyncLock> locks = Lists.newArrayListWithExpectedSize(descriptors.size());
-        for (LockDescriptor descriptor : orderedDescriptors) {
+        for (LockDescriptor descriptor : sort(descriptors)) {
             locks.add(getLock(descriptor));
         }
 
         return OrderedLocks.fromOrderedList(locks);
     }
 
-    private static List<LockDescriptor> sort(Set<LockDescriptor> descriptors) {
-        List<LockDescriptor> orderedDescriptors = new ArrayList<>(descriptors);
-        orderedDescriptors.sort(Comparator.naturalOrder());
-        return orderedDescriptors;
+    private static Iterable<LockDescriptor> sort(Set<LockDescriptor> descriptors) {
+        if (descriptors.size() <= 1) {
+            return descriptors;
+        }
+        LockDescriptor[] orderedDescriptors = descriptors.toArray(new LockDescriptor[0]);
+        Arrays.sort(orderedDescriptors);
+        return Arrays.asList(orderedDescriptors);
     }
 
     private AsyncLock getLock(LockDescriptor descriptor) {
-        return locksById.get(descriptor);
+        return stripes[stripeIndex(descriptor.hashCode())].get(descriptor);
+    }
+
+    private int stripeIndex(int hash) {
+        // As in HashMap, spread the high bits of the hash so that they influence the choice of stripe.
+        int spread = hash ^ (hash >>> 16);
+        return spread & (stripes.length - 1);
+    }
+
+    private static final class Stripe {
+        private final ConcurrentMap<LockDescriptor, LockReference> locks = new ConcurrentHashMap<>();
+        private final ReferenceQueue<AsyncLock> collectedLocks = new ReferenceQueue<>();
+
+        AsyncLock get(LockDescriptor descriptor) {
+            LockReference existingReference = locks.get(descriptor);
+            AsyncLock existingLock = existingReference == null ? null : existingReference.get();
+            if (existingLock != null) {
+                return existingLock;
+            }
+
+            purgeCollectedLocks();
+            AsyncLock newLock = new ExclusiveLock(descriptor);
+            LockReference newReference = new LockReference(descriptor, newLock, collectedLocks);
+            while (true) {
+                existingReference = locks.putIfAbsent(descriptor, newReference);
+                if (existingReference == null) {
+                    return newLock;
+                }
+                existingLock = existingReference.get();
+                if (existingLock != null) {
+                    return existingLock;
+                }
+                if (locks.replace(descriptor, existingReference, newReference)) {
+                    return newLock;
+                }
+            }
+        }
+
+        private void purgeCollectedLocks() {
+            Reference<? extends AsyncLock> collected;
+            while ((collected = collectedLocks.poll()) != null) {
+                LockReference reference = (LockReference) collected;
+                locks.remove(reference.descriptor, reference);
+            }
+        }
+    }
+
+    private static final class LockReference extends WeakReference<AsyncLock> {
+        private final LockDescriptor descriptor;
+
+        private LockReference(LockDescriptor descriptor, AsyncLock lock, ReferenceQueue<AsyncLock> queue) {
+            super(lock, queue);
+            this.descriptor = descriptor;
+        }
     }
 }
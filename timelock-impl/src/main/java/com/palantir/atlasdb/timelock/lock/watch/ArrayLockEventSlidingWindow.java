@@ -16,10 +16,11 @@
 
 package com.palantir.atlasdb.timelock.lock.watch;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.math.LongMath;
 import com.google.common.primitives.Ints;
 import com.palantir.lock.watch.LockWatchEvent;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import javax.annotation.concurrent.NotThreadSafe;
@@ -39,30 +40,32 @@ public class ArrayLockEventSlidingWindow {
         return nextSequence - 1;
     }
 
-    void add(LockWatchEvent.Builder eventBuilder) {
+    LockWatchEvent add(LockWatchEvent.Builder eventBuilder) {
         LockWatchEvent event = eventBuilder.build(nextSequence);
         buffer[LongMath.mod(nextSequence, maxSize)] = event;
         nextSequence++;
+        return event;
     }
 
+    /**
+     * Returns the events after the given version as an immutable list, copying them out of the window with at most
+     * two array copies, so that the result can be passed on without being copied again.
+     */
     public Optional<List<LockWatchEvent>> getNextEvents(long version) {
         if (versionInTheFuture(version) || versionTooOld(version)) {
             return Optional.empty();
         }
         int startIndex = LongMath.mod(version + 1, maxSize);
         int windowSize = Ints.saturatedCast(lastVersion() - version);
-        List<LockWatchEvent> events = new ArrayList<>(windowSize);
+        List<LockWatchEvent> bufferView = Arrays.asList(buffer);
 
-        for (int i = startIndex; events.size() < windowSize; i = incrementAndMod(i)) {
-            events.add(buffer[i]);
+        if (startIndex + windowSize <= maxSize) {
+            return Optional.of(ImmutableList.copyOf(bufferView.subList(startIndex, startIndex + windowSize)));
         }
-
-        return Optional.of(events);
-    }
-
-    private int incrementAndMod(int num) {
-        num++;
-        return num >= maxSize ? num % maxSize : num;
+        return Optional.of(ImmutableList.<LockWatchEvent>builderWithExpectedSize(windowSize)
+                .addAll(bufferView.subList(startIndex, maxSize))
+                .addAll(bufferView.subList(0, startIndex + windowSize - maxSize))
+                .build());
     }
 
     private boolean versionInTheFuture(long version) {
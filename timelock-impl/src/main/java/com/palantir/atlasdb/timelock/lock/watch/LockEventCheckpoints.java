@@ -0,0 +1,154 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.timelock.lock.watch;
+
+import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.watch.LockEvent;
+import com.palantir.lock.watch.LockWatchCreatedEvent;
+import com.palantir.lock.watch.LockWatchEvent;
+import com.palantir.lock.watch.LockWatchStateUpdate;
+import com.palantir.lock.watch.UnlockEvent;
+import com.palantir.logsafe.Preconditions;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Compacts logged events into checkpoints of a fixed number of events each, retaining the last state of every lock
+ * descriptor that was locked or unlocked within the checkpoint. This allows clients that have fallen behind the
+ * sliding window to catch up with a delta whose size is bounded by the number of descriptors that changed, rather than
+ * with a snapshot of all watched locks.
+ *
+ * Checkpoints containing lock watch creations, or that touch too many descriptors, cannot be used to build deltas,
+ * since a snapshot is cheaper to compute and apply in both cases.
+ */
+@NotThreadSafe
+final class LockEventCheckpoints {
+    private final int eventsPerCheckpoint;
+    private final int maxCheckpoints;
+    private final int maxDescriptorsPerCheckpoint;
+    private final Deque<Checkpoint> checkpoints = new ArrayDeque<>();
+
+    LockEventCheckpoints(int eventsPerCheckpoint, int maxCheckpoints, int maxDescriptorsPerCheckpoint) {
+        Preconditions.checkArgument(eventsPerCheckpoint > 0, "eventsPerCheckpoint must be positive");
+        Preconditions.checkArgument(maxCheckpoints > 0, "maxCheckpoints must be positive");
+        this.eventsPerCheckpoint = eventsPerCheckpoint;
+        this.maxCheckpoints = maxCheckpoints;
+        this.maxDescriptorsPerCheckpoint = maxDescriptorsPerCheckpoint;
+    }
+
+    void add(LockWatchEvent event) {
+        Checkpoint current = checkpoints.peekLast();
+        if (current == null || current.numEvents >= eventsPerCheckpoint) {
+            current = new Checkpoint(event.sequence());
+            checkpoints.addLast(current);
+            if (checkpoints.size() > maxCheckpoints) {
+                checkpoints.removeFirst();
+            }
+        }
+        current.add(event);
+    }
+
+    /**
+     * Returns a delta covering all events after the given version, up to and including the last version, if the
+     * retained checkpoints allow one to be built. The base version of the returned delta may be earlier than the given
+     * version, as deltas are built from whole checkpoints.
+     */
+    Optional<LockWatchStateUpdate.Delta> getDeltaSince(UUID logId, long version, long lastVersion) {
+        if (version >= lastVersion) {
+            return Optional.empty();
+        }
+        Iterator<Checkpoint> newestFirst = checkpoints.descendingIterator();
+        Deque<Checkpoint> covering = new ArrayDeque<>();
+        while (newestFirst.hasNext()) {
+            Checkpoint checkpoint = newestFirst.next();
+            if (!checkpoint.compactable) {
+                return Optional.empty();
+            }
+            covering.addFirst(checkpoint);
+            if (checkpoint.firstVersion <= version + 1) {
+                return Optional.of(merge(logId, checkpoint.firstVersion - 1, lastVersion, covering));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static LockWatchStateUpdate.Delta merge(
+            UUID logId, long baseVersion, long lastVersion, Iterable<Checkpoint> oldestFirst) {
+        Map<LockDescriptor, Boolean> lastStates = new HashMap<>();
+        oldestFirst.forEach(checkpoint -> lastStates.putAll(checkpoint.lockedAtEnd));
+        Set<LockDescriptor> locked = new HashSet<>();
+        Set<LockDescriptor> unlocked = new HashSet<>();
+        lastStates.forEach((descriptor, isLocked) -> (isLocked ? locked : unlocked).add(descriptor));
+        return LockWatchStateUpdate.delta(logId, baseVersion, lastVersion, locked, unlocked);
+    }
+
+    private final class Checkpoint implements LockWatchEvent.Visitor<Void> {
+        private final long firstVersion;
+        private final Map<LockDescriptor, Boolean> lockedAtEnd = new HashMap<>();
+        private int numEvents = 0;
+        private boolean compactable = true;
+
+        private Checkpoint(long firstVersion) {
+            this.firstVersion = firstVersion;
+        }
+
+        private void add(LockWatchEvent event) {
+            numEvents++;
+            if (compactable) {
+                event.accept(this);
+            }
+        }
+
+        @Override
+        public Void visit(LockEvent lockEvent) {
+            record(lockEvent.lockDescriptors(), true);
+            return null;
+        }
+
+        @Override
+        public Void visit(UnlockEvent unlockEvent) {
+            record(unlockEvent.lockDescriptors(), false);
+            return null;
+        }
+
+        @Override
+        public Void visit(LockWatchCreatedEvent lockWatchCreatedEvent) {
+            markUncompactable();
+            return null;
+        }
+
+        private void record(Set<LockDescriptor> descriptors, boolean isLocked) {
+            descriptors.forEach(descriptor -> lockedAtEnd.put(descriptor, isLocked));
+            if (lockedAtEnd.size() > maxDescriptorsPerCheckpoint) {
+                markUncompactable();
+            }
+        }
+
+        private void markUncompactable() {
+            compactable = false;
+            lockedAtEnd.clear();
+        }
+    }
+}
@@ -23,27 +23,61 @@ import com.palantir.lock.LockDescriptor;
 import com.palantir.lock.v2.LockToken;
 import com.palantir.lock.watch.LockEvent;
 import com.palantir.lock.watch.LockWatchCreatedEvent;
+import com.palantir.lock.watch.LockWatchEvent;
 import com.palantir.lock.watch.LockWatchReferences.LockWatchReference;
 import com.palantir.lock.watch.LockWatchStateUpdate;
 import com.palantir.lock.watch.LockWatchVersion;
 import com.palantir.lock.watch.UnlockEvent;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.BooleanSupplier;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class LockEventLogImpl implements LockEventLog {
+    private static final int WINDOW_SIZE = 1000;
+    private static final int MAX_CACHED_DIFFS = 64;
+    private static final int MAX_CHECKPOINTS = 16;
+    private static final int MAX_DESCRIPTORS_PER_CHECKPOINT = 10_000;
+
     private final UUID logId;
-    private final ArrayLockEventSlidingWindow slidingWindow = new ArrayLockEventSlidingWindow(1000);
+    private final ArrayLockEventSlidingWindow slidingWindow = new ArrayLockEventSlidingWindow(WINDOW_SIZE);
+
+    /**
+     * Clients that fall behind the sliding window, but not too far, catch up with a delta built from these checkpoints
+     * instead of a snapshot of all watched locks. Clients that predate deltas cannot process them, so they are only
+     * sent while {@link #sendDeltas} is set.
+     */
+    private final LockEventCheckpoints checkpoints =
+            new LockEventCheckpoints(WINDOW_SIZE, MAX_CHECKPOINTS, MAX_DESCRIPTORS_PER_CHECKPOINT);
+
+    /**
+     * Clients tend to poll from the same few versions, so diffs are shared between requests from the same version
+     * until the next event is logged.
+     */
+    private final Map<Long, LockWatchStateUpdate> cachedDiffsSinceLastEvent = new HashMap<>();
     private final Supplier<LockWatches> watchesSupplier;
     private final HeldLocksCollection heldLocksCollection;
+    private final BooleanSupplier sendDeltas;
 
     LockEventLogImpl(UUID logId, Supplier<LockWatches> watchesSupplier, HeldLocksCollection heldLocksCollection) {
+        this(logId, watchesSupplier, heldLocksCollection, () -> false);
+    }
+
+    LockEventLogImpl(
+            UUID logId,
+            Supplier<LockWatches> watchesSupplier,
+            HeldLocksCollection heldLocksCollection,
+            BooleanSupplier sendDeltas) {
         this.logId = logId;
         this.watchesSupplier = watchesSupplier;
         this.heldLocksCollection = heldLocksCollection;
+        this.sendDeltas = sendDeltas;
     }
 
     @Override
@@ -61,18 +95,23 @@ public class LockEventLogImpl implements LockEventLog {
 
     @Override
     public synchronized void logLock(Set<LockDescriptor> locksTakenOut, LockToken lockToken) {
-        slidingWindow.add(LockEvent.builder(locksTakenOut, lockToken));
+        addEvent(LockEvent.builder(locksTakenOut, lockToken));
     }
 
     @Override
     public synchronized void logUnlock(Set<LockDescriptor> locksUnlocked) {
-        slidingWindow.add(UnlockEvent.builder(locksUnlocked));
+        addEvent(UnlockEvent.builder(locksUnlocked));
     }
 
     @Override
     public synchronized void logLockWatchCreated(LockWatches newWatches) {
         Set<LockDescriptor> openLocks = calculateOpenLocks(newWatches.ranges());
-        slidingWindow.add(LockWatchCreatedEvent.builder(newWatches.references(), openLocks));
+        addEvent(LockWatchCreatedEvent.builder(newWatches.references(), openLocks));
+    }
+
+    private void addEvent(LockWatchEvent.Builder eventBuilder) {
+        checkpoints.add(slidingWindow.add(eventBuilder));
+        cachedDiffsSinceLastEvent.clear();
     }
 
     private Optional<LockWatchStateUpdate> tryGetNextEvents(Optional<LockWatchVersion> fromVersion) {
@@ -80,9 +119,29 @@ public class LockEventLogImpl implements LockEventLog {
             return Optional.empty();
         }
 
-        return slidingWindow
-                .getNextEvents(fromVersion.get().version())
-                .map(events -> LockWatchStateUpdate.success(logId, slidingWindow.lastVersion(), events));
+        long version = fromVersion.get().version();
+        LockWatchStateUpdate cachedDiff = cachedDiffsSinceLastEvent.get(version);
+        if (cachedDiff != null && (sendDeltas.getAsBoolean() || !(cachedDiff instanceof LockWatchStateUpdate.Delta))) {
+            return Optional.of(cachedDiff);
+        }
+
+        Optional<LockWatchStateUpdate> diff = calculateDiff(version);
+        if (diff.isPresent() && cachedDiffsSinceLastEvent.size() < MAX_CACHED_DIFFS) {
+            cachedDiffsSinceLastEvent.put(version, diff.get());
+        }
+        return diff;
+    }
+
+    private Optional<LockWatchStateUpdate> calculateDiff(long version) {
+        long lastVersion = slidingWindow.lastVersion();
+        Optional<List<LockWatchEvent>> events = slidingWindow.getNextEvents(version);
+        if (events.isPresent()) {
+            return Optional.of(LockWatchStateUpdate.success(logId, lastVersion, events.get()));
+        }
+        if (!sendDeltas.getAsBoolean()) {
+            return Optional.empty();
+        }
+        return checkpoints.getDeltaSince(logId, version, lastVersion).map(delta -> delta);
     }
 
     private LockWatchStateUpdate calculateSnapshot() {
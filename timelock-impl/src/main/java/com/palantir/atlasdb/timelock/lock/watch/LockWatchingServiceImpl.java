@@ -36,6 +36,7 @@ import java.util.UUID;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -62,12 +63,21 @@ public class LockWatchingServiceImpl implements LockWatchingService {
     private final ReadWriteLock watchesLock = new ReentrantReadWriteLock(true);
 
     public LockWatchingServiceImpl(HeldLocksCollection heldLocksCollection, LeadershipId leadershipId) {
-        this(leadershipId.id(), heldLocksCollection);
+        this(heldLocksCollection, leadershipId, () -> false);
+    }
+
+    public LockWatchingServiceImpl(
+            HeldLocksCollection heldLocksCollection, LeadershipId leadershipId, BooleanSupplier sendDeltas) {
+        this(leadershipId.id(), heldLocksCollection, sendDeltas);
     }
 
     @VisibleForTesting
     LockWatchingServiceImpl(UUID logId, HeldLocksCollection heldLocksCollection) {
-        this.lockEventLog = new LockEventLogImpl(logId, watches::get, heldLocksCollection);
+        this(logId, heldLocksCollection, () -> false);
+    }
+
+    private LockWatchingServiceImpl(UUID logId, HeldLocksCollection heldLocksCollection, BooleanSupplier sendDeltas) {
+        this.lockEventLog = new LockEventLogImpl(logId, watches::get, heldLocksCollection, sendDeltas);
     }
 
     @Override
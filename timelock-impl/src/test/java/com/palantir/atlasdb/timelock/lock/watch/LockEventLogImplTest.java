@@ -43,6 +43,7 @@ import com.palantir.lock.watch.UnlockEvent;
 import java.util.Arrays;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import org.junit.Before;
@@ -52,7 +53,9 @@ public class LockEventLogImplTest {
     private final AtomicReference<LockWatches> lockWatches = new AtomicReference<>(LockWatches.create());
     private final HeldLocksCollection heldLocksCollection = mock(HeldLocksCollection.class);
     private final HeldLocks heldLocks = mock(HeldLocks.class);
-    private final LockEventLog log = new LockEventLogImpl(LOG_ID, lockWatches::get, heldLocksCollection);
+    private final AtomicBoolean sendDeltas = new AtomicBoolean(true);
+    private final LockEventLog log =
+            new LockEventLogImpl(LOG_ID, lockWatches::get, heldLocksCollection, sendDeltas::get);
 
     private static final UUID LOG_ID = UUID.randomUUID();
     private static final UUID STALE_LOG_ID = UUID.randomUUID();
@@ -118,6 +121,23 @@ public class LockEventLogImplTest {
                         .build(0L));
     }
 
+    @Test
+    public void diffsFromTheSameVersionAreSharedUntilNextEvent() {
+        log.logLock(ImmutableSet.of(DESCRIPTOR), TOKEN);
+        LockWatchStateUpdate firstUpdate = log.getLogDiff(NEGATIVE_VERSION_CURRENT_LOG_ID);
+        LockWatchStateUpdate secondUpdate = log.getLogDiff(NEGATIVE_VERSION_CURRENT_LOG_ID);
+        assertThat(secondUpdate).isSameAs(firstUpdate);
+
+        log.logUnlock(ImmutableSet.of(DESCRIPTOR));
+        LockWatchStateUpdate.Success success =
+                UpdateVisitors.assertSuccess(log.getLogDiff(NEGATIVE_VERSION_CURRENT_LOG_ID));
+        assertThat(success.lastKnownVersion()).isEqualTo(1L);
+        assertThat(success.events())
+                .containsExactly(
+                        LockEvent.builder(ImmutableSet.of(DESCRIPTOR), TOKEN).build(0L),
+                        UnlockEvent.builder(ImmutableSet.of(DESCRIPTOR)).build(1L));
+    }
+
     @Test
     public void noKnownVersionReturnsSnapshotContainingCurrentMatchingLocks() {
         LockWatchReference entireTable = LockWatchReferenceUtils.entireTable(TABLE_REF);
@@ -171,6 +191,61 @@ public class LockEventLogImplTest {
         assertThat(snapshot.lockWatches()).containsExactly(entireTable);
     }
 
+    @Test
+    public void requestBehindTheWindowReturnsDeltaOfChangedLocks() {
+        log.logLock(ImmutableSet.of(DESCRIPTOR), TOKEN);
+        log.logLock(ImmutableSet.of(DESCRIPTOR_3), TOKEN);
+        lockAndUnlockRepeatedly(DESCRIPTOR_2, 600);
+        log.logUnlock(ImmutableSet.of(DESCRIPTOR_3));
+
+        LockWatchStateUpdate update = log.getLogDiff(Optional.of(LockWatchVersion.of(LOG_ID, 1L)));
+
+        LockWatchStateUpdate.Delta delta = UpdateVisitors.assertDelta(update);
+        assertThat(delta.baseVersion()).isEqualTo(-1L);
+        assertThat(delta.lastKnownVersion()).isEqualTo(1202L);
+        assertThat(delta.locked()).containsExactly(DESCRIPTOR);
+        assertThat(delta.unlocked()).containsExactlyInAnyOrder(DESCRIPTOR_2, DESCRIPTOR_3);
+    }
+
+    @Test
+    public void requestBehindTheWindowReturnsSnapshotIfDeltasAreDisabled() {
+        LockWatchReference entireTable = LockWatchReferenceUtils.entireTable(TABLE_REF);
+        lockWatches.set(createWatchesFor(entireTable));
+        log.logLock(ImmutableSet.of(DESCRIPTOR), TOKEN);
+        lockAndUnlockRepeatedly(DESCRIPTOR_2, 600);
+        Optional<LockWatchVersion> behindTheWindow = Optional.of(LockWatchVersion.of(LOG_ID, 0L));
+        UpdateVisitors.assertDelta(log.getLogDiff(behindTheWindow));
+
+        sendDeltas.set(false);
+        LockWatchStateUpdate update = log.getLogDiff(behindTheWindow);
+
+        LockWatchStateUpdate.Snapshot snapshot = UpdateVisitors.assertSnapshot(update);
+        assertThat(snapshot.lastKnownVersion()).isEqualTo(1200L);
+        assertThat(snapshot.locked()).isEqualTo(ImmutableSet.of(DESCRIPTOR_2, DESCRIPTOR_3));
+    }
+
+    @Test
+    public void requestBehindTheWindowReturnsSnapshotIfLockWatchWasCreatedSince() {
+        LockWatchReference entireTable = LockWatchReferenceUtils.entireTable(TABLE_REF);
+        lockWatches.set(createWatchesFor(entireTable));
+        log.logLock(ImmutableSet.of(DESCRIPTOR), TOKEN);
+        log.logLockWatchCreated(lockWatches.get());
+        lockAndUnlockRepeatedly(DESCRIPTOR, 600);
+
+        LockWatchStateUpdate update = log.getLogDiff(Optional.of(LockWatchVersion.of(LOG_ID, 0L)));
+
+        LockWatchStateUpdate.Snapshot snapshot = UpdateVisitors.assertSnapshot(update);
+        assertThat(snapshot.lastKnownVersion()).isEqualTo(1201L);
+        assertThat(snapshot.locked()).isEqualTo(ImmutableSet.of(DESCRIPTOR_2, DESCRIPTOR_3));
+    }
+
+    private void lockAndUnlockRepeatedly(LockDescriptor descriptor, int times) {
+        for (int i = 0; i < times; i++) {
+            log.logLock(ImmutableSet.of(descriptor), TOKEN);
+            log.logUnlock(ImmutableSet.of(descriptor));
+        }
+    }
+
     private LockWatches createWatchesFor(LockWatchReference... references) {
         return ImmutableLockWatches.of(
                 Arrays.stream(references).collect(Collectors.toSet()),
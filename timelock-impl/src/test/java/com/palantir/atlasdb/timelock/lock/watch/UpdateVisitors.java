@@ -23,6 +23,7 @@ import com.palantir.lock.watch.LockWatchStateUpdate;
 public final class UpdateVisitors {
     private static final AssertSuccessVisitor ASSERT_SUCCESS = new AssertSuccessVisitor();
     private static final AssertSnapshotVisitor ASSERT_SNAPSHOT = new AssertSnapshotVisitor();
+    private static final AssertDeltaVisitor ASSERT_DELTA = new AssertDeltaVisitor();
 
     private UpdateVisitors() {
         // some people...
@@ -36,6 +37,10 @@ public final class UpdateVisitors {
         return update.accept(ASSERT_SNAPSHOT);
     }
 
+    public static LockWatchStateUpdate.Delta assertDelta(LockWatchStateUpdate update) {
+        return update.accept(ASSERT_DELTA);
+    }
+
     private static final class AssertSuccessVisitor
             implements LockWatchStateUpdate.Visitor<LockWatchStateUpdate.Success> {
 
@@ -48,6 +53,11 @@ public final class UpdateVisitors {
         public LockWatchStateUpdate.Success visit(LockWatchStateUpdate.Snapshot snapshot) {
             return fail("Unexpected snapshot");
         }
+
+        @Override
+        public LockWatchStateUpdate.Success visit(LockWatchStateUpdate.Delta delta) {
+            return fail("Unexpected delta");
+        }
     }
 
     public static class AssertSnapshotVisitor implements LockWatchStateUpdate.Visitor<LockWatchStateUpdate.Snapshot> {
@@ -61,5 +71,28 @@ public final class UpdateVisitors {
         public LockWatchStateUpdate.Snapshot visit(LockWatchStateUpdate.Snapshot snapshot) {
             return snapshot;
         }
+
+        @Override
+        public LockWatchStateUpdate.Snapshot visit(LockWatchStateUpdate.Delta delta) {
+            return fail("Unexpected delta");
+        }
+    }
+
+    private static final class AssertDeltaVisitor implements LockWatchStateUpdate.Visitor<LockWatchStateUpdate.Delta> {
+
+        @Override
+        public LockWatchStateUpdate.Delta visit(LockWatchStateUpdate.Success success) {
+            return fail("Unexpected success");
+        }
+
+        @Override
+        public LockWatchStateUpdate.Delta visit(LockWatchStateUpdate.Snapshot snapshot) {
+            return fail("Unexpected snapshot");
+        }
+
+        @Override
+        public LockWatchStateUpdate.Delta visit(LockWatchStateUpdate.Delta delta) {
+            return delta;
+        }
     }
 }
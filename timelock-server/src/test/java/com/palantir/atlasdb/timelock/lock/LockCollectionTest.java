@@ -21,9 +21,18 @@ import com.google.common.collect.ImmutableSet;
 import com.palantir.lock.LockDescriptor;
 import com.palantir.lock.StringLockDescriptor;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import org.junit.Test;
@@ -70,6 +79,63 @@ public class LockCollectionTest {
         assertThat(actualOrder).isEqualTo(expectedOrder);
     }
 
+    @Test
+    public void returnsLocksInOrderForPresortedDescriptors() {
+        SortedSet<LockDescriptor> orderedDescriptors = new TreeSet<>(descriptors("c", "a", "b"));
+
+        List<LockDescriptor> lockedDescriptors = lockCollection.getAll(orderedDescriptors).get().stream()
+                .map(AsyncLock::getDescriptor)
+                .collect(Collectors.toList());
+
+        assertThat(lockedDescriptors).containsExactlyElementsOf(orderedDescriptors);
+    }
+
+    @Test
+    public void returnsLocksInOrderForDescriptorsSortedInReverse() {
+        SortedSet<LockDescriptor> reversedDescriptors = new TreeSet<>(Comparator.reverseOrder());
+        reversedDescriptors.addAll(descriptors("c", "a", "b"));
+
+        List<LockDescriptor> lockedDescriptors = lockCollection.getAll(reversedDescriptors).get().stream()
+                .map(AsyncLock::getDescriptor)
+                .collect(Collectors.toList());
+
+        assertThat(lockedDescriptors)
+                .containsExactly(
+                        StringLockDescriptor.of("a"), StringLockDescriptor.of("b"), StringLockDescriptor.of("c"));
+    }
+
+    @Test
+    public void returnsDistinctLocksWhenSharingOneStripe() {
+        LockCollection singleStripeLockCollection = new LockCollection(1);
+        Set<LockDescriptor> descriptors = IntStream.range(0, 100)
+                .mapToObj(i -> StringLockDescriptor.of("lock" + i))
+                .collect(Collectors.toSet());
+
+        List<AsyncLock> locks1 = singleStripeLockCollection.getAll(descriptors).get();
+        List<AsyncLock> locks2 = singleStripeLockCollection.getAll(descriptors).get();
+
+        assertThat(ImmutableSet.copyOf(locks1)).hasSize(100);
+        assertThat(locks1).isEqualTo(locks2);
+    }
+
+    @Test
+    public void concurrentRequestsReturnSameLock() throws InterruptedException, ExecutionException {
+        Set<LockDescriptor> descriptors = descriptors("foo");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<AsyncLock>> locks = executor.invokeAll(Collections.nCopies(
+                    100, () -> lockCollection.getAll(descriptors).get().get(0)));
+
+            Set<AsyncLock> distinctLocks = new HashSet<>();
+            for (Future<AsyncLock> lock : locks) {
+                distinctLocks.add(lock.get());
+            }
+            assertThat(distinctLocks).hasSize(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     private static Set<LockDescriptor> descriptors(String... names) {
         return Arrays.stream(names).map(StringLockDescriptor::of).collect(Collectors.toSet());
     }